@@ -103,5 +103,19 @@ public enum ClientRegionShortcut {
      * The actual RegionAttributes for a LOCAL_PERSISTENT_OVERFLOW region set the {@link DataPolicy} to {@link DataPolicy#PERSISTENT_REPLICATE} and {@link EvictionAttributes} are set to {@link EvictionAlgorithm#LRU_HEAP}
      * with {@link EvictionAction#OVERFLOW_TO_DISK}.
      */
-    LOCAL_PERSISTENT_OVERFLOW
+    LOCAL_PERSISTENT_OVERFLOW,
+    /**
+     * A NEAR_CACHE region is a CACHING_PROXY_HEAP_LRU region that the server keeps
+     * coherent by sending it invalidates.
+     * When the region is created, either by a {@link ClientRegionFactory} or from a
+     * cache.xml region with this refid, it registers interest in all keys without
+     * receiving values, so an update on the server only invalidates the local entry
+     * and the next get fetches the new value from the server.
+     * The region's pool must have subscriptions enabled.
+     * The actual RegionAttributes for a NEAR_CACHE set the {@link DataPolicy} to {@link DataPolicy#NORMAL}
+     * and {@link EvictionAttributes} are set to {@link EvictionAlgorithm#LRU_HEAP}
+     * with {@link EvictionAction#LOCAL_DESTROY}.
+     * @since Geode 1.0
+     */
+    NEAR_CACHE
 }
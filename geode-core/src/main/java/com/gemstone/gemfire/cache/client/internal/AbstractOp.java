@@ -29,10 +29,12 @@ import com.gemstone.gemfire.distributed.internal.DistributionManager;
 import com.gemstone.gemfire.internal.HeapDataOutputStream;
 import com.gemstone.gemfire.internal.Version;
 import com.gemstone.gemfire.internal.cache.CacheServerImpl;
+import com.gemstone.gemfire.internal.cache.EventID;
 import com.gemstone.gemfire.internal.cache.PutAllPartialResultException;
 import com.gemstone.gemfire.internal.cache.TXManagerImpl;
 import com.gemstone.gemfire.internal.cache.tier.MessageType;
 import com.gemstone.gemfire.internal.cache.tier.sockets.ChunkedMessage;
+import com.gemstone.gemfire.internal.cache.tier.sockets.CompactRequestHeader;
 import com.gemstone.gemfire.internal.cache.tier.sockets.Message;
 import com.gemstone.gemfire.internal.cache.tier.sockets.Part;
 import com.gemstone.gemfire.internal.cache.tier.sockets.ServerConnection;
@@ -50,6 +52,14 @@ public abstract class AbstractOp implements Op {
   
   private final Message msg;
 
+  /**
+   * The path of the region whose id the attempted compact request
+   * registers, or null
+   */
+  private String registeringRegionPath;
+
+  private int registeringRegionId;
+
   protected AbstractOp(int msgType, int msgParts) {
     this.msg = new Message(msgParts, Version.CURRENT);
     getMessage().setMessageType(msgType);
@@ -365,6 +375,7 @@ public abstract class AbstractOp implements Op {
   public Object attempt(Connection cnx) throws Exception {
     this.failed = true;
     this.timedOut = false;
+    this.registeringRegionPath = null;
     long start = startAttempt(cnx.getStats());
     try {
       try {
@@ -377,6 +388,11 @@ public abstract class AbstractOp implements Op {
       try {
         Object result = attemptReadResponse(cnx);
         this.failed = false;
+        if (this.registeringRegionPath != null) {
+          // the server has read the region path, later requests can use the id
+          ((ConnectionImpl)cnx).registerCompactRegionId(
+              this.registeringRegionPath, this.registeringRegionId);
+        }
         return result;
       } catch (SocketTimeoutException ste) {
         this.failed = false;
@@ -387,6 +403,31 @@ public abstract class AbstractOp implements Op {
       endAttempt(cnx.getStats(), start);
     }
   }
+
+  /**
+   * Returns the header of a compact request for the given region if the
+   * connection accepts compact requests, otherwise null. The header carries
+   * the region path until the server replied to a request registering it.
+   * @param flags {@link CompactRequestHeader#CREATE} or zero
+   * @param eventId the event of the operation, or null
+   */
+  protected byte[] getCompactRequestHeader(Connection cnx, String regionPath,
+      byte flags, EventID eventId) {
+    if (!(cnx instanceof ConnectionImpl)
+        || !((ConnectionImpl)cnx).acceptsCompactRequests()) {
+      return null;
+    }
+    ConnectionImpl con = (ConnectionImpl)cnx;
+    int regionId = con.getCompactRegionId(regionPath);
+    if (regionId != -1) {
+      return CompactRequestHeader.toBytes(flags, regionId, null, eventId);
+    }
+    this.registeringRegionPath = regionPath;
+    this.registeringRegionId = con.nextCompactRegionId();
+    return CompactRequestHeader.toBytes(flags, this.registeringRegionId,
+        regionPath, eventId);
+  }
+
   protected final boolean hasFailed() {
     return this.failed;
   }
@@ -187,13 +187,24 @@ public final class ClientMetadataService {
 //    }
     
     if (operation.isGet()) {
-      return prAdvisor.adviseServerLocation(bucketId);
+      return prAdvisor.adviseServerLocation(bucketId, getDegradedServers(region));
     }
     else {
       return prAdvisor.advisePrimaryServerLocation(bucketId);
     }
   }
 
+  /**
+   * Returns the servers of the region's pool that reported they are degraded.
+   */
+  private Set<ServerLocation> getDegradedServers(Region region) {
+    ServerRegionProxy proxy = ((LocalRegion)region).getServerProxy();
+    if (proxy == null) {
+      return Collections.emptySet();
+    }
+    return proxy.getPool().getEndpointManager().getDegradedServers();
+  }
+
   public Map<ServerLocation, HashSet> getServerToFilterMap(
 	      final Collection routingKeys, final Region region, boolean primaryMembersNeeded
 	     ) {
@@ -241,6 +252,25 @@ public final class ClientMetadataService {
     return serverToKeysMap;
   }
   
+  /**
+   * Returns, for each of the given keys in order, the server that the
+   * metadata says is now primary for the key's bucket, or null if it does not
+   * know one or it is still <code>failedServer</code>. Bulk operations use
+   * this to resend the keys that failed on one server in a single hop to
+   * their new primaries.
+   */
+  public List<ServerLocation> getBulkOpRetryServers(final List keys,
+      final Region region, Operation operation, Object callbackArg,
+      ServerLocation failedServer) {
+    List<ServerLocation> servers = new ArrayList<ServerLocation>(keys.size());
+    for (Object key : keys) {
+      ServerLocation server = getBucketServerLocation(region, operation, key,
+          null, callbackArg);
+      servers.add(server == null || server.equals(failedServer) ? null : server);
+    }
+    return servers;
+  }
+
   public HashMap<ServerLocation, HashSet<Integer>> groupByServerToAllBuckets(Region region, boolean primaryOnly){
     final String regionFullPath = region.getFullPath();
     ClientPartitionAdvisor prAdvisor = this.getClientPartitionAdvisor(regionFullPath);
@@ -96,19 +96,39 @@ public class ClientPartitionAdvisor {
   }
 
   public ServerLocation adviseServerLocation(int bucketId) {
+    return adviseServerLocation(bucketId, Collections.<ServerLocation>emptySet());
+  }
+
+  /**
+   * Returns a random server hosting the bucket, avoiding the given degraded
+   * servers unless only they host it.
+   */
+  public ServerLocation adviseServerLocation(int bucketId,
+      Set<ServerLocation> degradedServers) {
     if (this.bucketServerLocationsMap.containsKey(bucketId)) {
       List<BucketServerLocation66> locations = this.bucketServerLocationsMap
           .get(bucketId);
       List<BucketServerLocation66> locationsCopy = new ArrayList<BucketServerLocation66>(
           locations);
-      // TODO: We need to consider Load Balancing Policy
       if (locationsCopy.isEmpty()) {
         return null;
       }
       if (locationsCopy.size() == 1) {
         return locationsCopy.get(0);
       }
-      int index = new Random().nextInt(locationsCopy.size() - 1);
+      if (!degradedServers.isEmpty()) {
+        List<BucketServerLocation66> healthyLocations = new ArrayList<BucketServerLocation66>(
+            locationsCopy.size());
+        for (BucketServerLocation66 location : locationsCopy) {
+          if (!degradedServers.contains(location)) {
+            healthyLocations.add(location);
+          }
+        }
+        if (!healthyLocations.isEmpty()) {
+          locationsCopy = healthyLocations;
+        }
+      }
+      int index = new Random().nextInt(locationsCopy.size());
       return locationsCopy.get(index);
     }
     return null;
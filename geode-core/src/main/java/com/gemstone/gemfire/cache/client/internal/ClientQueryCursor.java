@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.cache.client.internal;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.logging.log4j.Logger;
+
+import com.gemstone.gemfire.cache.client.ServerConnectivityException;
+import com.gemstone.gemfire.cache.query.QueryCursor;
+import com.gemstone.gemfire.distributed.internal.ServerLocation;
+import com.gemstone.gemfire.internal.logging.LogService;
+
+/**
+ * A {@link QueryCursor} over the results of a query executed on a server.
+ * Holds one page of results and fetches the next one from the server that
+ * executed the query when it has been iterated over.
+ * @since Geode 1.0
+ */
+public class ClientQueryCursor implements QueryCursor {
+
+  private static final Logger logger = LogService.getLogger();
+
+  private final ExecutablePool pool;
+
+  private final ServerLocation server;
+
+  private final int pageSize;
+
+  /** The user the query was executed for, when multiuser authentication is on */
+  private final UserAttributes userAttributes;
+
+  private Iterator page;
+
+  /** The id of the cursor on the server, or zero once all pages were fetched */
+  private long cursorId;
+
+  public ClientQueryCursor(ExecutablePool pool, QueryCursorOp.Page firstPage,
+      int pageSize, UserAttributes userAttributes) {
+    this.pool = pool;
+    this.server = firstPage.getServer();
+    this.pageSize = pageSize;
+    this.userAttributes = userAttributes;
+    this.page = firstPage.getResults().iterator();
+    this.cursorId = firstPage.getCursorId();
+  }
+
+  public boolean hasNext() {
+    while (!this.page.hasNext()) {
+      if (this.cursorId == 0) {
+        return false;
+      }
+      fetchNextPage();
+    }
+    return true;
+  }
+
+  public Object next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return this.page.next();
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  public void close() {
+    long id = this.cursorId;
+    if (id == 0) {
+      this.page = Collections.emptyIterator();
+      return;
+    }
+    this.cursorId = 0;
+    this.page = Collections.emptyIterator();
+    setUserAttributes();
+    try {
+      QueryCursorOp.close(this.pool, this.server, id);
+    } catch (ServerConnectivityException e) {
+      // the server drops the cursor when it times out
+      if (logger.isDebugEnabled()) {
+        logger.debug("Could not close query cursor {} on {}", id, this.server, e);
+      }
+    } finally {
+      UserAttributes.userAttributes.set(null);
+    }
+  }
+
+  private void fetchNextPage() {
+    setUserAttributes();
+    try {
+      QueryCursorOp.Page next = QueryCursorOp.next(this.pool, this.server,
+          this.cursorId, this.pageSize);
+      this.page = next.getResults().iterator();
+      this.cursorId = next.getCursorId();
+    } finally {
+      UserAttributes.userAttributes.set(null);
+    }
+  }
+
+  private void setUserAttributes() {
+    if (this.userAttributes != null) {
+      UserAttributes.userAttributes.set(this.userAttributes);
+    }
+  }
+}
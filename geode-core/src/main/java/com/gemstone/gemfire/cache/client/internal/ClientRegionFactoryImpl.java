@@ -22,6 +22,7 @@ import com.gemstone.gemfire.cache.CustomExpiry;
 import com.gemstone.gemfire.cache.EvictionAttributes;
 import com.gemstone.gemfire.cache.ExpirationAttributes;
 import com.gemstone.gemfire.cache.InterestPolicy;
+import com.gemstone.gemfire.cache.InterestResultPolicy;
 import com.gemstone.gemfire.cache.Region;
 import com.gemstone.gemfire.cache.RegionAttributes;
 import com.gemstone.gemfire.cache.RegionExistsException;
@@ -30,6 +31,7 @@ import com.gemstone.gemfire.cache.SubscriptionAttributes;
 import com.gemstone.gemfire.cache.client.ClientRegionFactory;
 import com.gemstone.gemfire.cache.client.ClientRegionShortcut;
 import com.gemstone.gemfire.cache.client.Pool;
+import com.gemstone.gemfire.cache.client.PoolManager;
 import com.gemstone.gemfire.compression.Compressor;
 import com.gemstone.gemfire.internal.cache.GemFireCacheImpl;
 import com.gemstone.gemfire.internal.cache.LocalRegion;
@@ -45,6 +47,11 @@ public class ClientRegionFactoryImpl<K,V> implements ClientRegionFactory<K,V>
 {
   private final AttributesFactory<K,V> attrsFactory;
   private final GemFireCacheImpl cache;
+  /**
+   * True if the regions created by this factory register interest in all
+   * keys, without values, so the server invalidates their entries.
+   */
+  private final boolean nearCache;
 
   /**
    * Constructs a ClientRegionFactory by creating a DistributedSystem and a Cache. If
@@ -65,6 +72,7 @@ public class ClientRegionFactoryImpl<K,V> implements ClientRegionFactory<K,V>
                                       + " has been removed from " + cache.listRegionAttributes());
     }
     this.attrsFactory = new AttributesFactory<K,V>(ra);
+    this.nearCache = pra == ClientRegionShortcut.NEAR_CACHE;
     initAttributeFactoryDefaults();
   }
 
@@ -87,6 +95,7 @@ public class ClientRegionFactoryImpl<K,V> implements ClientRegionFactory<K,V>
                                       + "\" has not been defined.");
     }
     this.attrsFactory = new AttributesFactory<K,V>(ra);
+    this.nearCache = ClientRegionShortcut.NEAR_CACHE.toString().equals(refid);
     initAttributeFactoryDefaults();
   }
 
@@ -228,13 +237,37 @@ public class ClientRegionFactoryImpl<K,V> implements ClientRegionFactory<K,V>
   @SuppressWarnings("unchecked")
   @Override
   public Region<K,V> create(String name) throws RegionExistsException {
-    return getCache().basicCreateRegion(name, createRegionAttributes());
+    Region<K,V> region = getCache().basicCreateRegion(name, createRegionAttributes());
+    if (this.nearCache) {
+      registerNearCacheInterest(region);
+    }
+    return region;
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public Region<K,V> createSubregion(Region<?,?> parent, String name) throws RegionExistsException {
-    return ((LocalRegion)parent).createSubregion(name, createRegionAttributes());
+    Region<K,V> region = ((LocalRegion)parent).createSubregion(name, createRegionAttributes());
+    if (this.nearCache) {
+      registerNearCacheInterest(region);
+    }
+    return region;
+  }
+
+  /**
+   * Registers interest in all keys of a newly created near cache region so the
+   * server sends it an invalidate, instead of the new value, whenever an entry
+   * changes. This is also used for near cache regions defined in cache.xml.
+   * The region is destroyed locally if the interest can not be registered.
+   */
+  @SuppressWarnings("unchecked")
+  public static void registerNearCacheInterest(Region<?,?> region) {
+    try {
+      ((Region<Object,?>)region).registerInterest("ALL_KEYS", InterestResultPolicy.NONE, false, false);
+    } catch (RuntimeException e) {
+      region.localDestroyRegion();
+      throw e;
+    }
   }
   
   @SuppressWarnings("deprecation")
@@ -252,6 +285,13 @@ public class ClientRegionFactoryImpl<K,V> implements ClientRegionFactory<K,V>
         }
       }
     }
+    if (this.nearCache) {
+      Pool pool = PoolManager.find(ra.getPoolName());
+      if (pool != null && !pool.getSubscriptionEnabled()) {
+        throw new IllegalStateException("A " + ClientRegionShortcut.NEAR_CACHE
+            + " region requires subscriptions to be enabled on pool " + ra.getPoolName() + ".");
+      }
+    }
     return ra;
   }
 
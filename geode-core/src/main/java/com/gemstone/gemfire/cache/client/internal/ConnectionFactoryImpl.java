@@ -197,13 +197,28 @@ public class ConnectionFactoryImpl implements ConnectionFactory {
     }
   }
 
+  /**
+   * Returns the servers to use only if no other server is available: the
+   * black listed servers and the servers that reported they are degraded.
+   */
+  private Set getAvoidedServers() {
+    Set badServers = blackList.getBadServers();
+    Set degradedServers = endpointManager.getDegradedServers();
+    if (degradedServers.isEmpty()) {
+      return badServers;
+    }
+    Set avoidedServers = new HashSet(badServers);
+    avoidedServers.addAll(degradedServers);
+    return avoidedServers;
+  }
+
   public ServerLocation findBestServer(ServerLocation currentServer, Set excludedServers) {
     if (currentServer != null && source.isBalanced()) {
       return currentServer;
     }
     final Set origExcludedServers = excludedServers;
     excludedServers = new HashSet(excludedServers);
-    Set blackListedServers = blackList.getBadServers();  
+    Set blackListedServers = getAvoidedServers();
     excludedServers.addAll(blackListedServers);
     ServerLocation server = source.findReplacementServer(currentServer, excludedServers);
     if (server == null) {
@@ -222,7 +237,7 @@ public class ConnectionFactoryImpl implements ConnectionFactory {
   public Connection createClientToServerConnection(Set excludedServers) throws GemFireSecurityException {
     final Set origExcludedServers = excludedServers;
     excludedServers = new HashSet(excludedServers);
-    Set blackListedServers = blackList.getBadServers();  
+    Set blackListedServers = getAvoidedServers();
     excludedServers.addAll(blackListedServers);
     Connection conn = null;
 //    long startTime = System.currentTimeMillis();
@@ -24,6 +24,8 @@ import java.net.NoRouteToHostException;
 import java.net.Socket;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.logging.log4j.Logger;
@@ -84,6 +86,13 @@ public class ConnectionImpl implements Connection {
 
   private HandShake handShake;
 
+  /**
+   * The ids of the regions registered on this connection by compact
+   * requests, keyed by region path. Null if the server does not accept
+   * compact requests.
+   */
+  private Map<String, Integer> compactRegionIds;
+
   public ConnectionImpl(InternalDistributedSystem ds, CancelCriterion cancelCriterion) {
 //    this.cancelCriterion = cancelCriterion;
     this.ds = ds;
@@ -108,6 +117,9 @@ public class ConnectionImpl implements Connection {
     out = theSocket.getOutputStream();
     in = theSocket.getInputStream();
     this.status = handShake.greet(this, location, communicationMode);
+    if (this.status.isCompactRequestsEnabled()) {
+      this.compactRegionIds = new HashMap<String, Integer>();
+    }
     commBuffer = ServerConnection.allocateCommBuffer(socketBufferSize, theSocket);
     if (sender != null) {
       commBufferForAsyncRead = ServerConnection
@@ -250,6 +262,40 @@ public class ConnectionImpl implements Connection {
     return status;
   }
 
+  /**
+   * Returns true if the server accepts compact get, put and destroy
+   * requests on this connection.
+   */
+  public boolean acceptsCompactRequests() {
+    return this.compactRegionIds != null;
+  }
+
+  /**
+   * Returns the id of the given region on this connection, or -1 if no
+   * compact request registered it yet. Must be called by the op executing
+   * on this connection.
+   */
+  public int getCompactRegionId(String regionPath) {
+    Integer id = this.compactRegionIds.get(regionPath);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Returns the id the next region registered on this connection gets.
+   */
+  public int nextCompactRegionId() {
+    return this.compactRegionIds.size();
+  }
+
+  /**
+   * Records the id of a region once the server replied to a compact request
+   * carrying its path. Must be called by the op executing on this
+   * connection.
+   */
+  public void registerCompactRegionId(String regionPath, int regionId) {
+    this.compactRegionIds.put(regionPath, regionId);
+  }
+
   public Object execute(Op op) throws Exception {
     Object result;
     // Do not synchronize when used for GatewaySender
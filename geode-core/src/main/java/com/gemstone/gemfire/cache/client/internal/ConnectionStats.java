@@ -352,6 +352,8 @@ public class ConnectionStats implements MessageStats {
   private final static int putAllFailedId;
   private final static int putAllId;
   private final static int putAllDurationId;
+  private final static int putAllEntriesId;
+  private final static int putAllRetriedEntriesId;
 
   private final static int removeAllInProgressId;
   private final static int removeAllSendInProgressId;
@@ -362,6 +364,8 @@ public class ConnectionStats implements MessageStats {
   private final static int removeAllFailedId;
   private final static int removeAllId;
   private final static int removeAllDurationId;
+  private final static int removeAllKeysId;
+  private final static int removeAllRetriedKeysId;
 
   private final static int getAllInProgressId;
   private final static int getAllSendInProgressId;
@@ -631,11 +635,15 @@ public class ConnectionStats implements MessageStats {
         f.createIntCounter("putAllFailures", "Total number of putAll attempts that have failed", "putAlls"), 
         f.createIntCounter("putAllTimeouts", "Total number of putAll attempts that have timed out", "putAlls"), 
         f.createLongCounter("putAllTime", "Total amount of time, in nanoseconds spent doing putAlls", "nanoseconds"),
+        f.createLongCounter("putAllEntries", "Total number of entries sent by putAlls that completed successfully", "entries"),
+        f.createLongCounter("putAllRetriedEntries", "Total number of entries resent by putAlls retried after a server failed", "entries"),
         f.createIntGauge("removeAllsInProgress", "Current number of removeAlls being executed", "removeAlls"), 
         f.createIntCounter("removeAlls", "Total number of removeAlls completed successfully", "removeAlls"), 
         f.createIntCounter("removeAllFailures", "Total number of removeAll attempts that have failed", "removeAlls"), 
         f.createIntCounter("removeAllTimeouts", "Total number of removeAll attempts that have timed out", "removeAlls"), 
         f.createLongCounter("removeAllTime", "Total amount of time, in nanoseconds spent doing removeAlls", "nanoseconds"),
+        f.createLongCounter("removeAllKeys", "Total number of keys sent by removeAlls that completed successfully", "keys"),
+        f.createLongCounter("removeAllRetriedKeys", "Total number of keys resent by removeAlls retried after a server failed", "keys"),
         f.createIntGauge("getAllsInProgress", "Current number of getAlls being executed", "getAlls"), 
         f.createIntCounter("getAlls", "Total number of getAlls completed successfully", "getAlls"), 
         f.createIntCounter("getAllFailures", "Total number of getAll attempts that have failed", "getAlls"), 
@@ -1165,6 +1173,8 @@ public class ConnectionStats implements MessageStats {
     putAllFailedId = type.nameToId("putAllFailures");
     putAllId = type.nameToId("putAlls");
     putAllDurationId = type.nameToId("putAllTime");
+    putAllEntriesId = type.nameToId("putAllEntries");
+    putAllRetriedEntriesId = type.nameToId("putAllRetriedEntries");
     
     removeAllInProgressId = type.nameToId("removeAllsInProgress");
     removeAllSendInProgressId = sendType.nameToId("removeAllSendsInProgress");
@@ -1175,6 +1185,8 @@ public class ConnectionStats implements MessageStats {
     removeAllFailedId = type.nameToId("removeAllFailures");
     removeAllId = type.nameToId("removeAlls");
     removeAllDurationId = type.nameToId("removeAllTime");
+    removeAllKeysId = type.nameToId("removeAllKeys");
+    removeAllRetriedKeysId = type.nameToId("removeAllRetriedKeys");
 
     getAllInProgressId = type.nameToId("getAllsInProgress");
     getAllSendInProgressId = sendType.nameToId("getAllSendsInProgress");
@@ -2525,8 +2537,10 @@ public class ConnectionStats implements MessageStats {
    * @param startTime the value returned by {@link #startPutAll}.
    * @param timedOut true if putAll timed out
    * @param failed true if putAll failed
+   * @param entries the number of entries sent by the putAll
+   * @param retry true if the putAll resent entries that failed on another server
    */
-  public void endPutAll(long startTime, boolean timedOut, boolean failed) {
+  public void endPutAll(long startTime, boolean timedOut, boolean failed, int entries, boolean retry) {
     long duration = getStatTime() - startTime;
     endClientOp(duration, timedOut, failed);
     this.stats.incInt(putAllInProgressId, -1);
@@ -2540,6 +2554,12 @@ public class ConnectionStats implements MessageStats {
     }
     this.stats.incInt(endPutAllId, 1);
     this.stats.incLong(putAllDurationId, duration);
+    if (!timedOut && !failed) {
+      this.stats.incLong(putAllEntriesId, entries);
+    }
+    if (retry) {
+      this.stats.incLong(putAllRetriedEntriesId, entries);
+    }
   }
 
   /**
@@ -2577,8 +2597,10 @@ public class ConnectionStats implements MessageStats {
    * @param startTime the value returned by {@link #startRemoveAll}.
    * @param timedOut true if removeAll timed out
    * @param failed true if removeAll failed
+   * @param keys the number of keys sent by the removeAll
+   * @param retry true if the removeAll resent keys that failed on another server
    */
-  public void endRemoveAll(long startTime, boolean timedOut, boolean failed) {
+  public void endRemoveAll(long startTime, boolean timedOut, boolean failed, int keys, boolean retry) {
     long duration = getStatTime() - startTime;
     endClientOp(duration, timedOut, failed);
     this.stats.incInt(removeAllInProgressId, -1);
@@ -2592,6 +2614,12 @@ public class ConnectionStats implements MessageStats {
     }
     this.stats.incInt(endRemoveAllId, 1);
     this.stats.incLong(removeAllDurationId, duration);
+    if (!timedOut && !failed) {
+      this.stats.incLong(removeAllKeysId, keys);
+    }
+    if (retry) {
+      this.stats.incLong(removeAllRetriedKeysId, keys);
+    }
   }
 
   /**
@@ -143,6 +143,11 @@ public class DestroyOp {
     private Object callbackArg;
     
     private EntryEventImpl event;
+
+    /**
+     * True if this destroy can be sent as a {@link MessageType#COMPACT_DESTROY}
+     */
+    private boolean compactable;
     
     /**
      * @throws com.gemstone.gemfire.SerializationException if serialization fails
@@ -169,6 +174,8 @@ public class DestroyOp {
       if (callbackArg != null) {
         getMessage().addObjPart(callbackArg);
       }
+      this.compactable = operation == Operation.DESTROY
+          && expectedOldValue == null && callbackArg == null;
     }
 
 
@@ -188,6 +195,27 @@ public class DestroyOp {
       }
     }
     
+    @Override
+    protected void attemptSend(Connection cnx) throws Exception {
+      // a COMPACT_DESTROY sends the header in place of the region name and
+      // only the key after it
+      byte[] header = null;
+      if (this.compactable) {
+        header = getCompactRequestHeader(cnx, this.region.getFullPath(),
+            (byte)0, this.event.getEventId());
+      }
+      if (header != null) {
+        getMessage().setMessageType(MessageType.COMPACT_DESTROY);
+        getMessage().setNumberOfParts(2);
+        getMessage().getPart(0).setPartState(header, false);
+      } else if (getMessage().getMessageType() == MessageType.COMPACT_DESTROY) {
+        getMessage().setMessageType(MessageType.DESTROY);
+        getMessage().setNumberOfParts(5);
+        getMessage().addStringPart(this.region.getFullPath());
+      }
+      super.attemptSend(cnx);
+    }
+
     @Override
     protected Object processResponse(Message msg) throws Exception {
       throw new UnsupportedOperationException();
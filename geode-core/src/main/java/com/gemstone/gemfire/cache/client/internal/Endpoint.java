@@ -37,6 +37,9 @@ public class Endpoint {
   private final EndpointManagerImpl manager;
   private final DistributedMember memberId;
   private volatile boolean closed;
+  /** The load factor the server last reported, or zero if it never did */
+  private volatile float serverLoadFactor;
+  private volatile long serverLoadFactorTime;
   
   Endpoint(EndpointManagerImpl endpointManager, DistributedSystem ds,
       ServerLocation location, ConnectionStats stats,
@@ -61,6 +64,30 @@ public class Endpoint {
     return getLastExecute() <= (now - pingIntervalNanos);
   }
   
+  /**
+   * Records the load factor the server reported in a ping reply, or zero if
+   * the server does not report one.
+   */
+  public void setServerLoadFactor(float loadFactor) {
+    this.serverLoadFactorTime = System.nanoTime();
+    if (this.serverLoadFactor != loadFactor) {
+      this.serverLoadFactor = loadFactor;
+      manager.serverLoadFactorChanged();
+    }
+  }
+
+  /**
+   * @return how much slower than an idle server this server reported it
+   *         is, or zero if it has not reported its load factor.
+   */
+  public float getServerLoadFactor() {
+    return serverLoadFactor;
+  }
+
+  public boolean timeToReportLoad(long reportIntervalNanos) {
+    return serverLoadFactorTime <= (System.nanoTime() - reportIntervalNanos);
+  }
+  
   public void close() {
     if(!closed) {
       closed = true;
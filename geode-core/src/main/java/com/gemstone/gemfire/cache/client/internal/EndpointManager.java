@@ -17,6 +17,7 @@
 package com.gemstone.gemfire.cache.client.internal;
 
 import java.util.Map;
+import java.util.Set;
 
 import com.gemstone.gemfire.distributed.DistributedMember;
 import com.gemstone.gemfire.distributed.internal.ServerLocation;
@@ -74,6 +75,14 @@ public interface EndpointManager {
    */
   public int getConnectedServerCount();
 
+  /**
+   * Get the servers that reported a load factor much higher than the least
+   * loaded server. Clients prefer other servers for new connections,
+   * single hop reads and retries.
+   * @return a set of ServerLocation
+   */
+  public Set<ServerLocation> getDegradedServers();
+
   public static interface EndpointListener {
     
     void endpointNoLongerInUse(Endpoint endpoint);
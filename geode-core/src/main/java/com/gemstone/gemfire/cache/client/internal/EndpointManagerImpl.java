@@ -31,6 +31,7 @@ import com.gemstone.gemfire.cache.CacheClosedException;
 import com.gemstone.gemfire.cache.client.PoolManager;
 import com.gemstone.gemfire.distributed.DistributedMember;
 import com.gemstone.gemfire.distributed.DistributedSystem;
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
 import com.gemstone.gemfire.distributed.internal.ServerLocation;
 import com.gemstone.gemfire.internal.DummyStatisticsFactory;
 import com.gemstone.gemfire.internal.cache.PoolStats;
@@ -50,6 +51,25 @@ public class EndpointManagerImpl implements EndpointManager {
   private final EndpointListenerBroadcaster listener = new EndpointListenerBroadcaster();
   protected final CancelCriterion cancelCriterion;
   private final PoolStats poolStats;
+  private volatile Set<ServerLocation> degradedServers = Collections.emptySet();
+
+  /**
+   * How many times the load factor of the least loaded server a server must
+   * report to be considered degraded. Avoiding degraded servers is disabled
+   * unless this is set to a ratio greater than one.
+   */
+  private static final float DEGRADED_LOAD_RATIO = Float.parseFloat(System.getProperty(DistributionConfig.GEMFIRE_PREFIX + "EndpointManager.DEGRADED_LOAD_RATIO", "0"));
+
+  /**
+   * The load factor a server must report to be considered degraded, however
+   * it compares to the other servers. A load factor of one is an idle
+   * server, so this keeps servers that are all lightly loaded from being
+   * avoided because of small differences between them.
+   */
+  private static final float MIN_DEGRADED_LOAD_FACTOR = Float.parseFloat(System.getProperty(DistributionConfig.GEMFIRE_PREFIX + "EndpointManager.MIN_DEGRADED_LOAD_FACTOR", "2"));
+
+  /** Whether the pool avoids servers that report a high load factor */
+  static final boolean AVOID_DEGRADED_SERVERS = DEGRADED_LOAD_RATIO > 1;
   
   public EndpointManagerImpl(String poolName, DistributedSystem ds,CancelCriterion cancelCriterion, PoolStats poolStats) {
     this.ds = ds;
@@ -118,6 +138,7 @@ public class EndpointManagerImpl implements EndpointManager {
       poolStats.setServerCount(endpointMap.size());
     }
     if(removedEndpoint) {
+      serverLoadFactorChanged();
       PoolImpl pool = (PoolImpl)PoolManager.find(this.poolName);
       if (pool != null && pool.getMultiuserAuthentication()) {
         int size = 0;
@@ -223,6 +244,46 @@ public class EndpointManagerImpl implements EndpointManager {
   public int getConnectedServerCount() {
     return getEndpointMap().size();
   }
+
+  public Set<ServerLocation> getDegradedServers() {
+    return degradedServers;
+  }
+
+  /**
+   * Recomputes the degraded servers. Called when a server reports a new
+   * load factor or an endpoint is removed.
+   */
+  synchronized void serverLoadFactorChanged() {
+    float minLoadFactor = Float.MAX_VALUE;
+    float maxLoadFactor = 0;
+    for (Endpoint endpoint : endpointMap.values()) {
+      float loadFactor = endpoint.getServerLoadFactor();
+      if (loadFactor > 0) {
+        minLoadFactor = Math.min(minLoadFactor, loadFactor);
+        maxLoadFactor = Math.max(maxLoadFactor, loadFactor);
+      }
+    }
+    if (maxLoadFactor == 0) {
+      minLoadFactor = 0;
+    }
+    Set<ServerLocation> degraded = Collections.emptySet();
+    float degradedLoadFactor = Math.max(DEGRADED_LOAD_RATIO * minLoadFactor, MIN_DEGRADED_LOAD_FACTOR);
+    if (AVOID_DEGRADED_SERVERS && maxLoadFactor >= degradedLoadFactor) {
+      degraded = new HashSet<ServerLocation>();
+      for (Endpoint endpoint : endpointMap.values()) {
+        if (endpoint.getServerLoadFactor() >= degradedLoadFactor) {
+          degraded.add(endpoint.getLocation());
+        }
+      }
+      degraded = Collections.unmodifiableSet(degraded);
+      if (logger.isDebugEnabled()) {
+        logger.debug("Servers {} report a load factor of at least {}, the lowest one is {}", degraded, degradedLoadFactor, minLoadFactor);
+      }
+    }
+    degradedServers = degraded;
+    poolStats.setServerLoadFactors(minLoadFactor, maxLoadFactor);
+    poolStats.setDegradedServers(degraded.size());
+  }
   
   public static void loadEmergencyClasses() {
     //do nothing
@@ -141,6 +141,25 @@ public class GetOp {
         getMessage().addObjPart(callbackArg);
       }
     }
+
+    @Override
+    protected void attemptSend(Connection cnx) throws Exception {
+      // a get without a callback argument has the same parts as a
+      // COMPACT_GET, except for the header replacing the region name
+      byte[] header = null;
+      if (this.callbackArg == null) {
+        header = getCompactRequestHeader(cnx, this.region.getFullPath(), (byte)0, null);
+      }
+      if (header != null) {
+        getMessage().setMessageType(MessageType.COMPACT_GET);
+        getMessage().getPart(0).setPartState(header, false);
+      } else if (getMessage().getMessageType() == MessageType.COMPACT_GET) {
+        getMessage().setMessageType(MessageType.REQUEST);
+        getMessage().setNumberOfParts(2);
+        getMessage().addStringPart(this.region.getFullPath());
+      }
+      super.attemptSend(cnx);
+    }
     
     @Override
     protected Object processResponse(Message msg) throws Exception {
@@ -89,7 +89,11 @@ public class LiveServerPinger  extends EndpointListenerAdapter {
 
     @Override
     public void run2() {
-      if(endpoint.timeToPing(pingIntervalNanos)) {
+      // when avoiding degraded servers, busy servers are pinged too, less
+      // often, to learn their load factor
+      if(endpoint.timeToPing(pingIntervalNanos)
+          || (EndpointManagerImpl.AVOID_DEGRADED_SERVERS
+              && endpoint.timeToReportLoad(2 * pingIntervalNanos))) {
 //      logger.fine("DEBUG pinging " + server);
         try {
           PingOp.execute(pool, endpoint.getLocation());
@@ -71,6 +71,21 @@ public class PingOp {
       Message.messageType.set(MessageType.PING);
     }
 
+    @Override
+    protected Object processResponse(Message msg, Connection con)
+        throws Exception {
+      processAck(msg, "ping");
+      // servers that report their load factor send it in hundredths
+      float loadFactor = 0;
+      if (msg.getNumberOfParts() > 1) {
+        loadFactor = msg.getPart(1).getInt() / 100f;
+      }
+      Endpoint endpoint = con.getEndpoint();
+      if (endpoint != null) {
+        endpoint.setServerLoadFactor(loadFactor);
+      }
+      return null;
+    }
     @Override
     protected Object processResponse(Message msg) throws Exception {
       processAck(msg, "ping");
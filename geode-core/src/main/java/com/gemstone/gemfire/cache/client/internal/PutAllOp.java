@@ -30,7 +30,9 @@ import org.apache.logging.log4j.Logger;
 
 import com.gemstone.gemfire.cache.CacheClosedException;
 import com.gemstone.gemfire.cache.DataPolicy;
+import com.gemstone.gemfire.cache.Operation;
 import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.client.ServerConnectivityException;
 import com.gemstone.gemfire.cache.client.ServerOperationException;
 import com.gemstone.gemfire.distributed.internal.ServerLocation;
 import com.gemstone.gemfire.internal.Version;
@@ -77,10 +79,97 @@ public class PutAllOp {
         eventId, ((PoolImpl)pool).getPRSingleHopEnabled(), skipCallbacks, callbackArg);
     op.initMessagePart();
     if(isRetry) {
-      op.getMessage().setIsRetry();
+      op.setRetry();
     }
     return (VersionedObjectList)pool.execute(op);
   }
+
+  /**
+   * Resends the sub map that failed on <code>failedServer</code>. A server
+   * derives each entry's event id from the message's event id and the
+   * entry's position in the message, and the servers use those ids to
+   * recognize the entries that were already applied. So the sub map is cut
+   * into runs of consecutive entries whose buckets are now primary on the
+   * same server, and each run is sent with the event id of its first entry,
+   * which gives every entry the event id it had in the sub map. The sub map
+   * has the keys of each bucket together, so this sends about one message
+   * per moved bucket.
+   *
+   * @return true if some of the entries could not be put
+   */
+  private static boolean retry(ExecutablePool pool, Region region, Map map,
+      EventID eventId, boolean skipCallbacks, Object callbackArg,
+      ClientMetadataService cms, ServerLocation failedServer,
+      PutAllPartialResult result) {
+    List keys = new ArrayList(map.keySet());
+    List<ServerLocation> servers = cms.getBulkOpRetryServers(keys, region,
+        Operation.PUTALL_UPDATE, callbackArg, failedServer);
+    boolean failed = false;
+    int start = 0;
+    while (start < keys.size()) {
+      ServerLocation server = servers.get(start);
+      int end = start + 1;
+      while (end < keys.size() && sameServer(server, servers.get(end))) {
+        end++;
+      }
+      Map run = new LinkedHashMap();
+      for (int i = start; i < end; i++) {
+        run.put(keys.get(i), map.get(keys.get(i)));
+      }
+      try {
+        VersionedObjectList v = retryRun(pool, region, run,
+            new EventID(eventId, start), skipCallbacks, callbackArg, cms, server);
+        if (v == null) {
+          result.addKeys(run.keySet());
+        } else {
+          result.addKeysAndVersions(v);
+        }
+      } catch (PutAllPartialResultException pre) {
+        failed = true;
+        if (logger.isDebugEnabled()) {
+          logger.debug("Retry failed with PutAllPartialResultException: {} Before retry: {}", pre, result.getKeyListString());
+        }
+        result.consolidate(pre.getResult());
+      } catch (Exception rte) {
+        failed = true;
+        result.saveFailedKey(keys.get(start), rte);
+      }
+      start = end;
+    }
+    return failed;
+  }
+
+  static boolean sameServer(ServerLocation s1, ServerLocation s2) {
+    return s1 == null ? s2 == null : s1.equals(s2);
+  }
+
+  /**
+   * Sends one run of a retried sub map in a single hop to
+   * <code>server</code>, or to any server if it is null or cannot be
+   * reached.
+   */
+  private static VersionedObjectList retryRun(ExecutablePool pool,
+      Region region, Map run, EventID eventId, boolean skipCallbacks,
+      Object callbackArg, ClientMetadataService cms, ServerLocation server) {
+    if (server != null) {
+      PutAllOpImpl op = new PutAllOpImpl(region, run, eventId, true,
+          skipCallbacks, callbackArg);
+      op.initMessagePart();
+      op.setRetry();
+      try {
+        return (VersionedObjectList)pool.executeOn(server, op);
+      } catch (ServerOperationException soe) {
+        throw soe;
+      } catch (ServerConnectivityException sce) {
+        if (logger.isDebugEnabled()) {
+          logger.debug("PutAll retry on {} failed, retrying on any server", server, sce);
+        }
+        cms.removeBucketServerLocation(server);
+        cms.scheduleGetPRMetaData((LocalRegion)region, false);
+      }
+    }
+    return execute(pool, region, run, eventId, skipCallbacks, true, callbackArg);
+  }
   
   /**
    * Does a region put on a server using connections from the given pool
@@ -174,6 +263,8 @@ public class PutAllOp {
       // them into one big map. The reason is, we have to keep the same event
       // ids for each sub map. There is a unit test in PutAllCSDUnitTest for
       // the otherwise case.
+      // The entries of a sub map are resent in runs that keep each entry's
+      // position based event id, see retry.
       boolean oneSubMapRetryFailed = false;
       Set<ServerLocation> failedServerSet = failedServers.keySet();
       for (ServerLocation failedServer : failedServerSet) {
@@ -191,24 +282,9 @@ public class PutAllOp {
           newMap.put(key, map.get(key));
         }
 
-        try {
-          VersionedObjectList v = PutAllOp.execute(pool, region, newMap, eventId, skipCallbacks, true, callbackArg);
-          if (v == null) {
-            result.addKeys(keySet);
-          } else {
-            result.addKeysAndVersions(v);
-          }
-        } catch (PutAllPartialResultException pre) {
-          oneSubMapRetryFailed = true;
-          if (logger.isDebugEnabled()) {
-            logger.debug("Retry failed with PutAllPartialResultException: {} Before retry: {}", pre, result.getKeyListString());
-          }
-          result.consolidate(pre.getResult());
-        } catch (Exception rte) {
+        if (retry(pool, region, newMap, eventId, skipCallbacks, callbackArg, cms, failedServer, result)) {
           oneSubMapRetryFailed = true;
-            Object firstKey = newMap.keySet().iterator().next();
-            result.saveFailedKey(firstKey, rte);
-          }
+        }
       } // for failedServer
 
       // If all retries succeeded, the PRE in first tries can be ignored
@@ -265,6 +341,7 @@ public class PutAllOp {
     private Map map = null;
     private final Object callbackArg;
     private ArrayList keys = null;
+    private boolean retry = false;
     
     /**
      * @throws com.gemstone.gemfire.SerializationException if serialization fails
@@ -281,6 +358,11 @@ public class PutAllOp {
       this.callbackArg = callbackArg;
     }
     
+    void setRetry() {
+      this.retry = true;
+      getMessage().setIsRetry();
+    }
+
     @Override
     protected void initMessagePart() {
       int size = map.size();
@@ -422,7 +504,7 @@ public class PutAllOp {
     }
     @Override
     protected void endAttempt(ConnectionStats stats, long start) {
-      stats.endPutAll(start, hasTimedOut(), hasFailed());
+      stats.endPutAll(start, hasTimedOut(), hasFailed(), this.map.size(), this.retry);
     }
   }
   
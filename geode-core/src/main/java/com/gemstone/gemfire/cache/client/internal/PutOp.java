@@ -30,6 +30,7 @@ import com.gemstone.gemfire.internal.cache.EntryEventImpl;
 import com.gemstone.gemfire.internal.cache.LocalRegion;
 import com.gemstone.gemfire.internal.cache.tier.MessageType;
 import com.gemstone.gemfire.internal.cache.tier.sockets.ChunkedMessage;
+import com.gemstone.gemfire.internal.cache.tier.sockets.CompactRequestHeader;
 import com.gemstone.gemfire.internal.cache.tier.sockets.Message;
 import com.gemstone.gemfire.internal.cache.tier.sockets.Part;
 import com.gemstone.gemfire.internal.cache.versions.VersionTag;
@@ -180,6 +181,19 @@ public class PutOp {
     private boolean requireOldValue;
 
     private Object expectedOldValue;
+
+    /**
+     * True if this put can be sent as a {@link MessageType#COMPACT_PUT}
+     */
+    private boolean compactable;
+
+    /**
+     * The region name, operation and flags parts of the full request while
+     * the message is laid out as a {@link MessageType#COMPACT_PUT}
+     */
+    private Part[] replacedParts;
+
+    private boolean isCreate;
     
     public PutOpImpl(String regionName , Object key, Object value, byte[] deltaBytes, 
         EntryEventImpl event,
@@ -306,6 +320,44 @@ public class PutOp {
       if (callbackArg != null) {
         getMessage().addObjPart(callbackArg);
       }
+      this.compactable = (op == Operation.CREATE || op == Operation.UPDATE)
+          && !requireOldValue && expectedOldValue == null
+          && callbackArg == null && !this.deltaSent;
+      this.isCreate = op == Operation.CREATE;
+    }
+
+    @Override
+    protected void attemptSend(Connection cnx) throws Exception {
+      byte[] header = null;
+      if (this.compactable) {
+        header = getCompactRequestHeader(cnx, this.regionName,
+            this.isCreate ? CompactRequestHeader.CREATE : 0,
+            this.event.getEventId());
+      }
+      Message m = getMessage();
+      if (header != null) {
+        if (m.getMessageType() != MessageType.COMPACT_PUT) {
+          // move the key and value parts behind the header without
+          // serializing them again
+          this.replacedParts = new Part[3];
+          for (int i = 0; i < 3; i++) {
+            this.replacedParts[i] = new Part();
+            this.replacedParts[i].setPartState(m.getPart(i));
+          }
+          m.getPart(1).setPartState(m.getPart(3));
+          m.getPart(2).setPartState(m.getPart(5));
+          m.setMessageType(MessageType.COMPACT_PUT);
+          m.setNumberOfParts(3);
+        }
+        m.getPart(0).setPartState(header, false);
+      } else if (m.getMessageType() == MessageType.COMPACT_PUT) {
+        for (int i = 0; i < 3; i++) {
+          m.getPart(i).setPartState(this.replacedParts[i]);
+        }
+        m.setMessageType(MessageType.PUT);
+        m.setNumberOfParts(7);
+      }
+      super.attemptSend(cnx);
     }
 
     @Override
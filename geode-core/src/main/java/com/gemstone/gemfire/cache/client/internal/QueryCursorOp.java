@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.cache.client.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gemstone.gemfire.InternalGemFireError;
+import com.gemstone.gemfire.SerializationException;
+import com.gemstone.gemfire.cache.client.ServerOperationException;
+import com.gemstone.gemfire.cache.query.types.CollectionType;
+import com.gemstone.gemfire.distributed.internal.ServerLocation;
+import com.gemstone.gemfire.internal.Version;
+import com.gemstone.gemfire.internal.cache.tier.MessageType;
+import com.gemstone.gemfire.internal.cache.tier.sockets.Message;
+
+/**
+ * Executes a query on a server and fetches its results a page at a time.
+ * The server keeps the results that have not been fetched in a cursor, so
+ * the pages after the first one must be fetched from the same server.
+ * @since Geode 1.0
+ */
+public class QueryCursorOp {
+
+  /**
+   * Executes a query on a server using connections from the given pool and
+   * returns the first page of its results.
+   * @param pool the pool to use to communicate with the server.
+   * @param queryPredicate A query language query
+   * @param queryParams the values bound to the parameters of the query, or null
+   * @param pageSize the most results to return in a page
+   */
+  public static Page execute(ExecutablePool pool, String queryPredicate,
+      Object[] queryParams, int pageSize) {
+    AbstractOp op = new QueryCursorOpImpl(queryPredicate, queryParams, pageSize);
+    return (Page)pool.execute(op);
+  }
+
+  /**
+   * Fetches the next page of results of a cursor from the server holding it.
+   */
+  public static Page next(ExecutablePool pool, ServerLocation server,
+      long cursorId, int pageSize) {
+    AbstractOp op = new QueryCursorNextOpImpl(cursorId, pageSize);
+    return (Page)pool.executeOn(server, op);
+  }
+
+  /**
+   * Releases the results of a cursor on the server holding it.
+   */
+  public static void close(ExecutablePool pool, ServerLocation server,
+      long cursorId) {
+    AbstractOp op = new QueryCursorCloseOpImpl(cursorId);
+    pool.executeOn(server, op);
+  }
+
+  private QueryCursorOp() {
+    // no instances allowed
+  }
+
+  /**
+   * A page of query results.
+   */
+  public static class Page {
+    private final List results;
+    private final long cursorId;
+    private ServerLocation server;
+
+    Page(List results, long cursorId) {
+      this.results = results;
+      this.cursorId = cursorId;
+    }
+
+    public List getResults() {
+      return this.results;
+    }
+
+    /**
+     * Returns the id of the cursor holding the rest of the results, or zero
+     * if this is the last page.
+     */
+    public long getCursorId() {
+      return this.cursorId;
+    }
+
+    /**
+     * Returns the server holding the cursor.
+     */
+    public ServerLocation getServer() {
+      return this.server;
+    }
+  }
+
+  private static abstract class AbstractQueryCursorOpImpl extends AbstractOp {
+    protected AbstractQueryCursorOpImpl(int msgType, int numParts) {
+      super(msgType, numParts);
+    }
+    @Override
+    protected Message createResponseMessage() {
+      return new Message(3, Version.CURRENT);
+    }
+    @Override
+    protected Object processResponse(Message msg) throws Exception {
+      final int msgType = msg.getMessageType();
+      if (msgType == MessageType.EXCEPTION) {
+        String s = "While performing a remote " + getOpName();
+        throw new ServerOperationException(s, (Throwable)msg.getPart(0).getObject());
+      } else if (msgType != MessageType.RESPONSE) {
+        throw new InternalGemFireError("Unexpected message type "
+                                       + MessageType.getString(msgType));
+      }
+      CollectionType collectionType = (CollectionType)msg.getPart(0).getObject();
+      Object queryResult;
+      try {
+        queryResult = msg.getPart(1).getObject();
+      } catch (Exception e) {
+        String s = "While deserializing " + getOpName() + " result";
+        throw new SerializationException(s, e);
+      }
+      long cursorId = msg.getPart(2).getLong();
+      List results = new ArrayList();
+      QueryOp.addResults(results, collectionType.getElementType(), queryResult);
+      return new Page(results, cursorId);
+    }
+    protected String getOpName() {
+      return "query cursor";
+    }
+    @Override
+    protected boolean isErrorResponse(int msgType) {
+      return msgType == MessageType.QUERY_DATA_ERROR;
+    }
+    @Override
+    protected long startAttempt(ConnectionStats stats) {
+      return stats.startQuery();
+    }
+    @Override
+    protected void endSendAttempt(ConnectionStats stats, long start) {
+      stats.endQuerySend(start, hasFailed());
+    }
+    @Override
+    protected void endAttempt(ConnectionStats stats, long start) {
+      stats.endQuery(start, hasTimedOut(), hasFailed());
+    }
+  }
+
+  private static class QueryCursorOpImpl extends AbstractQueryCursorOpImpl {
+    /**
+     * @throws com.gemstone.gemfire.SerializationException if serialization fails
+     */
+    public QueryCursorOpImpl(String queryPredicate, Object[] queryParams,
+        int pageSize) {
+      super(MessageType.QUERY_CURSOR,
+          3 + (queryParams == null ? 0 : queryParams.length));
+      getMessage().addStringPart(queryPredicate);
+      getMessage().addIntPart(pageSize);
+      if (queryParams == null) {
+        getMessage().addIntPart(0);
+      } else {
+        getMessage().addIntPart(queryParams.length);
+        for (Object param : queryParams) {
+          getMessage().addObjPart(param);
+        }
+      }
+    }
+    @Override
+    protected Object processResponse(Message msg, Connection con)
+        throws Exception {
+      Page page = (Page)processResponse(msg);
+      // the rest of the results can only be fetched from this server
+      page.server = con.getServer();
+      return page;
+    }
+  }
+
+  private static class QueryCursorNextOpImpl extends AbstractQueryCursorOpImpl {
+    public QueryCursorNextOpImpl(long cursorId, int pageSize) {
+      super(MessageType.QUERY_CURSOR_NEXT, 2);
+      getMessage().addLongPart(cursorId);
+      getMessage().addIntPart(pageSize);
+    }
+  }
+
+  private static class QueryCursorCloseOpImpl extends AbstractQueryCursorOpImpl {
+    public QueryCursorCloseOpImpl(long cursorId) {
+      super(MessageType.QUERY_CURSOR_CLOSE, 1);
+      getMessage().addLongPart(cursorId);
+    }
+    @Override
+    protected Message createResponseMessage() {
+      return new Message(1, Version.CURRENT);
+    }
+    @Override
+    protected Object processResponse(Message msg) throws Exception {
+      processAck(msg, getOpName());
+      return null;
+    }
+  }
+}
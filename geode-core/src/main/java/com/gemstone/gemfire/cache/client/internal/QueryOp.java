@@ -17,6 +17,7 @@
 package com.gemstone.gemfire.cache.client.internal;
 
 import java.util.Arrays;
+import java.util.Collection;
 import com.gemstone.gemfire.internal.Version;
 import com.gemstone.gemfire.internal.cache.tier.MessageType;
 import com.gemstone.gemfire.internal.cache.tier.sockets.Message;
@@ -63,6 +64,42 @@ public class QueryOp {
     // no instances allowed
   }
 
+  /**
+   * Adds the results in one chunk of a query response to <code>results</code>.
+   * @param objectType the type of the results
+   * @param queryResult the results as sent by the server, an
+   *          <code>Object[]</code> or an <code>ObjectPartList</code>
+   */
+  static void addResults(Collection results, ObjectType objectType,
+      Object queryResult) {
+    Object[] resultArray;
+    // for select * queries, the serialized object byte arrays are
+    // returned as part of ObjectPartList
+    boolean isObjectPartList = false;
+    if (queryResult instanceof ObjectPartList) {
+      isObjectPartList = true;
+      resultArray = ((ObjectPartList) queryResult).getObjects().toArray();
+    } else{ 
+      // Add the results to the SelectResults
+      resultArray = (Object[]) queryResult;
+    }
+    if (objectType.isStructType()) {
+      for (int i = 0; i < resultArray.length; i++) {
+        if (isObjectPartList) {
+          results
+              .add(new StructImpl((StructTypeImpl) objectType,
+                  ((ObjectPartList) resultArray[i]).getObjects()
+                      .toArray()));
+        } else {
+          results.add(new StructImpl((StructTypeImpl) objectType,
+              (Object[]) resultArray[i]));
+        }
+      }
+    } else {
+      results.addAll(Arrays.asList(resultArray));
+    }
+  }
+
   /**
    * Note: this class is extended by CreateCQWithIROpImpl.
    */
@@ -139,34 +176,7 @@ public class QueryOp {
                 resultRef[0] = QueryUtils.getEmptySelectResults(collectionType,
                                                                 null);
               }
-              SelectResults selectResults = resultRef[0];
-              ObjectType objectType = collectionType.getElementType();
-              Object[] resultArray;
-             // for select * queries, the serialized object byte arrays are
-             // returned as part of ObjectPartList
-              boolean isObjectPartList = false;
-              if (queryResult instanceof ObjectPartList) {
-                isObjectPartList = true;
-                resultArray = ((ObjectPartList) queryResult).getObjects().toArray();
-              } else{ 
-                // Add the results to the SelectResults
-                resultArray = (Object[]) queryResult;
-              }
-              if (objectType.isStructType()) {
-                for (int i = 0; i < resultArray.length; i++) {
-                  if (isObjectPartList) {
-                    selectResults
-                        .add(new StructImpl((StructTypeImpl) objectType,
-                            ((ObjectPartList) resultArray[i]).getObjects()
-                                .toArray()));
-                  } else {
-                    selectResults.add(new StructImpl((StructTypeImpl) objectType,
-                        (Object[]) resultArray[i]));
-                  }
-                }
-              } else {
-                selectResults.addAll(Arrays.asList(resultArray));
-              }
+              addResults(resultRef[0], collectionType.getElementType(), queryResult);
             }
           }
         };
@@ -29,7 +29,9 @@ import org.apache.logging.log4j.Logger;
 
 import com.gemstone.gemfire.cache.CacheClosedException;
 import com.gemstone.gemfire.cache.DataPolicy;
+import com.gemstone.gemfire.cache.Operation;
 import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.client.ServerConnectivityException;
 import com.gemstone.gemfire.cache.client.ServerOperationException;
 import com.gemstone.gemfire.distributed.internal.ServerLocation;
 import com.gemstone.gemfire.internal.Version;
@@ -74,10 +76,83 @@ public class RemoveAllOp {
         eventId, ((PoolImpl)pool).getPRSingleHopEnabled(), callbackArg);
     op.initMessagePart();
     if(isRetry) {
-      op.getMessage().setIsRetry();
+      op.setRetry();
     }
     return (VersionedObjectList)pool.execute(op);
   }
+
+  /**
+   * Resends the keys that failed on <code>failedServer</code>. The keys are
+   * cut into runs of consecutive keys whose buckets are now primary on the
+   * same server, and each run is sent with the event id of its first key so
+   * that every key keeps its position based event id. See
+   * {@link PutAllOp} for why.
+   *
+   * @return true if some of the keys could not be removed
+   */
+  private static boolean retry(ExecutablePool pool, Region region,
+      Collection<Object> newKeys, EventID eventId, Object callbackArg,
+      ClientMetadataService cms, ServerLocation failedServer,
+      PutAllPartialResult result) {
+    List<Object> keys = new ArrayList<Object>(newKeys);
+    List<ServerLocation> servers = cms.getBulkOpRetryServers(keys, region,
+        Operation.REMOVEALL_DESTROY, callbackArg, failedServer);
+    boolean failed = false;
+    int start = 0;
+    while (start < keys.size()) {
+      ServerLocation server = servers.get(start);
+      int end = start + 1;
+      while (end < keys.size() && PutAllOp.sameServer(server, servers.get(end))) {
+        end++;
+      }
+      List<Object> run = new ArrayList<Object>(keys.subList(start, end));
+      try {
+        VersionedObjectList v = retryRun(pool, region, run,
+            new EventID(eventId, start), callbackArg, cms, server);
+        if (v == null) {
+          result.addKeys(run);
+        } else {
+          result.addKeysAndVersions(v);
+        }
+      } catch (PutAllPartialResultException pre) {
+        failed = true;
+        logger.debug("Retry failed with BulkOpPartialResultException: {} Before retry: {}", pre, result.getKeyListString());
+        result.consolidate(pre.getResult());
+      } catch (Exception rte) {
+        failed = true;
+        result.saveFailedKey(keys.get(start), rte);
+      }
+      start = end;
+    }
+    return failed;
+  }
+
+  /**
+   * Sends one run of retried keys in a single hop to <code>server</code>, or
+   * to any server if it is null or cannot be reached.
+   */
+  private static VersionedObjectList retryRun(ExecutablePool pool,
+      Region region, Collection<Object> run, EventID eventId,
+      Object callbackArg, ClientMetadataService cms, ServerLocation server) {
+    if (server != null) {
+      RemoveAllOpImpl op = new RemoveAllOpImpl(region, run, eventId, true,
+          callbackArg);
+      op.initMessagePart();
+      op.setRetry();
+      try {
+        return (VersionedObjectList)pool.executeOn(server, op);
+      } catch (ServerOperationException soe) {
+        throw soe;
+      } catch (ServerConnectivityException sce) {
+        if (logger.isDebugEnabled()) {
+          logger.debug("RemoveAll retry on {} failed, retrying on any server", server, sce);
+        }
+        cms.removeBucketServerLocation(server);
+        cms.scheduleGetPRMetaData((LocalRegion)region, false);
+      }
+    }
+    return execute(pool, region, run, eventId, true, callbackArg);
+  }
   
   /**
    * Does a region put on a server using connections from the given pool
@@ -180,21 +255,8 @@ public class RemoveAllOp {
           continue;
         }
         Collection<Object> newKeys = serverToFilterMap.get(failedServer);
-        try {
-          VersionedObjectList v = RemoveAllOp.execute(pool, region, newKeys, eventId, true, callbackArg);
-          if (v == null) {
-            result.addKeys(newKeys);
-          } else {
-            result.addKeysAndVersions(v);
-          }
-        } catch (PutAllPartialResultException pre) {
+        if (retry(pool, region, newKeys, eventId, callbackArg, cms, failedServer, result)) {
           oneSubMapRetryFailed = true;
-          logger.debug("Retry failed with BulkOpPartialResultException: {} Before retry: {}", pre, result.getKeyListString());
-          result.consolidate(pre.getResult());
-        } catch (Exception rte) {
-          oneSubMapRetryFailed = true;
-          Object firstKey = newKeys.iterator().next();
-          result.saveFailedKey(firstKey, rte);
         }
       } // for failedServer
 
@@ -244,6 +306,7 @@ public class RemoveAllOp {
     
     private Collection<Object> keys = null;
     private final Object callbackArg;
+    private boolean retry = false;
     
     /**
      * @throws com.gemstone.gemfire.SerializationException if serialization fails
@@ -259,6 +322,11 @@ public class RemoveAllOp {
       this.callbackArg = callbackArg;
     }
     
+    void setRetry() {
+      this.retry = true;
+      getMessage().setIsRetry();
+    }
+
     @Override
     protected void initMessagePart() {
       int size = keys.size();
@@ -383,7 +451,7 @@ public class RemoveAllOp {
     }
     @Override
     protected void endAttempt(ConnectionStats stats, long start) {
-      stats.endRemoveAll(start, hasTimedOut(), hasFailed());
+      stats.endRemoveAll(start, hasTimedOut(), hasFailed(), this.keys.size(), this.retry);
     }
   }
   
@@ -64,5 +64,19 @@ public class ServerProxy {
   {
     return QueryOp.execute(this.pool, queryPredicate, queryParams);
   }
+
+  /**
+   * Does a query on a server and returns the first page of its results
+   * @param queryPredicate A query language boolean query predicate
+   * @param queryParams the values bound to the parameters of the query, or null
+   * @param pageSize the most results to return in a page
+   * @return the first page of results, with the id of the cursor on the
+   *         server that holds the rest of them
+   */
+  public QueryCursorOp.Page queryWithCursor(String queryPredicate,
+      Object[] queryParams, int pageSize)
+  {
+    return QueryCursorOp.execute(this.pool, queryPredicate, queryParams, pageSize);
+  }
   
 }
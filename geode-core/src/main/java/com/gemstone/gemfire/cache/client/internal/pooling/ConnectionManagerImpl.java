@@ -175,7 +175,7 @@ public class ConnectionManagerImpl implements ConnectionManager {
       }
 
       while (!availableConnections.isEmpty()) {
-        PooledConnection connection = (PooledConnection) availableConnections.removeFirst();
+        PooledConnection connection = removeAvailableConnection(Collections.EMPTY_SET);
         try {
           connection.activate();
           return connection;
@@ -359,28 +359,25 @@ public class ConnectionManagerImpl implements ConnectionManager {
       if(shuttingDown) {
         throw new PoolCancelledException();
       }
-      for(Iterator itr = availableConnections.iterator(); itr.hasNext(); ) {
-        PooledConnection nextConnection = (PooledConnection) itr.next();
-        if(!excludedServers.contains(nextConnection.getServer())) {
-          itr.remove();
-          try {
-            nextConnection.activate();
-            newConnection = nextConnection;
-//             logger.info("DEBUG: exchangeConnection removeCon(" + oldPC +")");
-            if (allConnectionsMap.removeConnection(oldPC)) {
-//               getPoolStats().incConCount(-1);
-              --connectionCount;
-//               logger.info("DEBUG: exchangeConnection conCount(-1)->" + connectionCount + " oldPC=" + oldPC);
-              if(connectionCount < minConnections) {
-                startBackgroundPrefill();
-              }
+      PooledConnection nextConnection;
+      while ((nextConnection = removeAvailableConnection(excludedServers)) != null) {
+        try {
+          nextConnection.activate();
+          newConnection = nextConnection;
+//           logger.info("DEBUG: exchangeConnection removeCon(" + oldPC +")");
+          if (allConnectionsMap.removeConnection(oldPC)) {
+//             getPoolStats().incConCount(-1);
+            --connectionCount;
+//             logger.info("DEBUG: exchangeConnection conCount(-1)->" + connectionCount + " oldPC=" + oldPC);
+            if(connectionCount < minConnections) {
+              startBackgroundPrefill();
             }
-            break;
-          }
-          catch (ConnectionDestroyedException ex) {
-            // someone else already destroyed this connection so ignore it
-            // but remove it from availableConnections
           }
+          break;
+        }
+        catch (ConnectionDestroyedException ex) {
+          // someone else already destroyed this connection so ignore it
+          // but remove it from availableConnections
         }
       }
       if (newConnection == null) {
@@ -444,6 +441,40 @@ public class ConnectionManagerImpl implements ConnectionManager {
     return newConnection;
   }
 
+  /**
+   * Removes the first available connection that is not to one of the
+   * excluded servers, preferring connections to servers that are not
+   * degraded. The caller must hold the lock.
+   * @return the connection, or null if there is none
+   */
+  private PooledConnection removeAvailableConnection(Set excludedServers) {
+    Set degradedServers = endpointManager.getDegradedServers();
+    if (degradedServers.isEmpty() && excludedServers.isEmpty()) {
+      return availableConnections.isEmpty() ? null
+          : (PooledConnection) availableConnections.removeFirst();
+    }
+    PooledConnection degradedConnection = null;
+    for (Iterator itr = availableConnections.iterator(); itr.hasNext(); ) {
+      PooledConnection connection = (PooledConnection) itr.next();
+      ServerLocation server = connection.getServer();
+      if (excludedServers.contains(server)) {
+        continue;
+      }
+      if (degradedServers.contains(server)) {
+        if (degradedConnection == null) {
+          degradedConnection = connection;
+        }
+        continue;
+      }
+      itr.remove();
+      return connection;
+    }
+    if (degradedConnection != null) {
+      availableConnections.remove(degradedConnection);
+    }
+    return degradedConnection;
+  }
+
   protected/*GemStoneAddition*/ String getPoolName() {
     return this.poolName;
   }
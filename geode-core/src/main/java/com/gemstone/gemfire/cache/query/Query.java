@@ -156,6 +156,72 @@ public interface Query {
     throws FunctionDomainException, TypeMismatchException, NameResolutionException,
            QueryInvocationTargetException;
 
+  /**
+   * Executes this query and returns a cursor over its results. When the
+   * query is executed by a client, the results stay on the server and are
+   * fetched <code>pageSize</code> at a time as the cursor is iterated.
+   * Otherwise the cursor iterates over the local results.
+   *
+   * @param pageSize
+   *        The most results fetched from the server at once
+   *
+   * @return A cursor over the results. The elements are the ones the
+   *         {@link SelectResults} of the query would contain, or the single
+   *         value of a query like <code>(select * from /rgn).size</code>.
+   *
+   * @throws IllegalArgumentException
+   *         If <code>pageSize</code> is not positive
+   * @throws FunctionDomainException
+   *         A function was applied to a parameter that is improper
+   *         for that function.
+   * @throws TypeMismatchException
+   *         If a bound parameter is not of the expected type.
+   * @throws NameResolutionException
+   *         If a name in the query cannot be resolved.
+   * @throws QueryInvocationTargetException
+   *         If the data referenced in from clause is not available for
+   *         querying.
+   * @see #execute()
+   * @since Geode 1.0
+   */
+  public QueryCursor executeWithCursor(int pageSize)
+    throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+           QueryInvocationTargetException;
+
+  /**
+   * Executes this query with the given parameters and returns a cursor over
+   * its results. When the query is executed by a client, the results stay on
+   * the server and are fetched <code>pageSize</code> at a time as the cursor
+   * is iterated. Otherwise the cursor iterates over the local results.
+   *
+   * @param pageSize
+   *        The most results fetched from the server at once
+   * @param params
+   *        Values that are bound to parameters (such as
+   *        <code>$1</code>) in this query.
+   *
+   * @return A cursor over the results.
+   *
+   * @throws IllegalArgumentException
+   *         If <code>pageSize</code> is not positive, or the number of bound
+   *         parameters does not match the number of placeholders
+   * @throws FunctionDomainException
+   *         A function was applied to a parameter that is improper
+   *         for that function.
+   * @throws TypeMismatchException
+   *         If a bound parameter is not of the expected type.
+   * @throws NameResolutionException
+   *         If a name in the query cannot be resolved.
+   * @throws QueryInvocationTargetException
+   *         If the data referenced in from clause is not available for
+   *         querying.
+   * @see #execute(Object[])
+   * @since Geode 1.0
+   */
+  public QueryCursor executeWithCursor(int pageSize, Object[] params)
+    throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+           QueryInvocationTargetException;
+
   /**
    * Executes this query on the partitioned data-store associated with the given
    * RegionFunctionContext and returns an object that represents its result. An
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.cache.query;
+
+import java.util.Iterator;
+
+/**
+ * Iterates over the results of a query returned by
+ * {@link Query#executeWithCursor(int)}. The elements are the ones the
+ * {@link SelectResults} of the query would contain.<p>
+ *
+ * When the query is executed by a client, the server keeps the results and
+ * the cursor fetches them a page at a time as it is iterated, so neither the
+ * client nor the response has to hold all of them at once. The server
+ * releases the results once they have all been fetched, when the cursor is
+ * {@linkplain #close() closed}, or when the cursor has not been used for a
+ * while (five minutes by default). Applications that stop iterating early
+ * should close the cursor.<p>
+ *
+ * A <code>QueryCursor</code> is not thread-safe.
+ *
+ * @since Geode 1.0
+ */
+public interface QueryCursor<E> extends Iterator<E> {
+
+  /**
+   * Releases the results that have not been fetched yet. Does nothing if the
+   * cursor is already closed or all results have been fetched.
+   */
+  public void close();
+}
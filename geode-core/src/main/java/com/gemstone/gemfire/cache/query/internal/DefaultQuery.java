@@ -21,7 +21,9 @@ import com.gemstone.gemfire.cache.Cache;
 import com.gemstone.gemfire.cache.CacheClosedException;
 import com.gemstone.gemfire.cache.CacheRuntimeException;
 import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.client.internal.ClientQueryCursor;
 import com.gemstone.gemfire.cache.client.internal.ProxyCache;
+import com.gemstone.gemfire.cache.client.internal.QueryCursorOp;
 import com.gemstone.gemfire.cache.client.internal.ServerProxy;
 import com.gemstone.gemfire.cache.client.internal.UserAttributes;
 import com.gemstone.gemfire.cache.execute.Function;
@@ -448,6 +450,81 @@ public class DefaultQuery implements Query {
     return result;
   }
 
+  public QueryCursor executeWithCursor(int pageSize)
+  throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+          QueryInvocationTargetException {
+    return executeWithCursor(pageSize, EMPTY_ARRAY);
+  }
+
+  public QueryCursor executeWithCursor(int pageSize, Object[] parameters)
+  throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+          QueryInvocationTargetException {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+    }
+    if (parameters == null) {
+      throw new IllegalArgumentException(LocalizedStrings.DefaultQuery_PARAMETERS_CANNOT_BE_NULL.toLocalizedString());
+    }
+    if (this.serverProxy == null) {
+      // the results are local so there is nothing to page
+      Object result = execute(parameters);
+      Iterator results;
+      if (result instanceof SelectResults) {
+        results = ((SelectResults)result).iterator();
+      } else {
+        results = Collections.singletonList(result).iterator();
+      }
+      return new LocalQueryCursor(results);
+    }
+
+    long startTime = CachePerfStats.getStatTime();
+    try {
+      UserAttributes userAttributes = null;
+      if (proxyCache != null) {
+        if (this.proxyCache.isClosed()) {
+          throw new CacheClosedException("Cache is closed for this user.");
+        }
+        userAttributes = this.proxyCache.getUserAttributes();
+        UserAttributes.userAttributes.set(userAttributes);
+      }
+      QueryCursorOp.Page firstPage = this.serverProxy.queryWithCursor(
+          this.queryString, parameters, pageSize);
+      return new ClientQueryCursor(this.serverProxy.getPool(), firstPage,
+          pageSize, userAttributes);
+    } finally {
+      UserAttributes.userAttributes.set(null);
+      long endTime = CachePerfStats.getStatTime();
+      updateStatistics(endTime - startTime);
+    }
+  }
+
+  /**
+   * A cursor over results that were computed in this member.
+   */
+  private static class LocalQueryCursor implements QueryCursor {
+    private Iterator results;
+
+    LocalQueryCursor(Iterator results) {
+      this.results = results;
+    }
+
+    public boolean hasNext() {
+      return this.results.hasNext();
+    }
+
+    public Object next() {
+      return this.results.next();
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    public void close() {
+      this.results = Collections.emptyIterator();
+    }
+  }
+
   /** Execute a PR Query on the specified bucket. Assumes query already meets restrictions
     * for PR Query, and the first iterator in the FROM clause can be replaced with the
     * BucketRegion.
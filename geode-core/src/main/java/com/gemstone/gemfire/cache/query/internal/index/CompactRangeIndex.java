@@ -39,6 +39,7 @@ import com.gemstone.gemfire.cache.query.QueryService;
 import com.gemstone.gemfire.cache.query.SelectResults;
 import com.gemstone.gemfire.cache.query.TypeMismatchException;
 import com.gemstone.gemfire.cache.query.internal.CompiledBindArgument;
+import com.gemstone.gemfire.cache.query.internal.CompiledID;
 import com.gemstone.gemfire.cache.query.internal.CompiledIteratorDef;
 import com.gemstone.gemfire.cache.query.internal.CompiledLiteral;
 import com.gemstone.gemfire.cache.query.internal.CompiledPath;
@@ -63,12 +64,16 @@ import com.gemstone.gemfire.cache.query.internal.types.StructTypeImpl;
 import com.gemstone.gemfire.cache.query.internal.types.TypeUtils;
 import com.gemstone.gemfire.cache.query.types.ObjectType;
 import com.gemstone.gemfire.cache.query.types.StructType;
+import com.gemstone.gemfire.internal.InternalDataSerializer;
+import com.gemstone.gemfire.internal.cache.CachedDeserializable;
+import com.gemstone.gemfire.internal.cache.GemFireCacheImpl;
 import com.gemstone.gemfire.internal.cache.LocalRegion;
 import com.gemstone.gemfire.internal.cache.RegionEntry;
 import com.gemstone.gemfire.internal.cache.RegionEntryContext;
 import com.gemstone.gemfire.internal.cache.VMThinRegionEntryHeap;
 import com.gemstone.gemfire.internal.cache.persistence.query.CloseableIterator;
 import com.gemstone.gemfire.internal.i18n.LocalizedStrings;
+import com.gemstone.gemfire.pdx.internal.PdxReaderImpl;
 import com.gemstone.gemfire.pdx.internal.PdxString;
 
 //@todo Extend to support the keys or entries of a region.
@@ -1168,6 +1173,12 @@ public class CompactRangeIndex extends AbstractIndex {
     }
   }
 
+  /**
+   * Returned by IMQEvaluator.readPdxIndexKey if the index key could not be
+   * read from the entry's serialized value
+   */
+  private static final Object NOT_READ = new Object();
+
   /**
    * 
    */
@@ -1214,6 +1225,15 @@ public class CompactRangeIndex extends AbstractIndex {
     private boolean hasIndxUpdateOccuredOnce = false;
     private ExecutionContext initContext = null;
     private int iteratorSize = -1;
+    /**
+     * The name of the field the index is on if the indexed expression is a
+     * field of the region's values, like <code>p.status</code> on
+     * <code>/region p</code>, and the region is not off-heap; otherwise null.
+     * The index key of a value stored as a serialized pdx is then read from
+     * its bytes rather than by evaluating the indexed expression on a
+     * PdxInstance created for it.
+     */
+    private String pdxFieldName = null;
 
     /** Creates a new instance of IMQEvaluator */
     IMQEvaluator(IndexCreationHelper helper) {
@@ -1248,6 +1268,67 @@ public class CompactRangeIndex extends AbstractIndex {
           indexStore.setIndexOnValues(true);
         }
       }
+      this.pdxFieldName = getValueFieldName();
+    }
+
+    /**
+     * Returns the name of the field of the region's values that is the
+     * indexed expression, or null if the indexed expression is anything else.
+     */
+    private String getValueFieldName() {
+      if (!indexOnValues || this.fromIterators.size() != 1
+          || ((LocalRegion) this.rgn).getOffHeap()
+          || !(this.indexedExpr instanceof CompiledPath)) {
+        return null;
+      }
+      CompiledIteratorDef iterDef = (CompiledIteratorDef) this.fromIterators.get(0);
+      CompiledPath path = (CompiledPath) this.indexedExpr;
+      if (!(iterDef.getCollectionExpr() instanceof CompiledBindArgument)
+          || !(path.getReceiver() instanceof CompiledID)
+          || !((CompiledID) path.getReceiver()).getId().equals(iterDef.getName())) {
+        return null;
+      }
+      return path.getTailID();
+    }
+
+    /**
+     * Returns the index key of the given entry read directly from its
+     * serialized value, or NOT_READ if the value is not a serialized pdx that
+     * has the indexed field.
+     */
+    private Object readPdxIndexKey(RegionEntry entry) {
+      Object value = entry.getValueInVM((LocalRegion) this.rgn);
+      if (!(value instanceof CachedDeserializable)) {
+        return NOT_READ;
+      }
+      value = ((CachedDeserializable) value).getValue();
+      if (!(value instanceof byte[])) {
+        return NOT_READ;
+      }
+      GemFireCacheImpl gfc = (GemFireCacheImpl) this.cache;
+      PdxReaderImpl reader = InternalDataSerializer.createPdxReader((byte[]) value, gfc);
+      if (reader == null || !reader.hasField(this.pdxFieldName)) {
+        return NOT_READ;
+      }
+      Object indexKey = reader.readRawField(this.pdxFieldName);
+      gfc.getCachePerfStats().incPdxDeserializationsAvoided();
+      return indexKey;
+    }
+
+    /**
+     * Converts the value of the indexed expression to the key it is stored
+     * under in the index.
+     */
+    private Object toIndexKey(Object indexKey) {
+      if (indexKey == null) {
+        indexKey = IndexManager.NULL;
+      }
+      // if the first key is PdxString set the flag so that rest of the keys
+      // would be converted to PdxString
+      if (!isIndexedPdxKeysFlagSet) {
+        setPdxStringFlag(indexKey);
+      }
+      return getPdxStringForIndexedPdxKeys(indexKey);
     }
 
     public String getIndexedExpression() {
@@ -1436,6 +1517,13 @@ public class CompactRangeIndex extends AbstractIndex {
      */
     public void evaluate(RegionEntry target, boolean add) throws IMQException {
       assert !target.isInvalid() : "value in RegionEntry should not be INVALID";
+      if (this.pdxFieldName != null) {
+        Object indexKey = readPdxIndexKey(target);
+        if (indexKey != NOT_READ) {
+          updateIndex(toIndexKey(indexKey), target, add);
+          return;
+        }
+      }
       DummyQRegion dQRegion = new DummyQRegion(rgn);
       dQRegion.setEntry(target);
       Object params[] = { dQRegion };
@@ -1541,12 +1629,43 @@ public class CompactRangeIndex extends AbstractIndex {
           return;
         Iterator cIter = c.iterator();
         while (cIter.hasNext()) {
-          rIter.setCurrent(cIter.next());
+          Object current = cIter.next();
+          if (level == 0 && this.pdxFieldName != null
+              && addPdxIndexKeyForIndexInit(current)) {
+            continue;
+          }
+          rIter.setCurrent(current);
           doNestedIterationsForIndexInit(level + 1, runtimeIterators);
         }
       }
     }
 
+    /**
+     * Adds the index key of the given region entry to the index if it can be
+     * read directly from the entry's serialized value.
+     * 
+     * @return false if the key has to be obtained by evaluating the indexed
+     *         expression
+     */
+    private boolean addPdxIndexKeyForIndexInit(Object current) throws IMQException {
+      if (!(current instanceof LocalRegion.NonTXEntry)) {
+        return false;
+      }
+      RegionEntry re = ((LocalRegion.NonTXEntry) current).getRegionEntry();
+      Object indexKey = readPdxIndexKey(re);
+      if (indexKey == NOT_READ) {
+        return false;
+      }
+      if (QueryMonitor.isLowMemory()) {
+        throw new IMQException(
+            LocalizedStrings.IndexCreationMsg_CANCELED_DUE_TO_LOW_MEMORY
+                .toLocalizedString());
+      }
+      ++this.initEntriesUpdated;
+      indexStore.addMapping(toIndexKey(indexKey), re);
+      return true;
+    }
+
     /*
      * Asif : This function is used to obtain Index data at the time of index
      * creation. Each element of the List is an Object Array of size 3. The 0th
@@ -1574,19 +1693,9 @@ public class CompactRangeIndex extends AbstractIndex {
                 .toLocalizedString());
       }
 
-      Object indexKey = this.isFirstItrOnEntry ? this.indexedExpr
+      Object indexKey = toIndexKey(this.isFirstItrOnEntry ? this.indexedExpr
           .evaluate(this.initContext) : modifiedIndexExpr
-          .evaluate(this.initContext);
-
-      if (indexKey == null) {
-        indexKey = IndexManager.NULL;
-      }
-      // if the first key is PdxString set the flag so that rest of the keys
-      // would be converted to PdxString
-      if (!isIndexedPdxKeysFlagSet) {
-        setPdxStringFlag(indexKey);
-      }
-      indexKey = getPdxStringForIndexedPdxKeys(indexKey);
+          .evaluate(this.initContext));
       LocalRegion.NonTXEntry temp = null;
       if (this.isFirstItrOnEntry && this.additionalProj != null) {
         temp = (LocalRegion.NonTXEntry) additionalProj
@@ -1633,18 +1742,18 @@ public class CompactRangeIndex extends AbstractIndex {
     private void applyProjection(boolean add, ExecutionContext context)
         throws FunctionDomainException, TypeMismatchException,
         NameResolutionException, QueryInvocationTargetException, IMQException {
-      Object indexKey = indexedExpr.evaluate(context);
-      if (indexKey == null) {
-        indexKey = IndexManager.NULL;
-      }
-      // if the first key is PdxString set the flag so that rest of the keys
-      // would be converted to PdxString
-      if (!isIndexedPdxKeysFlagSet) {
-        setPdxStringFlag(indexKey);
-      }
-      indexKey = getPdxStringForIndexedPdxKeys(indexKey);
+      Object indexKey = toIndexKey(indexedExpr.evaluate(context));
       RegionEntry entry = ((DummyQRegion) context.getBindArgument(1))
           .getEntry();
+      updateIndex(indexKey, entry, add);
+    }
+
+    /**
+     * @param add
+     *          true if adding, false if removing from index
+     */
+    private void updateIndex(Object indexKey, RegionEntry entry, boolean add)
+        throws IMQException {
       // Get thread local reverse map if available.
       OldKeyValuePair oldKeyValuePair = null;
       if (oldKeyValue != null) {
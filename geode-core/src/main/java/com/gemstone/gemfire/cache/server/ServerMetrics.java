@@ -46,6 +46,29 @@ public interface ServerMetrics {
    * Get the max connections for this cache server.
    */
   int getMaxConnections();
+
+  /**
+   * Get the average time, in nanoseconds, this cache server recently took
+   * to process a client request, from the time the request was read to the
+   * time the reply was sent.
+   * @since Geode 1.0
+   */
+  long getAverageRequestTime();
+
+  /**
+   * Get the number of client requests waiting for a thread to process them.
+   * Requests only wait for a thread when the cache server limits the number
+   * of threads it uses.
+   * @since Geode 1.0
+   */
+  int getThreadQueueSize();
+
+  /**
+   * Get the fraction of the maximum heap that is in use, a number between 0
+   * and 1.
+   * @since Geode 1.0
+   */
+  float getHeapUsage();
   
   //TODO grid - Queue sizes, server group counts,
   //CPU Usage, stats, etc.
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.cache.server.internal;
+
+import com.gemstone.gemfire.cache.server.ServerLoad;
+import com.gemstone.gemfire.cache.server.ServerMetrics;
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
+
+/**
+ * A load probe which weights the connection load of
+ * {@link ConnectionCountProbe} by how degraded the server is.
+ *
+ * Each connection counts for more load on a server that has recently
+ * been slow to process requests, that has requests waiting for a thread,
+ * or whose heap is nearly full. The locator therefore sends fewer new
+ * connections to a slow or overloaded server than to the other servers,
+ * even if they all have the same number of connections.
+ *
+ * The queue load is reported as the number of queues hosted by this
+ * bridge server, like {@link ConnectionCountProbe} does.
+ *
+ * @since Geode 1.0
+ */
+public class AdaptiveLoadProbe extends ConnectionCountProbe {
+
+  private static final long serialVersionUID = 3521493924458417426L;
+
+  /**
+   * The average request time, in nanoseconds, below which the request time
+   * does not raise the load factor of a server. This keeps servers that
+   * respond quickly from looking loaded because of small differences in
+   * their request times.
+   */
+  static final long REQUEST_TIME_THRESHOLD = Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "AdaptiveLoadProbe.REQUEST_TIME_THRESHOLD", 1000000).longValue();
+
+  /**
+   * The average request time, in nanoseconds, above
+   * {@link #REQUEST_TIME_THRESHOLD} that doubles the load factor of a server.
+   */
+  static final long REQUEST_TIME_UNIT = Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "AdaptiveLoadProbe.REQUEST_TIME_UNIT", 1000000).longValue();
+
+  /**
+   * The heap usage above which the load factor of a server grows. At full
+   * heap the load factor is twice what it would be otherwise.
+   */
+  static final float HEAP_USAGE_THRESHOLD = Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "AdaptiveLoadProbe.HEAP_USAGE_THRESHOLD", 75).intValue() / 100f;
+
+  private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Returns how much slower than an idle server a server with the given
+   * metrics is expected to process a request. The result is 1 for a server
+   * that processes requests quickly, has no queued requests and has
+   * plenty of free heap, and grows with the average request time above
+   * {@link #REQUEST_TIME_THRESHOLD}, the number of requests waiting for a
+   * thread per processor, and the heap usage above
+   * {@link #HEAP_USAGE_THRESHOLD}.
+   */
+  public static float getLoadFactor(ServerMetrics metrics) {
+    long requestTime = Math.max(metrics.getAverageRequestTime() - REQUEST_TIME_THRESHOLD, 0);
+    float requestTimeFactor = 1 + requestTime / (float) REQUEST_TIME_UNIT;
+    float queueFactor = 1 + metrics.getThreadQueueSize() / (float) PROCESSORS;
+    float heapFactor = 1;
+    float heapUsage = metrics.getHeapUsage();
+    if (heapUsage > HEAP_USAGE_THRESHOLD) {
+      heapFactor += (Math.min(heapUsage, 1f) - HEAP_USAGE_THRESHOLD) / (1 - HEAP_USAGE_THRESHOLD);
+    }
+    return requestTimeFactor * queueFactor * heapFactor;
+  }
+
+  /**
+   * Get a loads object representing the number of connections
+   * to this bridge server, weighted by its load factor
+   */
+  @Override
+  public ServerLoad getLoad(ServerMetrics metrics) {
+    float loadFactor = getLoadFactor(metrics);
+    float loadPerConnection = loadFactor / metrics.getMaxConnections();
+    float load = metrics.getConnectionCount() * loadPerConnection;
+    int queueLoad = metrics.getSubscriptionConnectionCount();
+
+    return new ServerLoad(load, loadPerConnection, queueLoad, 1);
+  }
+
+  @Override
+  public String toString() {
+    return "AdaptiveLoadProbe";
+  }
+}
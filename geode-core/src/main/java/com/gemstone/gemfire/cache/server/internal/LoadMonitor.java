@@ -26,9 +26,11 @@ import com.gemstone.gemfire.SystemFailure;
 import com.gemstone.gemfire.cache.client.internal.CacheServerLoadMessage;
 import com.gemstone.gemfire.cache.server.ServerLoad;
 import com.gemstone.gemfire.cache.server.ServerLoadProbe;
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
 import com.gemstone.gemfire.distributed.internal.ServerLocation;
 import com.gemstone.gemfire.distributed.internal.membership.MembershipManager;
 import com.gemstone.gemfire.internal.cache.CacheServerAdvisor;
+import com.gemstone.gemfire.internal.cache.control.HeapMemoryMonitor;
 import com.gemstone.gemfire.internal.cache.tier.Acceptor;
 import com.gemstone.gemfire.internal.cache.tier.sockets.CacheServerStats;
 import com.gemstone.gemfire.internal.cache.tier.sockets.ClientProxyMembershipID;
@@ -46,6 +48,12 @@ import com.gemstone.gemfire.internal.logging.log4j.LocalizedMessage;
  */
 public class LoadMonitor implements ConnectionListener {
   private static final Logger logger = LogService.getLogger();
+
+  /**
+   * The weight, between zero and one, of the most recent poll interval in
+   * the smoothed average request time.
+   */
+  static final float REQUEST_TIME_WEIGHT = Float.parseFloat(System.getProperty(DistributionConfig.GEMFIRE_PREFIX + "LoadMonitor.REQUEST_TIME_WEIGHT", "0.2"));
   
   private final ServerLoadProbe probe;
   private final ServerMetricsImpl metrics;
@@ -54,6 +62,8 @@ public class LoadMonitor implements ConnectionListener {
   private final PollingThread pollingThread;
   protected volatile ServerLoad lastLoad;
   protected CacheServerStats stats;
+  private long lastClientRequests;
+  private long lastClientRequestTime;
 
   public LoadMonitor(ServerLoadProbe probe, int maxConnections,
       long pollInterval, int forceUpdateFrequency, CacheServerAdvisor advisor) {
@@ -74,6 +84,7 @@ public class LoadMonitor implements ConnectionListener {
     this.pollingThread.start();
     this.stats = cacheServerStats;
     this.stats.setLoad(lastLoad);
+    this.stats.setLoadFactor(AdaptiveLoadProbe.getLoadFactor(metrics));
   }
 
   /**
@@ -132,6 +143,7 @@ public class LoadMonitor implements ConnectionListener {
   }
 
   protected ServerLoad getLoad() {
+    updateMetrics();
     ServerLoad load = this.probe.getLoad(metrics);
     if(load == null) {
       load = new ServerLoad();
@@ -139,6 +151,53 @@ public class LoadMonitor implements ConnectionListener {
     return load;
   }
   
+  /**
+   * Updates the metrics that are sampled from the cache server stats and the
+   * heap, and publishes the resulting load factor in the stats, where the
+   * cache server reads it to report it to clients.
+   */
+  private void updateMetrics() {
+    if (this.stats == null) {
+      // not started yet
+      return;
+    }
+    long clientRequests = this.stats.getClientRequests();
+    long clientRequestTime = this.stats.getClientRequestTime();
+    long newRequests = clientRequests - this.lastClientRequests;
+    // an idle server, which may be idle because clients avoided it, counts
+    // as a fast one so that clients try it again once it recovered
+    long recentRequestTime = 0;
+    if (newRequests > 0) {
+      recentRequestTime = (clientRequestTime - this.lastClientRequestTime) / newRequests;
+    }
+    // use an exponentially weighted moving average so that a single slow
+    // or idle interval does not move every client to or from this server
+    long averageRequestTime = metrics.getAverageRequestTime();
+    averageRequestTime += Math.round(REQUEST_TIME_WEIGHT * (recentRequestTime - averageRequestTime));
+    this.lastClientRequests = clientRequests;
+    this.lastClientRequestTime = clientRequestTime;
+    metrics.setAverageRequestTime(averageRequestTime);
+    metrics.setThreadQueueSize(this.stats.getThreadQueueSize());
+    metrics.setHeapUsage(getHeapUsage());
+    this.stats.setLoadFactor(AdaptiveLoadProbe.getLoadFactor(metrics));
+  }
+
+  private static float getHeapUsage() {
+    long maxMemory = HeapMemoryMonitor.getTenuredPoolMaxMemory();
+    long usedMemory;
+    try {
+      usedMemory = HeapMemoryMonitor.getTenuredMemoryPoolMXBean().getUsage().getUsed();
+    } catch (IllegalStateException e) {
+      Runtime rt = Runtime.getRuntime();
+      maxMemory = rt.maxMemory();
+      usedMemory = rt.totalMemory() - rt.freeMemory();
+    }
+    if (maxMemory <= 0) {
+      return 0;
+    }
+    return usedMemory / (float) maxMemory;
+  }
+
   private class PollingThread extends Thread {
     private final Object signal = new Object();
     private final long pollInterval;
@@ -30,6 +30,9 @@ public class ServerMetricsImpl implements ServerMetrics {
   private final AtomicInteger connectionCount = new AtomicInteger();
   private final AtomicInteger queueCount = new AtomicInteger();
   private final int maxConnections;
+  private volatile long averageRequestTime;
+  private volatile int threadQueueSize;
+  private volatile float heapUsage;
   
   public ServerMetricsImpl(int maxConnections) {
     this.maxConnections = maxConnections;
@@ -74,5 +77,29 @@ public class ServerMetricsImpl implements ServerMetrics {
   public void decQueueCount() {
     queueCount.decrementAndGet();
   }
+
+  public long getAverageRequestTime() {
+    return averageRequestTime;
+  }
+
+  public void setAverageRequestTime(long averageRequestTime) {
+    this.averageRequestTime = averageRequestTime;
+  }
+
+  public int getThreadQueueSize() {
+    return threadQueueSize;
+  }
+
+  public void setThreadQueueSize(int threadQueueSize) {
+    this.threadQueueSize = threadQueueSize;
+  }
+
+  public float getHeapUsage() {
+    return heapUsage;
+  }
+
+  public void setHeapUsage(float heapUsage) {
+    this.heapUsage = heapUsage;
+  }
   
 }
@@ -152,6 +152,39 @@ public interface DMStats {
   public void incBatchCopyTime(long start);
   public void incBatchWaitTime(long start);
   public void incBatchFlushTime(long start);
+
+  /**
+   * Records a batch of coalesced messages written to a shared unordered
+   * connection.
+   * @param messages the number of messages in the batch
+   * @param bytes the number of bytes written
+   * @param sizeFlush true if the batch was written because it was full,
+   *        false if its first message waited long enough
+   * @param messageDelay the total number of nanoseconds the messages waited
+   *        in the batch
+   */
+  public void incCoalescedBatches(int messages, int bytes, boolean sizeFlush, long messageDelay);
+  public long getCoalescedBatches();
+  public long getCoalescedMessages();
+  public void incCoalescedBatchesReceived();
+
+  public void incKeyAffinityQueueSize(int messages);
+  public void incKeyAffinityThreadJobs(int jobs);
+  /**
+   * Records an ordered message the key affinity executor started to
+   * process after it was queued for the given number of nanoseconds.
+   */
+  public void incKeyAffinityMessages(long queueTime);
+  /**
+   * Records an ordered message queued behind another message on its key
+   * affinity executor stripe while another stripe was idle.
+   */
+  public void incKeyAffinitySkewedMessages();
+  /**
+   * Records a wait, of the given number of nanoseconds, for the messages a
+   * sender handed to the key affinity executor.
+   */
+  public void incKeyAffinityBarrierWait(long waitTime);
   /**
    * Increments the total number of nanoseconds spent scheduling messages to be processed.
    */
@@ -105,6 +105,14 @@ public class DistributionManager
   public static final boolean MULTI_SERIAL_EXECUTORS = 
     !Boolean.getBoolean("DistributionManager.singleSerialExecutor");
 
+  /** Flag indicating whether the ordered messages read from shared
+   * connections are processed by a {@link KeyAffinityExecutor}, so that
+   * updates to different regions and buckets from one sender are applied
+   * in parallel.
+   */
+  public static final boolean KEY_AFFINITY_EXECUTOR =
+    Boolean.getBoolean("DistributionManager.keyAffinityExecutor");
+
   /** The name of the distribution manager (identifies it in GemFire) */
   public static final String NAME = "GemFire";
   
@@ -158,6 +166,10 @@ public class DistributionManager
   public static final int MAX_SERIAL_QUEUE_THREAD =
     Integer.getInteger("DistributionManager.MAX_SERIAL_QUEUE_THREAD", 20).intValue();
 
+  /** The number of stripes of the key affinity executor */
+  public static final int KEY_AFFINITY_THREADS =
+    Integer.getInteger("DistributionManager.KEY_AFFINITY_THREADS", Runtime.getRuntime().availableProcessors()).intValue();
+
   /**
    * Whether or not to include link local addresses in the list of addresses we use
    * to determine if two members are no the same host.
@@ -443,6 +455,10 @@ public class DistributionManager
   private volatile RemoteGfManagerAgent agent;
 
   private SerialQueuedExecutorPool serialQueuedExecutorPool;
+
+  /** Processes the ordered messages read from shared connections, if
+   * {@link #KEY_AFFINITY_EXECUTOR} is set */
+  private KeyAffinityExecutor keyAffinityExecutor;
   
   private final Semaphore parallelGIIs = new Semaphore(InitialImageOperation.MAX_PARALLEL_GIIS);
 
@@ -800,6 +816,11 @@ public class DistributionManager
       boolean throttlingDisabled = system.getConfig().getDisableTcp();
       this.serialQueuedExecutorPool = new SerialQueuedExecutorPool(this.threadGroup, this.stats, throttlingDisabled);
     }
+
+    if (KEY_AFFINITY_EXECUTOR) {
+      this.keyAffinityExecutor = new KeyAffinityExecutor(this.threadGroup,
+          Math.max(1, KEY_AFFINITY_THREADS), SERIAL_QUEUE_SIZE_LIMIT, this.stats);
+    }
       
     {
       BlockingQueue poolQueue;
@@ -889,7 +910,7 @@ public class DistributionManager
                   }
                 }
               };
-            Thread thread = new Thread(group, r, 
+            Thread thread = VirtualThreads.newThread(group, r, 
                LocalizedStrings.DistributionManager_POOLED_MESSAGE_PROCESSOR.toLocalizedString() + (next++));
             thread.setDaemon(true);
             return thread;
@@ -926,7 +947,7 @@ public class DistributionManager
                   }
                 }
               };
-            Thread thread = new Thread(group, r, 
+            Thread thread = VirtualThreads.newThread(group, r, 
                 LocalizedStrings.DistributionManager_POOLED_HIGH_PRIORITY_MESSAGE_PROCESSOR.toLocalizedString() + (next++));
             thread.setDaemon(true);
             return thread;
@@ -955,7 +976,7 @@ public class DistributionManager
                   }
                 }
               };
-            Thread thread = new Thread(group, r, 
+            Thread thread = VirtualThreads.newThread(group, r, 
                                        LocalizedStrings.DistributionManager_POOLED_WAITING_MESSAGE_PROCESSOR.toLocalizedString() + (next++));
             thread.setDaemon(true);
             return thread;
@@ -993,7 +1014,7 @@ public class DistributionManager
                   }
                 }
               };
-            Thread thread = new Thread(group, r, 
+            Thread thread = VirtualThreads.newThread(group, r, 
                                        LocalizedStrings.DistributionManager_PR_META_DATA_CLEANUP_MESSAGE_PROCESSOR.toLocalizedString() + (next++));
             thread.setDaemon(true);
             return thread;
@@ -1032,7 +1053,7 @@ public class DistributionManager
                 }
               }
             };
-          Thread thread = new Thread(group, r, 
+          Thread thread = VirtualThreads.newThread(group, r, 
                                      "PartitionedRegion Message Processor" + (next++));
           thread.setDaemon(true);
           return thread;
@@ -1075,7 +1096,7 @@ public class DistributionManager
                 }
               }
             };
-          Thread thread = new Thread(group, r, 
+          Thread thread = VirtualThreads.newThread(group, r, 
                                      "Function Execution Processor" + (next++));
           thread.setDaemon(true);
           return thread;
@@ -1944,6 +1965,9 @@ public class DistributionManager
     if (this.serialQueuedExecutorPool != null) {
       this.serialQueuedExecutorPool.shutdown();
     }
+    if (this.keyAffinityExecutor != null) {
+      this.keyAffinityExecutor.shutdown();
+    }
     es = this.functionExecutionThread;
     if (es != null) {
       es.shutdown();
@@ -2013,6 +2037,13 @@ public class DistributionManager
     if(remaining <= 0) {
       return;
     }
+    if (this.keyAffinityExecutor != null) {
+      this.keyAffinityExecutor.awaitTermination(remaining, TimeUnit.MILLISECONDS);
+      remaining = timeInMillis - (System.currentTimeMillis() - start);
+      if(remaining <= 0) {
+        return;
+      }
+    }
     Thread th = this.memberEventThread;
     if (th != null) {
       th.interrupt(); // bug #43452 - this thread sometimes eats interrupts, so we interrupt it again here
@@ -2137,6 +2168,10 @@ public class DistributionManager
         stillAlive = true;
         culprits = culprits + " thread pool;";
       }
+      if (this.keyAffinityExecutor != null && this.keyAffinityExecutor.isAlive()) {
+        stillAlive = true;
+        culprits = culprits + " key affinity executor;";
+      }
       
       if (!stillAlive)
         return;
@@ -2165,6 +2200,9 @@ public class DistributionManager
     if (this.serialThread != null) {
       this.serialThread.shutdownNow();
     }
+    if (this.keyAffinityExecutor != null) {
+      this.keyAffinityExecutor.shutdownNow();
+    }
     if (this.viewThread != null) {
       this.viewThread.shutdownNow();
     }    
@@ -3274,6 +3312,9 @@ public class DistributionManager
       {
         serialQueuedExecutorPool.handleMemberDeparture(theId);
       }
+      if (this.keyAffinityExecutor != null) {
+        this.keyAffinityExecutor.handleMemberDeparture(theId);
+      }
     }
   }
 
@@ -3840,6 +3881,16 @@ public class DistributionManager
      }
   }
     
+  /**
+   * Returns the executor for ordered messages read from shared connections
+   * that supply an ordering key, or null if they are processed by the
+   * serial executors.
+   * @since Geode 1.0
+   */
+  public KeyAffinityExecutor getKeyAffinityExecutor() {
+    return this.keyAffinityExecutor;
+  }
+
   /** returns the serialThread's queue if throttling is being used, null if not */
   public OverflowQueueWithDMStats getSerialQueue(InternalDistributedMember sender) {
     if (MULTI_SERIAL_EXECUTORS) {  
@@ -435,6 +435,22 @@ public abstract class DistributionMessage
     }
     
     inlineProcess |= forceInline;
+
+    final KeyAffinityExecutor keyAffinityExecutor = getKeyAffinityExecutor(dm);
+    Object orderingKey = null;
+    if (keyAffinityExecutor != null) {
+      if (!forceInline) {
+        orderingKey = getOrderingKey();
+      }
+      if (orderingKey == null) {
+        // process it after the sender's messages that are still queued
+        // on the key affinity executor's stripes
+        keyAffinityExecutor.waitForSender(this.sender);
+        inlineProcess = true;
+      } else {
+        inlineProcess = false;
+      }
+    }
     
     if (inlineProcess) {
       dm.getStats().incNumSerialThreads(1);
@@ -445,7 +461,7 @@ public abstract class DistributionMessage
       }
     } else { // not inline
       try {
-        getExecutor(dm).execute(new SizeableRunnable(this.getBytesRead()) {
+        Runnable action = new SizeableRunnable(this.getBytesRead()) {
           public void run() {
             scheduleAction(dm);
           }
@@ -454,7 +470,12 @@ public abstract class DistributionMessage
           public String toString() {
             return "Processing {" + DistributionMessage.this.toString() + "}";
           }
-        });
+        };
+        if (orderingKey != null) {
+          keyAffinityExecutor.execute(this.sender, orderingKey, action);
+        } else {
+          getExecutor(dm).execute(action);
+        }
       }
       catch (RejectedExecutionException ex) {
         if (!dm.shutdownInProgress()) { // fix for bug 32395
@@ -481,6 +502,31 @@ public abstract class DistributionMessage
     } // not inline
   }
 
+  /**
+   * Returns the executor that processes this message if it is an ordered
+   * message read from a shared connection and the distribution manager
+   * processes those by key, or null otherwise.
+   */
+  private KeyAffinityExecutor getKeyAffinityExecutor(DistributionManager dm) {
+    if (getProcessorType() != DistributionManager.SERIAL_EXECUTOR
+        || !isSharedReceiver() || isPreciousThread()) {
+      return null;
+    }
+    return dm.getKeyAffinityExecutor();
+  }
+
+  /**
+   * Returns the key that orders this message when ordered messages are
+   * processed by a {@link KeyAffinityExecutor}: the messages of a sender
+   * with equal keys are processed in the order they were sent, in parallel
+   * with the ones with other keys. Returns null, the default, if this
+   * message must be processed after all the messages sent before it.
+   * @since Geode 1.0
+   */
+  protected Object getOrderingKey() {
+    return null;
+  }
+
   protected boolean mayAddToMultipleSerialGateways(DistributionManager dm) {
     // subclasses should override this method if processing
     // them may add to multiple serial gateways.
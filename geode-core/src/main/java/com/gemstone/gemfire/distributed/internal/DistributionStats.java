@@ -146,6 +146,22 @@ public class DistributionStats implements DMStats {
   private final static int batchWaitTimeId;
   private final static int batchFlushTimeId;
 
+  private final static int coalescedBatchesId;
+  private final static int coalescedMessagesId;
+  private final static int coalescedBytesId;
+  private final static int coalescedSizeFlushesId;
+  private final static int coalescedTimeFlushesId;
+  private final static int coalescedMessageDelayId;
+  private final static int coalescedBatchesReceivedId;
+
+  private final static int keyAffinityQueueSizeId;
+  private final static int keyAffinityThreadJobsId;
+  private final static int keyAffinityMessagesId;
+  private final static int keyAffinityQueueTimeId;
+  private final static int keyAffinitySkewedMessagesId;
+  private final static int keyAffinityBarrierWaitsId;
+  private final static int keyAffinityBarrierWaitTimeId;
+
   private final static int threadOwnedReceiversId;
   private final static int threadOwnedReceiversId2;
 
@@ -467,6 +483,22 @@ public class DistributionStats implements DMStats {
         f.createLongCounter("batchCopyTime", "Total amount of time, in nanoseconds, spent copying messages for batched transmission", "nanoseconds"),
         f.createLongCounter("batchFlushTime", "Total amount of time, in nanoseconds, spent flushing batched messages to the network", "nanoseconds"),
 
+        f.createLongCounter("coalescedBatches", "Total number of batches of coalesced messages written to shared unordered connections.", "batches"),
+        f.createLongCounter("coalescedMessages", "Total number of messages written to shared unordered connections in coalesced batches.", "messages"),
+        f.createLongCounter("coalescedBytes", "Total number of bytes written to shared unordered connections in coalesced batches.", "bytes"),
+        f.createLongCounter("coalescedSizeFlushes", "Total number of coalesced batches written because they reached p2p.coalesceMaxBytes.", "flushes"),
+        f.createLongCounter("coalescedTimeFlushes", "Total number of coalesced batches written because their first message waited p2p.coalesceMaxMicros.", "flushes"),
+        f.createLongCounter("coalescedMessageDelay", "Total amount of time, in nanoseconds, coalesced messages waited in their batch before being written.", "nanoseconds"),
+        f.createLongCounter("coalescedBatchesReceived", "Total number of batches of coalesced messages read from shared unordered connections.", "batches"),
+
+        f.createIntGauge("keyAffinityQueueSize", "The number of ordered messages queued on the key affinity executor stripes.", "messages"),
+        f.createIntGauge("keyAffinityThreadJobs", "The number of messages currently being processed by key affinity executor threads.", "messages"),
+        f.createLongCounter("keyAffinityMessages", "Total number of ordered messages processed by the key affinity executor.", "messages"),
+        f.createLongCounter("keyAffinityQueueTime", "Total amount of time, in nanoseconds, ordered messages spent queued on key affinity executor stripes.", "nanoseconds", false),
+        f.createLongCounter("keyAffinitySkewedMessages", "Total number of ordered messages queued behind another message on their key affinity executor stripe while another stripe was idle.", "messages"),
+        f.createLongCounter("keyAffinityBarrierWaits", "Total number of times processing waited for the messages a sender handed to the key affinity executor, such as for an ordered message that has no key.", "waits"),
+        f.createLongCounter("keyAffinityBarrierWaitTime", "Total amount of time, in nanoseconds, spent waiting for the messages a sender handed to the key affinity executor.", "nanoseconds", false),
+
         f.createIntGauge("asyncSocketWritesInProgress", "Current number of non-blocking socket write calls in progress.", "writes"),
         f.createIntCounter("asyncSocketWrites", "Total number of non-blocking socket write calls completed.", "writes"),
         f.createIntCounter("asyncSocketWriteRetries", "Total number of retries needed to write a single block of data using non-blocking socket write calls.", "writes"),
@@ -656,6 +688,22 @@ public class DistributionStats implements DMStats {
     batchWaitTimeId = type.nameToId("batchWaitTime");
     batchFlushTimeId = type.nameToId("batchFlushTime");
 
+    coalescedBatchesId = type.nameToId("coalescedBatches");
+    coalescedMessagesId = type.nameToId("coalescedMessages");
+    coalescedBytesId = type.nameToId("coalescedBytes");
+    coalescedSizeFlushesId = type.nameToId("coalescedSizeFlushes");
+    coalescedTimeFlushesId = type.nameToId("coalescedTimeFlushes");
+    coalescedMessageDelayId = type.nameToId("coalescedMessageDelay");
+    coalescedBatchesReceivedId = type.nameToId("coalescedBatchesReceived");
+
+    keyAffinityQueueSizeId = type.nameToId("keyAffinityQueueSize");
+    keyAffinityThreadJobsId = type.nameToId("keyAffinityThreadJobs");
+    keyAffinityMessagesId = type.nameToId("keyAffinityMessages");
+    keyAffinityQueueTimeId = type.nameToId("keyAffinityQueueTime");
+    keyAffinitySkewedMessagesId = type.nameToId("keyAffinitySkewedMessages");
+    keyAffinityBarrierWaitsId = type.nameToId("keyAffinityBarrierWaits");
+    keyAffinityBarrierWaitTimeId = type.nameToId("keyAffinityBarrierWaitTime");
+
     asyncSocketWritesInProgressId = type.nameToId("asyncSocketWritesInProgress");
     asyncSocketWritesId = type.nameToId("asyncSocketWrites");
     asyncSocketWriteRetriesId = type.nameToId("asyncSocketWriteRetries");
@@ -1722,6 +1770,46 @@ public class DistributionStats implements DMStats {
       stats.incLong(batchFlushTimeId, getStatTime()-start);
     }
   }
+  public void incCoalescedBatches(int messages, int bytes, boolean sizeFlush, long messageDelay) {
+    this.stats.incLong(coalescedBatchesId, 1);
+    this.stats.incLong(coalescedMessagesId, messages);
+    this.stats.incLong(coalescedBytesId, bytes);
+    this.stats.incLong(sizeFlush ? coalescedSizeFlushesId : coalescedTimeFlushesId, 1);
+    this.stats.incLong(coalescedMessageDelayId, messageDelay);
+  }
+  public long getCoalescedBatches() {
+    return this.stats.getLong(coalescedBatchesId);
+  }
+  public long getCoalescedMessages() {
+    return this.stats.getLong(coalescedMessagesId);
+  }
+  public void incCoalescedBatchesReceived() {
+    this.stats.incLong(coalescedBatchesReceivedId, 1);
+  }
+  public void incKeyAffinityQueueSize(int messages) {
+    this.stats.incInt(keyAffinityQueueSizeId, messages);
+  }
+  public void incKeyAffinityThreadJobs(int jobs) {
+    this.stats.incInt(keyAffinityThreadJobsId, jobs);
+  }
+  public void incKeyAffinityMessages(long queueTime) {
+    this.stats.incLong(keyAffinityMessagesId, 1);
+    if (enableClockStats) {
+      this.stats.incLong(keyAffinityQueueTimeId, queueTime);
+    }
+  }
+  public long getKeyAffinityMessages() {
+    return this.stats.getLong(keyAffinityMessagesId);
+  }
+  public void incKeyAffinitySkewedMessages() {
+    this.stats.incLong(keyAffinitySkewedMessagesId, 1);
+  }
+  public void incKeyAffinityBarrierWait(long waitTime) {
+    this.stats.incLong(keyAffinityBarrierWaitsId, 1);
+    if (enableClockStats) {
+      this.stats.incLong(keyAffinityBarrierWaitTimeId, waitTime);
+    }
+  }
   public void incUcastRetransmits() {
     stats.incInt(ucastRetransmitsId, 1);
   }
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.distributed.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.gemstone.gemfire.distributed.internal.membership.InternalDistributedMember;
+import com.gemstone.gemfire.internal.tcp.Connection;
+import com.gemstone.gemfire.internal.tcp.ConnectionTable;
+
+/**
+ * Processes the ordered messages read from shared connections on a fixed
+ * set of serial executors, or stripes, picked by the hash of a key each
+ * message supplies. Messages from a sender with the same key are processed
+ * in the order they were received while messages with different keys are
+ * processed in parallel.
+ * <p>
+ * A message that has no key must be processed after all the messages its
+ * sender handed to this executor before it; see {@link #waitForSender}.
+ *
+ * @see DistributionMessage#getOrderingKey()
+ * @since Geode 1.0
+ */
+public class KeyAffinityExecutor {
+
+  private final DMStats stats;
+
+  private final SerialQueuedExecutorWithDMStats[] stripes;
+
+  /** The number of messages queued on, or being processed by, each stripe */
+  private final AtomicIntegerArray stripeLoad;
+
+  /** The number of stripes with messages queued or being processed */
+  private final AtomicInteger busyStripes = new AtomicInteger();
+
+  /** The messages handed to and processed by each stripe, per sender */
+  private final ConcurrentMap<InternalDistributedMember, SenderProgress> senders =
+      new ConcurrentHashMap<InternalDistributedMember, SenderProgress>();
+
+  private volatile boolean terminated;
+
+  /**
+   * @param group thread group to which the stripe threads will belong
+   * @param stripeCount the number of stripes
+   * @param queueLimit the number of messages a stripe queues before the
+   *        threads handing it messages block
+   */
+  KeyAffinityExecutor(final ThreadGroup group, int stripeCount, int queueLimit, DMStats stats) {
+    this.stats = stats;
+    this.stripes = new SerialQueuedExecutorWithDMStats[stripeCount];
+    this.stripeLoad = new AtomicIntegerArray(stripeCount);
+    for (int i = 0; i < stripeCount; i++) {
+      final int id = i;
+      ThreadFactory tf = new ThreadFactory() {
+        public Thread newThread(final Runnable command) {
+          final Runnable r = new Runnable() {
+            public void run() {
+              ConnectionTable.threadWantsSharedResources();
+              Connection.makeReaderThread();
+              try {
+                command.run();
+              } finally {
+                ConnectionTable.releaseThreadsSockets();
+              }
+            }
+          };
+          Thread thread = new Thread(group, r, "Key Affinity Message Processor " + id);
+          thread.setDaemon(true);
+          return thread;
+        }
+      };
+      this.stripes[i] = new SerialQueuedExecutorWithDMStats(
+          new LinkedBlockingQueue(queueLimit), null, tf);
+    }
+  }
+
+  /**
+   * Returns the stripe that processes the messages with the given key.
+   */
+  int getStripe(Object key) {
+    int h = key.hashCode();
+    h ^= (h >>> 16);
+    return (h & 0x7fffffff) % this.stripes.length;
+  }
+
+  /**
+   * Processes the given command on the stripe of the given key, after the
+   * commands for the same stripe handed to this executor before it. Blocks
+   * while that stripe's queue is full.
+   *
+   * @throws RejectedExecutionException if this executor has been shut down
+   */
+  public void execute(InternalDistributedMember sender, Object key, final Runnable command) {
+    final int stripe = getStripe(key);
+    final SenderProgress progress = getSenderProgress(sender);
+    progress.handedOff(stripe);
+    if (this.stripeLoad.getAndIncrement(stripe) == 0) {
+      this.busyStripes.incrementAndGet();
+    } else if (this.busyStripes.get() < this.stripes.length) {
+      // this message waits behind another one while a stripe is idle
+      this.stats.incKeyAffinitySkewedMessages();
+    }
+    this.stats.incKeyAffinityQueueSize(1);
+    final long enqueued = DistributionStats.getStatTime();
+    boolean queued = false;
+    try {
+      this.stripes[stripe].execute(new Runnable() {
+        public void run() {
+          stats.incKeyAffinityQueueSize(-1);
+          stats.incKeyAffinityMessages(DistributionStats.getStatTime() - enqueued);
+          stats.incKeyAffinityThreadJobs(1);
+          try {
+            command.run();
+          } finally {
+            stats.incKeyAffinityThreadJobs(-1);
+            processed(stripe, progress);
+          }
+        }
+
+        @Override
+        public String toString() {
+          return command.toString();
+        }
+      });
+      queued = true;
+    } finally {
+      if (!queued) {
+        this.stats.incKeyAffinityQueueSize(-1);
+        processed(stripe, progress);
+      }
+    }
+  }
+
+  private void processed(int stripe, SenderProgress progress) {
+    if (this.stripeLoad.decrementAndGet(stripe) == 0) {
+      this.busyStripes.decrementAndGet();
+    }
+    progress.processed(stripe);
+  }
+
+  private SenderProgress getSenderProgress(InternalDistributedMember sender) {
+    SenderProgress progress = this.senders.get(sender);
+    if (progress == null) {
+      progress = new SenderProgress(this.stripes.length);
+      SenderProgress old = this.senders.putIfAbsent(sender, progress);
+      if (old != null) {
+        progress = old;
+      }
+    }
+    return progress;
+  }
+
+  /**
+   * Waits until the messages the given sender handed to this executor
+   * before this call have been processed. Messages it hands off while this
+   * method waits are not waited for.
+   */
+  public void waitForSender(InternalDistributedMember sender) {
+    SenderProgress progress = this.senders.get(sender);
+    if (progress == null) {
+      return;
+    }
+    long start = DistributionStats.getStatTime();
+    if (progress.waitForHandedOff()) {
+      this.stats.incKeyAffinityBarrierWait(DistributionStats.getStatTime() - start);
+    }
+  }
+
+  /**
+   * Forgets the given member, which has left the distributed system.
+   */
+  public void handleMemberDeparture(InternalDistributedMember member) {
+    this.senders.remove(member);
+  }
+
+  public void shutdown() {
+    for (SerialQueuedExecutorWithDMStats stripe : this.stripes) {
+      stripe.shutdown();
+    }
+  }
+
+  public void shutdownNow() {
+    this.terminated = true;
+    for (SerialQueuedExecutorWithDMStats stripe : this.stripes) {
+      stripe.shutdownNow();
+    }
+    for (SenderProgress progress : this.senders.values()) {
+      synchronized (progress) {
+        progress.notifyAll();
+      }
+    }
+  }
+
+  public void awaitTermination(long time, TimeUnit unit) throws InterruptedException {
+    long remainingNanos = unit.toNanos(time);
+    long end = System.nanoTime() + remainingNanos;
+    for (SerialQueuedExecutorWithDMStats stripe : this.stripes) {
+      stripe.awaitTermination(remainingNanos, TimeUnit.NANOSECONDS);
+      remainingNanos = end - System.nanoTime();
+      if (remainingNanos <= 0) {
+        return;
+      }
+    }
+  }
+
+  public boolean isAlive() {
+    for (SerialQueuedExecutorWithDMStats stripe : this.stripes) {
+      if (!stripe.isTerminated()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Counts, per stripe, the messages of a sender handed to and processed by
+   * that stripe. A stripe processes them in the order they were handed
+   * off, so the messages handed off before a given point have been
+   * processed once each stripe's processed count reaches its handed off
+   * count at that point.
+   */
+  private class SenderProgress {
+
+    private final long[] handedOff;
+
+    private final long[] processed;
+
+    /** The number of threads in {@link #waitForHandedOff} */
+    private int waiters;
+
+    SenderProgress(int stripeCount) {
+      this.handedOff = new long[stripeCount];
+      this.processed = new long[stripeCount];
+    }
+
+    synchronized void handedOff(int stripe) {
+      this.handedOff[stripe]++;
+    }
+
+    synchronized void processed(int stripe) {
+      this.processed[stripe]++;
+      if (this.waiters > 0) {
+        notifyAll();
+      }
+    }
+
+    /**
+     * Returns false if there was nothing to wait for.
+     */
+    synchronized boolean waitForHandedOff() {
+      if (Arrays.equals(this.processed, this.handedOff)) {
+        return false;
+      }
+      long[] target = this.handedOff.clone();
+      boolean interrupted = false;
+      this.waiters++;
+      try {
+        for (int i = 0; i < target.length; i++) {
+          while (this.processed[i] < target[i] && !terminated) {
+            try {
+              wait();
+            } catch (InterruptedException e) {
+              interrupted = true;
+            }
+          }
+        }
+      } finally {
+        this.waiters--;
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return true;
+    }
+  }
+}
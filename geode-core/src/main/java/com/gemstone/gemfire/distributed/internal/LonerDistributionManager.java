@@ -424,6 +424,24 @@ public class LonerDistributionManager implements DM {
     @Override
     public void incBatchFlushTime(long start) {}
     @Override
+    public void incCoalescedBatches(int messages, int bytes, boolean sizeFlush, long messageDelay) {}
+    @Override
+    public long getCoalescedBatches() {return 0;}
+    @Override
+    public long getCoalescedMessages() {return 0;}
+    @Override
+    public void incCoalescedBatchesReceived() {}
+    @Override
+    public void incKeyAffinityQueueSize(int messages) {}
+    @Override
+    public void incKeyAffinityThreadJobs(int jobs) {}
+    @Override
+    public void incKeyAffinityMessages(long queueTime) {}
+    @Override
+    public void incKeyAffinitySkewedMessages() {}
+    @Override
+    public void incKeyAffinityBarrierWait(long waitTime) {}
+    @Override
     public void incUcastWriteBytes(int bytesWritten) {}
     @Override
     public void incMcastWriteBytes(int bytesWritten) {}
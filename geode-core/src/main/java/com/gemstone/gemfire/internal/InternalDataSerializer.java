@@ -3208,6 +3208,30 @@ public abstract class InternalDataSerializer extends DataSerializer implements D
     return null;
   }
 
+  /**
+   * Returns a reader of the pdx serialized in the given bytes, or null if
+   * they are not a pdx. The reader reads fields directly from the given
+   * bytes; they are not copied and no PdxInstance is created.
+   */
+  public static final PdxReaderImpl createPdxReader(final byte[] dataBytes, GemFireCacheImpl gfc) {
+    if (dataBytes.length == 0 || dataBytes[0] != PDX) {
+      return null;
+    }
+    try {
+      PdxInputStream in = new PdxInputStream(dataBytes);
+      in.readByte(); // throw away the type byte
+      int len = in.readInt();
+      int typeId = in.readInt();
+      PdxType pdxType = gfc.getPdxRegistry().getType(typeId);
+      if (pdxType == null) {
+        throw new IllegalStateException("Unknown pdx type=" + typeId);
+      }
+      return new PdxReaderImpl(pdxType, in, len);
+    } catch (IOException ignore) {
+    }
+    return null;
+  }
+
   /////////////////////////////   START Test only methods /////////////////////////////
   public static int getLoadedDataSerializers() {
     return idsToSerializers.size();
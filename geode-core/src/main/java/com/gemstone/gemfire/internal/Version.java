@@ -63,7 +63,7 @@ public final class Version implements Comparable<Version> {
   /** byte used as ordinal to represent this <code>Version</code> */
   private final short ordinal;
 
-  public static final int HIGHEST_VERSION = 45;
+  public static final int HIGHEST_VERSION = 50;
 
   private static final Version[] VALUES = new Version[HIGHEST_VERSION+1];
 
@@ -185,11 +185,18 @@ public final class Version implements Comparable<Version> {
   public static final Version GFE_90 = new Version("GFE", "9.0", (byte)9,
       (byte)0, (byte)0, (byte)0, GFE_90_ORDINAL);
 
+  // 46-49 available for 9.0.x variants
+
+  private static final byte GEODE_100_ORDINAL = 50;
+
+  public static final Version GEODE_100 = new Version("GEODE", "1.0.0", (byte)1,
+      (byte)0, (byte)0, (byte)0, GEODE_100_ORDINAL);
+
   /**
    * This constant must be set to the most current version of the product.
    * !!! NOTE: update HIGHEST_VERSION when changing CURRENT !!!
    */
-  public static final Version CURRENT = GFE_90;
+  public static final Version CURRENT = GEODE_100;
 
   /**
    * A lot of versioning code needs access to the current version's ordinal
@@ -532,34 +539,13 @@ public final class Version implements Comparable<Version> {
   @Override
   public final int compareTo(Version other) {
     if (other != null) {
-      // [bruce] old implementation used ordinals for comparison, but this requires
-      // ordinals to be in increasing order, which may not always be possible
-//      // byte min/max can't overflow int, so use (a-b)
-//      final int thisOrdinal = this.ordinal;
-//      final int otherOrdinal = o.ordinal;
-//      return (thisOrdinal - otherOrdinal);
-      //[bruce] new implementation uses major/minor/patch/build
-      if (this.majorVersion > other.majorVersion) {
-        return 1;
-      } else if (other.majorVersion > this.majorVersion) {
-        return -1;
-      }
-      if (this.minorVersion > other.minorVersion) {
-        return 1;
-      } else if (other.minorVersion > this.minorVersion) {
-        return -1;
-      }
-      if (this.release > other.release){
-        return 1;
-      } else if (other.release > this.release) {
-        return -1;
-      }
-      if (this.patch > other.patch) {
-        return 1;
-      } else if (other.patch > this.patch) {
-        return -1;
-      }
-      return 0;
+      // ordinals are assigned in increasing order, so they can be compared
+      // directly.  The major/minor/patch/build numbers can't be used since
+      // GEODE 1.0.0 follows GFE 9.0
+      // byte min/max can't overflow int, so use (a-b)
+      final int thisOrdinal = this.ordinal;
+      final int otherOrdinal = other.ordinal;
+      return (thisOrdinal - otherOrdinal);
     }
     else {
       return 1;
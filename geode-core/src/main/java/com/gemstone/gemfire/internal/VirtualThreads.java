@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.apache.logging.log4j.Logger;
+
+import com.gemstone.gemfire.InternalGemFireError;
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
+import com.gemstone.gemfire.internal.logging.LogService;
+
+/**
+ * Creates the threads of thread pools whose threads spend most of their
+ * life blocked, such as the distribution manager's message processing
+ * pools and the p2p reader threads. If the {@link #USE_VIRTUAL_THREADS}
+ * property is set and the JVM has virtual threads (Java 21 and later)
+ * those are virtual threads; otherwise they are daemon platform threads,
+ * as before.
+ * <p>
+ * Virtual threads are looked up by reflection so that this class
+ * compiles and runs on older JVMs.
+ *
+ * @since Geode 1.0
+ */
+public class VirtualThreads {
+
+  private static final Logger logger = LogService.getLogger();
+
+  /**
+   * The system property that makes the distribution manager's pools and
+   * the p2p readers use virtual threads
+   */
+  public static final String USE_VIRTUAL_THREADS =
+      DistributionConfig.GEMFIRE_PREFIX + "useVirtualThreads";
+
+  /** Thread.ofVirtual(), or null if virtual threads are not used */
+  private static final Method ofVirtual;
+  /** Thread.Builder.name(String) */
+  private static final Method name;
+  /** Thread.Builder.uncaughtExceptionHandler(UncaughtExceptionHandler) */
+  private static final Method uncaughtExceptionHandler;
+  /** Thread.Builder.unstarted(Runnable) */
+  private static final Method unstarted;
+
+  static {
+    Method ofVirtualMethod = null;
+    Method nameMethod = null;
+    Method handlerMethod = null;
+    Method unstartedMethod = null;
+    if (Boolean.getBoolean(USE_VIRTUAL_THREADS)) {
+      try {
+        Class<?> builder = Class.forName("java.lang.Thread$Builder");
+        ofVirtualMethod = Thread.class.getMethod("ofVirtual");
+        nameMethod = builder.getMethod("name", String.class);
+        handlerMethod = builder.getMethod("uncaughtExceptionHandler",
+            Thread.UncaughtExceptionHandler.class);
+        unstartedMethod = builder.getMethod("unstarted", Runnable.class);
+        logger.info("Using virtual threads for message processing and p2p reader threads");
+      } catch (ClassNotFoundException | NoSuchMethodException e) {
+        ofVirtualMethod = null;
+        logger.info("Virtual threads are not available in this JVM; using platform threads for message processing and p2p reader threads");
+      }
+    }
+    ofVirtual = ofVirtualMethod;
+    name = nameMethod;
+    uncaughtExceptionHandler = handlerMethod;
+    unstarted = unstartedMethod;
+  }
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * Returns true if {@link #newThread} creates virtual threads.
+   */
+  public static boolean isEnabled() {
+    return ofVirtual != null;
+  }
+
+  /**
+   * Returns a new, unstarted thread that runs the given task. It is a
+   * virtual thread whose uncaught exceptions are handled by the given
+   * group if virtual threads are enabled, and otherwise a daemon thread in
+   * the given group.
+   *
+   * @param name the name of the thread, or null for a generated one
+   */
+  public static Thread newThread(ThreadGroup group, Runnable task, String name) {
+    if (ofVirtual == null) {
+      Thread thread = name == null ? new Thread(group, task) : new Thread(group, task, name);
+      thread.setDaemon(true);
+      return thread;
+    }
+    try {
+      Object builder = ofVirtual.invoke(null);
+      if (name != null) {
+        builder = VirtualThreads.name.invoke(builder, name);
+      }
+      builder = uncaughtExceptionHandler.invoke(builder, group);
+      return (Thread)unstarted.invoke(builder, task);
+    } catch (IllegalAccessException e) {
+      throw new InternalGemFireError(e);
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException)cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error)cause;
+      }
+      throw new InternalGemFireError(cause);
+    }
+  }
+}
@@ -36,6 +36,7 @@ import com.gemstone.gemfire.internal.cache.lru.LRUAlgorithm;
 import com.gemstone.gemfire.internal.cache.lru.LRUEntry;
 import com.gemstone.gemfire.internal.cache.lru.LRUStatistics;
 import com.gemstone.gemfire.internal.cache.lru.MemLRUCapacityController;
+import com.gemstone.gemfire.internal.cache.lru.NewLFUClockHand;
 import com.gemstone.gemfire.internal.cache.lru.NewLIFOClockHand;
 import com.gemstone.gemfire.internal.cache.lru.NewLRUClockHand;
 import com.gemstone.gemfire.internal.cache.versions.RegionVersionVector;
@@ -103,11 +104,25 @@ public abstract class AbstractLRURegionMap extends AbstractRegionMap {
     if (ea == EvictionAlgorithm.LIFO_ENTRY || ea == EvictionAlgorithm.LIFO_MEMORY ) {
       _setLruList(new NewLIFOClockHand(owner, _getCCHelper(), internalRegionArgs));
     }
+    else if (NewLFUClockHand.ENABLED) {
+      _setLruList(new NewLFUClockHand(owner, _getCCHelper(), internalRegionArgs));
+    }
     else {
       _setLruList(new NewLRUClockHand(owner, _getCCHelper(), internalRegionArgs));
     }
   }
 
+  /**
+   * Records an access of <code>re</code> in the frequency sketch of the LRU
+   * list, if it keeps one.
+   */
+  final void lruEntryAccessed(RegionEntry re) {
+    NewLRUClockHand lruList = _getLruList();
+    if (lruList instanceof NewLFUClockHand && re instanceof LRUEntry) {
+      ((NewLFUClockHand)lruList).recordAccess((LRUEntry)re);
+    }
+  }
+
   @Override
   public void changeOwner(LocalRegion r) {
     super.changeOwner(r);
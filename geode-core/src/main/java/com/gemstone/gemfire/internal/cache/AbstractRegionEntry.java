@@ -32,6 +32,7 @@ import com.gemstone.gemfire.distributed.internal.DistributionConfig;
 import com.gemstone.gemfire.distributed.internal.membership.InternalDistributedMember;
 import com.gemstone.gemfire.internal.*;
 import com.gemstone.gemfire.internal.cache.lru.LRUClockNode;
+import com.gemstone.gemfire.internal.cache.lru.NewLFUClockHand;
 import com.gemstone.gemfire.internal.cache.lru.NewLRUClockHand;
 import com.gemstone.gemfire.internal.cache.persistence.DiskStoreID;
 import com.gemstone.gemfire.internal.cache.versions.*;
@@ -400,7 +401,7 @@ public abstract class AbstractRegionEntry implements RegionEntry,
     } else {
       result = OffHeapHelper.copyAndReleaseIfNeeded(result);
       ReferenceCountHelper.setReferenceCountOwner(null);
-      setRecentlyUsed();
+      setRecentlyUsed(context);
       return result;
     }
   }
@@ -412,7 +413,7 @@ public abstract class AbstractRegionEntry implements RegionEntry,
     if (Token.isRemoved(result)) {
       return null;
     } else {
-      setRecentlyUsed();
+      setRecentlyUsed(context);
       return result;
     }
   }
@@ -440,7 +441,21 @@ public abstract class AbstractRegionEntry implements RegionEntry,
       ((LocalRegion)context).checkReadiness();
     }
     if (recentlyUsed) {
-      setRecentlyUsed();
+      setRecentlyUsed(context);
+    }
+  }
+
+  /**
+   * Marks this entry recently used and, if its region's LRU list keeps a
+   * frequency sketch, records the access in it.
+   */
+  private void setRecentlyUsed(RegionEntryContext context) {
+    setRecentlyUsed();
+    if (NewLFUClockHand.ENABLED && context instanceof LocalRegion) {
+      RegionMap rm = ((LocalRegion)context).getRegionMap();
+      if (rm instanceof AbstractLRURegionMap) {
+        ((AbstractLRURegionMap)rm).lruEntryAccessed(this);
+      }
     }
   }
 
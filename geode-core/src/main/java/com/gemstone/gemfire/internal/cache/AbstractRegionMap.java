@@ -776,6 +776,8 @@ public abstract class AbstractRegionMap implements RegionMap {
           newValue = CachedDeserializableFactory.create(original,
               ((CachedDeserializable)newValue).getSizeInBytes());
         }
+        HARegionQueue.updateOffHeapQueuedBytes(haContainer, owner.getName(),
+            entry != null ? original : haEventWrapper, true);
       }
     }
     
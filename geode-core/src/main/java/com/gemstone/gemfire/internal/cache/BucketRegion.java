@@ -42,10 +42,12 @@ import com.gemstone.gemfire.internal.cache.partitioned.PartitionMessage;
 import com.gemstone.gemfire.internal.cache.partitioned.PutAllPRMessage;
 import com.gemstone.gemfire.internal.cache.partitioned.PutMessage;
 import com.gemstone.gemfire.internal.cache.partitioned.RemoveAllPRMessage;
+import com.gemstone.gemfire.internal.cache.tier.sockets.VersionedObjectList;
 import com.gemstone.gemfire.internal.cache.tier.sockets.CacheClientNotifier;
 import com.gemstone.gemfire.internal.cache.tier.sockets.ClientProxyMembershipID;
 import com.gemstone.gemfire.internal.cache.tier.sockets.ClientTombstoneMessage;
 import com.gemstone.gemfire.internal.cache.tier.sockets.ClientUpdateMessage;
+import com.gemstone.gemfire.internal.cache.versions.ConcurrentCacheModificationException;
 import com.gemstone.gemfire.internal.cache.versions.VersionSource;
 import com.gemstone.gemfire.internal.cache.versions.VersionStamp;
 import com.gemstone.gemfire.internal.cache.versions.VersionTag;
@@ -836,6 +838,8 @@ implements Bucket
         || event.getOperation().isLocal() 
         || event.getOperation().isPutAll()
         || event.getOperation().isRemoveAll()
+        // expiry destroys batched by expireDestroyAll already hold the locks
+        || event.isBulkOpInProgress()
         || (event.isExpiration() && isEntryEvictDestroyEnabled() 
             || event.isPendingSecondaryExpireDestroy()));
   }
@@ -1087,6 +1091,126 @@ implements Bucket
     }
   }
   
+  /**
+   * Performs the given expiration tasks of this bucket. The entries that are
+   * due to be destroyed are destroyed as one removeAll style operation so that
+   * a single message is sent to the secondaries. All other tasks, and all the
+   * tasks if this bucket is not primary, are performed one at a time.
+   */
+  final void performExpiryTimeouts(List<EntryExpiryTask> tasks)
+  {
+    if (tasks.isEmpty() || isCacheClosing() || isClosed() || isDestroyed()) {
+      return;
+    }
+    tasks.get(0).waitOnExpirationSuspension();
+    final long start = CachePerfStats.getStatTime();
+    boolean lockedForPrimary = false;
+    try {
+      lockedForPrimary = doLockForPrimary(false);
+    } catch (PrimaryBucketException e) {
+      // fall through and let each task handle it
+    }
+    if (!lockedForPrimary || isEntryEvictDestroyEnabled()) {
+      if (lockedForPrimary) {
+        doUnlockForPrimary();
+      }
+      for (EntryExpiryTask task : tasks) {
+        task.run();
+      }
+      return;
+    }
+    int expired = 0;
+    try {
+      List<EntryExpiryTask> removes = new ArrayList<EntryExpiryTask>(tasks.size());
+      for (EntryExpiryTask task : tasks) {
+        try {
+          if (task.getKey() != null && task.canDestroyInRemoveAll()) {
+            removes.add(task);
+          } else {
+            task.basicPerformTimeout(false);
+          }
+        } catch (EntryNotFoundException ignore) {
+          // ignore and try the next expiry task
+        }
+      }
+      if (!removes.isEmpty()) {
+        expired = expireDestroyAll(removes);
+      }
+    }
+    catch (RegionDestroyedException re) {
+      // Ignore - our job is done
+    }
+    catch (CancelException ex) {
+      // ignore
+    }
+    catch (VirtualMachineError err) {
+      SystemFailure.initiateFailure(err);
+      // If this ever returns, rethrow the error.  We're poisoned
+      // now, so don't let this thread continue.
+      throw err;
+    }
+    catch (Throwable ex) {
+      // Whenever you catch Error or Throwable, you must also
+      // catch VirtualMachineError (see above).  However, there is
+      // _still_ a possibility that you are dealing with a cascading
+      // error condition, so you also need to check to see if the JVM
+      // is still usable:
+      SystemFailure.checkFailure();
+      logger.fatal(LocalizedMessage.create(LocalizedStrings.LocalRegion_EXCEPTION_IN_EXPIRATION_TASK), ex);
+    }
+    finally {
+      doUnlockForPrimary();
+      if (ExpiryTask.expiryTaskListener != null) {
+        for (EntryExpiryTask task : tasks) {
+          ExpiryTask.expiryTaskListener.afterTaskRan(task);
+        }
+      }
+    }
+    this.cache.getCachePerfStats().endExpiryBatch(expired, start);
+  }
+
+  /**
+   * Destroys the entries of the given tasks using a single
+   * DistributedRemoveAllOperation. Must be called while holding the primary lock.
+   * @return the number of entries destroyed
+   */
+  private int expireDestroyAll(List<EntryExpiryTask> tasks) {
+    Object[] keys = new Object[tasks.size()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = tasks.get(i).getKey();
+    }
+    @Released EntryEventImpl baseEvent = EntryEventImpl.create(
+        this, Operation.REMOVEALL_DESTROY, null, null, null, false, getMyId());
+    try {
+      if (generateEventID()) {
+        baseEvent.setNewEventId(cache.getDistributedSystem());
+      }
+      DistributedRemoveAllOperation op = new DistributedRemoveAllOperation(baseEvent, keys.length, false);
+      VersionedObjectList versions = new VersionedObjectList(keys.length, true, getConcurrencyChecksEnabled());
+      waitUntilLocked(keys);
+      try {
+        for (EntryExpiryTask task : tasks) {
+          try {
+            VersionTag tag = task.destroyInRemoveAll(op);
+            versions.addKeyAndVersion(task.getKey(), tag);
+          } catch (EntryNotFoundException ignore) {
+            // destroyed by someone else
+          } catch (ConcurrentCacheModificationException ignore) {
+            // a newer version of the entry exists
+          }
+        }
+        checkReadiness();
+        getDataView().postRemoveAll(op, versions, this);
+      } finally {
+        removeAndNotifyKeys(keys);
+        op.freeOffHeapResources();
+      }
+      return versions.size();
+    } finally {
+      baseEvent.release();
+    }
+  }
+
   /**
    * Creates an event for the EVICT_DESTROY operation so that events will fire
    * for Partitioned Regions.
@@ -1177,7 +1301,9 @@ implements Bucket
       }
     }
 
-    if (!event.getOperation().isRemoveAll()) {  // removeAll will invoke listeners later
+    // removeAll, and expiry destroys batched into a removeAll operation,
+    // will invoke listeners later
+    if (!event.getOperation().isRemoveAll() && !event.isBulkOpInProgress()) {
       event.invokeCallbacks(this,true, false);    
     }
   }
@@ -72,11 +72,13 @@ public class CachePerfStats {
   protected static final int eventQueueThrottleCountId;  
   protected static final int eventThreadsId;  
   protected static final int missesId;  
+  protected static final int invalidatedMissesId;
   protected final static int queryExecutionsId;
   protected final static int queryExecutionTimeId;
   protected final static int queryResultsHashCollisionsId;
   protected final static int queryResultsHashCollisionProbeTimeId;
   protected final static int partitionedRegionQueryRetriesId;
+  protected final static int pdxDeserializationsAvoidedId;
 
   protected static final int txSuccessLifeTimeId;
   protected static final int txFailedLifeTimeId;
@@ -111,6 +113,18 @@ public class CachePerfStats {
   protected static final int evictorQueueSizeId;
   
   protected static final int evictWorkTimeId;
+  protected static final int evictorPassesId;
+  protected static final int evictorBytesReclaimedId;
+  protected static final int evictionThresholdCrossingsId;
+  protected static final int evictionThresholdTimeId;
+
+  protected static final int expiryWheelTasksId;
+  protected static final int expiryWheelBatchesId;
+  protected static final int expiryWheelExpirationsId;
+  protected static final int expiryWheelLagId;
+  protected static final int expiryBatchesId;
+  protected static final int expiryBatchEntriesId;
+  protected static final int expiryBatchTimeId;
   
 
   protected static final int indexUpdateInProgressId;
@@ -204,11 +218,13 @@ public class CachePerfStats {
     final String eventQueueThrottleCountDesc = "The total number of times a thread was delayed in adding an event to the event queue.";
     final String eventThreadsDesc = "The number of threads currently processing events.";
     final String missesDesc = "Total number of times a get on the cache did not find a value already in local memory. The number of hits (i.e. gets that did not miss) can be calculated by subtracting misses from gets.";
+    final String invalidatedMissesDesc = "Total number of times a get on the cache found an entry whose value had been invalidated, for example by a server invalidate event on a client near cache. These gets are also counted as misses.";
     final String queryExecutionsDesc = "Total number of times some query has been executed";
     final String queryExecutionTimeDesc = "Total time spent executing queries";
     final String queryResultsHashCollisionsDesc= "Total number of times an hash code collision occurred when inserting an object into an OQL result set or rehashing it";
     final String queryResultsHashCollisionProbeTimeDesc= "Total time spent probing the hashtable in an OQL result set due to hash code collisions, includes reads, writes, and rehashes";
     final String partitionedRegionOQLQueryRetriesDesc = "Total number of times an OQL Query on a Partitioned Region had to be retried";
+    final String pdxDeserializationsAvoidedDesc = "Total number of times an index read the field it is on directly from a serialized PDX value instead of deserializing the value";
     final String txSuccessLifeTimeDesc = "The total amount of time, in nanoseconds, spent in a transaction before a successful commit. The time measured starts at transaction begin and ends when commit is called.";
     final String txFailedLifeTimeDesc = "The total amount of time, in nanoseconds, spent in a transaction before a failed commit. The time measured starts at transaction begin and ends when commit is called.";
     final String txRollbackLifeTimeDesc = "The total amount of time, in nanoseconds, spent in a transaction before an explicit rollback. The time measured starts at transaction begin and ends when rollback is called.";
@@ -303,6 +319,7 @@ public class CachePerfStats {
         f.createIntCounter("invalidates", invalidatesDesc, "operations"), 
         f.createIntCounter("gets", getsDesc, "operations"), 
         f.createIntCounter("misses", missesDesc, "operations"), 
+        f.createIntCounter("invalidatedMisses", invalidatedMissesDesc, "operations"), 
         f.createIntCounter("creates", createsDesc, "operations"), 
         f.createIntCounter("puts", putsDesc, "operations"), 
         f.createLongCounter("putTime", putTimeDesc, "nanoseconds", false), 
@@ -320,6 +337,7 @@ public class CachePerfStats {
         f.createIntCounter("queryResultsHashCollisions", queryResultsHashCollisionsDesc, "operations"),
         f.createLongCounter("queryResultsHashCollisionProbeTime", queryResultsHashCollisionProbeTimeDesc, "nanoseconds"),
         f.createLongCounter("partitionedRegionQueryRetries", partitionedRegionOQLQueryRetriesDesc, "retries"),
+        f.createLongCounter("pdxDeserializationsAvoided", pdxDeserializationsAvoidedDesc, "operations"),
 
         f.createIntCounter("txCommits", txCommitsDesc, "commits"), 
         f.createIntCounter("txCommitChanges", txCommitChangesDesc, "changes"), 
@@ -362,6 +380,17 @@ public class CachePerfStats {
         f.createIntGauge("evictorJobsCompleted", "Number of evictor jobs completed", "jobs"),
         f.createIntGauge("evictorQueueSize", "Number of jobs waiting to be picked up by evictor threads", "jobs"),
         f.createLongCounter("evictWorkTime", "Total time spent doing eviction work in background threads", "nanoseconds", false),
+        f.createLongCounter("evictorPasses", "Total number of passes in which the evictor submitted eviction jobs", "operations"),
+        f.createLongCounter("evictorBytesReclaimed", "Total number of bytes evicted by evictor jobs", "bytes"),
+        f.createLongCounter("evictionThresholdCrossings", "Total number of times memory usage went above the eviction threshold and then back below it", "operations"),
+        f.createLongCounter("evictionThresholdTime", "Total time memory usage spent above the eviction threshold before eviction brought it back below", "milliseconds", false),
+        f.createLongGauge("expiryWheelTasks", "Current number of expiration tasks scheduled on the expiration timing wheel", "tasks"),
+        f.createLongCounter("expiryWheelBatches", "Total number of batches of expiration tasks fired by the expiration timing wheel", "operations"),
+        f.createLongCounter("expiryWheelExpirations", "Total number of expiration tasks fired by the expiration timing wheel", "tasks"),
+        f.createLongCounter("expiryWheelLag", "Total time between when expiration tasks were due and when the expiration timing wheel fired them", "milliseconds", false),
+        f.createLongCounter("expiryBatches", "Total number of bucket expiration batches processed", "operations"),
+        f.createLongCounter("expiryBatchEntries", "Total number of entries destroyed by bucket expiration batches", "entries"),
+        f.createLongCounter("expiryBatchTime", "Total time spent processing bucket expiration batches", "nanoseconds", false),
         f.createLongCounter("nonSingleHopsCount", nonSingleHopsDesc,"Total number of times client request observed more than one hop during operation.", false),
         f.createLongCounter("metaDataRefreshCount",metaDataRefreshCountDesc, "Total number of times the meta data is refreshed due to hopping.", false),
         f.createIntCounter("deltaUpdates", deltaUpdatesDesc, "operations"), 
@@ -436,6 +465,7 @@ public class CachePerfStats {
     getsId = type.nameToId("gets");
     getTimeId = type.nameToId("getTime");
     missesId = type.nameToId("misses");
+    invalidatedMissesId = type.nameToId("invalidatedMisses");
     eventQueueSizeId = type.nameToId("eventQueueSize");  
     eventQueueThrottleTimeId = type.nameToId("eventQueueThrottleTime");
     eventQueueThrottleCountId = type.nameToId("eventQueueThrottleCount");
@@ -445,6 +475,7 @@ public class CachePerfStats {
     queryResultsHashCollisionsId = type.nameToId("queryResultsHashCollisions");
     queryResultsHashCollisionProbeTimeId = type.nameToId("queryResultsHashCollisionProbeTime");
     partitionedRegionQueryRetriesId = type.nameToId("partitionedRegionQueryRetries");
+    pdxDeserializationsAvoidedId = type.nameToId("pdxDeserializationsAvoided");
 
     txSuccessLifeTimeId = type.nameToId("txSuccessLifeTime");
     txFailedLifeTimeId = type.nameToId("txFailedLifeTime");
@@ -481,6 +512,18 @@ public class CachePerfStats {
     evictorJobsCompletedId = type.nameToId("evictorJobsCompleted");
     evictorQueueSizeId = type.nameToId("evictorQueueSize");
     evictWorkTimeId = type.nameToId("evictWorkTime");
+    evictorPassesId = type.nameToId("evictorPasses");
+    evictorBytesReclaimedId = type.nameToId("evictorBytesReclaimed");
+    evictionThresholdCrossingsId = type.nameToId("evictionThresholdCrossings");
+    evictionThresholdTimeId = type.nameToId("evictionThresholdTime");
+
+    expiryWheelTasksId = type.nameToId("expiryWheelTasks");
+    expiryWheelBatchesId = type.nameToId("expiryWheelBatches");
+    expiryWheelExpirationsId = type.nameToId("expiryWheelExpirations");
+    expiryWheelLagId = type.nameToId("expiryWheelLag");
+    expiryBatchesId = type.nameToId("expiryBatches");
+    expiryBatchEntriesId = type.nameToId("expiryBatchEntries");
+    expiryBatchTimeId = type.nameToId("expiryBatchTime");
     
     nonSingleHopsCountId = type.nameToId("nonSingleHopsCount");
     metaDataRefreshCountId = type.nameToId("metaDataRefreshCount");
@@ -626,6 +669,9 @@ public class CachePerfStats {
    public int getMisses() {
      return stats.getInt(missesId);
    }
+   public int getInvalidatedMisses() {
+     return stats.getInt(invalidatedMissesId);
+   }
    
    public int getReliableQueuedOps() {
      return stats.getInt(reliableQueuedOpsId);
@@ -957,6 +1003,10 @@ public class CachePerfStats {
       stats.incInt(missesId, 1);
     }
   }
+
+  public void incInvalidatedMisses() {
+    stats.incInt(invalidatedMissesId, 1);
+  }
   /**
    * @param start the timestamp taken when the operation started
    * @param isUpdate true if the put was an update (origin remote)
@@ -1007,6 +1057,14 @@ public class CachePerfStats {
   public void incQueryResultsHashCollisions() {
     stats.incInt(queryResultsHashCollisionsId, 1);
   }
+
+  public void incPdxDeserializationsAvoided() {
+    stats.incLong(pdxDeserializationsAvoidedId, 1);
+  }
+
+  public long getPdxDeserializationsAvoided() {
+    return stats.getLong(pdxDeserializationsAvoidedId);
+  }
   
    public int getTxCommits() {
      return stats.getInt(txCommitsId);
@@ -1169,6 +1227,67 @@ public class CachePerfStats {
   public void incEvictWorkTime(long delta) {
     this.stats.incLong(evictWorkTimeId, delta);
   }
+  public void incEvictorPasses() {
+    this.stats.incLong(evictorPassesId, 1);
+  }
+  public long getEvictorPasses() {
+    return this.stats.getLong(evictorPassesId);
+  }
+  public void incEvictorBytesReclaimed(long bytes) {
+    this.stats.incLong(evictorBytesReclaimedId, bytes);
+  }
+  public long getEvictorBytesReclaimed() {
+    return this.stats.getLong(evictorBytesReclaimedId);
+  }
+  /**
+   * Records that memory usage dropped back below the eviction threshold
+   * @param millis how long usage was above the threshold
+   */
+  public void endEvictionThresholdCrossing(long millis) {
+    this.stats.incLong(evictionThresholdCrossingsId, 1);
+    this.stats.incLong(evictionThresholdTimeId, millis);
+  }
+  public long getEvictionThresholdCrossings() {
+    return this.stats.getLong(evictionThresholdCrossingsId);
+  }
+
+  public void incExpiryWheelTasks(int delta) {
+    this.stats.incLong(expiryWheelTasksId, delta);
+  }
+  public long getExpiryWheelTasks() {
+    return this.stats.getLong(expiryWheelTasksId);
+  }
+  /**
+   * @param taskCount the number of tasks fired in the batch
+   * @param lagMillis the sum of how late each task in the batch fired
+   */
+  public void endExpiryWheelBatch(int taskCount, long lagMillis) {
+    this.stats.incLong(expiryWheelBatchesId, 1);
+    this.stats.incLong(expiryWheelExpirationsId, taskCount);
+    this.stats.incLong(expiryWheelLagId, lagMillis);
+  }
+  public long getExpiryWheelBatches() {
+    return this.stats.getLong(expiryWheelBatchesId);
+  }
+  public long getExpiryWheelExpirations() {
+    return this.stats.getLong(expiryWheelExpirationsId);
+  }
+  public long getExpiryWheelLag() {
+    return this.stats.getLong(expiryWheelLagId);
+  }
+  public void endExpiryBatch(int entryCount, long start) {
+    this.stats.incLong(expiryBatchesId, 1);
+    this.stats.incLong(expiryBatchEntriesId, entryCount);
+    if (enableClockStats) {
+      this.stats.incLong(expiryBatchTimeId, getStatTime() - start);
+    }
+  }
+  public long getExpiryBatches() {
+    return this.stats.getLong(expiryBatchesId);
+  }
+  public long getExpiryBatchEntries() {
+    return this.stats.getLong(expiryBatchEntriesId);
+  }
 
   /**
    * Returns the Statistics instance that stores the cache perf stats.
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache;
+
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
+
+/**
+ * A token bucket that limits how fast the oplog compactor reads and writes.
+ * <p>
+ * The bucket fills at the configured number of megabytes per second and holds
+ * at most one second worth of bytes. The compactor asks for the bytes of each
+ * chunk it copies forward. If the bucket does not hold enough, the compactor
+ * goes into debt and sleeps until the debt has been paid off. A limit of zero
+ * turns throttling off. The limit can be changed at any time.
+ *
+ * @since Geode 1.0
+ */
+final class CompactionRateLimiter {
+
+  /**
+   * The initial compaction rate limit, in megabytes per second, of each disk
+   * store. Zero means unlimited.
+   */
+  static final int DEFAULT_RATE_LIMIT = Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "DiskStore.compactionRateLimit", 0);
+
+  /**
+   * The longest a throttled compactor sleeps before checking if it should
+   * stop.
+   */
+  private static final long MAX_SLEEP_MILLIS = 100;
+
+  private static final long NANOS_PER_SECOND = 1000000000L;
+
+  private volatile int megabytesPerSecond;
+
+  /** Bytes in the bucket; negative when in debt. Guarded by this. */
+  private long availableBytes;
+
+  /** When the bucket was last filled. Guarded by this. */
+  private long lastRefillNanos;
+
+  CompactionRateLimiter(int megabytesPerSecond) {
+    setRate(megabytesPerSecond);
+  }
+
+  int getRate() {
+    return this.megabytesPerSecond;
+  }
+
+  synchronized void setRate(int megabytesPerSecond) {
+    if (megabytesPerSecond < 0) {
+      throw new IllegalArgumentException("Compaction rate limit must not be negative but was " + megabytesPerSecond);
+    }
+    this.megabytesPerSecond = megabytesPerSecond;
+    this.availableBytes = Math.min(this.availableBytes, bytesPerSecond(megabytesPerSecond));
+    this.lastRefillNanos = System.nanoTime();
+  }
+
+  private static long bytesPerSecond(int megabytesPerSecond) {
+    return megabytesPerSecond * 1024L * 1024L;
+  }
+
+  /**
+   * Takes <code>bytes</code> from the bucket.
+   *
+   * @return how many nanoseconds the caller needs to wait before the bytes are
+   *         paid for
+   */
+  synchronized long reserve(long bytes, long nowNanos) {
+    final long rate = bytesPerSecond(this.megabytesPerSecond);
+    if (rate <= 0 || bytes <= 0) {
+      return 0;
+    }
+    long elapsed = nowNanos - this.lastRefillNanos;
+    if (elapsed > 0) {
+      long refill = elapsed >= NANOS_PER_SECOND ? rate : (elapsed * rate) / NANOS_PER_SECOND;
+      this.availableBytes = Math.min(rate, this.availableBytes + refill);
+      this.lastRefillNanos = nowNanos;
+    }
+    this.availableBytes -= bytes;
+    if (this.availableBytes >= 0) {
+      return 0;
+    }
+    return (-this.availableBytes * NANOS_PER_SECOND) / rate;
+  }
+
+  /**
+   * Takes <code>bytes</code> from the bucket, sleeping as long as needed to
+   * stay under the rate limit. Stops waiting early if the compactor is told
+   * to stop.
+   *
+   * @return the number of nanoseconds spent waiting
+   */
+  long acquire(long bytes, DiskStoreImpl.OplogCompactor compactor) {
+    long waitNanos = reserve(bytes, System.nanoTime());
+    if (waitNanos <= 0) {
+      return 0;
+    }
+    final long start = System.nanoTime();
+    final long end = start + waitNanos;
+    try {
+      long remaining = waitNanos;
+      while (remaining > 0 && (compactor == null || compactor.keepCompactorRunning())) {
+        long millis = Math.min(MAX_SLEEP_MILLIS, Math.max(1, remaining / 1000000));
+        Thread.sleep(millis);
+        remaining = end - System.nanoTime();
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+    return System.nanoTime() - start;
+  }
+}
@@ -24,6 +24,7 @@ import com.gemstone.gemfire.cache.*;
 import com.gemstone.gemfire.cache.persistence.PersistentID;
 import com.gemstone.gemfire.distributed.DistributedSystem;
 import com.gemstone.gemfire.distributed.internal.DistributionConfig;
+import com.gemstone.gemfire.distributed.internal.DistributionStats;
 import com.gemstone.gemfire.distributed.internal.InternalDistributedSystem;
 import com.gemstone.gemfire.distributed.internal.membership.InternalDistributedMember;
 import com.gemstone.gemfire.i18n.StringId;
@@ -321,6 +322,9 @@ public class DiskStoreImpl implements DiskStore {
   private final CountDownLatch _testHandleDiskAccessException = new CountDownLatch(1);
   
   private final ThreadPoolExecutor diskStoreTaskPool;
+
+  private final CompactionRateLimiter compactionRateLimiter = new CompactionRateLimiter(
+      CompactionRateLimiter.DEFAULT_RATE_LIMIT);
   
   private final ThreadPoolExecutor delayedWritePool;
   private volatile Future lastDelayedWrite;
@@ -2711,6 +2715,9 @@ public class DiskStoreImpl implements DiskStore {
       max = MAX_OPLOGS_PER_COMPACTION;
     }
     persistentOplogs.getCompactableOplogs(l, max);
+    if (!all) {
+      getStats().setCompactionDebt(persistentOplogs.getCompactionDebt());
+    }
 
     // Note this always puts overflow oplogs on the end of the list.
     // They may get starved.
@@ -2850,6 +2857,12 @@ public class DiskStoreImpl implements DiskStore {
 
     private final boolean compactionCompletionRequired;
 
+    /**
+     * Bytes of the last chunk copied forward by the oplog being compacted that
+     * the compaction rate limit has not been applied to yet.
+     */
+    private long compactedBytes;
+
     OplogCompactor() {
       this.compactionCompletionRequired = Boolean
           .getBoolean(COMPLETE_COMPACTION_BEFORE_TERMINATION_PROPERTY_NAME);
@@ -2932,6 +2945,10 @@ public class DiskStoreImpl implements DiskStore {
                                                                      * isDestroyed
                                                                      */; i++) {
           totalCount += oplogs[i].compact(this);
+          // an oplog applies the rate limit itself between chunks; the bytes
+          // of its last chunk are paid for once it has released its locks
+          throttleCompaction(this.compactedBytes, this);
+          this.compactedBytes = 0;
         }
 
         // TODO:Asif : DiskRegion: How do we tackle
@@ -2944,6 +2961,14 @@ public class DiskStoreImpl implements DiskStore {
       return true /* @todo !owner.isDestroyed */;
     }
 
+    /**
+     * Called by an oplog being compacted with the number of bytes it read and
+     * wrote.
+     */
+    void addCompactedBytes(long bytes) {
+      this.compactedBytes += bytes;
+    }
+
     private boolean isClosing() {
       if (getCache().isClosed()) {
         return true;
@@ -3521,6 +3546,35 @@ public class DiskStoreImpl implements DiskStore {
     return criticalPercent;
   }
 
+  /**
+   * Returns the maximum rate, in megabytes per second, at which the compactor
+   * copies oplog data forward. Zero means unlimited.
+   */
+  public int getCompactionRateLimit() {
+    return this.compactionRateLimiter.getRate();
+  }
+
+  /**
+   * Sets the maximum rate, in megabytes per second, at which the compactor
+   * copies oplog data forward. Zero means unlimited. Takes effect on the next
+   * chunk the compactor copies.
+   */
+  public void setCompactionRateLimit(int megabytesPerSecond) {
+    this.compactionRateLimiter.setRate(megabytesPerSecond);
+  }
+
+  /**
+   * Called by the compactor after it has read and written
+   * <code>bytes</code>; waits if needed to stay under the compaction rate
+   * limit. Must not be called while holding any oplog or compactor lock.
+   */
+  void throttleCompaction(long bytes, OplogCompactor compactor) {
+    long waited = this.compactionRateLimiter.acquire(bytes, compactor);
+    if (waited > 0) {
+      getStats().incCompactionThrottleTime(waited);
+    }
+  }
+
   @Override
   public void setDiskUsageWarningPercentage(float warningPercent) {
     DiskStoreMonitor.checkWarning(warningPercent);
@@ -3613,6 +3667,11 @@ public class DiskStoreImpl implements DiskStore {
     public int size() {
       return this.ints.size() + this.longs.size();
     }
+
+    public void addAll(OplogEntryIdSet other) {
+      this.ints.addAll(other.ints);
+      this.longs.addAll(other.longs);
+    }
   }
 
   /**
@@ -4569,6 +4628,7 @@ public class DiskStoreImpl implements DiskStore {
     public void run() {
       synchronized (asyncValueRecoveryLock) {
         DiskStoreObserver.startAsyncValueRecovery(DiskStoreImpl.this);
+        final long start = DistributionStats.getStatTime();
         try {
           for (Oplog oplog : oplogSet) {
             oplog.recoverValuesIfNeeded(currentAsyncValueRecoveryMap);
@@ -4581,6 +4641,7 @@ public class DiskStoreImpl implements DiskStore {
                 recoveredStores.keySet());
             currentAsyncValueRecoveryMap.notifyAll();
           }
+          getStats().endRecoveryValuePhase(start);
           DiskStoreObserver.endAsyncValueRecovery(DiskStoreImpl.this);
         }
       }
@@ -80,6 +80,23 @@ public class DiskStoreStats {
   private static final int backupsInProgress;
   private static final int backupsCompleted;
 
+  private static final int groupCommitsId;
+  private static final int groupCommitWritesId;
+  private static final int groupCommitSyncTimeId;
+  private static final int groupCommitSyncsUnder1msId;
+  private static final int groupCommitSyncs1To10msId;
+  private static final int groupCommitSyncsOver10msId;
+  private static final int groupCommitWaitTimeId;
+
+  private static final int recoveryDrfTimeId;
+  private static final int recoveryCrfTimeId;
+  private static final int recoveryValueTimeId;
+  private static final int recoveryOplogsRemainingId;
+
+  private static final int compactionDebtId;
+  private static final int compactionThrottlesId;
+  private static final int compactionThrottleTimeId;
+
   static {
     String statName = "DiskStoreStatistics";
     String statDescription =
@@ -172,6 +189,20 @@ public class DiskStoreStats {
          f.createIntGauge("uncreatedRecoveredRegions", "The current number of regions that have been recovered but have not yet been created.", "regions"),
          f.createIntGauge("backupsInProgress", backupsInProgressDesc, "backups"),
          f.createIntCounter("backupsCompleted", backupsCompletedDesc, "backups"),
+         f.createLongCounter("groupCommits", "Total number of times a group of synchronous oplog writes was flushed together", "commits"),
+         f.createLongCounter("groupCommitWrites", "Total number of synchronous oplog writes flushed by group commits", "writes"),
+         f.createLongCounter("groupCommitSyncTime", "Total amount of time, in nanoseconds, spent flushing and forcing group commits to disk", "nanoseconds"),
+         f.createLongCounter("groupCommitSyncsUnder1ms", "Total number of group commit flushes that took less than one millisecond", "commits"),
+         f.createLongCounter("groupCommitSyncs1To10ms", "Total number of group commit flushes that took from one to ten milliseconds", "commits"),
+         f.createLongCounter("groupCommitSyncsOver10ms", "Total number of group commit flushes that took more than ten milliseconds", "commits"),
+         f.createLongCounter("groupCommitWaitTime", "Total amount of time, in nanoseconds, synchronous writers spent waiting for their group commit", "nanoseconds"),
+         f.createLongCounter("recoveryDrfTime", "Total amount of time, in nanoseconds, spent reading drf files to find destroyed entries during recovery", "nanoseconds"),
+         f.createLongCounter("recoveryCrfTime", "Total amount of time, in nanoseconds, spent reading crf and krf files to find live entries during recovery", "nanoseconds"),
+         f.createLongCounter("recoveryValueTime", "Total amount of time, in nanoseconds, spent recovering values in the background after recovery", "nanoseconds"),
+         f.createIntGauge("recoveryOplogsRemaining", "The current number of oplogs whose entries have not yet been recovered", "oplogs"),
+         f.createLongGauge("compactionDebt", "An estimate of the number of bytes that compacting the oplogs that are ready to be compacted would reclaim", "bytes"),
+         f.createLongCounter("compactionThrottles", "Total number of times the compactor waited to stay under the compaction rate limit", "waits"),
+         f.createLongCounter("compactionThrottleTime", "Total amount of time, in nanoseconds, the compactor spent waiting to stay under the compaction rate limit", "nanoseconds"),
        });
 
     // Initialize id fields
@@ -220,6 +251,20 @@ public class DiskStoreStats {
     uncreatedRecoveredRegionsId = type.nameToId("uncreatedRecoveredRegions");
     backupsInProgress = type.nameToId("backupsInProgress");
     backupsCompleted= type.nameToId("backupsCompleted");
+    groupCommitsId = type.nameToId("groupCommits");
+    groupCommitWritesId = type.nameToId("groupCommitWrites");
+    groupCommitSyncTimeId = type.nameToId("groupCommitSyncTime");
+    groupCommitSyncsUnder1msId = type.nameToId("groupCommitSyncsUnder1ms");
+    groupCommitSyncs1To10msId = type.nameToId("groupCommitSyncs1To10ms");
+    groupCommitSyncsOver10msId = type.nameToId("groupCommitSyncsOver10ms");
+    groupCommitWaitTimeId = type.nameToId("groupCommitWaitTime");
+    recoveryDrfTimeId = type.nameToId("recoveryDrfTime");
+    recoveryCrfTimeId = type.nameToId("recoveryCrfTime");
+    recoveryValueTimeId = type.nameToId("recoveryValueTime");
+    recoveryOplogsRemainingId = type.nameToId("recoveryOplogsRemaining");
+    compactionDebtId = type.nameToId("compactionDebt");
+    compactionThrottlesId = type.nameToId("compactionThrottles");
+    compactionThrottleTimeId = type.nameToId("compactionThrottleTime");
   }
 
   //////////////////////  Instance Fields  //////////////////////
@@ -365,6 +410,39 @@ public class DiskStoreStats {
     return this.stats.getLong(flushesId);
   }
 
+  /**
+   * Invoked after a group of synchronous writes has been flushed
+   *
+   * @param groupSize
+   *        The number of writes the flush covered
+   * @param syncNanos
+   *        How long the flush took
+   */
+  public void endGroupCommit(long groupSize, long syncNanos) {
+    this.stats.incLong(groupCommitsId, 1);
+    this.stats.incLong(groupCommitWritesId, groupSize);
+    this.stats.incLong(groupCommitSyncTimeId, syncNanos);
+    if (syncNanos < 1000000L) {
+      this.stats.incLong(groupCommitSyncsUnder1msId, 1);
+    } else if (syncNanos <= 10000000L) {
+      this.stats.incLong(groupCommitSyncs1To10msId, 1);
+    } else {
+      this.stats.incLong(groupCommitSyncsOver10msId, 1);
+    }
+  }
+
+  public void incGroupCommitWaitTime(long delta) {
+    this.stats.incLong(groupCommitWaitTimeId, delta);
+  }
+
+  public long getGroupCommits() {
+    return this.stats.getLong(groupCommitsId);
+  }
+
+  public long getGroupCommitWrites() {
+    return this.stats.getLong(groupCommitWritesId);
+  }
+
   /**
    * Invoked before data is read from disk.
    *
@@ -440,6 +518,80 @@ public class DiskStoreStats {
     this.stats.incLong(oplogRecoveryTimeId, end - start);
     this.stats.incLong(oplogRecoveredBytesId, bytesRead);
   }
+  /**
+   * Invoked after the drf files of a recovery have been read.
+   *
+   * @param start
+   *        The time at which the drf phase started
+   */
+  public void endRecoveryDrfPhase(long start) {
+    this.stats.incLong(recoveryDrfTimeId, DistributionStats.getStatTime() - start);
+  }
+
+  /**
+   * Invoked after the crf or krf files of a recovery have been read.
+   *
+   * @param start
+   *        The time at which the crf phase started
+   */
+  public void endRecoveryCrfPhase(long start) {
+    this.stats.incLong(recoveryCrfTimeId, DistributionStats.getStatTime() - start);
+  }
+
+  /**
+   * Invoked after a background value recovery task has finished.
+   *
+   * @param start
+   *        The time at which the task started
+   */
+  public void endRecoveryValuePhase(long start) {
+    this.stats.incLong(recoveryValueTimeId, DistributionStats.getStatTime() - start);
+  }
+
+  public void incRecoveryOplogsRemaining(int delta) {
+    this.stats.incInt(recoveryOplogsRemainingId, delta);
+  }
+
+  public int getRecoveryOplogsRemaining() {
+    return this.stats.getInt(recoveryOplogsRemainingId);
+  }
+
+  public long getRecoveryDrfTime() {
+    return this.stats.getLong(recoveryDrfTimeId);
+  }
+
+  public long getRecoveryCrfTime() {
+    return this.stats.getLong(recoveryCrfTimeId);
+  }
+
+  public void setCompactionDebt(long bytes) {
+    this.stats.setLong(compactionDebtId, bytes);
+  }
+
+  public long getCompactionDebt() {
+    return this.stats.getLong(compactionDebtId);
+  }
+
+  /**
+   * Invoked after the compactor waited to stay under the compaction rate
+   * limit.
+   *
+   * @param nanos
+   *        How long the compactor waited
+   */
+  public void incCompactionThrottleTime(long nanos) {
+    this.stats.incLong(compactionThrottlesId, 1);
+    this.stats.incLong(compactionThrottleTimeId, nanos);
+  }
+
+  public long getCompactionThrottles() {
+    return this.stats.getLong(compactionThrottlesId);
+  }
+
+  public long getCompactionThrottleTime() {
+    return this.stats.getLong(compactionThrottleTimeId);
+  }
+
   public void incRecoveredEntryCreates() {
     this.stats.incLong(recoveredEntryCreatesId, 1);
   }
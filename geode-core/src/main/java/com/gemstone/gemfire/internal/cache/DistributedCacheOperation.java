@@ -1061,6 +1061,20 @@ public abstract class DistributedCacheOperation {
       return true;
     }
     
+    /**
+     * Entry operations are ordered by region, which is per bucket for
+     * partitioned regions. They are not ordered by entry key because the
+     * region's EventTracker takes an event whose sequence number is lower
+     * than one it has seen from the same thread to be a duplicate.
+     */
+    @Override
+    protected Object getOrderingKey() {
+      if (this.op == null || !this.op.isEntry()) {
+        return null;
+      }
+      return this.regionPath;
+    }
+
     protected LocalRegion getLocalRegionForProcessing(DistributionManager dm) {
       Assert.assertTrue(this.regionPath != null, "regionPath was null");
       GemFireCacheImpl gfc = (GemFireCacheImpl)CacheFactory.getInstance(dm.getSystem());
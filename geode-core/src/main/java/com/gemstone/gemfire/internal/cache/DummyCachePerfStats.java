@@ -149,6 +149,11 @@ public class DummyCachePerfStats extends CachePerfStats {
     return 0;
   }
 
+  @Override
+  public int getInvalidatedMisses() {
+    return 0;
+  }
+
   @Override
   public int getReliableQueuedOps() {
     return 0;
@@ -331,6 +336,10 @@ public class DummyCachePerfStats extends CachePerfStats {
   public void endGet(long start, boolean miss) {
   }
 
+  @Override
+  public void incInvalidatedMisses() {
+  }
+
   @Override
   public long endPut(long start, boolean isUpdate) {
     return 0;
@@ -344,6 +353,15 @@ public class DummyCachePerfStats extends CachePerfStats {
   public void endQueryExecution(long executionTime) {
   }
 
+  @Override
+  public void incPdxDeserializationsAvoided() {
+  }
+
+  @Override
+  public long getPdxDeserializationsAvoided() {
+    return 0;
+  }
+
   @Override
   public int getTxCommits() {
     return 0;
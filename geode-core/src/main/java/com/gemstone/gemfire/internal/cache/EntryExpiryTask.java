@@ -24,6 +24,7 @@ package com.gemstone.gemfire.internal.cache;
 import com.gemstone.gemfire.cache.*;
 import com.gemstone.gemfire.distributed.internal.DistributionConfig;
 import com.gemstone.gemfire.internal.InternalStatisticsDisabledException;
+import com.gemstone.gemfire.internal.cache.versions.VersionTag;
 import com.gemstone.gemfire.internal.logging.LogService;
 import com.gemstone.gemfire.internal.offheap.annotations.Released;
 import org.apache.logging.log4j.Logger;
@@ -129,6 +130,51 @@ public class EntryExpiryTask extends ExpiryTask {
     }
   }
   
+  /**
+   * Returns true if this task is due and its action is a distributed destroy
+   * that {@link #destroyInRemoveAll} can do. Otherwise the task should be
+   * performed with {@link #basicPerformTimeout(boolean)}.
+   */
+  boolean canDestroyInRemoveAll() throws EntryNotFoundException {
+    if (getLocalRegion().getScope().isGlobal()) {
+      // needs the distributed lock of each key
+      return false;
+    }
+    if (!isExpirationAllowed() || !isExpirationPossible()) {
+      return false;
+    }
+    ExpirationAction action = getAction();
+    return action != null && action.isDestroy();
+  }
+
+  /**
+   * Destroys this task's entry as one of the entries of the given removeAll
+   * operation. The caller is responsible for distributing the operation.
+   * @return the version tag generated for the destroy, if any
+   */
+  VersionTag destroyInRemoveAll(DistributedRemoveAllOperation op) throws CacheException
+  {
+    RegionEntry re = getCheckedRegionEntry();
+    Object key = re.getKey();
+    LocalRegion lr = getLocalRegion();
+    @Released EntryEventImpl event = EntryEventImpl.create(
+        lr, Operation.EXPIRE_DESTROY, key, null,
+        createExpireEntryCallback(lr, key), false, lr.getMyId());
+    try {
+    if (lr.generateEventID()) {
+      event.setNewEventId(lr.getCache().getDistributedSystem());
+    }
+    event.setRemoveAllOperation(op);
+    lr.expireDestroy(event, true);
+    if (expiryTaskListener != null) {
+      expiryTaskListener.afterExpire(this);
+    }
+    return event.getVersionTag();
+    } finally {
+      event.release();
+    }
+  }
+
   @Override
   protected boolean invalidate() throws TimeoutException,
       EntryNotFoundException
@@ -31,6 +31,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  * ExpirationScheduler uses a single instance of java.util.Timer (and
  * therefore a single thread) per VM to schedule and execute region and 
  * entry expiration tasks.
+ * <p>
+ * If the cache was created with the {@link #USE_TIMING_WHEEL} system property
+ * set then an {@link ExpirationTimingWheel} is used instead of the timer.
+ * If {@link #BATCH_THREADS} is also set then the wheel expires the entries of
+ * each bucket that are due in the same tick as a batch.
  */
 
 public class ExpirationScheduler
@@ -38,14 +43,50 @@ public class ExpirationScheduler
   private static final Logger logger = LogService.getLogger();
 
   private final SystemTimer timer;
+  /** Used instead of {@link #timer} if not null */
+  private final ExpirationTimingWheel wheel;
   private final AtomicInteger pendingCancels = new AtomicInteger();
     private static final int MAX_PENDING_CANCELS = Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "MAX_PENDING_CANCELS", 10000).intValue();
 
+  /**
+   * If true then caches schedule expiration on a hashed hierarchical timing
+   * wheel instead of a SystemTimer.
+   */
+  public static final boolean USE_TIMING_WHEEL = Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "EXPIRY_TIMING_WHEEL");
+
+  /**
+   * The number of threads the timing wheel uses to expire buckets in
+   * parallel batches. Zero disables batching.
+   */
+  public static final int BATCH_THREADS = Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "EXPIRY_BATCH_THREADS", 0).intValue();
+
   public ExpirationScheduler(InternalDistributedSystem ds) {
-    this.timer = new SystemTimer(ds, true);
+    this(ds, null, false);
   }
-  
+
+  public ExpirationScheduler(InternalDistributedSystem ds, CachePerfStats stats, boolean useTimingWheel) {
+    if (useTimingWheel) {
+      this.timer = null;
+      this.wheel = new ExpirationTimingWheel(stats, BATCH_THREADS);
+      this.wheel.start();
+    } else {
+      this.timer = new SystemTimer(ds, true);
+      this.wheel = null;
+    }
+  }
+
+  /**
+   * Returns true if this scheduler uses a timing wheel instead of a timer.
+   */
+  public boolean isTimingWheel() {
+    return this.wheel != null;
+  }
+
   public void forcePurge() {
+    if (this.wheel != null) {
+      // cancelled tasks are unlinked from the wheel immediately
+      return;
+    }
     pendingCancels.getAndSet(0);
     this.timer.timerPurge();
   }
@@ -54,6 +95,9 @@ public class ExpirationScheduler
    * Do work, if possible to fix bug 37574.
    */
   public void incCancels() {
+    if (this.wheel != null) {
+      return;
+    }
     int pc = pendingCancels.incrementAndGet();
     if (pc > MAX_PENDING_CANCELS) {
       pc = pendingCancels.getAndSet(0);
@@ -80,7 +124,11 @@ public class ExpirationScheduler
         logger.trace(LocalizedMessage.create(LocalizedStrings.ExpirationScheduler_SCHEDULING__0__TO_FIRE_IN__1__MS, new Object[] {task, Long.valueOf(task.getExpiryMillis())}));
       }
       // To fix bug 52267 do not create a Date here; instead calculate the relative duration.
-      timer.schedule(task, task.getExpiryMillis());
+      if (this.wheel != null) {
+        this.wheel.schedule(task, task.getExpiryMillis());
+      } else {
+        timer.schedule(task, task.getExpiryMillis());
+      }
     }
     catch (EntryNotFoundException e) {
       // ignore - there are unsynchronized paths that allow an entry to
@@ -101,6 +149,10 @@ public class ExpirationScheduler
 
   /** @see java.util.Timer#cancel() */
   public void cancel() {
+    if (this.wheel != null) {
+      this.wheel.stop();
+      return;
+    }
     timer.cancel();
   }
 }
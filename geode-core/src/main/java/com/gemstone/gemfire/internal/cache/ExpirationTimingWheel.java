@@ -0,0 +1,549 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Logger;
+
+import com.gemstone.gemfire.SystemFailure;
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
+import com.gemstone.gemfire.internal.logging.LogService;
+import com.gemstone.gemfire.internal.logging.LoggingThreadGroup;
+import com.gemstone.gemfire.internal.tcp.ConnectionTable;
+
+/**
+ * A hashed hierarchical timing wheel that can be used by
+ * {@link ExpirationScheduler} instead of a {@link com.gemstone.gemfire.internal.SystemTimer}.
+ * <p>
+ * Tasks are linked directly into the slot lists through fields on
+ * {@link ExpiryTask}, so scheduling and cancelling a task is O(1) and does not
+ * allocate. Cancelled tasks are unlinked immediately which means there is no
+ * need to periodically purge the wheel. Every tick all the tasks in the current
+ * slot are fired as a single batch by the wheel's thread.
+ * <p>
+ * The wheel has {@link #LEVELS} levels of {@link #SLOTS} slots each. A task
+ * whose deadline is too far away for level 0 is placed on a coarser level and
+ * cascaded down when that level's slot comes due.
+ * <p>
+ * If the wheel has batch threads then the entry tasks of each bucket that
+ * come due in the same tick are handed to
+ * {@link BucketRegion#performExpiryTimeouts(List)} on those threads so that
+ * the buckets are expired in parallel, each with a single removeAll.
+ *
+ * @since Geode 1.0
+ */
+public class ExpirationTimingWheel implements Runnable {
+  private static final Logger logger = LogService.getLogger();
+
+  /**
+   * The number of milliseconds covered by one slot of the lowest level of the wheel.
+   */
+  public static final long DEFAULT_TICK_MILLIS = Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "EXPIRY_WHEEL_TICK_MS", 10).longValue();
+
+  static final int SLOT_BITS = 8;
+  static final int SLOTS = 1 << SLOT_BITS;
+  static final int SLOT_MASK = SLOTS - 1;
+  static final int LEVELS = 4;
+  /** The largest number of ticks a task can be placed ahead of the current tick */
+  static final long MAX_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+  static final int VIRGIN = 0;
+  static final int SCHEDULED = 1;
+  static final int EXECUTED = 2;
+  static final int CANCELLED = 3;
+
+  private final long tickMillis;
+  private final long startMillis;
+  private final CachePerfStats stats;
+
+  /**
+   * The head of the task list of each slot of each level.
+   * @guarded.By this
+   */
+  private final ExpiryTask[][] slots = new ExpiryTask[LEVELS][SLOTS];
+
+  /**
+   * All ticks before this one have been processed.
+   * @guarded.By this
+   */
+  private long currentTick;
+
+  /**
+   * The number of tasks currently linked into the wheel.
+   * @guarded.By this
+   */
+  private int size;
+
+  private volatile boolean isStopped;
+
+  private Thread thread;
+
+  /** Expires the buckets of a tick in parallel; null if batching is disabled */
+  private final ThreadPoolExecutor batchExecutor;
+
+  public ExpirationTimingWheel(CachePerfStats stats) {
+    this(stats, 0);
+  }
+
+  /**
+   * @param batchThreads the number of threads used to expire buckets in
+   * batches, or zero to run every task individually on the wheel thread
+   */
+  public ExpirationTimingWheel(CachePerfStats stats, int batchThreads) {
+    this(stats, DEFAULT_TICK_MILLIS, now(), batchThreads);
+  }
+
+  ExpirationTimingWheel(CachePerfStats stats, long tickMillis, long startMillis) {
+    this(stats, tickMillis, startMillis, 0);
+  }
+
+  private ExpirationTimingWheel(CachePerfStats stats, long tickMillis, long startMillis, int batchThreads) {
+    if (tickMillis <= 0) {
+      throw new IllegalArgumentException("tickMillis must be positive but was " + tickMillis);
+    }
+    this.stats = stats;
+    this.tickMillis = tickMillis;
+    this.startMillis = startMillis;
+    if (batchThreads > 0) {
+      this.batchExecutor = new ThreadPoolExecutor(batchThreads, batchThreads, 60, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), createBatchThreadFactory());
+      this.batchExecutor.allowCoreThreadTimeOut(true);
+    } else {
+      this.batchExecutor = null;
+    }
+  }
+
+  private static ThreadFactory createBatchThreadFactory() {
+    final ThreadGroup group = LoggingThreadGroup.createThreadGroup("Expiry Batch Threads", logger);
+    return new ThreadFactory() {
+      private int nextId = 0;
+
+      public synchronized Thread newThread(final Runnable command) {
+        Runnable r = new Runnable() {
+          public void run() {
+            ConnectionTable.threadWantsSharedResources();
+            try {
+              command.run();
+            } finally {
+              ConnectionTable.releaseThreadsSockets();
+            }
+          }
+        };
+        Thread thread = new Thread(group, r, "Expiry Batch " + nextId++);
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+  }
+
+  /**
+   * Starts the thread that advances this wheel and fires its tasks.
+   */
+  public synchronized void start() {
+    this.thread = new Thread(LoggingThreadGroup.createThreadGroup("Expiration Timing Wheel", logger), this);
+    this.thread.setDaemon(true);
+    this.thread.setName("Expiration Timing Wheel");
+    this.thread.start();
+  }
+
+  /**
+   * Stops the wheel thread and drops all the scheduled tasks.
+   */
+  public void stop() {
+    synchronized (this) {
+      this.isStopped = true;
+      notifyAll();
+      for (int level = 0; level < LEVELS; level++) {
+        for (int slot = 0; slot < SLOTS; slot++) {
+          ExpiryTask task = this.slots[level][slot];
+          while (task != null) {
+            ExpiryTask next = task.wheelNext;
+            task.wheelNext = null;
+            task.wheelPrev = null;
+            task.wheelState = CANCELLED;
+            task = next;
+          }
+          this.slots[level][slot] = null;
+        }
+      }
+      if (this.stats != null) {
+        this.stats.incExpiryWheelTasks(-this.size);
+      }
+      this.size = 0;
+    }
+    if (this.batchExecutor != null) {
+      this.batchExecutor.shutdownNow();
+    }
+    Thread t = this.thread;
+    if (t != null && t != Thread.currentThread()) {
+      try {
+        t.join(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  public boolean isStopped() {
+    return this.isStopped;
+  }
+
+  /**
+   * Schedules the given task to fire after the given number of milliseconds.
+   * @throws IllegalStateException if the task has already been scheduled or
+   * cancelled, or if this wheel has been stopped.
+   */
+  public void schedule(ExpiryTask task, long delay) {
+    schedule(task, delay, now());
+  }
+
+  synchronized void schedule(ExpiryTask task, long delay, long nowMillis) {
+    if (this.isStopped) {
+      throw new IllegalStateException("This timing wheel has been stopped.");
+    }
+    // publish the wheel before changing the state so that a concurrent
+    // ExpiryTask.cancel() will find it
+    task.timingWheel = this;
+    if (!task.compareAndSetWheelState(VIRGIN, SCHEDULED)) {
+      throw new IllegalStateException("Task already scheduled or cancelled");
+    }
+    if (this.size == 0) {
+      // the wheel thread does not advance an empty wheel so catch up now
+      this.currentTick = Math.max(this.currentTick, elapsedTicks(nowMillis));
+    }
+    long deadline = toTick(nowMillis + Math.max(0L, delay));
+    if (deadline < this.currentTick) {
+      deadline = this.currentTick;
+    }
+    task.wheelDeadline = deadline;
+    link(task);
+    this.size++;
+    if (this.stats != null) {
+      this.stats.incExpiryWheelTasks(1);
+    }
+    if (this.size == 1) {
+      // the wheel thread waits without a timeout when the wheel is empty
+      notifyAll();
+    }
+  }
+
+  /**
+   * Removes the given task from the wheel.
+   * @return true if the task was scheduled and will now not fire
+   */
+  synchronized boolean cancel(ExpiryTask task) {
+    if (task.wheelState != SCHEDULED) {
+      return false;
+    }
+    unlink(task);
+    task.wheelState = CANCELLED;
+    this.size--;
+    if (this.stats != null) {
+      this.stats.incExpiryWheelTasks(-1);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of tasks currently scheduled on this wheel.
+   */
+  public synchronized int size() {
+    return this.size;
+  }
+
+  /**
+   * Processes every tick up to the given time and returns the tasks that are
+   * now due. The returned tasks have been removed from the wheel but have not
+   * been run.
+   */
+  synchronized List<ExpiryTask> advance(long nowMillis) {
+    List<ExpiryTask> result = null;
+    int removed = 0;
+    long targetTick = elapsedTicks(nowMillis);
+    if (this.size == 0) {
+      // nothing to cascade or fire so just jump ahead
+      if (targetTick >= this.currentTick) {
+        this.currentTick = targetTick + 1;
+      }
+      return null;
+    }
+    while (this.currentTick <= targetTick && this.size > 0) {
+      long tick = this.currentTick;
+      if ((tick & SLOT_MASK) == 0) {
+        cascade(tick);
+      }
+      int slot = (int)(tick & SLOT_MASK);
+      ExpiryTask task = this.slots[0][slot];
+      this.slots[0][slot] = null;
+      while (task != null) {
+        ExpiryTask next = task.wheelNext;
+        task.wheelNext = null;
+        task.wheelPrev = null;
+        this.size--;
+        removed++;
+        task.wheelState = EXECUTED;
+        if (result == null) {
+          result = new ArrayList<ExpiryTask>();
+        }
+        result.add(task);
+        task = next;
+      }
+      this.currentTick++;
+    }
+    if (this.size == 0 && targetTick >= this.currentTick) {
+      this.currentTick = targetTick + 1;
+    }
+    if (removed > 0 && this.stats != null) {
+      this.stats.incExpiryWheelTasks(-removed);
+    }
+    return result;
+  }
+
+  /**
+   * Moves the tasks in the slots of the higher levels that come due at the
+   * given tick down to the lower levels. Higher levels are cascaded first so
+   * that their tasks can continue to cascade in the same tick.
+   */
+  private void cascade(long tick) {
+    for (int level = LEVELS - 1; level > 0; level--) {
+      long levelMask = (1L << (SLOT_BITS * level)) - 1;
+      if ((tick & levelMask) != 0) {
+        continue;
+      }
+      int slot = (int)((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+      ExpiryTask task = this.slots[level][slot];
+      this.slots[level][slot] = null;
+      while (task != null) {
+        ExpiryTask next = task.wheelNext;
+        task.wheelNext = null;
+        task.wheelPrev = null;
+        link(task);
+        task = next;
+      }
+    }
+  }
+
+  private void link(ExpiryTask task) {
+    long ticks = task.wheelDeadline - this.currentTick;
+    long placement = task.wheelDeadline;
+    if (ticks > MAX_TICKS) {
+      // put it as far out as we can and re-place it when it cascades
+      ticks = MAX_TICKS;
+      placement = this.currentTick + MAX_TICKS;
+    }
+    int level = 0;
+    while (level < LEVELS - 1 && ticks >= (1L << (SLOT_BITS * (level + 1)))) {
+      level++;
+    }
+    int slot = (int)((placement >>> (SLOT_BITS * level)) & SLOT_MASK);
+    ExpiryTask head = this.slots[level][slot];
+    task.wheelLevel = level;
+    task.wheelSlot = slot;
+    task.wheelPrev = null;
+    task.wheelNext = head;
+    if (head != null) {
+      head.wheelPrev = task;
+    }
+    this.slots[level][slot] = task;
+  }
+
+  private void unlink(ExpiryTask task) {
+    ExpiryTask prev = task.wheelPrev;
+    ExpiryTask next = task.wheelNext;
+    if (prev == null) {
+      this.slots[task.wheelLevel][task.wheelSlot] = next;
+    } else {
+      prev.wheelNext = next;
+    }
+    if (next != null) {
+      next.wheelPrev = prev;
+    }
+    task.wheelNext = null;
+    task.wheelPrev = null;
+  }
+
+  private long toTick(long millis) {
+    long elapsed = millis - this.startMillis;
+    if (elapsed <= 0) {
+      return 0;
+    }
+    // round up so that a task never fires before its deadline
+    return (elapsed + this.tickMillis - 1) / this.tickMillis;
+  }
+
+  /**
+   * Returns the last tick whose time is not after the given time.
+   */
+  private long elapsedTicks(long millis) {
+    long elapsed = millis - this.startMillis;
+    if (elapsed <= 0) {
+      return 0;
+    }
+    return elapsed / this.tickMillis;
+  }
+
+  private long toMillis(long tick) {
+    return this.startMillis + tick * this.tickMillis;
+  }
+
+  private static long now() {
+    return System.nanoTime() / 1000000;
+  }
+
+  public void run() {
+    while (!this.isStopped) {
+      try {
+        List<ExpiryTask> due;
+        long nowMillis = now();
+        synchronized (this) {
+          if (this.size == 0) {
+            advance(nowMillis);
+            wait();
+            continue;
+          }
+          due = advance(nowMillis);
+          if (due == null) {
+            long sleep = toMillis(this.currentTick) - nowMillis;
+            if (sleep > 0) {
+              wait(sleep);
+            }
+            continue;
+          }
+        }
+        fire(due, nowMillis);
+      } catch (InterruptedException e) {
+        // we only stop when isStopped is set
+        Thread.interrupted();
+      } catch (VirtualMachineError err) {
+        SystemFailure.initiateFailure(err);
+        // If this ever returns, rethrow the error.  We're poisoned
+        // now, so don't let this thread continue.
+        throw err;
+      } catch (Throwable t) {
+        // Whenever you catch Error or Throwable, you must also
+        // catch VirtualMachineError (see above).  However, there is
+        // _still_ a possibility that you are dealing with a cascading
+        // error condition, so you also need to check to see if the JVM
+        // is still usable:
+        SystemFailure.checkFailure();
+        logger.warn("Unexpected exception in expiration timing wheel", t);
+      }
+    }
+  }
+
+  private void fire(List<ExpiryTask> due, long nowMillis) {
+    long lag = 0;
+    for (ExpiryTask task : due) {
+      lag += Math.max(0L, nowMillis - toMillis(task.wheelDeadline));
+    }
+    if (this.stats != null) {
+      this.stats.endExpiryWheelBatch(due.size(), lag);
+    }
+    // all the tasks in the batch see the same current time
+    ExpiryTask.setNow();
+    try {
+      if (this.batchExecutor != null) {
+        due = fireBucketBatches(due);
+      }
+      for (ExpiryTask task : due) {
+        if (this.isStopped) {
+          break;
+        }
+        task.run();
+      }
+    } finally {
+      ExpiryTask.clearNow();
+    }
+  }
+
+  /**
+   * Hands the entry tasks of each bucket to the batch threads and returns the
+   * tasks that still need to be run. Waits for the batches to finish so that
+   * ticks never overlap.
+   */
+  private List<ExpiryTask> fireBucketBatches(List<ExpiryTask> due) {
+    Map<BucketRegion, List<EntryExpiryTask>> batches = null;
+    List<ExpiryTask> others = new ArrayList<ExpiryTask>();
+    for (ExpiryTask task : due) {
+      LocalRegion region = task.getLocalRegion();
+      if (task instanceof EntryExpiryTask && region instanceof BucketRegion) {
+        if (batches == null) {
+          batches = new HashMap<BucketRegion, List<EntryExpiryTask>>();
+        }
+        List<EntryExpiryTask> batch = batches.get(region);
+        if (batch == null) {
+          batch = new ArrayList<EntryExpiryTask>();
+          batches.put((BucketRegion)region, batch);
+        }
+        batch.add((EntryExpiryTask)task);
+      } else {
+        others.add(task);
+      }
+    }
+    if (batches == null) {
+      return due;
+    }
+    List<Future<?>> futures = new ArrayList<Future<?>>(batches.size());
+    for (Map.Entry<BucketRegion, List<EntryExpiryTask>> entry : batches.entrySet()) {
+      final BucketRegion bucket = entry.getKey();
+      final List<EntryExpiryTask> batch = entry.getValue();
+      Runnable r = new Runnable() {
+        public void run() {
+          ExpiryTask.setNow();
+          try {
+            bucket.performExpiryTimeouts(batch);
+          } finally {
+            ExpiryTask.clearNow();
+          }
+        }
+      };
+      try {
+        futures.add(this.batchExecutor.submit(r));
+      } catch (RejectedExecutionException e) {
+        // the wheel is being stopped
+        break;
+      }
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        logger.warn("Unexpected exception expiring a bucket", e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    return others;
+  }
+
+  @Override
+  public String toString() {
+    return "ExpirationTimingWheel[tickMillis=" + this.tickMillis + "; size=" + size() + "]";
+  }
+}
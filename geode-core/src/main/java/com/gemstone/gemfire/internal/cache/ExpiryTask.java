@@ -40,12 +40,29 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public abstract class ExpiryTask extends SystemTimer.SystemTimerTask {
   
   private static final Logger logger = LogService.getLogger();
   
   private LocalRegion region; // no longer final so cancel can null it out see bug 37574
+
+  /**
+   * The timing wheel this task has been scheduled on, or null if it was not
+   * scheduled on one.
+   */
+  volatile ExpirationTimingWheel timingWheel;
+  /** @see ExpirationTimingWheel#SCHEDULED */
+  volatile int wheelState;
+  private static final AtomicIntegerFieldUpdater<ExpiryTask> wheelStateUpdater =
+      AtomicIntegerFieldUpdater.newUpdater(ExpiryTask.class, "wheelState");
+  // The remaining wheel fields are guarded by the sync on timingWheel
+  ExpiryTask wheelNext;
+  ExpiryTask wheelPrev;
+  long wheelDeadline;
+  int wheelLevel;
+  int wheelSlot;
   
   private static final ThreadPoolExecutor executor;
 
@@ -199,7 +216,7 @@ public abstract class ExpiryTask extends SystemTimer.SystemTimerTask {
    * Tests are allowed to suspend expiration.
    * @since GemFire 5.0
    */
-  private final void waitOnExpirationSuspension() {
+  final void waitOnExpirationSuspension() {
       for (;;) {
         getLocalRegion().getCancelCriterion().checkCancelInProgress(null);
         synchronized (suspendLock) {
@@ -279,6 +296,14 @@ public abstract class ExpiryTask extends SystemTimer.SystemTimerTask {
   @Override
   public boolean cancel() {
     boolean superCancel = super.cancel();
+    ExpirationTimingWheel wheel = this.timingWheel;
+    if (wheel == null && !compareAndSetWheelState(ExpirationTimingWheel.VIRGIN, ExpirationTimingWheel.CANCELLED)) {
+      // it was just scheduled on a wheel by another thread
+      wheel = this.timingWheel;
+    }
+    if (wheel != null) {
+      superCancel = wheel.cancel(this);
+    }
     LocalRegion lr = getLocalRegion();
     if (lr != null) {
       if (superCancel) {
@@ -288,6 +313,10 @@ public abstract class ExpiryTask extends SystemTimer.SystemTimerTask {
     return superCancel;
   }
   
+  final boolean compareAndSetWheelState(int expect, int update) {
+    return wheelStateUpdater.compareAndSet(this, expect, update);
+  }
+
   /** 
    * An ExpiryTask is sent run() to perform its task.  Note that
    * this run() method should never throw an exception - otherwise,
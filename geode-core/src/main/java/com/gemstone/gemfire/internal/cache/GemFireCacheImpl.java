@@ -899,7 +899,7 @@ public class GemFireCacheImpl implements InternalCache, ClientCache, HasCachePer
         HARegionQueue.setMessageSyncInterval(HARegionQueue.DEFAULT_MESSAGE_SYNC_INTERVAL);
       }
       FunctionService.registerFunction(new PRContainsValueFunction());
-      this.expirationScheduler = new ExpirationScheduler(this.system);
+      this.expirationScheduler = new ExpirationScheduler(this.system, this.cachePerfStats, ExpirationScheduler.USE_TIMING_WHEEL);
 
       // uncomment following line when debugging CacheExistsException
       if (DEBUG_CREATION_STACK) {
@@ -4971,7 +4971,8 @@ public class GemFireCacheImpl implements InternalCache, ClientCache, HasCachePer
         c.setRegionAttributes(pra.toString(), ra);
         break;
       }
-      case CACHING_PROXY_HEAP_LRU: {
+      case CACHING_PROXY_HEAP_LRU:
+      case NEAR_CACHE: {
         AttributesFactory af = new AttributesFactory();
         af.setDataPolicy(DataPolicy.NORMAL);
         af.setEvictionAttributes(EvictionAttributes.createLRUHeapAttributes());
@@ -1282,8 +1282,12 @@ public class LocalRegion extends AbstractRegion
       Object value = getDataView().getDeserializedValue(keyInfo, this, true, disableCopyOnRead, preferCD, clientEvent, returnTombstones,
         retainResult);
       final boolean isCreate = value == null;
-      isMiss = value == null || Token.isInvalid(value)
+      final boolean isInvalid = Token.isInvalid(value);
+      isMiss = value == null || isInvalid
           || (!returnTombstones && value == Token.TOMBSTONE);
+      if (isInvalid) {
+        stats.incInvalidatedMisses();
+      }
       // Note: if the value was Token.DESTROYED then getDeserialized
       // returns null so we don't need the following in the above expression:
       // || (isRegInterestInProgress() && Token.isDestroyed(value))
@@ -11678,6 +11682,12 @@ public class LocalRegion extends AbstractRegion
       }
       this.cachePerfStats.endGet(start, miss);
     }
+
+    @Override
+    public void incInvalidatedMisses() {
+      stats.incInt(invalidatedMissesId, 1);
+      this.cachePerfStats.incInvalidatedMisses();
+    }
     /**
      * @param start the timestamp taken when the operation started
      * @param isUpdate true if the put was an update (origin remote)
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Logger;
+
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
+import com.gemstone.gemfire.internal.logging.LogService;
+
+/**
+ * A read only memory mapping of an oplog crf file that is no longer being
+ * appended to. Reads copy straight out of the mapping without a seek or a
+ * read system call and without holding the oplog's lock.
+ * <p>
+ * The total number of bytes mapped by all oplogs in the VM is bounded by
+ * <code>gemfire.DiskStore.mappedCrfWindowBytes</code>. Oplogs that do not
+ * fit in the window keep using positioned reads. A mapping is unmapped as
+ * soon as it has been released and no read is copying out of it, and only
+ * then are its bytes returned to the window, so the window bounds the
+ * virtual memory actually mapped and a deleted crf does not keep its disk
+ * space. Mapping is not used if the JVM does not allow buffers to be
+ * unmapped explicitly.
+ *
+ * @since Geode 1.0
+ */
+final class MappedCrfFile {
+
+  private static final Logger logger = LogService.getLogger();
+
+  /**
+   * Set to true to read values from rolled crf files through a memory mapping.
+   * A read still copies the value out of the mapping into a new byte[]; the
+   * mapping saves the seek, the read system call and the oplog lock, not the
+   * copy.
+   */
+  static final boolean ENABLED = Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "DiskStore.mappedCrfReads");
+
+  /**
+   * The maximum number of crf bytes mapped at once in this VM.
+   */
+  static final long WINDOW_BYTES = Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "DiskStore.mappedCrfWindowBytes",
+      1024L * 1024L * 1024L);
+
+  private static final AtomicLong mappedBytes = new AtomicLong();
+
+  /** The sun.misc.Unsafe instance; null unless it has invokeCleaner */
+  private static final Object UNSAFE;
+  /** Unsafe.invokeCleaner(ByteBuffer), available since Java 9 */
+  private static final Method INVOKE_CLEANER_METHOD;
+  /** DirectBuffer.cleaner(), used on Java 8 */
+  private static final Method CLEANER_METHOD;
+  /** Cleaner.clean(), used on Java 8 */
+  private static final Method CLEAN_METHOD;
+  /** False if buffers cannot be unmapped explicitly */
+  private static final boolean CAN_UNMAP;
+
+  static {
+    Object unsafe = null;
+    Method invokeCleanerMethod = null;
+    Method cleanerMethod = null;
+    Method cleanMethod = null;
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      invokeCleanerMethod = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      Field field = unsafeClass.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      unsafe = field.get(null);
+    } catch (Exception ex) {
+      unsafe = null;
+      invokeCleanerMethod = null;
+      try {
+        cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+        cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      } catch (Exception ex2) {
+        cleanerMethod = null;
+        cleanMethod = null;
+        if (ENABLED) {
+          logger.info("Memory mapped crf reads are disabled because this JVM does not allow mappings to be unmapped: {}", ex2.toString());
+        }
+      }
+    }
+    UNSAFE = unsafe;
+    INVOKE_CLEANER_METHOD = invokeCleanerMethod;
+    CLEANER_METHOD = cleanerMethod;
+    CLEAN_METHOD = cleanMethod;
+    CAN_UNMAP = INVOKE_CLEANER_METHOD != null || CLEANER_METHOD != null;
+  }
+
+  private final MappedByteBuffer buffer;
+
+  private final int length;
+
+  private final AtomicBoolean released = new AtomicBoolean();
+
+  /**
+   * One for the owner until {@link #release()} plus one for each read in
+   * progress. The mapping is unmapped when it drops to zero.
+   */
+  private final AtomicInteger refCount = new AtomicInteger(1);
+
+  private MappedCrfFile(MappedByteBuffer buffer, int length) {
+    this.buffer = buffer;
+    this.length = length;
+  }
+
+  /**
+   * Maps the first <code>length</code> bytes of the given file.
+   *
+   * @return the mapping, or null if it does not fit in the mapping window or
+   *         mappings cannot be unmapped
+   */
+  static MappedCrfFile map(File f, long length) throws IOException {
+    return map(f, length, WINDOW_BYTES);
+  }
+
+  static MappedCrfFile map(File f, long length, long windowBytes) throws IOException {
+    if (length <= 0 || length > Integer.MAX_VALUE || !CAN_UNMAP) {
+      return null;
+    }
+    if (!reserve(length, windowBytes)) {
+      return null;
+    }
+    boolean mapped = false;
+    try {
+      RandomAccessFile raf = new RandomAccessFile(f, "r");
+      try {
+        MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+        mapped = true;
+        return new MappedCrfFile(buffer, (int)length);
+      } finally {
+        // the mapping stays valid after the channel is closed
+        raf.close();
+      }
+    } finally {
+      if (!mapped) {
+        mappedBytes.addAndGet(-length);
+      }
+    }
+  }
+
+  private static boolean reserve(long length, long windowBytes) {
+    for (;;) {
+      long current = mappedBytes.get();
+      if (current + length > windowBytes) {
+        return false;
+      }
+      if (mappedBytes.compareAndSet(current, current + length)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Copies <code>dst.length</code> bytes starting at <code>offset</code> into
+   * <code>dst</code>.
+   *
+   * @return false if the requested range is not covered by this mapping or
+   *         the mapping has been released
+   */
+  boolean read(long offset, byte[] dst) {
+    if (offset < 0 || offset + dst.length > this.length) {
+      return false;
+    }
+    if (!retain()) {
+      return false;
+    }
+    try {
+      ByteBuffer view = this.buffer.duplicate();
+      view.position((int)offset);
+      view.get(dst);
+      return true;
+    } finally {
+      releaseReference();
+    }
+  }
+
+  private boolean retain() {
+    for (;;) {
+      int count = this.refCount.get();
+      if (count <= 0) {
+        return false;
+      }
+      if (this.refCount.compareAndSet(count, count + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private void releaseReference() {
+    if (this.refCount.decrementAndGet() == 0) {
+      unmap();
+      mappedBytes.addAndGet(-this.length);
+    }
+  }
+
+  private void unmap() {
+    try {
+      if (INVOKE_CLEANER_METHOD != null) {
+        INVOKE_CLEANER_METHOD.invoke(UNSAFE, this.buffer);
+      } else {
+        Object cleaner = CLEANER_METHOD.invoke(this.buffer);
+        if (cleaner != null) {
+          CLEAN_METHOD.invoke(cleaner);
+        }
+      }
+    } catch (Exception ex) {
+      // the garbage collector will unmap it
+      logger.debug("Could not unmap crf mapping", ex);
+    }
+  }
+
+  int length() {
+    return this.length;
+  }
+
+  /**
+   * Unmaps this mapping and returns its bytes to the mapping window once no
+   * read is using it. Later reads return false.
+   */
+  void release() {
+    if (this.released.compareAndSet(false, true)) {
+      releaseReference();
+    }
+  }
+
+  static long getMappedBytes() {
+    return mappedBytes.get();
+  }
+}
@@ -66,6 +66,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -1059,7 +1060,7 @@ public final class Oplog implements CompactableOplog, Flushable {
     }
     this.crf.f = f;
     preblow(this.crf, getMaxCrfSize());
-    this.crf.raf = new UninterruptibleRandomAccessFile(f, SYNC_WRITES ? "rwd" : "rw");
+    this.crf.raf = new UninterruptibleRandomAccessFile(f, SYNC_WRITES && !OplogGroupCommit.ENABLED ? "rwd" : "rw");
     this.crf.RAFClosed = false;
     oplogSet.crfCreate(this.oplogId);
     this.crf.writeBuf = allocateWriteBuf(prevOlf);
@@ -1101,7 +1102,7 @@ public final class Oplog implements CompactableOplog, Flushable {
       logger.debug("Creating operation log file {}", f);
     }
     preblow(this.drf, getMaxDrfSize());
-    this.drf.raf = new UninterruptibleRandomAccessFile(f, SYNC_WRITES ? "rwd" : "rw");
+    this.drf.raf = new UninterruptibleRandomAccessFile(f, SYNC_WRITES && !OplogGroupCommit.ENABLED ? "rwd" : "rw");
     this.drf.RAFClosed = false;
     this.oplogSet.drfCreate(this.oplogId);
     this.drf.writeBuf = allocateWriteBuf(prevOlf);
@@ -1474,6 +1475,52 @@ public final class Oplog implements CompactableOplog, Flushable {
     return this.crashed;
   }
 
+  /**
+   * A gc version read from a drf whose recording was deferred.
+   */
+  private static final class RecoveredGCVersion {
+    private final DiskRecoveryStore drs;
+    private final VersionSource member;
+    private final long gcVersion;
+
+    RecoveredGCVersion(DiskRecoveryStore drs, VersionSource member, long gcVersion) {
+      this.drs = drs;
+      this.member = member;
+      this.gcVersion = gcVersion;
+    }
+  }
+
+  /**
+   * When non-null the gc versions read from the drf are collected here instead
+   * of being recorded. Recording a version is order sensitive so drfs that are
+   * read in parallel have their gc versions recorded afterwards in oplog order.
+   */
+  private List<RecoveredGCVersion> deferredGCVersions;
+
+  /**
+   * Same as {@link #recoverDrf} but may be called concurrently for different
+   * oplogs. The gc versions in the drf are not recorded until
+   * {@link #recordDeferredGCVersions} is called.
+   */
+  long recoverDrfDeferringGCVersions(OplogEntryIdSet deletedIds, boolean alreadyRecoveredOnce, boolean latestOplog) {
+    this.deferredGCVersions = new ArrayList<RecoveredGCVersion>();
+    return recoverDrf(deletedIds, alreadyRecoveredOnce, latestOplog);
+  }
+
+  /**
+   * Records the gc versions collected by
+   * {@link #recoverDrfDeferringGCVersions}.
+   */
+  void recordDeferredGCVersions() {
+    List<RecoveredGCVersion> versions = this.deferredGCVersions;
+    this.deferredGCVersions = null;
+    if (versions != null) {
+      for (RecoveredGCVersion v : versions) {
+        v.drs.recordRecoveredGCVersion(v.member, v.gcVersion);
+      }
+    }
+  }
+
   /**
    * Return bytes read.
    */
@@ -1647,6 +1694,65 @@ public final class Oplog implements CompactableOplog, Flushable {
    */
   private OplogEntryIdMap skippedKeyBytes;
 
+  /**
+   * The contents of this oplog's krf read ahead of time by
+   * {@link #prefetchKrf()}, or null.
+   */
+  private final AtomicReference<byte[]> prefetchedKrf = new AtomicReference<byte[]>();
+
+  /**
+   * Reads this oplog's krf into memory so that {@link #recoverCrf} can parse
+   * it without waiting on the disk. Called by a recovery thread while older
+   * oplogs are still being recovered. Does nothing if there is no krf or it
+   * does not fit in what is left of
+   * {@link PersistentOplogSet#MAX_PREFETCHED_KRF_BYTES}.
+   */
+  void prefetchKrf() throws IOException {
+    if (this.drf.f == null) {
+      return;
+    }
+    File f = new File(this.drf.f.getParentFile(), oplogSet.getPrefix() + getParent().getName() + "_" + this.oplogId
+        + KRF_FILE_EXT);
+    long length = f.length();
+    if (length <= 0 || length > Integer.MAX_VALUE || !PersistentOplogSet.reservePrefetchedKrfBytes(length)) {
+      return;
+    }
+    boolean kept = false;
+    try {
+      byte[] bytes = new byte[(int)length];
+      DataInputStream dis = new DataInputStream(new FileInputStream(f));
+      try {
+        dis.readFully(bytes);
+      } finally {
+        dis.close();
+      }
+      kept = this.prefetchedKrf.compareAndSet(null, bytes);
+    } finally {
+      if (!kept) {
+        PersistentOplogSet.releasePrefetchedKrfBytes(length);
+      }
+    }
+  }
+
+  /**
+   * Drops the krf read ahead by {@link #prefetchKrf()}, if any, and gives its
+   * bytes back to the shared budget.
+   */
+  void clearPrefetchedKrf() {
+    byte[] bytes = this.prefetchedKrf.getAndSet(null);
+    if (bytes != null) {
+      PersistentOplogSet.releasePrefetchedKrfBytes(bytes.length);
+    }
+  }
+
+  private InputStream openKrf(File f) throws FileNotFoundException {
+    byte[] bytes = this.prefetchedKrf.get();
+    if (bytes != null) {
+      return new ByteArrayInputStream(bytes);
+    }
+    return new FileInputStream(f);
+  }
+
   private boolean readKrf(OplogEntryIdSet deletedIds, boolean recoverValues, boolean recoverValuesSync,
       Set<Oplog> oplogsNeedingValueRecovery, boolean latestOplog) {
     File f = new File(this.diskFile.getPath() + KRF_FILE_EXT);
@@ -1658,6 +1764,7 @@ public final class Oplog implements CompactableOplog, Flushable {
       logger.info(LocalizedMessage.create(LocalizedStrings.Oplog_REMOVING_INCOMPLETE_KRF, new Object[] { f.getName(), this.oplogId,
           getParent().getName() }));
       f.delete();
+      clearPrefetchedKrf();
     }
     // Set krfCreated to true since we have a krf.
     this.krfCreated.set(true);
@@ -1668,9 +1775,9 @@ public final class Oplog implements CompactableOplog, Flushable {
       return false;
     }
 
-    FileInputStream fis;
+    InputStream fis;
     try {
-      fis = new FileInputStream(f);
+      fis = openKrf(f);
     } catch (FileNotFoundException ex) {
       return false;
     }
@@ -1701,7 +1808,7 @@ public final class Oplog implements CompactableOplog, Flushable {
           // beginning or this is not a valid file at all. Try reading it as a
           // file in old format
           fis.close();
-          fis = new FileInputStream(f);
+          fis = openKrf(f);
           dis = new DataInputStream(new BufferedInputStream(fis, 1024 * 1024));
           readDiskStoreRecord(dis, f);
         } catch (IllegalStateException notOldFileErr) {
@@ -1709,7 +1816,7 @@ public final class Oplog implements CompactableOplog, Flushable {
           // is in new format which has a magic seq in the beginning or this is
           // not a valid file at all
           fis.close();
-          fis = new FileInputStream(f);
+          fis = openKrf(f);
           dis = new DataInputStream(new BufferedInputStream(fis, 1024 * 1024));
           readDiskStoreRecord(dis, f);
         }
@@ -2150,7 +2257,11 @@ public final class Oplog implements CompactableOplog, Flushable {
           // if we have a recovery store, add the recovered regions
           if (drs != null) {
             Object member = getParent().getDiskInitFile().getCanonicalObject((int) memberId);
-            drs.recordRecoveredGCVersion((VersionSource) member, gcVersion);
+            if (this.deferredGCVersions != null) {
+              this.deferredGCVersions.add(new RecoveredGCVersion(drs, (VersionSource) member, gcVersion));
+            } else {
+              drs.recordRecoveredGCVersion((VersionSource) member, gcVersion);
+            }
             if (isPersistRecoveryDebugEnabled) {
               logger.trace(LogMarker.PERSIST_RECOVERY, "adding gcRVV entry drId={}, member={}, version={}", drId, memberId, gcVersion);
             }
@@ -2259,6 +2370,7 @@ public final class Oplog implements CompactableOplog, Flushable {
     } finally {
       this.kvMap = null;
       this.skippedKeyBytes = null;
+      clearPrefetchedKrf();
       unlockCompactor();
     }
   }
@@ -3266,6 +3378,7 @@ public final class Oplog implements CompactableOplog, Flushable {
 
   private void basicClose(boolean forceDelete) {
     flushAll();
+    releaseMappedCrf();
     synchronized (this.lock/* crf */) {
       unpreblow(this.crf, getMaxCrfSize());
       if (!this.crf.RAFClosed) {
@@ -3606,7 +3719,7 @@ public final class Oplog implements CompactableOplog, Flushable {
         id.setOplogId(getOplogId());
         // do the io while holding lock so that switch can set doneAppending
         // Write the data to the opLog for the synch mode
-        startPosForSynchOp = writeOpLogBytes(this.crf, async, true);
+        startPosForSynchOp = writeOpLogBytesForOp(this.crf, async);
         // if (this.crf.currSize != startPosForSynchOp) {
         // assert false;
         // }
@@ -3664,6 +3777,9 @@ public final class Oplog implements CompactableOplog, Flushable {
       Assert.assertTrue(this != getOplogSet().getChild());
       getOplogSet().getChild().basicCreate(dr, entry, value, userBits, async);
     } else {
+      if (!async) {
+        awaitGroupCommit();
+      }
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSettingOplogOffSet(startPosForSynchOp);
       }
@@ -4606,7 +4722,7 @@ public final class Oplog implements CompactableOplog, Flushable {
           long oldOplogId;
           // do the io while holding lock so that switch can set doneAppending
           // Write the data to the opLog for the synch mode
-          startPosForSynchOp = writeOpLogBytes(this.crf, async, true);
+          startPosForSynchOp = writeOpLogBytesForOp(this.crf, async);
           this.crf.currSize = temp;
           startPosForSynchOp += getOpStateValueOffset();
           if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES)) {
@@ -4680,6 +4796,9 @@ public final class Oplog implements CompactableOplog, Flushable {
       Assert.assertTrue(getOplogSet().getChild() != this);
       getOplogSet().getChild().basicModify(dr, entry, value, userBits, async, calledByCompactor);
     } else {
+      if (!async) {
+        awaitGroupCommit();
+      }
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSettingOplogOffSet(startPosForSynchOp);
       }
@@ -4723,7 +4842,7 @@ public final class Oplog implements CompactableOplog, Flushable {
             throw cce;
           }
           this.firstRecord = false;
-          writeOpLogBytes(this.crf, async, true);
+          writeOpLogBytesForOp(this.crf, async);
           this.crf.currSize = temp;
           if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES)) {
             logger.trace(LogMarker.PERSIST_WRITES, "basicSaveConflictVersionTag: drId={} versionStamp={} oplog#", dr.getId(), tag,
@@ -4747,6 +4866,8 @@ public final class Oplog implements CompactableOplog, Flushable {
       }
       Assert.assertTrue(getOplogSet().getChild() != this);
       getOplogSet().getChild().basicSaveConflictVersionTag(dr, tag, async);
+    } else if (!async) {
+      awaitGroupCommit();
     }
   }
 
@@ -5053,7 +5174,7 @@ public final class Oplog implements CompactableOplog, Flushable {
           // before we flush the crf.
           // However we can't have removes by async if we are doing a sync write
           // because we might be killed right after we do this write.
-          startPosForSynchOp = writeOpLogBytes(this.drf, async, true);
+          startPosForSynchOp = writeOpLogBytesForOp(this.drf, async);
           setHasDeletes(true);
           if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES)) {
             logger.debug("basicRemove: id=<{}> key=<{}> drId={} oplog#{}", abs(id.getKeyId()), entry.getKey(), dr.getId(),
@@ -5093,6 +5214,9 @@ public final class Oplog implements CompactableOplog, Flushable {
       Assert.assertTrue(getOplogSet().getChild() != this);
       getOplogSet().getChild().basicRemove(dr, entry, async, isClear);
     } else {
+      if (!async) {
+        awaitGroupCommit();
+      }
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSettingOplogOffSet(startPosForSynchOp);
       }
@@ -5225,6 +5349,31 @@ public final class Oplog implements CompactableOplog, Flushable {
     }
   }
 
+  /**
+   * Writes the record for a create, modify, remove or conflict version tag.
+   * With group commit a synchronous record is only appended to the write
+   * buffer here; the caller flushes it with {@link #awaitGroupCommit()} once
+   * it has released the oplog lock.
+   */
+  private long writeOpLogBytesForOp(OplogFile olf, boolean async) throws IOException {
+    if (!async && OplogGroupCommit.ENABLED) {
+      long startPos = writeOpLogBytes(olf, false, false);
+      this.groupCommit.recordWrite();
+      return startPos;
+    }
+    return writeOpLogBytes(olf, async, true);
+  }
+
+  /**
+   * Waits for the synchronous records this thread appended to be flushed, and
+   * forced to disk if sync writes are configured.
+   */
+  private void awaitGroupCommit() throws IOException {
+    if (OplogGroupCommit.ENABLED) {
+      this.groupCommit.awaitSync(this.stats);
+    }
+  }
+
   /**
    * Asif: Since the ByteBuffer being writen to can have additional bytes which
    * are used for extending the size of the file, it is necessary that the
@@ -5309,6 +5458,17 @@ public final class Oplog implements CompactableOplog, Flushable {
 
   private volatile boolean beingRead;
 
+  private final OplogGroupCommit groupCommit = new OplogGroupCommit(new OplogGroupCommit.Syncer() {
+    public void sync() {
+      flushAll(false, true/* doSync */);
+    }
+  });
+
+  /** Read only mapping of the crf once it is done being appended to */
+  private volatile MappedCrfFile mappedCrf;
+
+  private boolean mappedCrfFailed;
+
   /**
    * If crfRAF has been closed then attempt to reopen the oplog for this read.
    * Verify that this only happens when test methods are invoked.
@@ -5421,6 +5581,70 @@ public final class Oplog implements CompactableOplog, Flushable {
     }
   }
 
+  /**
+   * Reads a value from the memory mapped crf.
+   * 
+   * @return the value, or null if the crf is not mapped or does not contain
+   *         the requested range
+   */
+  private BytesAndBits mappedGet(long offsetInOplog, int valueLength, byte userBits) {
+    MappedCrfFile mapped = getMappedCrf();
+    if (mapped == null) {
+      return null;
+    }
+    byte[] valueBytes = new byte[valueLength];
+    if (!mapped.read(offsetInOplog, valueBytes)) {
+      return null;
+    }
+    this.stats.incOplogReads();
+    BytesAndBits bb = new BytesAndBits(valueBytes, userBits);
+    // also set the product version for an older product
+    final Version version = getProductVersionIfOld();
+    if (version != null) {
+      bb.setVersion(version);
+    }
+    return bb;
+  }
+
+  /**
+   * Maps the crf if it is no longer being appended to and fits in the mapping
+   * window.
+   */
+  private MappedCrfFile getMappedCrf() {
+    MappedCrfFile result = this.mappedCrf;
+    if (result != null) {
+      return result;
+    }
+    synchronized (this.lock/* crf */) {
+      result = this.mappedCrf;
+      if (result == null && this.doneAppending && !this.closed && !this.mappedCrfFailed && this.crf.f != null
+          && !this.deleted.get()) {
+        try {
+          result = MappedCrfFile.map(this.crf.f, this.crf.bytesFlushed);
+          this.mappedCrf = result;
+        } catch (IOException ex) {
+          this.mappedCrfFailed = true;
+          if (logger.isDebugEnabled()) {
+            logger.debug("Could not map {} for reading; using file reads", this.crf.f, ex);
+          }
+        }
+      }
+      return result;
+    }
+  }
+
+  private void releaseMappedCrf() {
+    MappedCrfFile mapped;
+    synchronized (this.lock/* crf */) {
+      mapped = this.mappedCrf;
+      this.mappedCrf = null;
+      this.mappedCrfFailed = true;
+    }
+    if (mapped != null) {
+      mapped.release();
+    }
+  }
+
   /**
    * Asif: Extracts the Value byte array & UserBit from the OpLog
    * 
@@ -5448,6 +5672,12 @@ public final class Oplog implements CompactableOplog, Flushable {
     } else {
       if (offsetInOplog == -1)
         return null;
+      if (MappedCrfFile.ENABLED) {
+        bb = mappedGet(offsetInOplog, valueLength, userBits);
+        if (bb != null) {
+          return bb;
+        }
+      }
       try {
         for (;;) {
           dr.getCancelCriterion().checkCancelInProgress(null);
@@ -5653,6 +5883,7 @@ public final class Oplog implements CompactableOplog, Flushable {
   }
 
   public void deleteCRFFileOnly() {
+    releaseMappedCrf();
     deleteFile(this.crf);
     // replace .crf at the end with .krf
     if (this.crf.f != null) {
@@ -5849,6 +6080,27 @@ public final class Oplog implements CompactableOplog, Flushable {
     return this.totalCount.get() != 0;
   }
 
+  /**
+   * Returns the fraction of the records written to this oplog that are no
+   * longer live.
+   */
+  double getGarbageRatio() {
+    long total = this.totalCount.get();
+    if (total <= 0) {
+      return 1.0;
+    }
+    long live = Math.max(0, this.totalLiveCount.get());
+    return Math.max(0.0, (double) (total - live) / total);
+  }
+
+  /**
+   * Returns an estimate of how many crf bytes a compaction of this oplog would
+   * reclaim.
+   */
+  long getGarbageBytes() {
+    return (long) (this.crf.currSize * getGarbageRatio());
+  }
+
   public boolean hasNoLiveValues() {
     return this.totalLiveCount.get() <= 0
     // if we have an unrecoveredRegion then we don't know how many liveValues we
@@ -5992,6 +6244,13 @@ public final class Oplog implements CompactableOplog, Flushable {
     this.compactorLock.unlock();
   }
 
+  /**
+   * The number of bytes the compactor copies forward before it releases this
+   * oplog's locks and applies the disk store's compaction rate limit.
+   */
+  static final long COMPACTION_CHUNK_BYTES = Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "DiskStore.compactionChunkBytes",
+      1024L * 1024L);
+
   /**
    * Copy any live entries last stored in this oplog to the current oplog. No
    * need to copy deletes in the drf. Backup only needs them until all the older
@@ -6028,7 +6287,13 @@ public final class Oplog implements CompactableOplog, Flushable {
                                  * getParent().getOwner().isDestroyed ||
                                  */!compactor.keepCompactorRunning();
         int totalCount = 0;
+        // bytes read and written since the compactor last applied the rate
+        // limit; it is only applied while this oplog's locks are released
+        long copiedBytes = 0;
         for (DiskRegionInfo dri : this.regionMap.values()) {
+          if (compactFailed) {
+            break;
+          }
           final DiskRegionView dr = dri.getDiskRegion();
           if (dr == null)
             continue;
@@ -6068,6 +6333,8 @@ public final class Oplog implements CompactableOplog, Flushable {
                     }
                     continue;
                   }
+                  copiedBytes += 2L * (wrapper.getOffHeapData() != null ? wrapper.getOffHeapData().getDataSize()
+                      : wrapper.getValidLength());
                   // write it to the current oplog
                   getOplogSet().getChild().copyForwardModifyForCompact(dr, de, wrapper);
                   // the did's oplogId will now be set to the current active oplog
@@ -6089,11 +6356,37 @@ public final class Oplog implements CompactableOplog, Flushable {
               if (!wrapper.isReusable()) {
                 wrapper = new BytesAndBitsForCompactor();
               }
+              if (copiedBytes >= COMPACTION_CHUNK_BYTES) {
+                // let backups, region closes and krf creation in between
+                // chunks, and pay for the chunk while they can run
+                unlockCompactor();
+                getParent().releaseCompactorReadLock();
+                try {
+                  getParent().throttleCompaction(copiedBytes, compactor);
+                  copiedBytes = 0;
+                } finally {
+                  getParent().acquireCompactorReadLock();
+                  lockCompactor();
+                }
+                if (!compactor.keepCompactorRunning() || this.closed || isDeleted()) {
+                  compactFailed = true;
+                  break;
+                }
+              }
             }
           }
         }
+        compactor.addCompactedBytes(copiedBytes);
 
         if (!compactFailed) {
+          if (totalCount > 0 && SYNC_WRITES && OplogGroupCommit.ENABLED) {
+            // with group commit the oplogs are not opened "rwd", so force the
+            // grouped copy-forward writes before this oplog can be removed
+            Oplog child = getOplogSet().getChild();
+            if (child != null) {
+              child.flushAll();
+            }
+          }
           // Need to still remove the oplog even if it had nothing to compact.
           handleNoLiveValues();
 
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache;
+
+import java.io.IOException;
+
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
+import com.gemstone.gemfire.distributed.internal.DistributionStats;
+
+/**
+ * Groups the flushes of concurrent synchronous oplog writes.
+ * <p>
+ * A synchronous writer appends its record to the oplog's write buffer while
+ * holding the oplog lock and calls {@link #recordWrite()}. After releasing the
+ * lock it calls {@link #awaitSync}. The first waiter to find no sync in
+ * progress becomes the leader: it flushes the buffers, forcing them to disk if
+ * the oplog is configured to, and then releases every writer whose record was
+ * appended before the flush began. Writers that arrive while a sync is in
+ * progress wait for the next one, so each flush covers a whole group of
+ * writes.
+ * <p>
+ * With group commit the oplog files are opened "rw" even with
+ * <code>gemfire.syncWrites</code>, so that only the leader's force reaches the
+ * disk synchronously. The synchronous writes that do not go through group
+ * commit, such as oplog headers and krfs, force the file themselves, and the
+ * compactor forces the current oplog before it removes a compacted one.
+ *
+ * @since Geode 1.0
+ */
+final class OplogGroupCommit {
+
+  /**
+   * Set to true to group the flushes of synchronous oplog writes.
+   */
+  static final boolean ENABLED = Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "DiskStore.groupCommit");
+
+  /**
+   * Flushes everything appended so far and makes it durable.
+   */
+  interface Syncer {
+    void sync() throws IOException;
+  }
+
+  private final Syncer syncer;
+
+  /** Number of writes recorded so far. Guarded by this. */
+  private long writes;
+
+  /** Number of writes known to be flushed. Guarded by this. */
+  private long synced;
+
+  /** True while a leader is flushing. Guarded by this. */
+  private boolean syncing;
+
+  OplogGroupCommit(Syncer syncer) {
+    this.syncer = syncer;
+  }
+
+  /**
+   * Records that a synchronous write was appended to the oplog buffers.
+   */
+  synchronized void recordWrite() {
+    this.writes++;
+  }
+
+  /**
+   * Waits until every write recorded before this call has been flushed,
+   * flushing on behalf of the group if no other thread is.
+   */
+  void awaitSync(DiskStoreStats stats) throws IOException {
+    final long start = DistributionStats.getStatTime();
+    boolean interrupted = false;
+    try {
+      long target;
+      long groupSize;
+      synchronized (this) {
+        final long seq = this.writes;
+        while (this.synced < seq && this.syncing) {
+          try {
+            wait();
+          } catch (InterruptedException ie) {
+            interrupted = true;
+          }
+        }
+        if (this.synced >= seq) {
+          return;
+        }
+        this.syncing = true;
+        target = this.writes;
+        groupSize = target - this.synced;
+      }
+      final long syncStart = System.nanoTime();
+      boolean done = false;
+      try {
+        this.syncer.sync();
+        done = true;
+      } finally {
+        synchronized (this) {
+          this.syncing = false;
+          if (done && target > this.synced) {
+            this.synced = target;
+          }
+          notifyAll();
+        }
+      }
+      if (stats != null) {
+        stats.endGroupCommit(groupSize, System.nanoTime() - syncStart);
+      }
+    } finally {
+      if (stats != null) {
+        stats.incGroupCommitWaitTime(DistributionStats.getStatTime() - start);
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  synchronized long getWrites() {
+    return this.writes;
+  }
+
+  synchronized long getSynced() {
+    return this.synced;
+  }
+}
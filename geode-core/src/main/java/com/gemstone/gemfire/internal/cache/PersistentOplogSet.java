@@ -20,7 +20,9 @@ import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -30,6 +32,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -37,6 +44,8 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.apache.logging.log4j.Logger;
 
 import com.gemstone.gemfire.cache.DiskAccessException;
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
+import com.gemstone.gemfire.distributed.internal.DistributionStats;
 import com.gemstone.gemfire.internal.FileUtil;
 import com.gemstone.gemfire.internal.cache.DiskEntry.Helper.ValueWrapper;
 import com.gemstone.gemfire.internal.cache.DiskStoreImpl.OplogEntryIdSet;
@@ -47,12 +56,47 @@ import com.gemstone.gemfire.internal.cache.persistence.OplogType;
 import com.gemstone.gemfire.internal.cache.versions.RegionVersionVector;
 import com.gemstone.gemfire.internal.i18n.LocalizedStrings;
 import com.gemstone.gemfire.internal.logging.LogService;
+import com.gemstone.gemfire.internal.logging.LoggingThreadGroup;
 import com.gemstone.gemfire.internal.logging.log4j.LocalizedMessage;
 import com.gemstone.gemfire.internal.logging.log4j.LogMarker;
 import com.gemstone.gemfire.internal.sequencelog.EntryLogger;
 
 public class PersistentOplogSet implements OplogSet {
   private static final Logger logger = LogService.getLogger();
+
+  /**
+   * Set to true to read the drf files of a disk store in parallel when it is
+   * recovered, and to read its krf files ahead of the thread that applies
+   * them. Not final so that tests can change it.
+   */
+  static boolean PARALLEL_RECOVERY = Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "DiskStore.parallelRecovery");
+
+  /**
+   * The maximum number of threads used to read drf files in parallel, and
+   * the number of krf files read ahead.
+   */
+  static final int RECOVERY_THREADS = Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "DiskStore.recoveryThreads",
+      Runtime.getRuntime().availableProcessors());
+
+  /**
+   * The maximum number of krf bytes held in memory at once by all the
+   * recovery threads of this VM. A krf that does not fit in what is left is
+   * read from its file instead of being read ahead.
+   */
+  static final long MAX_PREFETCHED_KRF_BYTES = Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "DiskStore.maxPrefetchedKrfBytes",
+      64L * 1024L * 1024L);
+
+  /**
+   * The number of krf bytes currently read ahead by all disk stores.
+   */
+  private static final AtomicLong prefetchedKrfBytes = new AtomicLong();
+
+  /**
+   * Set to true to compact the oplogs with the highest ratio of garbage first
+   * instead of the oldest first.
+   */
+  static final boolean COMPACT_BY_GARBAGE_RATIO = Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX
+      + "DiskStore.compactByGarbageRatio");
   
   /** The active oplog * */
   protected volatile Oplog child;
@@ -436,6 +480,185 @@ public class PersistentOplogSet implements OplogSet {
     }
   }
   
+  /**
+   * Reads the drf of each oplog on its own thread. The destroyed ids and the
+   * gc versions found in each drf are then merged in oplog order, newest
+   * first, just as if the drfs had been read one at a time.
+   *
+   * @return the number of bytes read
+   */
+  private long recoverDrfsInParallel(TreeSet<Oplog> oplogSet, OplogEntryIdSet deletedIds) {
+    final boolean recoveredOnce = this.alreadyRecoveredOnce.get();
+    final int threads = Math.max(1, Math.min(RECOVERY_THREADS, oplogSet.size()));
+    final ThreadGroup group = LoggingThreadGroup.createThreadGroup("Oplog Recovery Thread Group", logger);
+    ExecutorService executor = Executors.newFixedThreadPool(threads,
+        GemfireCacheHelper.CreateThreadFactory(group, "Oplog Drf Recovery"));
+    try {
+      List<Future<Long>> results = new ArrayList<Future<Long>>(oplogSet.size());
+      List<OplogEntryIdSet> oplogDeletedIds = new ArrayList<OplogEntryIdSet>(oplogSet.size());
+      boolean latestOplog = true;
+      for (final Oplog oplog: oplogSet) {
+        final OplogEntryIdSet ids = new OplogEntryIdSet();
+        final boolean latest = latestOplog;
+        latestOplog = false;
+        oplogDeletedIds.add(ids);
+        results.add(executor.submit(new Callable<Long>() {
+          public Long call() {
+            return oplog.recoverDrfDeferringGCVersions(ids, recoveredOnce, latest);
+          }
+        }));
+      }
+      long byteCount = 0;
+      int i = 0;
+      for (Oplog oplog: oplogSet) {
+        byteCount += getDrfRecoveryResult(results.get(i));
+        deletedIds.addAll(oplogDeletedIds.get(i));
+        oplog.recordDeferredGCVersions();
+        if (!recoveredOnce) {
+          updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
+        }
+        i++;
+      }
+      return byteCount;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private long getDrfRecoveryResult(Future<Long> result) {
+    boolean interrupted = false;
+    try {
+      for (;;) {
+        try {
+          return result.get().longValue();
+        } catch (InterruptedException ie) {
+          interrupted = true;
+          parent.getCancelCriterion().checkCancelInProgress(ie);
+        }
+      }
+    } catch (ExecutionException ee) {
+      Throwable cause = ee.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new DiskAccessException("Failed recovering a drf", cause, parent);
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Reads the krfs of the oplogs being recovered into memory on a pool of
+   * threads, keeping at most {@link #RECOVERY_THREADS} oplogs ahead of the
+   * one being applied. A krf that cannot be read ahead is simply read from
+   * its file when it is applied.
+   */
+  private final class KrfPrefetcher {
+    private final List<Oplog> oplogs;
+    private final List<Future<?>> results;
+    private final ExecutorService executor;
+    private int nextToSubmit;
+
+    KrfPrefetcher(List<Oplog> oplogs) {
+      this.oplogs = oplogs;
+      this.results = new ArrayList<Future<?>>(oplogs.size());
+      final int threads = Math.max(1, Math.min(RECOVERY_THREADS, oplogs.size()));
+      final ThreadGroup group = LoggingThreadGroup.createThreadGroup("Oplog Recovery Thread Group", logger);
+      this.executor = Executors.newFixedThreadPool(threads,
+          GemfireCacheHelper.CreateThreadFactory(group, "Oplog Krf Prefetch"));
+      for (int i = 0; i < threads; i++) {
+        submitNext();
+      }
+    }
+
+    private volatile boolean closed;
+
+    private void submitNext() {
+      if (this.nextToSubmit >= this.oplogs.size()) {
+        return;
+      }
+      final Oplog oplog = this.oplogs.get(this.nextToSubmit++);
+      this.results.add(this.executor.submit(new Callable<Object>() {
+        public Object call() throws IOException {
+          oplog.prefetchKrf();
+          if (closed) {
+            // close may have run before the krf was kept
+            oplog.clearPrefetchedKrf();
+          }
+          return null;
+        }
+      }));
+    }
+
+    /**
+     * Waits for the krf of the oplog at the given index to be read ahead and
+     * starts reading the next one.
+     */
+    void awaitPrefetch(int index) {
+      boolean interrupted = false;
+      try {
+        for (;;) {
+          try {
+            this.results.get(index).get();
+            break;
+          } catch (InterruptedException ie) {
+            interrupted = true;
+            parent.getCancelCriterion().checkCancelInProgress(ie);
+          } catch (ExecutionException ee) {
+            if (logger.isDebugEnabled()) {
+              logger.debug("Could not read ahead the krf of {}", this.oplogs.get(index), ee.getCause());
+            }
+            break;
+          }
+        }
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      submitNext();
+    }
+
+    void close() {
+      this.closed = true;
+      this.executor.shutdownNow();
+      for (Oplog oplog: this.oplogs) {
+        oplog.clearPrefetchedKrf();
+      }
+    }
+  }
+
+  /**
+   * Reserves <code>bytes</code> of the {@link #MAX_PREFETCHED_KRF_BYTES}
+   * shared by all recovery threads.
+   * 
+   * @return false if there is not enough left
+   */
+  static boolean reservePrefetchedKrfBytes(long bytes) {
+    for (;;) {
+      long reserved = prefetchedKrfBytes.get();
+      if (reserved + bytes > MAX_PREFETCHED_KRF_BYTES) {
+        return false;
+      }
+      if (prefetchedKrfBytes.compareAndSet(reserved, reserved + bytes)) {
+        return true;
+      }
+    }
+  }
+
+  static void releasePrefetchedKrfBytes(long bytes) {
+    prefetchedKrfBytes.addAndGet(-bytes);
+  }
+
+  static long getPrefetchedKrfBytes() {
+    return prefetchedKrfBytes.get();
+  }
+
   private long recoverOplogs(long byteCount) {
     OplogEntryIdSet deletedIds = new OplogEntryIdSet();
 
@@ -451,41 +674,78 @@ public class PersistentOplogSet implements OplogSet {
     }
     if (oplogSet.size() > 0) {
       long startOpLogRecovery = System.currentTimeMillis();
-      // first figure out all entries that have been destroyed
-      boolean latestOplog = true;
-      for (Oplog oplog: oplogSet) {
-        byteCount += oplog.recoverDrf(deletedIds,
-                                      this.alreadyRecoveredOnce.get(),
-                                      latestOplog);
-        latestOplog = false;
-        if (!this.alreadyRecoveredOnce.get()) {
-          updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
-        }
-      }
-      parent.incDeadRecordCount(deletedIds.size());
-      // now figure out live entries
-      latestOplog = true;
-      for (Oplog oplog: oplogSet) {
-        long startOpLogRead = parent.getStats().startOplogRead();
-        long bytesRead = oplog.recoverCrf(deletedIds,
-                                          // @todo make recoverValues per region
-                                          recoverValues(),
-                                          recoverValuesSync(),
+      final DiskStoreStats stats = parent.getStats();
+      int oplogsRemaining = oplogSet.size();
+      stats.incRecoveryOplogsRemaining(oplogsRemaining);
+      try {
+        // first figure out all entries that have been destroyed
+        long startDrfPhase = DistributionStats.getStatTime();
+        if (PARALLEL_RECOVERY && oplogSet.size() > 1) {
+          byteCount += recoverDrfsInParallel(oplogSet, deletedIds);
+        } else {
+          boolean latestOplog = true;
+          for (Oplog oplog: oplogSet) {
+            byteCount += oplog.recoverDrf(deletedIds,
                                           this.alreadyRecoveredOnce.get(),
-                                          oplogsNeedingValueRecovery, 
                                           latestOplog);
-        latestOplog = false;
-        if (!this.alreadyRecoveredOnce.get()) {
-          updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
+            latestOplog = false;
+            if (!this.alreadyRecoveredOnce.get()) {
+              updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
+            }
+          }
         }
-        byteCount += bytesRead;
-        parent.getStats().endOplogRead(startOpLogRead, bytesRead);
-        
-        //Callback to the disk regions to indicate the oplog is recovered
-        //Used for offline export
-        for (DiskRecoveryStore drs: this.currentRecoveryMap.values()) {
-          drs.getDiskRegionView().oplogRecovered(oplog.oplogId);
+        stats.endRecoveryDrfPhase(startDrfPhase);
+        parent.incDeadRecordCount(deletedIds.size());
+        // now figure out live entries. The records must be applied one oplog
+        // at a time, newest first, so that the newest record of each entry
+        // wins; reading each krf interleaves parsing with updates to the
+        // region maps, the recovered RVVs and the oplog's own key maps.
+        // With parallel recovery the krfs are read into memory ahead of time
+        // by other threads so that applying them does not wait on the disk.
+        long startCrfPhase = DistributionStats.getStatTime();
+        KrfPrefetcher prefetcher = null;
+        if (PARALLEL_RECOVERY && oplogSet.size() > 1 && !recoverValuesSync()) {
+          prefetcher = new KrfPrefetcher(new ArrayList<Oplog>(oplogSet));
         }
+        try {
+        boolean latestOplog = true;
+        int oplogIndex = 0;
+        for (Oplog oplog: oplogSet) {
+          if (prefetcher != null) {
+            prefetcher.awaitPrefetch(oplogIndex);
+          }
+          oplogIndex++;
+          long startOpLogRead = stats.startOplogRead();
+          long bytesRead = oplog.recoverCrf(deletedIds,
+                                            // @todo make recoverValues per region
+                                            recoverValues(),
+                                            recoverValuesSync(),
+                                            this.alreadyRecoveredOnce.get(),
+                                            oplogsNeedingValueRecovery, 
+                                            latestOplog);
+          latestOplog = false;
+          if (!this.alreadyRecoveredOnce.get()) {
+            updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
+          }
+          byteCount += bytesRead;
+          stats.endOplogRead(startOpLogRead, bytesRead);
+          oplogsRemaining--;
+          stats.incRecoveryOplogsRemaining(-1);
+          
+          //Callback to the disk regions to indicate the oplog is recovered
+          //Used for offline export
+          for (DiskRecoveryStore drs: this.currentRecoveryMap.values()) {
+            drs.getDiskRegionView().oplogRecovered(oplog.oplogId);
+          }
+        }
+        } finally {
+          if (prefetcher != null) {
+            prefetcher.close();
+          }
+        }
+        stats.endRecoveryCrfPhase(startCrfPhase);
+      } finally {
+        stats.incRecoveryOplogsRemaining(-oplogsRemaining);
       }
       long endOpLogRecovery = System.currentTimeMillis();
       long elapsed = endOpLogRecovery - startOpLogRecovery;
@@ -1067,7 +1327,27 @@ public class PersistentOplogSet implements OplogSet {
       // ArrayList<CompactableOplog>(this.oplogIdToOplog.values());
       // Collections.sort(l);
       // Iterator<Oplog> itr = l.iterator();
-      {
+      if (COMPACT_BY_GARBAGE_RATIO) {
+        // compact the oplogs with the most garbage first; the sort is stable
+        // so oplogs with the same ratio stay oldest first. The ratios change
+        // as entries are modified so they are read once, before sorting.
+        final Map<Oplog, Double> garbageRatios = new HashMap<Oplog, Double>();
+        List<Oplog> candidates = new ArrayList<Oplog>();
+        for (Oplog oplog: this.oplogIdToOplog.values()) {
+          if (oplog.needsCompaction()) {
+            candidates.add(oplog);
+            garbageRatios.put(oplog, oplog.getGarbageRatio());
+          }
+        }
+        Collections.sort(candidates, new Comparator<Oplog>() {
+          public int compare(Oplog o1, Oplog o2) {
+            return Double.compare(garbageRatios.get(o2), garbageRatios.get(o1));
+          }
+        });
+        for (Iterator<Oplog> itr = candidates.iterator(); itr.hasNext() && l.size() < max;) {
+          l.add(itr.next());
+        }
+      } else {
         Iterator<Oplog> itr = this.oplogIdToOplog.values().iterator();
         while (itr.hasNext() && l.size() < max) {
           Oplog oplog = itr.next();
@@ -1079,6 +1359,22 @@ public class PersistentOplogSet implements OplogSet {
     }
   }
 
+  /**
+   * Returns an estimate of the number of bytes that compacting every oplog
+   * that is ready to be compacted would reclaim.
+   */
+  public long getCompactionDebt() {
+    long debt = 0;
+    synchronized (this.oplogIdToOplog) {
+      for (Oplog oplog: this.oplogIdToOplog.values()) {
+        if (oplog.needsCompaction()) {
+          debt += oplog.getGarbageBytes();
+        }
+      }
+    }
+    return debt;
+  }
+
   public void scheduleForRecovery(DiskRecoveryStore drs) {
     DiskRegionView dr = drs.getDiskRegionView();
     if (dr.isRecreated()
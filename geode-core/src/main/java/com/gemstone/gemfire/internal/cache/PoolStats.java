@@ -40,6 +40,9 @@ public class PoolStats {
   private static final String RESPONSES_FROM_LOCATOR = "locatorResponses"; // counter
   private static final String ENDPOINTS_KNOWN = "servers"; // gauge
   private static final String SUBSCRIPTION_SERVERS = "subscriptionServers"; // gauge
+  private static final String DEGRADED_SERVERS = "degradedServers"; // gauge
+  private static final String MIN_SERVER_LOAD_FACTOR = "minServerLoadFactor"; // gauge
+  private static final String MAX_SERVER_LOAD_FACTOR = "maxServerLoadFactor"; // gauge
   
   private static final int _INITIAL_CONTACTS;
   private static final int _KNOWN_LOCATORS;
@@ -47,6 +50,9 @@ public class PoolStats {
   private static final int _RESPONSES_FROM_LOCATOR;
   private static final int _ENDPOINTS_KNOWN;
   private static final int _SUBSCRIPTION_SERVERS;
+  private static final int _DEGRADED_SERVERS;
+  private static final int _MIN_SERVER_LOAD_FACTOR;
+  private static final int _MAX_SERVER_LOAD_FACTOR;
   private static final int _PREFILL_CONNECT;
   private static final int _LOAD_CONDITIONING_CHECK;
   private static final int _LOAD_CONDITIONING_EXTENSIONS;
@@ -84,6 +90,9 @@ public class PoolStats {
            f.createIntGauge(KNOWN_LOCATORS, "Current number of locators discovered", LOCATORS),
             f.createIntGauge(ENDPOINTS_KNOWN, "Current number of servers discovered", "servers"),
             f.createIntGauge(SUBSCRIPTION_SERVERS, "Number of servers hosting this clients subscriptions", "servers"),
+            f.createIntGauge(DEGRADED_SERVERS, "Current number of servers that reported a load factor much higher than the least loaded server. The pool prefers the other servers for new connections, single hop reads and retries.", "servers"),
+            f.createDoubleGauge(MIN_SERVER_LOAD_FACTOR, "The lowest load factor reported by the servers of this pool. A server's load factor grows with its request latency, thread queue and heap usage.", "load"),
+            f.createDoubleGauge(MAX_SERVER_LOAD_FACTOR, "The highest load factor reported by the servers of this pool.", "load"),
             f.createLongCounter(REQUESTS_TO_LOCATOR, "Number of requests from this connection pool to a locator", "requests"),
             f.createLongCounter(RESPONSES_FROM_LOCATOR, "Number of responses from the locator to this connection pool", "responses"),
 
@@ -121,6 +130,9 @@ public class PoolStats {
     _RESPONSES_FROM_LOCATOR = _type.nameToId(RESPONSES_FROM_LOCATOR);
     _ENDPOINTS_KNOWN = _type.nameToId(ENDPOINTS_KNOWN);
     _SUBSCRIPTION_SERVERS = _type.nameToId(SUBSCRIPTION_SERVERS);
+    _DEGRADED_SERVERS = _type.nameToId(DEGRADED_SERVERS);
+    _MIN_SERVER_LOAD_FACTOR = _type.nameToId(MIN_SERVER_LOAD_FACTOR);
+    _MAX_SERVER_LOAD_FACTOR = _type.nameToId(MAX_SERVER_LOAD_FACTOR);
     _PREFILL_CONNECT = _type.nameToId("minPoolSizeConnects");
     _LOAD_CONDITIONING_CHECK = _type.nameToId("loadConditioningChecks");
     _LOAD_CONDITIONING_EXTENSIONS = _type.nameToId("loadConditioningExtensions");
@@ -184,6 +196,19 @@ public class PoolStats {
     this._stats.setInt(_SUBSCRIPTION_SERVERS, qc);
   }
 
+  public final void setDegradedServers(int ds) {
+    this._stats.setInt(_DEGRADED_SERVERS, ds);
+  }
+
+  public final int getDegradedServers() {
+    return this._stats.getInt(_DEGRADED_SERVERS);
+  }
+
+  public final void setServerLoadFactors(double min, double max) {
+    this._stats.setDouble(_MIN_SERVER_LOAD_FACTOR, min);
+    this._stats.setDouble(_MAX_SERVER_LOAD_FACTOR, max);
+  }
+
   public final void setLocatorCount(int lc) {
     this._stats.setInt(_KNOWN_LOCATORS, lc);
   }
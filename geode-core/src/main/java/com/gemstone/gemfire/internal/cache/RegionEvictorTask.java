@@ -130,6 +130,7 @@ public class RegionEvictorTask implements Callable<Object> {
         }
       }
     } finally {
+      getGemFireCache().getCachePerfStats().incEvictorBytesReclaimed(totalBytesEvicted);
       getGemFireCache().getCachePerfStats().incEvictorJobsCompleted();
     }
   }
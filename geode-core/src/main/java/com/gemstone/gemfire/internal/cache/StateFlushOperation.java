@@ -38,6 +38,7 @@ import com.gemstone.gemfire.distributed.DistributedMember;
 import com.gemstone.gemfire.distributed.internal.DM;
 import com.gemstone.gemfire.distributed.internal.DistributionManager;
 import com.gemstone.gemfire.distributed.internal.DistributionMessage;
+import com.gemstone.gemfire.distributed.internal.KeyAffinityExecutor;
 import com.gemstone.gemfire.distributed.internal.MessageWithReply;
 import com.gemstone.gemfire.distributed.internal.ReplyException;
 import com.gemstone.gemfire.distributed.internal.ReplyMessage;
@@ -564,6 +565,12 @@ public class StateFlushOperation  {
                 boolean interrupted = Thread.interrupted();
                 try {
                   dm.getMembershipManager().waitForMessageState(getSender(), channelState);
+                  // the messages counted by the channel state may still be
+                  // queued on the key affinity executor
+                  KeyAffinityExecutor keyAffinityExecutor = dm.getKeyAffinityExecutor();
+                  if (keyAffinityExecutor != null) {
+                    keyAffinityExecutor.waitForSender(getSender());
+                  }
                   break;
                 }
                 catch (InterruptedException e) {
@@ -19,20 +19,46 @@ package com.gemstone.gemfire.internal.cache.ha;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
 import com.gemstone.gemfire.distributed.internal.InternalDistributedSystem;
 import com.gemstone.gemfire.internal.cache.tier.sockets.CacheClientProxy;
 import com.gemstone.gemfire.internal.cache.tier.sockets.ClientProxyMembershipID;
+import com.gemstone.gemfire.internal.cache.tier.sockets.ClientUpdateMessageImpl;
 import com.gemstone.gemfire.internal.i18n.LocalizedStrings;
+import com.gemstone.gemfire.internal.offheap.MemoryAllocator;
 
 /**
  * @since GemFire 5.7
  */
 public class HAContainerMap implements HAContainerWrapper {
 
+  /**
+   * If true and the member has off-heap memory, the serialized values of the
+   * queued client messages are stored off heap. Each message is stored once
+   * no matter how many client queues hold it; the reference count of its
+   * <code>HAEventWrapper</code> decides when the value is released.
+   */
+  public static final boolean OFF_HEAP_VALUES = Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "HAContainerMap.OFF_HEAP_VALUES");
+
+  /**
+   * Values smaller than this many bytes stay on heap because the off-heap
+   * bookkeeping would cost more than it saves.
+   */
+  private static final int MIN_OFF_HEAP_VALUE_SIZE = Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "HAContainerMap.MIN_OFF_HEAP_VALUE_SIZE", 64).intValue();
+
+  /**
+   * The percentage of off-heap memory left free for regions. Values stay on
+   * heap once the free memory would drop below it. This is only a best effort
+   * check since regions allocate concurrently; a value for which there is no
+   * off-heap memory left also stays on heap.
+   */
+  private static final int OFF_HEAP_FREE_PERCENTAGE = 10;
+
   /**
    * TODO: Amogh: Using ConcurrentHashMap may be beneficial. It gives us
    * putEntryIfAbsent()!
@@ -46,9 +72,27 @@ public class HAContainerMap implements HAContainerWrapper {
    */
   private final Map<String, CacheClientProxy> haRegionNameToProxy;
 
+  /**
+   * The off-heap memory the values of the messages are moved to, or null if
+   * they are kept on heap.
+   */
+  private final MemoryAllocator offHeapStore;
+
   public HAContainerMap(HashMap containerMap) {
+    this(containerMap, null);
+  }
+
+  public HAContainerMap(HashMap containerMap, MemoryAllocator offHeapStore) {
     map = containerMap;
     haRegionNameToProxy = new ConcurrentHashMap<String, CacheClientProxy>();
+    this.offHeapStore = offHeapStore;
+  }
+
+  /**
+   * Returns true if this container stores the values of its messages off heap.
+   */
+  public boolean hasOffHeapValues() {
+    return this.offHeapStore != null;
   }
 
   public ClientProxyMembershipID getProxyID(String haRegionName) {
@@ -96,6 +140,11 @@ public class HAContainerMap implements HAContainerWrapper {
 
   public void clear() {
     synchronized (map) {
+      if (this.offHeapStore != null) {
+        for (Iterator it = map.values().iterator(); it.hasNext();) {
+          releaseOffHeapValue(((Entry)it.next()).getValue());
+        }
+      }
       map.clear();
     }
   }
@@ -143,9 +192,17 @@ public class HAContainerMap implements HAContainerWrapper {
 
   public Object put(Object key, Object value) {
     Entry entry = new Entry(key, value);
+    if (this.offHeapStore != null && value instanceof ClientUpdateMessageImpl) {
+      moveValueOffHeap((ClientUpdateMessageImpl)value);
+    }
+    Entry oldEntry;
     synchronized (map) {
-      return map.put(key, entry);
+      oldEntry = (Entry)map.put(key, entry);
     }
+    if (oldEntry != null && oldEntry.getValue() != value) {
+      releaseOffHeapValue(oldEntry.getValue());
+    }
+    return oldEntry;
   }
 
   public void putAll(Map t) {
@@ -156,10 +213,15 @@ public class HAContainerMap implements HAContainerWrapper {
   }
 
   public Object remove(Object key) {
+    Entry entry;
     synchronized (map) {
-      Entry entry = (Entry)map.remove(key);
-      return (entry == null) ? null : entry.getValue();
+      entry = (Entry)map.remove(key);
+    }
+    if (entry == null) {
+      return null;
     }
+    releaseOffHeapValue(entry.getValue());
+    return entry.getValue();
   }
 
   public int size() {
@@ -173,6 +235,29 @@ public class HAContainerMap implements HAContainerWrapper {
     throw new UnsupportedOperationException("values() not supported.");
   }
 
+  private void moveValueOffHeap(ClientUpdateMessageImpl message) {
+    Object value = message.getValue();
+    if (!(value instanceof byte[])) {
+      return;
+    }
+    int size = ((byte[])value).length;
+    if (size < MIN_OFF_HEAP_VALUE_SIZE) {
+      return;
+    }
+    long freeAfter = this.offHeapStore.getFreeMemory() - size;
+    if (freeAfter * 100 < this.offHeapStore.getTotalMemory() * OFF_HEAP_FREE_PERCENTAGE) {
+      return;
+    }
+    // keeps the value on heap if the allocation fails
+    message.moveValueOffHeap(this.offHeapStore);
+  }
+
+  private void releaseOffHeapValue(Object value) {
+    if (this.offHeapStore != null && value instanceof ClientUpdateMessageImpl) {
+      ((ClientUpdateMessageImpl)value).releaseOffHeapValue();
+    }
+  }
+
   static protected class Entry implements Map.Entry {
     private Object key = null;
 
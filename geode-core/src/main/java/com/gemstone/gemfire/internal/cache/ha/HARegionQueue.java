@@ -1450,26 +1450,9 @@ public class HARegionQueue implements RegionQueue
       catch (TimeoutException te) {
         throw new InterruptedException();
       }
-      object = (Conflatable)this.region.get(next);
+      object = peekPosition(next);
       if (object != null) {
-        // peeked a object, so add the correponding counter to thread-context
-        object = (object instanceof HAEventWrapper) ? (Conflatable)this.haContainer
-            .get(object)
-            : object;
-            
-        if (object != null) { // Is it possible for object to be null...when?
-            List peekedEvents;
-            if ((peekedEvents = (List)HARegionQueue.peekedEventsContext.get()) != null) {
-              peekedEvents.add(next);
-            }
-            else {
-              peekedEvents = new LinkedList();
-              peekedEvents.add(next);
-              HARegionQueue.peekedEventsContext.set(peekedEvents);
-            }
-            this.storePeekedID(next);
-            break;
-        }
+        break;
       }
     }
     // since size is zero, return null
@@ -1479,6 +1462,59 @@ public class HARegionQueue implements RegionQueue
     return object;
   }
 
+  /**
+   * Returns the event at <code>position</code> and adds the position to the
+   * thread-context, so that remove() removes it. Returns null if the event has
+   * already been removed from the queue.
+   */
+  protected Conflatable peekPosition(Long position)
+  {
+    Conflatable object = (Conflatable)this.region.get(position);
+    if (object != null) {
+      // peeked a object, so add the correponding counter to thread-context
+      object = (object instanceof HAEventWrapper) ? (Conflatable)this.haContainer
+          .get(object)
+          : object;
+
+      if (object != null) { // Is it possible for object to be null...when?
+        List peekedEvents;
+        if ((peekedEvents = (List)HARegionQueue.peekedEventsContext.get()) != null) {
+          peekedEvents.add(position);
+        }
+        else {
+          peekedEvents = new LinkedList();
+          peekedEvents.add(position);
+          HARegionQueue.peekedEventsContext.set(peekedEvents);
+        }
+        this.storePeekedID(position);
+      }
+    }
+    return object;
+  }
+
+  /**
+   * Peeks the next event, waiting for one if this is a blocking queue, and
+   * then up to <code>batchSize - 1</code> more events that are already
+   * available. Never waits once it has an event. All the peeked events are
+   * added to the thread-context, so that remove() removes all of them.
+   *
+   * @param batchSize
+   *          The maximum number of events to peek
+   * @return The list of events peeked
+   * @throws InterruptedException
+   */
+  public List peekAvailable(int batchSize) throws InterruptedException
+  {
+    List batch = peek(batchSize, -1);
+    if (batch.isEmpty()) {
+      Object object = peek();
+      if (object != null) {
+        batch.add(object);
+      }
+    }
+    return batch;
+  }
+
   public List peek(int batchSize) throws InterruptedException
   {
     return peek(batchSize, -1);
@@ -2646,6 +2682,41 @@ public class HARegionQueue implements RegionQueue
       }
     }
 
+    /**
+     * Peeks take their position out of the available IDs of a durable queue,
+     * so the batch is built from repeated peeks that stop when no more
+     * positions are available instead of waiting for one.
+     */
+    @Override
+    public List peekAvailable(int batchSize) throws InterruptedException
+    {
+      List batch = new ArrayList(batchSize);
+      Object object = peek();
+      if (object != null) {
+        batch.add(object);
+      }
+      while (batch.size() < batchSize) {
+        Long next = null;
+        acquireWriteLock();
+        try {
+          if (this.idsAvailable.isEmpty()) {
+            break;
+          }
+          Iterator itr = this.idsAvailable.iterator();
+          next = (Long)itr.next();
+          itr.remove();
+        }
+        finally {
+          releaseWriteLock();
+        }
+        object = peekPosition(next);
+        if (object != null) {
+          batch.add(object);
+        }
+      }
+      return batch;
+    }
+
     @Override
     protected boolean checkPrevAcks()
     {
@@ -3751,6 +3822,9 @@ protected boolean checkEventForRemoval(Long counter, ThreadIdentifier threadid,
 //          haEventWrapper =(HAEventWrapper)((HAContainerWrapper)haContainer).getKey(haEventWrapper);
 //        }
 //      }
+      if (this.isQueueInitialized()) {
+        updateOffHeapQueuedBytes(this.haContainer, this.regionName, haEventWrapper, true);
+      }
       // Put the reference to the HAEventWrapper instance into the
       // HA queue.
       this.region.put(position, haEventWrapper);
@@ -3792,6 +3866,33 @@ protected boolean checkEventForRemoval(Long counter, ThreadIdentifier threadid,
     }
   }
   
+  /**
+   * Adds the off-heap size of the value of the message wrapped by
+   * <code>wrapper</code> to, or subtracts it from, the statistics of the
+   * client proxy whose queue is named <code>regionName</code>. The wrapper
+   * must be the one held by the haContainer.
+   *
+   * @since Geode 1.0
+   */
+  public static void updateOffHeapQueuedBytes(Map haContainer,
+      String regionName, HAEventWrapper wrapper, boolean added) {
+    if (!(haContainer instanceof HAContainerMap)
+        || !((HAContainerMap)haContainer).hasOffHeapValues()) {
+      return;
+    }
+    Object message = haContainer.get(wrapper);
+    if (message instanceof ClientUpdateMessageImpl) {
+      int size = ((ClientUpdateMessageImpl)message).getOffHeapSize();
+      if (size > 0) {
+        CacheClientProxy proxy = ((HAContainerWrapper)haContainer)
+            .getProxy(regionName);
+        if (proxy != null) {
+          proxy.getStatistics().incOffHeapQueuedBytes(added ? size : -size);
+        }
+      }
+    }
+  }
+
   /**
    * If the wrapper's referenceCount becomes 1 after increment, then set this
    * haEventWrapper and its clientUpdateMessage into the haContainer as <key,
@@ -3944,6 +4045,10 @@ protected boolean checkEventForRemoval(Long counter, ThreadIdentifier threadid,
       HAEventWrapper wrapper = (HAEventWrapper)conflatable;
       cum = (Conflatable)HARegionQueue.this.haContainer.get(wrapper);
       if (cum != null) {
+        if (cum instanceof ClientUpdateMessageImpl) {
+          // the caller keeps the message, so its value must outlive the entry
+          ((ClientUpdateMessageImpl)cum).moveValueOnHeap();
+        }
         decAndRemoveFromHAContainer(wrapper);
       }
     }
@@ -3965,6 +4070,7 @@ protected boolean checkEventForRemoval(Long counter, ThreadIdentifier threadid,
    */
   public void decAndRemoveFromHAContainer(HAEventWrapper wrapper) 
   {
+    updateOffHeapQueuedBytes(this.haContainer, this.regionName, wrapper, false);
     if (wrapper.decAndGetReferenceCount() == 0L
         && !wrapper.getPutInProgress()) {
       synchronized (this.haContainer) {
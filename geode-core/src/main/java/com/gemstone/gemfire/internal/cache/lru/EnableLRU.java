@@ -107,6 +107,22 @@ public interface EnableLRU {
    * @return the id
    */
   public int getGreedyReturnsStatId();
+
+  /**
+   * Returns the id of the "recentlyUsedSkips" statistic for this LRU
+   * algorithm's statistics
+   *
+   * @return the id
+   */
+  public int getRecentlyUsedSkipsStatId();
+
+  /**
+   * Returns the id of the "admissionRejects" statistic for this LRU
+   * algorithm's statistics
+   *
+   * @return the id
+   */
+  public int getAdmissionRejectsStatId();
   
   /**
    * Returns whether or not there is enough room to accommodate data
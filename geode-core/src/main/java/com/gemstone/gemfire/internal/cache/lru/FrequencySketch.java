@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gemstone.gemfire.internal.cache.lru;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A count-min sketch that estimates how often an entry hash has been seen.
+ * Counters are four bits wide and sixteen of them are packed into each
+ * long, so the estimate saturates at 15. Once the number of increments
+ * reaches ten times the configured size every counter is halved, which
+ * lets the sketch forget entries that used to be popular.
+ * <p>
+ * Updates use compare-and-set on the packed counters and never block. A
+ * reset that races with concurrent increments may drop a few of them;
+ * that is acceptable because the result is only an estimate.
+ *
+ * @see NewLFUClockHand
+ */
+public class FrequencySketch {
+
+  private static final long[] SEEDS = new long[] {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+      0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+
+  /** The largest value a single counter can hold */
+  public static final int MAX_FREQUENCY = 15;
+
+  private final AtomicLongArray table;
+  private final int tableMask;
+  private final int sampleSize;
+  private final AtomicInteger size = new AtomicInteger();
+
+  /**
+   * @param maximumSize the number of distinct entries the sketch should
+   *        track with reasonable accuracy
+   */
+  public FrequencySketch(int maximumSize) {
+    int length = ceilingPowerOfTwo(Math.max(maximumSize, 8));
+    this.table = new AtomicLongArray(length);
+    this.tableMask = length - 1;
+    this.sampleSize = 10 * Math.max(maximumSize, 8);
+  }
+
+  /** Returns the estimated number of times the given hash was seen. */
+  public int frequency(int hash) {
+    int h = spread(hash);
+    int start = (h & 3) << 2;
+    int frequency = MAX_FREQUENCY;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(h, i);
+      int count = (int) ((this.table.get(index) >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /** Records one occurrence of the given hash. */
+  public void increment(int hash) {
+    int h = spread(hash);
+    int start = (h & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(h, i), start + i);
+    }
+    if (added && this.size.incrementAndGet() >= this.sampleSize) {
+      reset();
+    }
+  }
+
+  /** Returns the number of increments since the last reset. */
+  int getSampleCount() {
+    return this.size.get();
+  }
+
+  int getSampleSize() {
+    return this.sampleSize;
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    for (;;) {
+      long value = this.table.get(index);
+      if ((value & mask) == mask) {
+        return false;
+      }
+      if (this.table.compareAndSet(index, value, value + (1L << offset))) {
+        return true;
+      }
+    }
+  }
+
+  /** Halves every counter. */
+  void reset() {
+    int odd = 0;
+    for (int i = 0; i < this.table.length(); i++) {
+      for (;;) {
+        long value = this.table.get(i);
+        if (this.table.compareAndSet(i, value, (value >>> 1) & RESET_MASK)) {
+          odd += Long.bitCount(value & ONE_MASK);
+          break;
+        }
+      }
+    }
+    this.size.set(Math.max(0, (this.size.get() >>> 1) - (odd >>> 2)));
+  }
+
+  private int indexOf(int item, int i) {
+    long hash = (item + SEEDS[i]) * SEEDS[i];
+    hash += (hash >>> 32);
+    return ((int) hash) & this.tableMask;
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+
+  private static int ceilingPowerOfTwo(int x) {
+    if (x >= (1 << 30)) {
+      return 1 << 30;
+    }
+    return 1 << (32 - Integer.numberOfLeadingZeros(x - 1));
+  }
+}
@@ -59,6 +59,9 @@ public class HeapEvictor implements ResourceListener<MemoryEvent> {
           DistributionConfig.GEMFIRE_PREFIX + "HeapLRUCapacityController.evictHighEntryCountBucketsFirst",
           "true")).booleanValue(); 
 
+  public static final boolean EVICT_LARGEST_BUCKETS_FIRST = Boolean.getBoolean(
+      DistributionConfig.GEMFIRE_PREFIX + "HeapLRUCapacityController.evictLargestBucketsFirst");
+
   public static final int MINIMUM_ENTRIES_PER_BUCKET = Integer
       .getInteger(DistributionConfig.GEMFIRE_PREFIX + "HeapLRUCapacityController.inlineEvictionThreshold", 0);
   
@@ -83,6 +86,9 @@ public class HeapEvictor implements ResourceListener<MemoryEvent> {
 
   private AtomicBoolean mustEvict = new AtomicBoolean(false);
 
+  /** When memory usage last went above the eviction threshold */
+  private volatile long evictionStartTime;
+
   protected final Cache cache;  
 
   private final ArrayList testTaskSetSizes = new  ArrayList();
@@ -253,6 +259,83 @@ public class HeapEvictor implements ResourceListener<MemoryEvent> {
     }
   }
 
+  /**
+   * Submits one eviction task per region, giving each a share of the bytes
+   * to evict based on how far its size in bytes is over the average region
+   * size. The largest regions are submitted first.
+   */
+  private void createAndSubmitSizeWeightedRegionEvictionTasks() {
+    List<LocalRegion> allRegionList = getAllRegionList();
+    int numRegions = allRegionList.size();
+    if (numRegions == 0) {
+      return;
+    }
+    long[] regionBytes = new long[numRegions];
+    for (int i = 0; i < numRegions; i++) {
+      regionBytes[i] = getRegionBytes(allRegionList.get(i));
+    }
+    final long[] shares = computeEvictionShares(regionBytes, getTotalBytesToEvict());
+    Integer[] order = new Integer[numRegions];
+    for (int i = 0; i < numRegions; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      public int compare(Integer i1, Integer i2) {
+        return Long.compare(shares[i2], shares[i1]);
+      }
+    });
+    for (Integer i : order) {
+      if (shares[i] <= 0 || !mustEvict()) {
+        break;
+      }
+      List<LocalRegion> regionsForSingleTask = new ArrayList<LocalRegion>(1);
+      regionsForSingleTask.add(allRegionList.get(i));
+      submitRegionEvictionTask(new RegionEvictorTask(regionsForSingleTask, this, shares[i]));
+    }
+  }
+
+  private static long getRegionBytes(LocalRegion lr) {
+    if (lr instanceof BucketRegion) {
+      return ((BucketRegion)lr).getBytesInMemory();
+    }
+    return ((AbstractLRURegionMap)lr.getRegionMap()).getLRUStatistics().getCounter();
+  }
+
+  /**
+   * Splits <code>bytesToEvict</code> across regions of the given sizes. Bytes
+   * a region holds beyond the average region size are evicted first; anything
+   * left over is split in proportion to region size.
+   */
+  static long[] computeEvictionShares(long[] regionBytes, long bytesToEvict) {
+    int numRegions = regionBytes.length;
+    long[] shares = new long[numRegions];
+    long totalBytes = 0;
+    for (long bytes : regionBytes) {
+      totalBytes += Math.max(bytes, 0);
+    }
+    if (numRegions == 0 || totalBytes == 0) {
+      return shares;
+    }
+    long fairShare = totalBytes / numRegions;
+    long totalExcess = 0;
+    for (long bytes : regionBytes) {
+      if (bytes > fairShare) {
+        totalExcess += bytes - fairShare;
+      }
+    }
+    long fromExcess = Math.min(bytesToEvict, totalExcess);
+    long remainder = bytesToEvict - fromExcess;
+    for (int i = 0; i < numRegions; i++) {
+      long bytes = Math.max(regionBytes[i], 0);
+      double share = (double)remainder * bytes / totalBytes;
+      if (bytes > fairShare) {
+        share += (double)fromExcess * (bytes - fairShare) / totalExcess;
+      }
+      shares[i] = (long)share;
+    }
+    return shares;
+  }
+
   private Set<Callable<Object>> createRegionEvictionTasks() {
     Set<Callable<Object>> evictorTaskSet = new HashSet<Callable<Object>>();
     int threadsAvailable = getEvictorThreadPool().getCorePoolSize();
@@ -360,6 +443,7 @@ public class HeapEvictor implements ResourceListener<MemoryEvent> {
           return;
         }
         
+        this.evictionStartTime = System.currentTimeMillis();
         numEvictionLoopsCompleted = 0;
         numFastLoops = (int) ((event.getBytesUsed() - event.getThresholds().getEvictionThresholdClearBytes()
             + getTotalBytesToEvict()) / getTotalBytesToEvict());
@@ -375,7 +459,9 @@ public class HeapEvictor implements ResourceListener<MemoryEvent> {
             if (numEvictionLoopsCompleted < testAbortAfterLoopCount) {
               try {
                 // Submit tasks into the queue to do the evictions
-                if (EVICT_HIGH_ENTRY_COUNT_BUCKETS_FIRST) {
+                if (EVICT_LARGEST_BUCKETS_FIRST) {
+                  createAndSubmitSizeWeightedRegionEvictionTasks();
+                } else if (EVICT_HIGH_ENTRY_COUNT_BUCKETS_FIRST) {
                   createAndSubmitWeightedRegionEvictionTasks();
                 } else {
                   for (Callable<Object> task : createRegionEvictionTasks()) {
@@ -383,6 +469,7 @@ public class HeapEvictor implements ResourceListener<MemoryEvent> {
                   }
                 }
                 RegionEvictorTask.setLastTaskCompletionTime(System.currentTimeMillis());
+                getGemFireCache().getCachePerfStats().incEvictorPasses();
   
                 // Make sure that another thread isn't processing a new eviction event
                 // and changing the number of fast loops to perform.
@@ -425,7 +512,10 @@ public class HeapEvictor implements ResourceListener<MemoryEvent> {
         this.evictorThreadPool.submit(evictionManagerTask);
           
       } else {
-        this.mustEvict.set(false);
+        if (this.mustEvict.compareAndSet(true, false)) {
+          getGemFireCache().getCachePerfStats().endEvictionThresholdCrossing(
+              System.currentTimeMillis() - this.evictionStartTime);
+        }
       }
     }
   }
@@ -91,6 +91,8 @@ public class HeapLRUCapacityController extends LRUAlgorithm {
     final String lruDestroysLimitDesc = "Maximum number of entry destroys triggered by LRU before scan occurs.";
     final String lruEvaluationsDesc = "Number of entries evaluated during LRU operations.";
     final String lruGreedyReturnsDesc = "Number of non-LRU entries evicted during LRU operations";
+    final String lruRecentlyUsedSkipsDesc = "Number of recently used entries given another pass through the LRU list during LRU operations.";
+    final String lruAdmissionRejectsDesc = "Number of LRU candidates kept because the newest entry in the LRU list was used less often and was evicted instead.";
 
     statType = f
         .createType(
@@ -102,7 +104,9 @@ public class HeapLRUCapacityController extends LRUAlgorithm {
                 f.createLongCounter("lruDestroys", lruDestroysDesc, "entries"),
                 f.createLongGauge("lruDestroysLimit", lruDestroysLimitDesc, "entries"),
                 f.createLongCounter("lruEvaluations", lruEvaluationsDesc, "entries"),
-                f.createLongCounter("lruGreedyReturns", lruGreedyReturnsDesc, "entries"), });
+                f.createLongCounter("lruGreedyReturns", lruGreedyReturnsDesc, "entries"),
+                f.createLongCounter("lruRecentlyUsedSkips", lruRecentlyUsedSkipsDesc, "entries"),
+                f.createLongCounter("lruAdmissionRejects", lruAdmissionRejectsDesc, "entries"), });
   }
 
   // //////////////////// Instance Fields /////////////////////
@@ -268,6 +272,14 @@ public class HeapLRUCapacityController extends LRUAlgorithm {
       public int getGreedyReturnsStatId() {
         return statType.nameToId("lruGreedyReturns");
       }
+
+      public int getRecentlyUsedSkipsStatId() {
+        return statType.nameToId("lruRecentlyUsedSkips");
+      }
+
+      public int getAdmissionRejectsStatId() {
+        return statType.nameToId("lruAdmissionRejects");
+      }
       
       /**
        * Okay, deep breath. Instead of basing the LRU calculation on the number
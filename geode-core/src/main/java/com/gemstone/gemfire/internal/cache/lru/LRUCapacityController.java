@@ -86,6 +86,8 @@ public final class LRUCapacityController extends LRUAlgorithm
       "Number of entries evaluated during LRU operations.";
     final String lruGreedyReturnsDesc =
       "Number of non-LRU entries evicted during LRU operations";
+    final String lruRecentlyUsedSkipsDesc = "Number of recently used entries given another pass through the LRU list during LRU operations.";
+    final String lruAdmissionRejectsDesc = "Number of LRU candidates kept because the newest entry in the LRU list was used less often and was evicted instead.";
 
     statType = f.createType( "LRUStatistics",
       "Statistics about entry based Least Recently Used region entry disposal",
@@ -97,6 +99,8 @@ public final class LRUCapacityController extends LRUAlgorithm
         f.createLongGauge("lruDestroysLimit", lruDestroysLimitDesc, "entries" ),
         f.createLongCounter("lruEvaluations", lruEvaluationsDesc, "entries" ),
         f.createLongCounter("lruGreedyReturns", lruGreedyReturnsDesc, "entries"),
+        f.createLongCounter("lruRecentlyUsedSkips", lruRecentlyUsedSkipsDesc, "entries"),
+        f.createLongCounter("lruAdmissionRejects", lruAdmissionRejectsDesc, "entries"),
       }
     );
     
@@ -312,6 +316,14 @@ public final class LRUCapacityController extends LRUAlgorithm
       public int getGreedyReturnsStatId() {
         return statType.nameToId("lruGreedyReturns");
       }
+
+      public int getRecentlyUsedSkipsStatId() {
+        return statType.nameToId("lruRecentlyUsedSkips");
+      }
+
+      public int getAdmissionRejectsStatId() {
+        return statType.nameToId("lruAdmissionRejects");
+      }
       
       public boolean mustEvict(LRUStatistics stats, Region region, int delta) {
        return stats.getCounter() + delta > stats.getLimit();
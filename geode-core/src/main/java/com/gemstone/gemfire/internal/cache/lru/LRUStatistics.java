@@ -46,6 +46,8 @@ public class LRUStatistics  {
   protected int destroysId;
   protected  int evaluationsId;
   protected  int greedyReturnsId;
+  protected  int recentlyUsedSkipsId;
+  protected  int admissionRejectsId;
 
   // Note: the following atomics have been added so that the LRU code
   // does not depend on the value of a statistic for its operations.
@@ -79,6 +81,8 @@ public class LRUStatistics  {
     destroysId = helper.getDestroysStatId();
     this.evaluationsId = helper.getEvaluationsStatId();
     this.greedyReturnsId = helper.getGreedyReturnsStatId();
+    this.recentlyUsedSkipsId = helper.getRecentlyUsedSkipsStatId();
+    this.admissionRejectsId = helper.getAdmissionRejectsStatId();
   }
 
   public LRUStatistics(StatisticsFactory factory, String name,
@@ -91,6 +95,8 @@ public class LRUStatistics  {
     destroysId = 0;
     this.evaluationsId = 0;
     this.greedyReturnsId = 0;
+    this.recentlyUsedSkipsId = 0;
+    this.admissionRejectsId = 0;
   }
 
   public void close() {
@@ -200,6 +206,14 @@ public class LRUStatistics  {
   public void incGreedyReturns(long numEvals) {
     stats.incLong(greedyReturnsId, numEvals);
   }
+
+  public void incRecentlyUsedSkips(long skips) {
+    stats.incLong(recentlyUsedSkipsId, skips);
+  }
+
+  public void incAdmissionRejects(long rejects) {
+    stats.incLong(admissionRejectsId, rejects);
+  }
   
 
   public Statistics getStats() {
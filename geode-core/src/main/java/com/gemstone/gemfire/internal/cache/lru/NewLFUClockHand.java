@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gemstone.gemfire.internal.cache.lru;
+
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
+import com.gemstone.gemfire.internal.cache.AbstractRegionEntry;
+import com.gemstone.gemfire.internal.cache.InternalRegionArguments;
+import com.gemstone.gemfire.internal.util.concurrent.CustomEntryConcurrentHashMap.HashEntry;
+
+/**
+ * NewLFUClockHand adds a frequency based admission check to the LRU clock.
+ * Every read or write of an entry is recorded, as it happens, in a
+ * {@link FrequencySketch} keyed by the entry's hash. When the clock picks a
+ * victim it is compared with the newest entry in the list; if the sketch has
+ * seen the victim more often than the newest entry, the newest entry is
+ * evicted instead and the victim goes back into the list. This keeps a one
+ * time scan of new keys from flushing the frequently used entries out of the
+ * region. The decision uses the sketch alone: every new region entry starts
+ * out recently used, so that flag cannot tell a hot new entry from a scan.
+ * A rejected entry is recorded in the sketch so that one that keeps being
+ * added again is eventually admitted.
+ * <p>
+ * Enabled with the <code>gemfire.lru.frequencySketch</code> system property.
+ *
+ * @see NewLRUClockHand
+ */
+public class NewLFUClockHand extends NewLRUClockHand {
+
+  public static final boolean ENABLED = Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "lru.frequencySketch");
+
+  /** Number of entries the sketch tracks; 0 means size it from the LRU limit */
+  private static final int SKETCH_SIZE = Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "lru.frequencySketchSize", 0);
+
+  static final int DEFAULT_SKETCH_SIZE = 1 << 12;
+  static final int MAX_SKETCH_SIZE = 1 << 16;
+
+  private volatile FrequencySketch sketch;
+
+  public NewLFUClockHand(Object region, EnableLRU ccHelper, InternalRegionArguments internalRegionArgs) {
+    super(region, ccHelper, internalRegionArgs);
+  }
+
+  public NewLFUClockHand(Region region, EnableLRU ccHelper, NewLRUClockHand oldList) {
+    super(region, ccHelper, oldList);
+  }
+
+  /**
+   * Records an access of <code>aNode</code>. Called when the entry is marked
+   * recently used, so that the sketch counts every access and not only
+   * those the clock hand happens to find.
+   */
+  public void recordAccess(LRUClockNode aNode) {
+    getSketch().increment(hashOf(aNode));
+  }
+
+  @Override
+  public LRUClockNode getLRUEntry() {
+    LRUClockNode victim = super.getLRUEntry();
+    if (victim == null) {
+      return null;
+    }
+    FrequencySketch s = getSketch();
+    int victimFrequency = s.frequency(hashOf(victim));
+    if (victimFrequency == 0) {
+      return victim;
+    }
+    LRUClockNode candidate = removeNewestEntry(victim);
+    if (candidate == null) {
+      return victim;
+    }
+    synchronized (candidate) {
+      if (candidate.testEvicted()) {
+        // already gone from the region, drop it like getLRUEntry would
+        return victim;
+      }
+      boolean inUseByTransaction = candidate instanceof AbstractRegionEntry
+          && ((AbstractRegionEntry)candidate).isInUseByTransaction();
+      int candidateHash = hashOf(candidate);
+      if (inUseByTransaction || s.frequency(candidateHash) >= victimFrequency) {
+        appendEntry(candidate);
+        return victim;
+      }
+      s.increment(candidateHash);
+    }
+    appendEntry(victim);
+    stats().incAdmissionRejects(1);
+    return candidate;
+  }
+
+  /**
+   * Removes the most recently added node, unless it is the given victim,
+   * without marking it evicted.
+   */
+  private LRUClockNode removeNewestEntry(LRUClockNode victim) {
+    synchronized (this.lock) {
+      LRUClockNode aNode = this.tail.prevLRUNode();
+      if (aNode == this.head || aNode == victim) {
+        return null;
+      }
+      LRUClockNode prev = aNode.prevLRUNode();
+      prev.setNextLRUNode(this.tail);
+      this.tail.setPrevLRUNode(prev);
+      aNode.setNextLRUNode(null);
+      aNode.setPrevLRUNode(null);
+      this.size--;
+      return aNode;
+    }
+  }
+
+  private FrequencySketch getSketch() {
+    FrequencySketch s = this.sketch;
+    if (s == null) {
+      synchronized (this.lock) {
+        s = this.sketch;
+        if (s == null) {
+          s = new FrequencySketch(sketchSize());
+          this.sketch = s;
+        }
+      }
+    }
+    return s;
+  }
+
+  private int sketchSize() {
+    if (SKETCH_SIZE > 0) {
+      return SKETCH_SIZE;
+    }
+    LRUStatistics stats = stats();
+    long limit = stats != null ? stats.getLimit() : 0;
+    if (limit <= 0) {
+      return DEFAULT_SKETCH_SIZE;
+    }
+    return (int)Math.min(limit, MAX_SKETCH_SIZE);
+  }
+
+  private static int hashOf(LRUClockNode aNode) {
+    if (aNode instanceof HashEntry) {
+      return ((HashEntry<?, ?>)aNode).getEntryHash();
+    }
+    return System.identityHashCode(aNode);
+  }
+}
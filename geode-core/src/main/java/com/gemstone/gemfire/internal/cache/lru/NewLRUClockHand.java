@@ -191,6 +191,7 @@ public NewLRUClockHand(Object region, EnableLRU ccHelper,
     */
   public LRUClockNode getLRUEntry() {
     long numEvals = 0;
+    long numSkips = 0;
     
     for (;;) {
 	LRUClockNode aNode = null;
@@ -202,6 +203,7 @@ public NewLRUClockHand(Object region, EnableLRU ccHelper,
 
       if ( aNode == null ) { // hit the end of the list
         this.stats.incEvaluations(numEvals);
+        this.stats.incRecentlyUsedSkips(numSkips);
         return aNode;
       } // hit the end of the list
 
@@ -243,6 +245,7 @@ public NewLRUClockHand(Object region, EnableLRU ccHelper,
           if (logger.isTraceEnabled(LogMarker.LRU_CLOCK)) {
             logger.trace(LogMarker.LRU_CLOCK, LocalizedMessage.create(LocalizedStrings.NewLRUClockHand_SKIPPING_RECENTLY_USED_ENTRY, aNode));
           }
+          numSkips++;
           appendEntry(aNode);
           continue; // keep looking
         }
@@ -255,6 +258,7 @@ public NewLRUClockHand(Object region, EnableLRU ccHelper,
 
         // Return the current node.
         this.stats.incEvaluations(numEvals);
+        this.stats.incRecentlyUsedSkips(numSkips);
         return aNode;
       } // synchronized
     } // for
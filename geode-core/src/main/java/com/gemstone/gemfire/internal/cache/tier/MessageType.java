@@ -338,10 +338,28 @@ public class MessageType {
   public static final int PUT_ALL_WITH_CALLBACK = 108;
 
   public static final int REMOVE_ALL = 109;
+
+  /** executes a query and returns the first page of its results @since Geode 1.0 */
+  public static final int QUERY_CURSOR = 110;
+
+  /** returns the next page of the results of a query cursor @since Geode 1.0 */
+  public static final int QUERY_CURSOR_NEXT = 111;
+
+  /** releases the results of a query cursor @since Geode 1.0 */
+  public static final int QUERY_CURSOR_CLOSE = 112;
+
+  /** a get that references its region by a connection-local id @since Geode 1.0 */
+  public static final int COMPACT_GET = 113;
+
+  /** a put that references its region by a connection-local id @since Geode 1.0 */
+  public static final int COMPACT_PUT = 114;
+
+  /** a destroy that references its region by a connection-local id @since Geode 1.0 */
+  public static final int COMPACT_DESTROY = 115;
   /**
    * Must be equal to last valid message id.
    */
-  private static final int LAST_VALID_MESSAGE_ID = REMOVE_ALL;
+  private static final int LAST_VALID_MESSAGE_ID = COMPACT_DESTROY;
   
 
   public static boolean validate(int messageType) {
@@ -561,6 +579,18 @@ public class MessageType {
       return "PUT_ALL_WITH_CALLBACK";
     case REMOVE_ALL:
       return "REMOVE_ALL";
+    case QUERY_CURSOR:
+      return "QUERY_CURSOR";
+    case QUERY_CURSOR_NEXT:
+      return "QUERY_CURSOR_NEXT";
+    case QUERY_CURSOR_CLOSE:
+      return "QUERY_CURSOR_CLOSE";
+    case COMPACT_GET:
+      return "COMPACT_GET";
+    case COMPACT_PUT:
+      return "COMPACT_PUT";
+    case COMPACT_DESTROY:
+      return "COMPACT_DESTROY";
     default:
       return Integer.toString(type);
     }
@@ -82,6 +82,7 @@ import com.gemstone.gemfire.internal.cache.BucketAdvisor.BucketProfile;
 import com.gemstone.gemfire.internal.cache.GemFireCacheImpl;
 import com.gemstone.gemfire.internal.cache.InternalCache;
 import com.gemstone.gemfire.internal.cache.PartitionedRegion;
+import com.gemstone.gemfire.internal.cache.control.InternalResourceManager.ResourceType;
 import com.gemstone.gemfire.internal.cache.partitioned.AllBucketProfilesUpdateMessage;
 import com.gemstone.gemfire.internal.cache.tier.Acceptor;
 import com.gemstone.gemfire.internal.cache.tier.CachedRegionHelper;
@@ -199,6 +200,9 @@ public class AcceptorImpl extends Acceptor implements Runnable
   /** Notifies clients of updates */
   private final CacheClientNotifier clientNotifier;
 
+  /** The query cursors held for the clients of this server */
+  private final ServerQueryCursors queryCursors = new ServerQueryCursors();
+
   /**
    * The default value of the {@link ServerSocket}
    * {@link #BACKLOG_PROPERTY_NAME}system property
@@ -327,8 +331,12 @@ public class AcceptorImpl extends Acceptor implements Runnable
     {
       int tmp_maxThreads = maxThreads;
       if (maxThreads == CacheServer.DEFAULT_MAX_THREADS) {
+        if (SELECTOR && !isGatewayReceiver
+            && !((InternalDistributedSystem)c.getDistributedSystem()).getConfig().getServerSSLEnabled()) {
+          tmp_maxThreads = SELECTOR_POOL_SIZE;
+        }
         // consult system properties for 5.0.2 backwards compatibility
-        if (DEPRECATED_SELECTOR) {
+        else if (DEPRECATED_SELECTOR) {
           tmp_maxThreads = DEPRECATED_SELECTOR_POOL_SIZE;
         }
       }
@@ -663,6 +671,22 @@ public class AcceptorImpl extends Acceptor implements Runnable
   public boolean isSelector() {
     return this.maxThreads > 0;
   }
+  /**
+   * If true, and max-threads is not configured, a cache server uses a
+   * selector and a pool of {@link #SELECTOR_POOL_SIZE} threads instead of a
+   * thread per client connection. The selector thread reads only the header
+   * of each message; the pool thread reads the rest. Ignored by gateway
+   * receivers and by cache servers that use SSL, which cannot use a selector.
+   */
+  private static final boolean SELECTOR = Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "CacheServer.SELECTOR");
+
+  /**
+   * The number of threads processing client messages when {@link #SELECTOR}
+   * is set.
+   */
+  private static final int SELECTOR_POOL_SIZE = Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "CacheServer.SELECTOR_POOL_SIZE",
+      Math.max(16, 2 * Runtime.getRuntime().availableProcessors())).intValue();
+
   /**
    * This system property is only used if max-threads == 0.
    * This is for 5.0.2 backwards compatibility.
@@ -709,6 +733,8 @@ public class AcceptorImpl extends Acceptor implements Runnable
       this.selectorThread.start();
     }
     GemFireCacheImpl myCache  = (GemFireCacheImpl)cache;
+    this.queryCursors.start(myCache.getCCPTimer());
+    myCache.getResourceManager().addResourceListener(ResourceType.HEAP_MEMORY, this.queryCursors);
     Set<PartitionedRegion> prs = myCache.getPartitionedRegions();
     for(PartitionedRegion pr : prs){
       Map<Integer, BucketAdvisor.BucketProfile> profiles = new HashMap<Integer,BucketAdvisor.BucketProfile>();
@@ -945,6 +971,7 @@ public class AcceptorImpl extends Acceptor implements Runnable
               }
               try {
                 AcceptorImpl.this.stats.incThreadQueueSize();
+                sc.setQueued();
                 AcceptorImpl.this.pool.execute(sc);
               } catch (RejectedExecutionException rejected) {
                 finishCon(sc);
@@ -1102,6 +1129,10 @@ public class AcceptorImpl extends Acceptor implements Runnable
             try {
             if (key.isValid() && key.isReadable()) {
               // this is the only event we currently register for
+              if (!sc.readSelectorHeader()) {
+                // stay registered until the rest of the header arrives
+                continue;
+              }
               try {
                 key.cancel();
                 this.selectorRegistrations.remove(sc);
@@ -1127,6 +1158,7 @@ public class AcceptorImpl extends Acceptor implements Runnable
               }
               try {
                 AcceptorImpl.this.stats.incThreadQueueSize();
+                sc.setQueued();
                 AcceptorImpl.this.pool.execute(sc);
               } catch (RejectedExecutionException rejected) {
                 finishCon(sc);
@@ -1635,6 +1667,8 @@ public class AcceptorImpl extends Acceptor implements Runnable
         }
         ClientHealthMonitor.shutdownInstance();        
         shutdownSCs();
+        ((GemFireCacheImpl)this.cache).getResourceManager(false).removeResourceListener(ResourceType.HEAP_MEMORY, this.queryCursors);
+        this.queryCursors.close();
         this.clientNotifier.shutdown(this.acceptorId);
         this.pool.shutdown();
         if (!this.pool.awaitTermination(PoolImpl.SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
@@ -1811,6 +1845,10 @@ public class AcceptorImpl extends Acceptor implements Runnable
   public CachedRegionHelper getCachedRegionHelper() {
     return this.crHelper;
   }
+
+  public ServerQueryCursors getQueryCursors() {
+    return this.queryCursors;
+  }
   
   public ClientHealthMonitor getClientHealthMonitor() {
     return healthMonitor;
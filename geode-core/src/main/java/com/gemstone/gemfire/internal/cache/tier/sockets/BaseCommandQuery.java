@@ -94,7 +94,6 @@ public abstract class BaseCommandQuery extends BaseCommand {
       throws IOException, InterruptedException {
     ChunkedMessage queryResponseMsg = servConn.getQueryResponseMessage();
     CacheServerStats stats = servConn.getCacheServerStats();
-    CachedRegionHelper crHelper = servConn.getCachedRegionHelper();
     
     {
       long oldStart = start;
@@ -109,79 +108,12 @@ public abstract class BaseCommandQuery extends BaseCommand {
     }
     // Process the query request
     try {
-      // integrated security
-      for(Object regionName:regionNames){
-        GeodeSecurityUtil.authorizeRegionRead(regionName.toString());
-      }
-
-      // Execute query
-      // startTime = GenericStats.getTime();
-      // startTime = System.currentTimeMillis();
-
-      // For now we assume the results are a SelectResults
-      // which is the only possibility now, but this may change
-      // in the future if we support arbitrary queries
-      Object result = null;
-      
-      if (params != null) {
-        result = query.execute(params);
-      } else {
-        result = query.execute();
-      }
-
-      //Asif : Before conditioning the results check if any
-      //of the regions involved in the query have been destroyed
-      //or not. If yes, throw an Exception.
-      //This is a workaround/fix for Bug 36969
-      Iterator itr = regionNames.iterator();
-      while(itr.hasNext()) {
-        String regionName = (String)itr.next();
-        if(crHelper.getRegion(regionName) == null) {
-          throw new RegionDestroyedException(
-              LocalizedStrings.BaseCommand_REGION_DESTROYED_DURING_THE_EXECUTION_OF_THE_QUERY.toLocalizedString(), regionName);
-        }
-      }
-      AuthorizeRequestPP postAuthzRequest = servConn.getPostAuthzRequest();
-      if (postAuthzRequest != null) {
-        if (cqQuery == null) {
-          queryContext = postAuthzRequest.queryAuthorize(queryString,
-              regionNames, result, queryContext, params);
-        }
-        else {
-          queryContext = postAuthzRequest.executeCQAuthorize(cqQuery.getName(),
-              queryString, regionNames, result, queryContext);
-        }
-        result = queryContext.getQueryResult();
-      }
+      Object result = executeQuery(query, queryString, regionNames, cqQuery,
+          queryContext, servConn, params);
 
       if (result instanceof SelectResults) {
         SelectResults selectResults = (SelectResults)result;
 
-        // post process, iterate through the result for post processing
-        if(GeodeSecurityUtil.needPostProcess()) {
-          List list = selectResults.asList();
-          for (Iterator<Object> valItr = list.iterator(); valItr.hasNext(); ) {
-            Object value = valItr.next();
-            if (value == null)
-              continue;
-
-            if (value instanceof CqEntry) {
-              CqEntry cqEntry = (CqEntry) value;
-              Object cqNewValue = GeodeSecurityUtil.postProcess(null, cqEntry.getKey(), cqEntry.getValue());
-              if (!cqEntry.getValue().equals(cqNewValue)) {
-                selectResults.remove(value);
-                selectResults.add(new CqEntry(cqEntry.getKey(), cqNewValue));
-              }
-            } else {
-              Object newValue = GeodeSecurityUtil.postProcess(null, null, value);
-              if (!value.equals(newValue)) {
-                selectResults.remove(value);
-                selectResults.add(newValue);
-              }
-            }
-          }
-        }
-
         if (logger.isDebugEnabled()) {
           logger.debug("Query Result size for : {} is {}", query.getQueryString(), selectResults.size());
         }
@@ -334,6 +266,92 @@ public abstract class BaseCommandQuery extends BaseCommand {
     return true;
   }
   
+  /**
+   * Executes <code>query</code> for a client, checking region read
+   * authorization before and post-process authorization after the execution.
+   *
+   * @return the result of the query, a <code>SelectResults</code> or an
+   *         <code>Integer</code>
+   */
+  protected static Object executeQuery(Query query, String queryString,
+      Set regionNames, ServerCQ cqQuery, QueryOperationContext queryContext,
+      ServerConnection servConn, Object[] params)
+      throws IOException, QueryException {
+    CachedRegionHelper crHelper = servConn.getCachedRegionHelper();
+
+    // integrated security
+    for(Object regionName:regionNames){
+      GeodeSecurityUtil.authorizeRegionRead(regionName.toString());
+    }
+
+    // Execute query
+    // startTime = GenericStats.getTime();
+    // startTime = System.currentTimeMillis();
+
+    // For now we assume the results are a SelectResults
+    // which is the only possibility now, but this may change
+    // in the future if we support arbitrary queries
+    Object result = null;
+    
+    if (params != null) {
+      result = query.execute(params);
+    } else {
+      result = query.execute();
+    }
+
+    //Asif : Before conditioning the results check if any
+    //of the regions involved in the query have been destroyed
+    //or not. If yes, throw an Exception.
+    //This is a workaround/fix for Bug 36969
+    Iterator itr = regionNames.iterator();
+    while(itr.hasNext()) {
+      String regionName = (String)itr.next();
+      if(crHelper.getRegion(regionName) == null) {
+        throw new RegionDestroyedException(
+            LocalizedStrings.BaseCommand_REGION_DESTROYED_DURING_THE_EXECUTION_OF_THE_QUERY.toLocalizedString(), regionName);
+      }
+    }
+    AuthorizeRequestPP postAuthzRequest = servConn.getPostAuthzRequest();
+    if (postAuthzRequest != null) {
+      if (cqQuery == null) {
+        queryContext = postAuthzRequest.queryAuthorize(queryString,
+            regionNames, result, queryContext, params);
+      }
+      else {
+        queryContext = postAuthzRequest.executeCQAuthorize(cqQuery.getName(),
+            queryString, regionNames, result, queryContext);
+      }
+      result = queryContext.getQueryResult();
+    }
+
+    // post process, iterate through the result for post processing
+    if (result instanceof SelectResults && GeodeSecurityUtil.needPostProcess()) {
+      SelectResults selectResults = (SelectResults)result;
+      List list = selectResults.asList();
+      for (Iterator<Object> valItr = list.iterator(); valItr.hasNext(); ) {
+        Object value = valItr.next();
+        if (value == null)
+          continue;
+
+        if (value instanceof CqEntry) {
+          CqEntry cqEntry = (CqEntry) value;
+          Object cqNewValue = GeodeSecurityUtil.postProcess(null, cqEntry.getKey(), cqEntry.getValue());
+          if (!cqEntry.getValue().equals(cqNewValue)) {
+            selectResults.remove(value);
+            selectResults.add(new CqEntry(cqEntry.getKey(), cqNewValue));
+          }
+        } else {
+          Object newValue = GeodeSecurityUtil.postProcess(null, null, value);
+          if (!value.equals(newValue)) {
+            selectResults.remove(value);
+            selectResults.add(newValue);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
   private static boolean sendCqResultsWithKey(ServerConnection servConn) {
     Version clientVersion = servConn.getClientVersion();
     if (clientVersion.compareTo(Version.GFE_65) >= 0) {
@@ -546,7 +564,7 @@ public abstract class BaseCommandQuery extends BaseCommand {
    }
   }
   
-  private static void addToObjectPartList(ObjectPartList serializedObjs,
+  protected static void addToObjectPartList(ObjectPartList serializedObjs,
       Object res, CollectionType collectionType, boolean lastChunk,
       ServerConnection servConn, boolean isStructs) throws IOException {
 
@@ -2699,7 +2699,8 @@ public class CacheClientNotifier {
               (Boolean)overflowAttributesList.get(4))));
     }
     else {
-      haContainer = new HAContainerMap(new HashMap());
+      haContainer = new HAContainerMap(new HashMap(),
+          HAContainerMap.OFF_HEAP_VALUES ? _cache.getOffHeapStore() : null);
     }
     assert haContainer != null;
 
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.net.Socket;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -206,6 +207,14 @@ public class CacheClientProxy implements ClientSession {
    */
   protected static final int MAXIMUM_SHUTDOWN_PEEKS = Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "MAXIMUM_SHUTDOWN_PEEKS", 50).intValue();
 
+  /**
+   * The maximum number of queued messages the dispatcher sends with a single
+   * flush of the socket. The dispatcher never waits for a batch to fill; it
+   * takes the messages that are already queued. The default of 1 sends each
+   * message on its own.
+   */
+  protected static final int DISPATCH_BATCH_SIZE = Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "CacheClientProxy.DISPATCH_BATCH_SIZE", 1).intValue();
+
   /**
    * The number of milliseconds to wait for an offering to the message queue
    */
@@ -2632,6 +2641,7 @@ public class CacheClientProxy implements ClientSession {
       }
 
       ClientMessage clientMessage = null;
+      List batch = null;
       while (!isStopped()) {
 //        SystemFailure.checkFailure(); DM's stopper does this
         if (this._proxy._cache.getCancelCriterion().cancelInProgress() != null) {
@@ -2658,7 +2668,11 @@ public class CacheClientProxy implements ClientSession {
             waitForResumption();
           }
           try {
-            clientMessage = (ClientMessage)this._messageQueue.peek();
+            if (DISPATCH_BATCH_SIZE > 1) {
+              batch = this._messageQueue.peekAvailable(DISPATCH_BATCH_SIZE);
+            } else {
+              clientMessage = (ClientMessage)this._messageQueue.peek();
+            }
           }
           catch (RegionDestroyedException skipped) {
             break;
@@ -2667,6 +2681,18 @@ public class CacheClientProxy implements ClientSession {
           if (isStopped()) {
             break;
           }
+          if (batch != null) {
+            if (dispatchBatch(batch)) {
+              this._messageQueue.remove();
+              for (Object message : batch) {
+                if (message instanceof ClientMarkerMessageImpl) {
+                  getProxy().markerEnqueued = false;
+                }
+              }
+            }
+            batch = null;
+            continue;
+          }
           // Process the message
           long start = getStatistics().startTime();
           //// BUGFIX for BUG#38206 and BUG#37791
@@ -2853,17 +2879,12 @@ public class CacheClientProxy implements ClientSession {
     }
     
     /**
-     * Sends a message to the client attached to this proxy
-     *
-     * @param clientMessage
-     *          The <code>ClientMessage</code> to send to the client
-     *
-     * @throws IOException
+     * Creates the <code>Message</code> that sends <code>clientMessage</code>
+     * to the client attached to this proxy.
      */
-    protected boolean dispatchMessage(ClientMessage clientMessage)
+    private Message createMessage(ClientMessage clientMessage)
         throws IOException
     {
-      boolean isDispatched = false ;
       if (logger.isTraceEnabled(LogMarker.BRIDGE_SERVER)) {
         logger.trace(LogMarker.BRIDGE_SERVER, "Dispatching {}", clientMessage);
       }
@@ -2874,6 +2895,15 @@ public class CacheClientProxy implements ClientSession {
 
      if (clientMessage instanceof ClientUpdateMessage) {
         byte[] latestValue = (byte[])((ClientUpdateMessage)clientMessage).getValue();
+        if (latestValue == null
+            && ((ClientUpdateMessageImpl)clientMessage).isOffHeapValueReleased()) {
+          // the message was conflated or expired while we were dispatching it
+          // and its off-heap value is gone, so it is no longer in the queue
+          if (logger.isDebugEnabled()) {
+            logger.debug("{}: Not dispatching {} because its value was released", this, clientMessage);
+          }
+          return null;
+        }
         if (logger.isTraceEnabled()) {
           StringBuilder msg = new StringBuilder(100);
           msg.append(this).append(": Using latest value: ").append(Arrays.toString(latestValue));
@@ -2898,6 +2928,102 @@ public class CacheClientProxy implements ClientSession {
        message = clientMessage.getMessage(getProxy(), true /* notify */);
      }
 
+      return message;
+    }
+
+    /**
+     * Sends a batch of messages to the client attached to this proxy with a
+     * single flush of the socket.
+     *
+     * @param batch
+     *          The <code>ClientMessage</code>s to send to the client
+     * @return false if the proxy is paused and nothing was sent
+     *
+     * @throws IOException
+     */
+    protected boolean dispatchBatch(List batch)
+        throws IOException
+    {
+      if (this._proxy.isPaused()) {
+        if (logger.isDebugEnabled()) {
+          logger.debug("Message Dispatcher of a Paused CCProxy is trying to dispatch message");
+        }
+        return false;
+      }
+      final CacheClientProxyStats stats = getStatistics();
+      final long start = stats.startTime();
+      List<Message> messages = new ArrayList<Message>(batch.size());
+      List<ClientMessage> sentMessages = new ArrayList<ClientMessage>(batch.size());
+      for (Object clientMessage : batch) {
+        Message message = createMessage((ClientMessage)clientMessage);
+        if (message != null) {
+          // a message that is too large is skipped, like dispatchMessage
+          // does, before anything is written so that the others are still
+          // sent as whole frames
+          try {
+            message.checkMessageLength();
+          } catch (MessageTooLargeException e) {
+            logger.warn("Message too large to send to client: {}, {}", clientMessage, e.getMessage());
+            message.clearParts();
+            continue;
+          }
+          messages.add(message);
+        }
+        sentMessages.add((ClientMessage)clientMessage);
+      }
+      this.socketWriteLock.lock();
+      try {
+        Message last = null;
+        for (Message message : messages) {
+          message.setComms(getSocket(), getCommBuffer(), stats);
+          try {
+            message.sendBatched();
+          } catch (MessageTooLargeException e) {
+            // earlier messages may already be on the socket, so the stream
+            // can't be resumed; fail like any other write error
+            throw new IOException(e.getMessage(), e);
+          }
+          last = message;
+        }
+        if (last != null) {
+          last.flush();
+          getProxy().resetPingCounter();
+        }
+      } finally {
+        this.socketWriteLock.unlock();
+      }
+      stats.incMessageBatchesSent();
+      for (ClientMessage clientMessage : sentMessages) {
+        stats.endMessage(start);
+        endMessageQueueTime(clientMessage);
+        this._messageQueue.getStatistics().incEventsDispatched();
+      }
+      if (logger.isTraceEnabled()) {
+        logger.trace("{}: Dispatched batch of {} messages", this, batch.size());
+      }
+      return true;
+    }
+
+    private void endMessageQueueTime(ClientMessage clientMessage) {
+      if (clientMessage instanceof ClientUpdateMessageImpl) {
+        getStatistics().endMessageQueueTime(((ClientUpdateMessageImpl)clientMessage).getCreationTime());
+      }
+    }
+
+    /**
+     * Sends a message to the client attached to this proxy
+     *
+     * @param clientMessage
+     *          The <code>ClientMessage</code> to send to the client
+     *
+     * @throws IOException
+     */
+    protected boolean dispatchMessage(ClientMessage clientMessage)
+        throws IOException
+    {
+      boolean isDispatched = false ;
+      Message message = createMessage(clientMessage);
+
       // //////////////////////////////
       // TEST CODE BEGIN (Throws exception to test closing proxy)
       // if (true) throw new IOException("test");
@@ -2938,6 +3064,7 @@ public class CacheClientProxy implements ClientSession {
        }
      }
      if (isDispatched) {
+       endMessageQueueTime(clientMessage);
        this._messageQueue.getStatistics().incEventsDispatched();
      }
      return isDispatched;
@@ -60,6 +60,12 @@ public class CacheClientProxyStats implements MessageStats {
   private static final String DELTA_FULL_MESSAGES_SENT = "deltaFullMessagesSent";
   /** Name of the CQ count statistic */
   private static final String CQ_COUNT = "cqCount";
+  /** Name of the message batches sent statistic */
+  private static final String MESSAGE_BATCHES_SENT = "messageBatchesSent";
+  /** Name of the message queue time statistic */
+  private static final String MESSAGE_QUEUE_TIME = "messageQueueTime";
+  /** Name of the off-heap queued bytes statistic */
+  private static final String OFF_HEAP_QUEUED_BYTES = "offHeapQueuedBytes";
 
   /** Id of the messages received statistic */
   private static final int _messagesReceivedId;
@@ -83,6 +89,12 @@ public class CacheClientProxyStats implements MessageStats {
   private static final int _deltaFullMessagesSentId;
   /** Id of the CQ count statistic */
   private static final int _cqCountId;
+  /** Id of the message batches sent statistic */
+  private static final int _messageBatchesSentId;
+  /** Id of the message queue time statistic */
+  private static final int _messageQueueTimeId;
+  /** Id of the off-heap queued bytes statistic */
+  private static final int _offHeapQueuedBytesId;
   private final static int _sentBytesId;
 
   /**
@@ -152,6 +164,21 @@ public class CacheClientProxyStats implements MessageStats {
             f.createLongCounter("sentBytes",
                                 "Total number of bytes sent to client.",
                                 "bytes"),
+
+            f.createIntCounter
+              (MESSAGE_BATCHES_SENT,
+               "Number of batches of client messages sent with a single flush of the socket. Dividing messagesProcessed by this gives the average batch size.",
+               "operations"),
+
+            f.createLongCounter
+              (MESSAGE_QUEUE_TIME,
+               "Total time client messages spent between being created and being sent to the client. Only recorded when clock statistics are enabled.",
+               "nanoseconds"),
+
+            f.createLongGauge
+              (OFF_HEAP_QUEUED_BYTES,
+               "Number of off-heap bytes used by the values of the messages in the message queue. Values shared with other queues are counted by each of them.",
+               "bytes"),
        });
 
     // Initialize id fields
@@ -167,6 +194,9 @@ public class CacheClientProxyStats implements MessageStats {
     _deltaFullMessagesSentId = _type.nameToId(DELTA_FULL_MESSAGES_SENT);
     _cqCountId = _type.nameToId(CQ_COUNT);
     _sentBytesId = _type.nameToId("sentBytes");
+    _messageBatchesSentId = _type.nameToId(MESSAGE_BATCHES_SENT);
+    _messageQueueTimeId = _type.nameToId(MESSAGE_QUEUE_TIME);
+    _offHeapQueuedBytesId = _type.nameToId(OFF_HEAP_QUEUED_BYTES);
   }
 
   //////////////////////  Instance Fields  //////////////////////
@@ -284,6 +314,14 @@ public class CacheClientProxyStats implements MessageStats {
     return this._stats.getInt(_cqCountId);
   }
 
+  /**
+   * Returns the current value of the "offHeapQueuedBytes" stat.
+   * @return the current value of the "offHeapQueuedBytes" stat
+   */
+  public long getOffHeapQueuedBytes() {
+    return this._stats.getLong(_offHeapQueuedBytesId);
+  }
+
   /**
    * Increments the "messagesReceived" stat.
    */
@@ -340,6 +378,15 @@ public class CacheClientProxyStats implements MessageStats {
     this._stats.incInt(_cqCountId, -1);
   }
 
+  /**
+   * Increments the "offHeapQueuedBytes" stat.
+   * @param bytes The number of bytes to add; negative when a message leaves the queue
+   */
+  public void incOffHeapQueuedBytes(long bytes)
+  {
+    this._stats.incLong(_offHeapQueuedBytesId, bytes);
+  }
+
   /**
    * Sets the "messageQueueSize" stat.
    * @param size The size of the queue
@@ -375,6 +422,27 @@ public class CacheClientProxyStats implements MessageStats {
     this._stats.incLong(_messageProcessingTimeId, elapsed);
   }
 
+  /**
+   * Increments the "messageBatchesSent" stat.
+   */
+  public void incMessageBatchesSent()
+  {
+    this._stats.incInt(_messageBatchesSentId, 1);
+  }
+
+  /**
+   * Increments the "messageQueueTime" stat.
+   * @param creationTime The stat time at which the message was created, or 0
+   * if it is not known.
+   */
+  public void endMessageQueueTime(long creationTime)
+  {
+    long ts = DistributionStats.getStatTime();
+    if (creationTime != 0 && ts != 0) {
+      this._stats.incLong(_messageQueueTimeId, ts - creationTime);
+    }
+  }
+
   /**
    * Increments the "deltaMessagesSent" stats.
    */
@@ -295,7 +295,10 @@ public class CacheClientUpdater extends Thread implements ClientUpdater,
       // set the timeout for the handshake
       mySock.setSoTimeout(handshakeTimeout);
       tmpOut = mySock.getOutputStream();
-      tmpIn = mySock.getInputStream();
+      // The server may send several messages with one write, so buffer the
+      // reads. The handshake below reads from the socket directly, before
+      // anything is read through this stream.
+      tmpIn = new BufferedInputStream(mySock.getInputStream(), socketBufferSize);
 
       if (isDebugEnabled) {
         logger.debug("Initialized server-to-client socket with send buffer size: {} bytes and receive buffer size: {} bytes", mySock.getSendBufferSize(), mySock.getReceiveBufferSize());
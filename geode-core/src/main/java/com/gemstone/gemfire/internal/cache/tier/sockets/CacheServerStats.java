@@ -219,16 +219,21 @@ public class CacheServerStats implements MessageStats {
 
   int connectionsTimedOutId;
   int threadQueueSizeId;
+  int threadQueueTimeId;
+  int partialHeaderReadsId;
   int acceptsInProgressId;
   int acceptThreadStartsId;
   int connectionThreadStartsId;
   int connectionThreadsId;
+  int clientRequestsId;
+  int clientRequestTimeId;
   
   //Load callback stats
   int connectionLoadId;
   int queueLoadId;
   int loadPerConnectionId;
   int loadPerQueueId;
+  int loadFactorId;
   
   protected StatisticsType statType; 
   
@@ -536,6 +541,12 @@ public class CacheServerStats implements MessageStats {
         f.createIntGauge("threadQueueSize",
                          "Current number of connections waiting for a thread to start processing their message.",
                          "connections"),
+        f.createLongCounter("threadQueueTime",
+                         "Total time, in nanoseconds, that connections spent waiting for a thread to start processing their message.",
+                         "nanoseconds"),
+        f.createIntCounter("partialHeaderReads",
+                         "Total number of times the selector read only part of a message header and waited for the rest without using a thread.",
+                         "reads"),
         f.createIntGauge("acceptsInProgress",
                          "Current number of server accepts that are attempting to do the initial handshake with the client.",
                          "accepts"),
@@ -548,6 +559,12 @@ public class CacheServerStats implements MessageStats {
         f.createIntGauge("connectionThreads",
                          "Current number of threads dealing with a client connection.",
                          "threads"),
+        f.createLongCounter("clientRequests",
+                         "Total number of client requests processed by this server.",
+                         "requests"),
+        f.createLongCounter("clientRequestTime",
+                         "Total time, in nanoseconds, spent processing client requests once they were read.",
+                         "nanoseconds"),
         f.createDoubleGauge(
                          "connectionLoad",
                          "The load from client to server connections as reported by the load probe installed in this server",
@@ -563,6 +580,10 @@ public class CacheServerStats implements MessageStats {
         f.createDoubleGauge(
                          "loadPerQueue",
                          "The estimate of how much load is added for each new connection as reported by the load probe installed in this server",
+                         "load"),
+        f.createDoubleGauge(
+                         "loadFactor",
+                         "How much slower this server is expected to serve a request because of its request latency, thread queue and heap usage. 1 means no slowdown. Reported to clients so that they can avoid degraded servers.",
                          "load")
     };
     StatisticDescriptor[] alldescriptors = serverStatDescriptors;
@@ -705,6 +726,8 @@ public class CacheServerStats implements MessageStats {
     messageBytesBeingReceivedId = this.stats.nameToId("messageBytesBeingReceived");
     connectionsTimedOutId = this.stats.nameToId("connectionsTimedOut");
     threadQueueSizeId = this.stats.nameToId("threadQueueSize");
+    threadQueueTimeId = this.stats.nameToId("threadQueueTime");
+    partialHeaderReadsId = this.stats.nameToId("partialHeaderReads");
     acceptsInProgressId = this.stats.nameToId("acceptsInProgress");
     acceptThreadStartsId = this.stats.nameToId("acceptThreadStarts");
     connectionThreadStartsId = this.stats.nameToId("connectionThreadStarts");
@@ -714,6 +737,9 @@ public class CacheServerStats implements MessageStats {
     queueLoadId = this.stats.nameToId("queueLoad");
     loadPerConnectionId = this.stats.nameToId("loadPerConnection");
     loadPerQueueId = this.stats.nameToId("loadPerQueue");
+    loadFactorId = this.stats.nameToId("loadFactor");
+    clientRequestsId = this.stats.nameToId("clientRequests");
+    clientRequestTimeId = this.stats.nameToId("clientRequestTime");
   }
 
   public final void incAcceptThreadsCreated() {
@@ -797,6 +823,25 @@ public class CacheServerStats implements MessageStats {
   public final void decThreadQueueSize() {
     this.stats.incInt(threadQueueSizeId, -1);
   }
+  public final void incThreadQueueTime(long delta) {
+    this.stats.incLong(threadQueueTimeId, delta);
+  }
+  public final int getThreadQueueSize() {
+    return this.stats.getInt(threadQueueSizeId);
+  }
+  public final void incClientRequestTime(long delta) {
+    this.stats.incLong(clientRequestTimeId, delta);
+    this.stats.incLong(clientRequestsId, 1);
+  }
+  public final long getClientRequests() {
+    return this.stats.getLong(clientRequestsId);
+  }
+  public final long getClientRequestTime() {
+    return this.stats.getLong(clientRequestTimeId);
+  }
+  public final void incPartialHeaderReads() {
+    this.stats.incInt(partialHeaderReadsId, 1);
+  }
 
   public final void incReadGetRequestTime(long delta)
   {
@@ -1122,6 +1167,12 @@ public final void incProcessStopCqTime(long delta) {
   public final double getLoadPerConnection() {
     return this.stats.getDouble(loadPerConnectionId);
   }
+  public final void setLoadFactor(double loadFactor) {
+    this.stats.setDouble(loadFactorId, loadFactor);
+  }
+  public final double getLoadFactor() {
+    return this.stats.getDouble(loadFactorId);
+  }
   
  public final int getProcessBatchRequests(){
    return this.stats.getInt(processBatchRequestsId);
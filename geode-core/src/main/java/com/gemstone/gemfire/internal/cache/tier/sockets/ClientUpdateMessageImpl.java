@@ -22,6 +22,7 @@ import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -37,6 +38,7 @@ import com.gemstone.gemfire.InternalGemFireError;
 import com.gemstone.gemfire.cache.query.CqQuery;
 import com.gemstone.gemfire.cache.query.internal.cq.InternalCqQuery;
 import com.gemstone.gemfire.cache.util.ObjectSizer;
+import com.gemstone.gemfire.distributed.internal.DistributionStats;
 import com.gemstone.gemfire.internal.DSCODE;
 import com.gemstone.gemfire.internal.InternalDataSerializer;
 import com.gemstone.gemfire.internal.Sendable;
@@ -56,7 +58,9 @@ import com.gemstone.gemfire.internal.cache.lru.Sizeable;
 import com.gemstone.gemfire.internal.cache.tier.MessageType;
 import com.gemstone.gemfire.internal.cache.versions.VersionTag;
 import com.gemstone.gemfire.internal.logging.LogService;
+import com.gemstone.gemfire.internal.offheap.MemoryAllocator;
 import com.gemstone.gemfire.internal.offheap.MemoryAllocatorImpl;
+import com.gemstone.gemfire.internal.offheap.StoredObject;
 
 /**
  * Class <code>ClientUpdateMessageImpl</code> is a message representing a cache
@@ -154,6 +158,38 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
 
   private VersionTag versionTag;
 
+  /**
+   * When this message was created in this member, in stat time, or 0 if it
+   * was received from another member or clock stats are disabled.
+   */
+  private transient long _creationTime;
+
+  /**
+   * The serialized value once the <code>HAContainerMap</code> holding this
+   * message has moved it off heap, in which case <code>_value</code> is null.
+   * Guarded by this.
+   */
+  private transient StoredObject _offHeapValue;
+
+  /**
+   * A heap copy of the off-heap value, shared by the dispatchers of all the
+   * queues holding this message so that each of them does not make its own.
+   * It is dropped with the off-heap value or when the heap runs low.
+   * Guarded by this.
+   */
+  private transient SoftReference<byte[]> _heapValueCopy;
+
+  /**
+   * The off-heap size of the value, kept after the value has been released so
+   * that queues can account for it when they remove this message.
+   */
+  private transient volatile int _offHeapSize;
+
+  /**
+   * True once the off-heap value has been released. Guarded by this.
+   */
+  private transient boolean _offHeapValueReleased;
+
   /* added up all constants and form single value */
   private static final int CONSTANT_MEMORY_OVERHEAD;
 
@@ -201,6 +237,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     this._shouldConflate = (isUpdate() && region.getEnableConflation());
     this.deltaBytes = delta;
     this.versionTag = versionTag;
+    this._creationTime = DistributionStats.getStatTime();
   }
 
   /**
@@ -244,7 +281,84 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
   }
 
   public Object getValue() {
-    return this._value;
+    synchronized (this) {
+      if (this._offHeapValue != null) {
+        byte[] value = this._heapValueCopy == null ? null : this._heapValueCopy.get();
+        if (value == null) {
+          value = this._offHeapValue.getSerializedValue();
+          this._heapValueCopy = new SoftReference<byte[]>(value);
+        }
+        return value;
+      }
+      return this._value;
+    }
+  }
+
+  /**
+   * Moves this message's serialized value into <code>offHeapStore</code> and
+   * drops the heap copy. Values that are not yet serialized, and values for
+   * which <code>offHeapStore</code> does not have enough memory, are left on
+   * heap.
+   *
+   * @return true if the value was moved
+   */
+  public synchronized boolean moveValueOffHeap(MemoryAllocator offHeapStore) {
+    if (!(this._value instanceof byte[]) || this._offHeapValue != null
+        || this._offHeapValueReleased) {
+      return false;
+    }
+    // store it as serialized so that the exact bytes come back
+    StoredObject so = offHeapStore.tryAllocateAndInitialize((byte[])this._value, true, false);
+    if (so == null) {
+      return false;
+    }
+    this._offHeapValue = so;
+    this._offHeapSize = so.getSize();
+    this._value = null;
+    return true;
+  }
+
+  /**
+   * Brings the value of this message back on heap, for callers that keep the
+   * message after it has left the container.
+   */
+  public synchronized void moveValueOnHeap() {
+    if (this._offHeapValue != null) {
+      this._value = getValue();
+      this._offHeapValue.release();
+      this._offHeapValue = null;
+      this._heapValueCopy = null;
+    }
+  }
+
+  /**
+   * Releases the off-heap value of this message, if any. Called by the
+   * <code>HAContainerMap</code> when no queue refers to this message anymore.
+   */
+  public synchronized void releaseOffHeapValue() {
+    if (this._offHeapValue != null) {
+      this._offHeapValue.release();
+      this._offHeapValue = null;
+      this._heapValueCopy = null;
+      this._offHeapValueReleased = true;
+    }
+  }
+
+  /**
+   * Returns true if the value of this message was stored off heap and has
+   * since been released, for example because the message was conflated or
+   * expired while it was being dispatched.
+   */
+  public synchronized boolean isOffHeapValueReleased() {
+    return this._offHeapValueReleased && this._value == null;
+  }
+
+  /**
+   * Returns the number of off-heap bytes used by the value of this message,
+   * or 0 if the value was never moved off heap.
+   */
+  public int getOffHeapSize() {
+    return this._offHeapSize;
   }
 
   public boolean valueIsObject() {
@@ -290,13 +404,16 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
 
   public Object getValueToConflate()
   {
-    return this._value;
+    return getValue();
   }
 
   public void setLatestValue(Object value)
   {
     // does this also need to set _valueIsObject
-    this._value = value;
+    synchronized (this) {
+      releaseOffHeapValue();
+      this._value = value;
+    }
   }
 
   /// End Conflatable interface methods ///
@@ -322,6 +439,10 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     return this.versionTag;
   }
 
+  public long getCreationTime() {
+    return this._creationTime;
+  }
+
   public boolean isCreate()
   {
     return this._operation == EnumListenerEvent.AFTER_CREATE;
@@ -1317,9 +1438,10 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
         .append(";region=").append(this._regionName)
         .append(";key=").append(this._keyOfInterest);
     if (logger.isTraceEnabled()) {
+      Object value = getValue();
       buffer.append(";value=").append(
-          (this._value instanceof byte[]) ? deserialize((byte[])this._value)
-              : this._value);
+          (value instanceof byte[]) ? deserialize((byte[])value)
+              : value);
     }
     buffer
         .append(";isObject=").append(_valueIsObject)
@@ -1343,11 +1465,12 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     out.writeByte(_operation.getEventCode());
     DataSerializer.writeString(_regionName,out);
     DataSerializer.writeObject(_keyOfInterest,out);
-    if (_value instanceof byte[]) {
-      DataSerializer.writeByteArray((byte[])_value, out);
+    Object value = getValue();
+    if (value instanceof byte[]) {
+      DataSerializer.writeByteArray((byte[])value, out);
     }
     else {
-      DataSerializer.writeByteArray(CacheServerHelper.serialize(_value), out);
+      DataSerializer.writeByteArray(CacheServerHelper.serialize(value), out);
     }
     out.writeByte(_valueIsObject);
     DataSerializer.writeObject(_membershipId,out);
@@ -1452,7 +1575,9 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     //_logger reference = 4 bytes 
     //_clientCqs reference = 4 bytes 
     //_clientInterestList reference = 4 bytes 
-    size += 40;
+    //_offHeapValue reference = 4 bytes
+    //_heapValueCopy reference = 4 bytes
+    size += 48;
     
     // Add primitive references
     // byte _valueIsObject = 1 byte 
@@ -1460,7 +1585,10 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     // boolean _isInterestListPassed = 1 byte 
     // boolean _hasCqs = 1 byte 
     // boolean _isNetLoad = 1 byte 
-    size += 5;
+    // long _creationTime = 8 bytes
+    // int _offHeapSize = 4 bytes
+    // boolean _offHeapValueReleased = 1 byte
+    size += 18;
 
     // not sure on the kind on wrapper is around callbackArgument
     // The callback argument (a GatewayEventCallbackArgument wrapping an Object
@@ -1478,7 +1606,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
 
     int size = CONSTANT_MEMORY_OVERHEAD;
     
-    // The value (a byte[])
+    // The value (a byte[]); a value stored off heap is not counted
     if (this._value != null) {
       size += CachedDeserializableFactory.calcMemSize(this._value);
     }
@@ -31,6 +31,9 @@ import com.gemstone.gemfire.internal.cache.tier.sockets.command.ClearRegion;
 import com.gemstone.gemfire.internal.cache.tier.sockets.command.ClientReady;
 import com.gemstone.gemfire.internal.cache.tier.sockets.command.CloseConnection;
 import com.gemstone.gemfire.internal.cache.tier.sockets.command.CommitCommand;
+import com.gemstone.gemfire.internal.cache.tier.sockets.command.CompactDestroy;
+import com.gemstone.gemfire.internal.cache.tier.sockets.command.CompactGet;
+import com.gemstone.gemfire.internal.cache.tier.sockets.command.CompactPut;
 import com.gemstone.gemfire.internal.cache.tier.sockets.command.ContainsKey;
 import com.gemstone.gemfire.internal.cache.tier.sockets.command.ContainsKey66;
 import com.gemstone.gemfire.internal.cache.tier.sockets.command.CreateRegion;
@@ -83,6 +86,7 @@ import com.gemstone.gemfire.internal.cache.tier.sockets.command.PutAll80;
 import com.gemstone.gemfire.internal.cache.tier.sockets.command.PutAllWithCallback;
 import com.gemstone.gemfire.internal.cache.tier.sockets.command.PutUserCredentials;
 import com.gemstone.gemfire.internal.cache.tier.sockets.command.Query651;
+import com.gemstone.gemfire.internal.cache.tier.sockets.command.QueryCursorCommand;
 import com.gemstone.gemfire.internal.cache.tier.sockets.command.RegisterDataSerializers;
 import com.gemstone.gemfire.internal.cache.tier.sockets.command.RegisterInstantiators;
 import com.gemstone.gemfire.internal.cache.tier.sockets.command.RegisterInterest;
@@ -323,6 +327,17 @@ public class CommandInitializer {
       gfe90Commands.putAll(ALL_COMMANDS.get(Version.GFE_82));
       ALL_COMMANDS.put(Version.GFE_90, gfe90Commands);
     }
+    {
+      Map<Integer, Command> geode100Commands = new HashMap<Integer, Command>();
+      geode100Commands.putAll(ALL_COMMANDS.get(Version.GFE_90));
+      geode100Commands.put(MessageType.QUERY_CURSOR, QueryCursorCommand.getCommand());
+      geode100Commands.put(MessageType.QUERY_CURSOR_NEXT, QueryCursorCommand.getCommand());
+      geode100Commands.put(MessageType.QUERY_CURSOR_CLOSE, QueryCursorCommand.getCommand());
+      geode100Commands.put(MessageType.COMPACT_GET, CompactGet.getCommand());
+      geode100Commands.put(MessageType.COMPACT_PUT, CompactPut.getCommand());
+      geode100Commands.put(MessageType.COMPACT_DESTROY, CompactDestroy.getCommand());
+      ALL_COMMANDS.put(Version.GEODE_100, geode100Commands);
+    }
   }
 
   public static Map<Integer,Command> getCommands(Version version) {
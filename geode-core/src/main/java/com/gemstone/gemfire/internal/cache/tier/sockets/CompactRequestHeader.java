@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache.tier.sockets;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.gemstone.gemfire.internal.cache.EventID;
+
+/**
+ * The first part of a compact request. It replaces the region name,
+ * operation, flags and event id parts of the corresponding full request.
+ *
+ * The region is referenced by an id the client chose for it on the
+ * connection. The first request for a region on a connection also carries
+ * the region path, and the server remembers it for the later ones.
+ *
+ * The header is laid out as a flags byte, the region id as an unsigned
+ * variable length int, the thread and sequence ids of the event in the
+ * form of {@link EventID#getOptimizedByteArrayForEventID} if
+ * {@link #HAS_EVENT_ID} is set, and the UTF-8 region path if
+ * {@link #REGISTER_REGION} is set.
+ *
+ * @since Geode 1.0
+ */
+public class CompactRequestHeader {
+
+  /** The header carries the path of the region, to register its id */
+  public static final byte REGISTER_REGION = 0x01;
+
+  /** The header carries the thread and sequence ids of the event */
+  public static final byte HAS_EVENT_ID = 0x02;
+
+  /** The put creates the entry */
+  public static final byte CREATE = 0x04;
+
+  private final byte flags;
+
+  private final int regionId;
+
+  private final String regionPath;
+
+  private final long threadId;
+
+  private final long sequenceId;
+
+  private CompactRequestHeader(byte flags, int regionId, String regionPath,
+      long threadId, long sequenceId) {
+    this.flags = flags;
+    this.regionId = regionId;
+    this.regionPath = regionPath;
+    this.threadId = threadId;
+    this.sequenceId = sequenceId;
+  }
+
+  /**
+   * Returns the header of a compact request.
+   * @param flags {@link #CREATE} or zero
+   * @param regionId the id of the region on the connection
+   * @param regionPath the path of the region if its id is not registered
+   *        on the connection yet, otherwise null
+   * @param eventId the event of an operation that modifies the region, or
+   *        null
+   */
+  public static byte[] toBytes(byte flags, int regionId, String regionPath,
+      EventID eventId) {
+    byte[] eventIdBytes = null;
+    byte[] pathBytes = null;
+    int size = 1 + getUnsignedVLSize(regionId);
+    if (eventId != null) {
+      flags |= HAS_EVENT_ID;
+      eventIdBytes = eventId.calcBytes();
+      size += eventIdBytes.length;
+    }
+    if (regionPath != null) {
+      flags |= REGISTER_REGION;
+      pathBytes = regionPath.getBytes(StandardCharsets.UTF_8);
+      size += pathBytes.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.put(flags);
+    putUnsignedVL(buffer, regionId);
+    if (eventIdBytes != null) {
+      buffer.put(eventIdBytes);
+    }
+    if (pathBytes != null) {
+      buffer.put(pathBytes);
+    }
+    return buffer.array();
+  }
+
+  /**
+   * Reads the header of a compact request.
+   */
+  public static CompactRequestHeader fromBytes(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    byte flags = buffer.get();
+    int regionId = getUnsignedVL(buffer);
+    long threadId = 0;
+    long sequenceId = 0;
+    if ((flags & HAS_EVENT_ID) != 0) {
+      threadId = EventID.readEventIdPartsFromOptmizedByteArray(buffer);
+      sequenceId = EventID.readEventIdPartsFromOptmizedByteArray(buffer);
+    }
+    String regionPath = null;
+    if ((flags & REGISTER_REGION) != 0) {
+      regionPath = new String(bytes, buffer.position(), buffer.remaining(),
+          StandardCharsets.UTF_8);
+    }
+    return new CompactRequestHeader(flags, regionId, regionPath, threadId,
+        sequenceId);
+  }
+
+  private static int getUnsignedVLSize(int value) {
+    int size = 1;
+    while ((value >>>= 7) != 0) {
+      size++;
+    }
+    return size;
+  }
+
+  private static void putUnsignedVL(ByteBuffer buffer, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.put((byte)((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte)value);
+  }
+
+  private static int getUnsignedVL(ByteBuffer buffer) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  public int getRegionId() {
+    return this.regionId;
+  }
+
+  /**
+   * Returns the path of the region if the request registers its id,
+   * otherwise null.
+   */
+  public String getRegionPath() {
+    return this.regionPath;
+  }
+
+  public boolean hasEventId() {
+    return (this.flags & HAS_EVENT_ID) != 0;
+  }
+
+  public long getThreadId() {
+    return this.threadId;
+  }
+
+  public long getSequenceId() {
+    return this.sequenceId;
+  }
+
+  public boolean isCreate() {
+    return (this.flags & CREATE) != 0;
+  }
+
+  @Override
+  public String toString() {
+    return "CompactRequestHeader[regionId=" + this.regionId
+        + (this.regionPath == null ? "" : "; regionPath=" + this.regionPath)
+        + (hasEventId() ? "; threadId=" + this.threadId + "; sequenceId=" + this.sequenceId : "")
+        + (isCreate() ? "; create" : "") + "]";
+  }
+}
@@ -304,8 +304,9 @@ public class HAEventWrapper implements Conflatable, DataSerializableFixedID, Siz
 
     // If the dispatcher sends the cum object to the client and removes it from
     // the haContainer before we do haContainer.get() (above), we indicate that
-    // by sending false boolean value.
-    if (cum != null) {
+    // by sending false boolean value. The same goes for a message whose
+    // off-heap value has already been released.
+    if (cum != null && !cum.isOffHeapValueReleased()) {
       DataSerializer.writePrimitiveBoolean(true, out);
       DataSerializer.writeObject(cum.getEventId(), out);
     }
@@ -1221,6 +1221,12 @@ public class HandShake implements ClientHandShake
           .getDeltaPropagation());
     }
 
+    // Tell GEODE 1.0 and later clients whether they may send compact requests
+    if (communicationMode != Acceptor.GATEWAY_TO_GATEWAY
+        && this.clientVersion.compareTo(Version.GEODE_100) >= 0) {
+      dos.writeBoolean(ServerHandShakeProcessor.COMPACT_REQUESTS_ENABLED);
+    }
+
     // Neeraj: Now if the communication mode is GATEWAY_TO_GATEWAY
     // and principal not equal to null then send the credentials also
     if (communicationMode == Acceptor.GATEWAY_TO_GATEWAY && principal != null) {
@@ -1335,6 +1341,11 @@ public class HandShake implements ClientHandShake
         deltaEnabledOnServer = dis.readBoolean();
       }
 
+      if (communicationMode != Acceptor.GATEWAY_TO_GATEWAY
+          && currentClientVersion.compareTo(Version.GEODE_100) >= 0) {
+        serverQStatus.setCompactRequestsEnabled(dis.readBoolean());
+      }
+
       //validate that the remote side has a different distributed system id.
       if (communicationMode == Acceptor.GATEWAY_TO_GATEWAY
           && Version.GFE_66.compareTo(conn.getWanSiteVersion()) <= 0
@@ -91,7 +91,7 @@ public class Message  {
   
   private static final int PART_HEADER_SIZE = 5; // 4 bytes for length, 1 byte for isObject
   
-  private static final int FIXED_LENGTH = 17;
+  static final int FIXED_LENGTH = 17;
 
   private static final ThreadLocal<ByteBuffer> tlCommBuffer = new ThreadLocal<>();
 
@@ -509,6 +509,15 @@ public class Message  {
    * Sends this message out on its socket.
    */
   protected void sendBytes(boolean clearMessage) throws IOException {
+    sendBytes(clearMessage, true);
+  }
+
+  /**
+   * @param flush false to add this message to the bytes already in the comm
+   *        buffer and leave whatever does not fill the buffer for a later
+   *        {@link #flush()}
+   */
+  private void sendBytes(boolean clearMessage, boolean flush) throws IOException {
     if (this.sc != null) {
       // Keep track of the fact that we are making progress.
       this.sc.updateProcessingMessage();
@@ -523,39 +532,23 @@ public class Message  {
       }
       int msgLen = 0;
       synchronized (cb) {
-        long totalPartLen = 0;
-        long headerLen = 0;
         int partsToTransmit = this.numberOfParts;
 
-        for (int i = 0; i < this.numberOfParts; i++) {
-          Part part = this.partsList[i];
-          headerLen += PART_HEADER_SIZE;
-          totalPartLen += part.getLength();
-        }
-
         Part securityPart = this.getSecurityPart();
         if (securityPart == null) {
           securityPart = this.securePart;
         }
         if (securityPart != null) {
-          headerLen += PART_HEADER_SIZE;
-          totalPartLen += securityPart.getLength();
           partsToTransmit++;
         }
 
-        if ((headerLen + totalPartLen) > Integer.MAX_VALUE) {
-          throw new MessageTooLargeException("Message size (" + (headerLen + totalPartLen)
-              + ") exceeds maximum integer value");
-        }
+        msgLen = getMessageLength(securityPart);
 
-        msgLen = (int) (headerLen + totalPartLen);
-
-        if (msgLen > MAX_MESSAGE_SIZE) {
-          throw new MessageTooLargeException("Message size (" + msgLen
-              + ") exceeds gemfire.client.max-message-size setting (" + MAX_MESSAGE_SIZE + ")");
+        if (flush) {
+          cb.clear();
+        } else if (cb.remaining() < FIXED_LENGTH) {
+          flushBuffer();
         }
-
-        cb.clear();
         packHeaderInfoForSending(msgLen, (securityPart != null));
         for (int i = 0; i < partsToTransmit; i++) {
           Part part = (i == this.numberOfParts) ? securityPart : partsList[i];
@@ -581,11 +574,11 @@ public class Message  {
             }
           }
         }
-        if (cb.position() != 0) {
+        if (flush && cb.position() != 0) {
           flushBuffer();
         }
         this.messageModified = false;
-        if (this.sockCh == null) {
+        if (flush && this.sockCh == null) {
           this.os.flush();
         }
       }
@@ -596,6 +589,74 @@ public class Message  {
     }
   }
 
+  /**
+   * Returns the length of this message's parts and their headers.
+   * 
+   * @throws MessageTooLargeException if the message is too large to send
+   */
+  private int getMessageLength(Part securityPart) throws MessageTooLargeException {
+    long totalPartLen = 0;
+    long headerLen = 0;
+
+    for (int i = 0; i < this.numberOfParts; i++) {
+      Part part = this.partsList[i];
+      headerLen += PART_HEADER_SIZE;
+      totalPartLen += part.getLength();
+    }
+
+    if (securityPart != null) {
+      headerLen += PART_HEADER_SIZE;
+      totalPartLen += securityPart.getLength();
+    }
+
+    if ((headerLen + totalPartLen) > Integer.MAX_VALUE) {
+      throw new MessageTooLargeException("Message size (" + (headerLen + totalPartLen)
+          + ") exceeds maximum integer value");
+    }
+
+    int msgLen = (int) (headerLen + totalPartLen);
+
+    if (msgLen > MAX_MESSAGE_SIZE) {
+      throw new MessageTooLargeException("Message size (" + msgLen
+          + ") exceeds gemfire.client.max-message-size setting (" + MAX_MESSAGE_SIZE + ")");
+    }
+    return msgLen;
+  }
+
+  /**
+   * Throws the exception {@link #sendBatched()} would throw if this message
+   * is too large to send, without writing anything. A message that is not
+   * sent by a {@link ServerConnection} can be checked before it is added to
+   * a batch, so that it does not leave the batch half written.
+   * 
+   * @throws MessageTooLargeException if the message is too large to send
+   */
+  public void checkMessageLength() throws MessageTooLargeException {
+    getMessageLength(this.securePart);
+  }
+
+  /**
+   * Writes the bytes that messages sent with {@link #sendBatched()} left in
+   * the comm buffer.
+   */
+  public void flush() throws IOException {
+    if (this.socket == null) {
+      throw new IOException(LocalizedStrings.Message_DEAD_CONNECTION.toLocalizedString());
+    }
+    final ByteBuffer cb = getCommBuffer();
+    if (cb == null) {
+      throw new IOException("No buffer");
+    }
+    synchronized (cb) {
+      if (cb.position() != 0) {
+        flushBuffer();
+      }
+      if (this.sockCh == null) {
+        this.os.flush();
+      }
+    }
+  }
+
   protected void flushBuffer() throws IOException {
     final ByteBuffer cb = getCommBuffer();
     if (this.sockCh != null) {
@@ -634,7 +695,14 @@ public class Message  {
     final int headerLength = getHeaderLength();
     if (this.sockCh != null) {
       cb.limit(headerLength);
-      do {
+      if (this.sc != null && headerLength == FIXED_LENGTH) {
+        // the selector thread may already have read some of the header
+        int bytesRead = this.sc.takeSelectorHeader(cb);
+        if (this.msgStats != null) {
+          this.msgStats.incReceivedBytes(bytesRead);
+        }
+      }
+      while (cb.remaining() > 0) {
         int bytesRead = this.sockCh.read(cb);
         //System.out.println("DEBUG: fetchHeader read " + bytesRead + " bytes commBuffer=" + cb);
         if (bytesRead == -1) {
@@ -643,7 +711,7 @@ public class Message  {
         if (this.msgStats != null) {
           this.msgStats.incReceivedBytes(bytesRead);
         }
-      } while (cb.remaining() > 0);
+      }
       cb.flip();
     } else {
       do {
@@ -1074,6 +1142,18 @@ public class Message  {
     sendBytes(clearMessage);
   }
 
+  /**
+   * Adds this message to the comm buffer after the messages sent before it
+   * with this method. The buffer is only written when it fills up, so a
+   * batch of small messages goes out in a few socket writes. The caller must
+   * call {@link #flush()} after the last message of the batch and must not
+   * let anything else use the comm buffer in between.
+   */
+  public void sendBatched()
+  throws IOException {
+    sendBytes(true, false);
+  }
+
   /**
    *  Populates the stats of this <code>Message</code> with information
    *  received via its socket
@@ -135,6 +135,13 @@ public class Part {
       this.part = so.getValueAsHeapByteArray();
     }
   }
+  /**
+   * Makes this part share the state of the given part.
+   */
+  public void setPartState(Part other) {
+    this.typeCode = other.typeCode;
+    this.part = other.part;
+  }
   public byte getTypeCode() {
     return this.typeCode;
   }
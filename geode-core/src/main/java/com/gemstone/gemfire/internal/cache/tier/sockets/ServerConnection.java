@@ -25,10 +25,13 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
 import java.security.Principal;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
@@ -46,12 +49,14 @@ import com.gemstone.gemfire.cache.Cache;
 import com.gemstone.gemfire.cache.client.internal.AbstractOp;
 import com.gemstone.gemfire.cache.client.internal.Connection;
 import com.gemstone.gemfire.distributed.DistributedSystem;
+import com.gemstone.gemfire.distributed.internal.DistributionStats;
 import com.gemstone.gemfire.distributed.internal.membership.InternalDistributedMember;
 import com.gemstone.gemfire.internal.Assert;
 import com.gemstone.gemfire.internal.HeapDataOutputStream;
 import com.gemstone.gemfire.internal.Version;
 import com.gemstone.gemfire.internal.cache.EventID;
 import com.gemstone.gemfire.internal.cache.GemFireCacheImpl;
+import com.gemstone.gemfire.internal.cache.LocalRegion;
 import com.gemstone.gemfire.internal.cache.tier.Acceptor;
 import com.gemstone.gemfire.internal.cache.tier.CachedRegionHelper;
 import com.gemstone.gemfire.internal.cache.tier.ClientHandShake;
@@ -149,6 +154,18 @@ public class ServerConnection implements Runnable {
   private final CachedRegionHelper crHelper;
   private String name = null;
 
+  /**
+   * The paths of the regions the client registered on this connection for
+   * compact requests, by region id
+   */
+  private final Map<Integer, String> registeredRegionPaths = new HashMap<Integer, String>();
+
+  /**
+   * The regions the registered region ids were last resolved to, so that
+   * compact requests do not look up their region by path
+   */
+  private final Map<Integer, LocalRegion> registeredRegions = new HashMap<Integer, LocalRegion>();
+
   // IMPORTANT: if new messages are added change setHandshake to initialize them
   // to the correct Version for serializing to the client
   private Message requestMsg = new Message(2, Version.CURRENT);
@@ -780,7 +797,11 @@ public class ServerConnection implements Runnable {
           }
         }
 
+        // always timed, even without time statistics, because the load
+        // monitor reports the average request time to clients and locators
+        long start = System.nanoTime();
         command.execute(msg, this);
+        this.stats.incClientRequestTime(System.nanoTime() - start);
       }
     }
     finally {
@@ -887,8 +908,10 @@ public class ServerConnection implements Runnable {
             this.chmRegistered = false;
           }
         }
-        if(unregisterClient)//last serverconnection call all close on auth objects
-          cleanClientAuths();  
+        if(unregisterClient) {//last serverconnection call all close on auth objects
+          cleanClientAuths();
+          this.acceptor.getQueryCursors().removeAll(this.proxyId);
+        }
         this.clientUserAuths = null;
         if (needsUnregister) {
           this.acceptor.getClientHealthMonitor().removeConnection(this.proxyId, this);
@@ -1138,6 +1161,7 @@ public class ServerConnection implements Runnable {
       boolean finishedMsg = false;
       try {
         this.stats.decThreadQueueSize();
+        this.stats.incThreadQueueTime(DistributionStats.getStatTime() - this.queuedTime);
         if (!isTerminated()) {
           Message.setTLCommBuffer(getAcceptor().takeCommBuffer());
           doOneMessage();
@@ -1220,6 +1244,104 @@ public class ServerConnection implements Runnable {
   public void registerWithSelector2(Selector s) throws IOException {
     /*this.sKey = */getSelectableChannel().register(s, SelectionKey.OP_READ, this);
   }
+
+  /**
+   * The header of the next message, read off the socket by the selector
+   * thread; empty if no header bytes have been read. Only the selector thread
+   * writes it while this connection is registered, and only the thread
+   * processing the message reads it after that.
+   */
+  private ByteBuffer selectorHeader;
+
+  /**
+   * When the selector handed this connection to the thread pool.
+   */
+  private long queuedTime;
+
+  /**
+   * Reads as much of the next message header as is available without
+   * blocking. Called by the selector thread when this connection is readable,
+   * so that a client that sends a message slowly does not hold a thread
+   * until its header arrives. Only the fixed length header is read here; the
+   * thread that processes the message reads its parts in blocking mode, so a
+   * client that sends the parts slowly still holds that thread.
+   *
+   * @return true if the header is complete, or the read failed, and this
+   *         connection should be handed to a thread; false if more header
+   *         bytes are needed
+   */
+  boolean readSelectorHeader() {
+    if (this.doHandshake) {
+      // the handshake is not a message so the thread reads all of it
+      return true;
+    }
+    if (this.selectorHeader == null) {
+      this.selectorHeader = ByteBuffer.allocate(Message.FIXED_LENGTH);
+    }
+    if (readHeaderBytes((SocketChannel)getSelectableChannel(), this.selectorHeader)) {
+      return true;
+    }
+    if (this.selectorHeader.position() > 0) {
+      this.stats.incPartialHeaderReads();
+    }
+    return false;
+  }
+
+  /**
+   * Reads into <code>header</code> as many bytes as <code>channel</code> has
+   * without blocking, never more than <code>header</code> has room for.
+   *
+   * @return true if <code>header</code> is full, or if the channel is closed
+   *         or failed, in which case <code>header</code> is cleared so that
+   *         the thread that takes over finds the closed channel
+   */
+  static boolean readHeaderBytes(ReadableByteChannel channel, ByteBuffer header) {
+    try {
+      int bytesRead = channel.read(header);
+      if (bytesRead >= 0) {
+        return !header.hasRemaining();
+      }
+    } catch (IOException ignore) {
+      // let the thread find the failed socket
+    }
+    header.clear();
+    return true;
+  }
+
+  /**
+   * Moves the header bytes read by the selector thread, if any, into
+   * <code>cb</code>.
+   *
+   * @return the number of bytes moved
+   */
+  int takeSelectorHeader(ByteBuffer cb) {
+    return moveHeaderBytes(this.selectorHeader, cb);
+  }
+
+  /**
+   * Moves the bytes read into <code>header</code> into <code>cb</code> and
+   * clears <code>header</code> for the next message.
+   *
+   * @return the number of bytes moved
+   */
+  static int moveHeaderBytes(ByteBuffer header, ByteBuffer cb) {
+    if (header == null || header.position() == 0) {
+      return 0;
+    }
+    header.flip();
+    int bytes = header.remaining();
+    cb.put(header);
+    header.clear();
+    return bytes;
+  }
+
+  /**
+   * Records that the selector has handed this connection to the thread pool.
+   */
+  void setQueued() {
+    this.queuedTime = DistributionStats.getStatTime();
+  }
+
   /**
    * Switch this guy to blocking mode so we can use oldIO to read and write msgs.
    */
@@ -1558,6 +1680,41 @@ public class ServerConnection implements Runnable {
     return this.crHelper;
   }
   
+  /**
+   * Returns the path of the region a compact request is for, registering
+   * the region id on this connection if the request carries the path.
+   * Returns null if the region id is not registered on this connection.
+   */
+  public String getRegionPath(CompactRequestHeader header) {
+    int regionId = header.getRegionId();
+    String regionPath = header.getRegionPath();
+    if (regionPath != null) {
+      this.registeredRegionPaths.put(regionId, regionPath);
+      this.registeredRegions.remove(regionId);
+      return regionPath;
+    }
+    return this.registeredRegionPaths.get(regionId);
+  }
+
+  /**
+   * Returns the region registered with the given id on this connection, or
+   * null if it does not exist. The region is only looked up by path again
+   * once it has been destroyed.
+   */
+  public LocalRegion getRegisteredRegion(int regionId) {
+    LocalRegion region = this.registeredRegions.get(regionId);
+    if (region == null || region.isDestroyed()) {
+      String regionPath = this.registeredRegionPaths.get(regionId);
+      region = regionPath == null ? null : (LocalRegion)this.crHelper.getRegion(regionPath);
+      if (region != null) {
+        this.registeredRegions.put(regionId, region);
+      } else {
+        this.registeredRegions.remove(regionId);
+      }
+    }
+    return region;
+  }
+
   /**    
    * @return The CacheServerStats associated with the ServerConnection
    */
@@ -40,6 +40,7 @@ import com.gemstone.gemfire.cache.UnsupportedVersionException;
 import com.gemstone.gemfire.cache.VersionException;
 import com.gemstone.gemfire.distributed.DistributedMember;
 import com.gemstone.gemfire.distributed.DistributedSystem;
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
 import com.gemstone.gemfire.distributed.internal.InternalDistributedSystem;
 import com.gemstone.gemfire.internal.HeapDataOutputStream;
 import com.gemstone.gemfire.internal.Version;
@@ -70,6 +71,14 @@ public class ServerHandShakeProcessor {
 
   public static Version currentServerVersion = Acceptor.VERSION;
 
+  /**
+   * Whether GEODE 1.0 and later clients may send compact requests, which reference
+   * their region by an id registered on the connection.
+   * 
+   * @since Geode 1.0
+   */
+  public static boolean COMPACT_REQUESTS_ENABLED = !Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "ServerHandShakeProcessor.DISABLE_COMPACT_REQUESTS");
+
   /**
    * Test hook for server version support
    * 
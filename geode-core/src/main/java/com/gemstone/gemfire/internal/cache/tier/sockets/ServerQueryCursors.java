@@ -0,0 +1,401 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache.tier.sockets;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Logger;
+
+import com.gemstone.gemfire.cache.query.QueryException;
+import com.gemstone.gemfire.cache.query.Struct;
+import com.gemstone.gemfire.cache.query.types.CollectionType;
+import com.gemstone.gemfire.cache.util.ObjectSizer;
+import com.gemstone.gemfire.distributed.internal.DistributionConfig;
+import com.gemstone.gemfire.internal.SystemTimer;
+import com.gemstone.gemfire.internal.SystemTimer.SystemTimerTask;
+import com.gemstone.gemfire.internal.cache.control.InternalResourceManager.ResourceType;
+import com.gemstone.gemfire.internal.cache.control.MemoryEvent;
+import com.gemstone.gemfire.internal.cache.control.ResourceListener;
+import com.gemstone.gemfire.internal.logging.LogService;
+
+/**
+ * The query cursors a cache server holds for its clients. A cursor keeps the
+ * results of a query that have not been sent to the client yet. The client
+ * fetches them a page at a time and closes the cursor when it is done.
+ * <p>
+ * A cursor can only be used by the client, and the user of that client, that
+ * opened it, and its id is chosen at random so that it can not be guessed.
+ * A cursor that has not been used for {@link #CURSOR_TIMEOUT} milliseconds is
+ * dropped by a timer task, and the cursors of a client are dropped when its
+ * last connection to this server closes, so that a client that goes away does
+ * not leak its results. At most {@link #MAX_CURSORS} cursors can be open.
+ * <p>
+ * A cursor pins all the results of its query until it is closed, so the
+ * estimated size of the results a cursor holds is limited by
+ * {@link #MAX_CURSOR_BYTES}, and that of all cursors by
+ * {@link #MAX_TOTAL_BYTES}. When the heap goes over its eviction or critical
+ * threshold all cursors are dropped, and no new ones are opened until it is
+ * back to normal.
+ *
+ * @since Geode 1.0
+ */
+public class ServerQueryCursors implements ResourceListener<MemoryEvent> {
+
+  private static final Logger logger = LogService.getLogger();
+
+  /**
+   * How long, in milliseconds, a cursor can go unused before the server drops
+   * it.
+   */
+  public static final long CURSOR_TIMEOUT = Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "ServerQueryCursors.TIMEOUT", 5 * 60 * 1000).longValue();
+
+  /**
+   * The maximum number of cursors a cache server keeps open for all its
+   * clients. A query that needs a cursor beyond that fails.
+   */
+  public static final int MAX_CURSORS = Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "ServerQueryCursors.MAX_CURSORS", 1000).intValue();
+
+  /**
+   * The maximum estimated size, in bytes, of the results one cursor holds. A
+   * query with larger results fails instead of opening a cursor.
+   */
+  public static final long MAX_CURSOR_BYTES = Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "ServerQueryCursors.MAX_CURSOR_BYTES", 64L * 1024 * 1024).longValue();
+
+  /**
+   * The maximum estimated size, in bytes, of the results all cursors hold,
+   * by default a tenth of the maximum heap. A query that needs a cursor
+   * beyond that fails.
+   */
+  public static final long MAX_TOTAL_BYTES = Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "ServerQueryCursors.MAX_TOTAL_BYTES", Runtime.getRuntime().maxMemory() / 10).longValue();
+
+  private final ConcurrentMap<Long, Cursor> cursors = new ConcurrentHashMap<Long, Cursor>();
+
+  /**
+   * The number of cursors in {@link #cursors}, reserved before a cursor is
+   * added so that the maximum is never exceeded.
+   */
+  private final AtomicInteger count = new AtomicInteger();
+
+  /**
+   * The estimated size of the results of the cursors in {@link #cursors},
+   * reserved like {@link #count}.
+   */
+  private final AtomicLong bytes = new AtomicLong();
+
+  private final SecureRandom random = new SecureRandom();
+
+  private final int maxCursors;
+
+  private final long maxCursorBytes;
+
+  private final long maxTotalBytes;
+
+  /** True while the heap is over its eviction or critical threshold. */
+  private volatile boolean heapLow;
+
+  private ExpiryTask expiryTask;
+
+  public ServerQueryCursors() {
+    this(MAX_CURSORS, MAX_CURSOR_BYTES, MAX_TOTAL_BYTES);
+  }
+
+  ServerQueryCursors(int maxCursors, long maxCursorBytes, long maxTotalBytes) {
+    this.maxCursors = maxCursors;
+    this.maxCursorBytes = maxCursorBytes;
+    this.maxTotalBytes = maxTotalBytes;
+  }
+
+  /**
+   * Returns an estimate of the heap used by <code>results</code>.
+   */
+  public static long sizeOf(Collection results) {
+    long size = 0;
+    for (Object result : results) {
+      if (result instanceof Struct) {
+        for (Object value : ((Struct)result).getFieldValues()) {
+          size += ObjectSizer.DEFAULT.sizeof(value);
+        }
+      } else {
+        size += ObjectSizer.DEFAULT.sizeof(result);
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Starts dropping the cursors that time out using <code>timer</code>.
+   */
+  public synchronized void start(SystemTimer timer) {
+    if (this.expiryTask == null) {
+      long interval = Math.max(CURSOR_TIMEOUT / 2, 1);
+      this.expiryTask = new ExpiryTask();
+      timer.scheduleAtFixedRate(this.expiryTask, interval, interval);
+    }
+  }
+
+  /**
+   * Registers <code>cursor</code> and returns the id the client uses to fetch
+   * the rest of its results.
+   *
+   * @throws QueryException if the maximum number of cursors are already open,
+   *         the results of the cursor are too large, or the heap is low
+   */
+  public long add(Cursor cursor) throws QueryException {
+    if (this.heapLow) {
+      throw new QueryException("The cache server does not open query cursors while its heap is over the eviction or critical threshold");
+    }
+    if (cursor.getSize() > this.maxCursorBytes) {
+      throw new QueryException("The query results of about " + cursor.getSize()
+          + " bytes are larger than the " + this.maxCursorBytes
+          + " bytes a query cursor can hold");
+    }
+    if (this.count.incrementAndGet() > this.maxCursors) {
+      this.count.decrementAndGet();
+      throw new QueryException("The cache server already has " + this.maxCursors
+          + " open query cursors");
+    }
+    if (this.bytes.addAndGet(cursor.getSize()) > this.maxTotalBytes) {
+      this.bytes.addAndGet(-cursor.getSize());
+      this.count.decrementAndGet();
+      throw new QueryException("The open query cursors of the cache server already hold about "
+          + this.bytes.get() + " bytes of results, the maximum is " + this.maxTotalBytes);
+    }
+    long id;
+    do {
+      id = this.random.nextLong();
+    } while (id == 0 || this.cursors.putIfAbsent(id, cursor) != null);
+    return id;
+  }
+
+  /**
+   * Returns the cursor with the given id, or null if it was closed, has timed
+   * out or was not opened by <code>owner</code> and <code>principal</code>.
+   */
+  public Cursor get(long id, ClientProxyMembershipID owner, Object principal) {
+    Cursor cursor = this.cursors.get(id);
+    if (cursor == null) {
+      return null;
+    }
+    if (!cursor.isOwnedBy(owner, principal)) {
+      logger.warn("Client {} tried to use query cursor {} which it did not open", owner, id);
+      return null;
+    }
+    cursor.touch();
+    return cursor;
+  }
+
+  /**
+   * Drops the cursor with the given id if it was opened by <code>owner</code>
+   * and <code>principal</code>.
+   *
+   * @return true if the cursor was dropped
+   */
+  public boolean remove(long id, ClientProxyMembershipID owner, Object principal) {
+    Cursor cursor = get(id, owner, principal);
+    return cursor != null && remove(id, cursor);
+  }
+
+  /**
+   * Drops all the cursors opened by <code>owner</code>. Called when its last
+   * connection to this server closes.
+   */
+  public void removeAll(ClientProxyMembershipID owner) {
+    for (Map.Entry<Long, Cursor> entry : this.cursors.entrySet()) {
+      if (entry.getValue().getOwner().equals(owner)) {
+        remove(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  private boolean remove(long id, Cursor cursor) {
+    if (this.cursors.remove(id, cursor)) {
+      this.count.decrementAndGet();
+      this.bytes.addAndGet(-cursor.getSize());
+      return true;
+    }
+    return false;
+  }
+
+  public int size() {
+    return this.cursors.size();
+  }
+
+  /**
+   * Returns the estimated size of the results all cursors hold.
+   */
+  long getBytes() {
+    return this.bytes.get();
+  }
+
+  /**
+   * Drops all cursors when the heap goes over its eviction or critical
+   * threshold, and refuses new ones until it is back under them.
+   */
+  @Override
+  public void onEvent(MemoryEvent event) {
+    if (!event.isLocal() || event.getType() != ResourceType.HEAP_MEMORY) {
+      return;
+    }
+    boolean low = event.getState().isEviction() || event.getState().isCritical();
+    this.heapLow = low;
+    if (low) {
+      int dropped = 0;
+      for (Map.Entry<Long, Cursor> entry : this.cursors.entrySet()) {
+        if (remove(entry.getKey(), entry.getValue())) {
+          dropped++;
+        }
+      }
+      if (dropped > 0) {
+        logger.warn("Dropped {} query cursors because the heap is {}", dropped, event.getState());
+      }
+    }
+  }
+
+  /**
+   * Stops the expiry task and drops all cursors. Called when the cache server
+   * stops.
+   */
+  public void close() {
+    synchronized (this) {
+      if (this.expiryTask != null) {
+        this.expiryTask.cancel();
+        this.expiryTask = null;
+      }
+    }
+    for (Map.Entry<Long, Cursor> entry : this.cursors.entrySet()) {
+      remove(entry.getKey(), entry.getValue());
+    }
+  }
+
+  void expire(long now) {
+    for (Map.Entry<Long, Cursor> entry : this.cursors.entrySet()) {
+      if (now - entry.getValue().getLastAccessTime() > CURSOR_TIMEOUT
+          && remove(entry.getKey(), entry.getValue())) {
+        if (logger.isDebugEnabled()) {
+          logger.debug("Dropped query cursor {} that has not been used for {} ms", entry.getKey(), CURSOR_TIMEOUT);
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops the cursors that have timed out.
+   */
+  private class ExpiryTask extends SystemTimerTask {
+    @Override
+    public void run2() {
+      expire(System.currentTimeMillis());
+    }
+  }
+
+  /**
+   * The results of one query that are still to be sent to the client.
+   */
+  public static class Cursor {
+
+    private final Iterator results;
+
+    private final CollectionType collectionType;
+
+    private final boolean isStructs;
+
+    private final boolean hasSerializedObjects;
+
+    private final ClientProxyMembershipID owner;
+
+    private final Object principal;
+
+    private final long size;
+
+    private volatile long lastAccessTime = System.currentTimeMillis();
+
+    /**
+     * @param size the estimated size of the results the cursor holds
+     * @param owner the client that opened the cursor
+     * @param principal the user that opened the cursor, or null if the server
+     *        does not authenticate clients
+     */
+    public Cursor(Iterator results, CollectionType collectionType,
+        boolean hasSerializedObjects, long size, ClientProxyMembershipID owner,
+        Object principal) {
+      this.results = results;
+      this.collectionType = collectionType;
+      this.isStructs = collectionType.getElementType().isStructType();
+      this.hasSerializedObjects = hasSerializedObjects;
+      this.size = size;
+      this.owner = owner;
+      this.principal = principal;
+    }
+
+    /**
+     * Returns up to <code>pageSize</code> of the remaining results.
+     */
+    public synchronized List nextPage(int pageSize) {
+      List page = new ArrayList(Math.min(pageSize, 1024));
+      while (page.size() < pageSize && this.results.hasNext()) {
+        page.add(this.results.next());
+      }
+      return page;
+    }
+
+    public synchronized boolean hasNext() {
+      return this.results.hasNext();
+    }
+
+    public CollectionType getCollectionType() {
+      return this.collectionType;
+    }
+
+    public boolean isStructs() {
+      return this.isStructs;
+    }
+
+    public boolean hasSerializedObjects() {
+      return this.hasSerializedObjects;
+    }
+
+    long getSize() {
+      return this.size;
+    }
+
+    ClientProxyMembershipID getOwner() {
+      return this.owner;
+    }
+
+    boolean isOwnedBy(ClientProxyMembershipID owner, Object principal) {
+      return this.owner.equals(owner)
+          && (this.principal == null ? principal == null : this.principal.equals(principal));
+    }
+
+    long getLastAccessTime() {
+      return this.lastAccessTime;
+    }
+
+    void touch() {
+      this.lastAccessTime = System.currentTimeMillis();
+    }
+  }
+}
@@ -36,6 +36,8 @@ public class ServerQueueStatus
   private DistributedMember memberId = null;
   /** size of the PDX  registry on the server. Currently only set for gateways */
   private int pdxSize = 0;
+  /** whether the server accepts compact requests on this connection */
+  private boolean compactRequestsEnabled = false;
   
   /**
    * Default constructor 
@@ -120,6 +122,18 @@ public class ServerQueueStatus
   public void setPdxSize(int pdxSize) {
     this.pdxSize = pdxSize;
   }
+  /**
+   * Returns true if the server accepts compact requests, which reference
+   * their region by an id registered on the connection.
+   * 
+   * @since Geode 1.0
+   */
+  public boolean isCompactRequestsEnabled() {
+    return this.compactRequestsEnabled;
+  }
+  public void setCompactRequestsEnabled(boolean compactRequestsEnabled) {
+    this.compactRequestsEnabled = compactRequestsEnabled;
+  }
   /**
    * The member id of the server we connected to.
    * 
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache.tier.sockets.command;
+
+import java.io.IOException;
+
+import com.gemstone.gemfire.distributed.internal.DistributionStats;
+import com.gemstone.gemfire.internal.cache.LocalRegion;
+import com.gemstone.gemfire.internal.cache.tier.Command;
+import com.gemstone.gemfire.internal.cache.tier.MessageType;
+import com.gemstone.gemfire.internal.cache.tier.sockets.CacheServerStats;
+import com.gemstone.gemfire.internal.cache.tier.sockets.CompactRequestHeader;
+import com.gemstone.gemfire.internal.cache.tier.sockets.Message;
+import com.gemstone.gemfire.internal.cache.tier.sockets.ServerConnection;
+import com.gemstone.gemfire.internal.i18n.LocalizedStrings;
+import com.gemstone.gemfire.internal.logging.log4j.LocalizedMessage;
+
+/**
+ * Handles {@link MessageType#COMPACT_DESTROY}, a destroy without a callback
+ * argument or expected old value, whose parts are a
+ * {@link CompactRequestHeader} and the key. The reply is the same as the
+ * one of {@link Destroy70}.
+ * @since Geode 1.0
+ */
+public class CompactDestroy extends Destroy70 {
+
+  private final static CompactDestroy singleton = new CompactDestroy();
+
+  public static Command getCommand() {
+    return singleton;
+  }
+
+  private CompactDestroy() {
+  }
+
+  @Override
+  public void cmdExecute(Message msg, ServerConnection servConn, long start) throws IOException, InterruptedException {
+    CacheServerStats stats = servConn.getCacheServerStats();
+    servConn.setAsTrue(REQUIRES_RESPONSE);
+
+    long now = DistributionStats.getStatTime();
+    stats.incReadDestroyRequestTime(now - start);
+
+    // Retrieve the data from the message parts
+    CompactRequestHeader header = CompactRequestHeader.fromBytes(msg.getPart(0)
+        .getSerializedForm());
+    Object key;
+    try {
+      key = msg.getPart(1).getStringOrObject();
+    } catch (Exception e) {
+      writeException(msg, e, false, servConn);
+      servConn.setAsTrue(RESPONDED);
+      return;
+    }
+    String regionName = servConn.getRegionPath(header);
+    if (logger.isDebugEnabled()) {
+      logger.debug("{}: Received compact destroy request ({} bytes) from {} for region {} key {} txId {}", servConn.getName(), msg
+        .getPayloadLength(), servConn.getSocketString(), regionName, key, msg.getTransactionId());
+    }
+
+    // Process the destroy request
+    if (key == null || regionName == null || !header.hasEventId()) {
+      String errMessage;
+      if (regionName == null) {
+        errMessage = "The region id " + header.getRegionId() + " is not registered on this connection";
+      } else if (key == null) {
+        logger.warn(LocalizedMessage.create(LocalizedStrings.Destroy_0_THE_INPUT_KEY_FOR_THE_DESTROY_REQUEST_IS_NULL, servConn
+          .getName()));
+        errMessage = LocalizedStrings.Destroy__THE_INPUT_KEY_FOR_THE_DESTROY_REQUEST_IS_NULL.toLocalizedString();
+      } else {
+        errMessage = "The destroy request has no event id";
+      }
+      writeErrorResponse(msg, MessageType.DESTROY_DATA_ERROR, errMessage, servConn);
+      servConn.setAsTrue(RESPONDED);
+      return;
+    }
+
+    LocalRegion region = servConn.getRegisteredRegion(header.getRegionId());
+    if (region == null) {
+      String reason = LocalizedStrings.Destroy__0_WAS_NOT_FOUND_DURING_DESTROY_REQUEST.toLocalizedString(regionName);
+      writeRegionDestroyedEx(msg, regionName, reason, servConn);
+      servConn.setAsTrue(RESPONDED);
+      return;
+    }
+
+    processDestroy(msg, servConn, region, regionName, key, null, null, null,
+        header.getThreadId(), header.getSequenceId(), start);
+  }
+}
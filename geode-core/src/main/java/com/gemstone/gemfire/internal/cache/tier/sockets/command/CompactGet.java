@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache.tier.sockets.command;
+
+import java.io.IOException;
+
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.distributed.internal.DistributionStats;
+import com.gemstone.gemfire.internal.cache.tier.Command;
+import com.gemstone.gemfire.internal.cache.tier.MessageType;
+import com.gemstone.gemfire.internal.cache.tier.sockets.CacheServerStats;
+import com.gemstone.gemfire.internal.cache.tier.sockets.CompactRequestHeader;
+import com.gemstone.gemfire.internal.cache.tier.sockets.Message;
+import com.gemstone.gemfire.internal.cache.tier.sockets.ServerConnection;
+import com.gemstone.gemfire.internal.i18n.LocalizedStrings;
+import com.gemstone.gemfire.internal.security.GeodeSecurityUtil;
+
+/**
+ * Handles {@link MessageType#COMPACT_GET}, a get without a callback
+ * argument whose parts are a {@link CompactRequestHeader} and the key.
+ * The response is the same as the one of {@link Get70}.
+ * @since Geode 1.0
+ */
+public class CompactGet extends Get70 {
+
+  private final static CompactGet singleton = new CompactGet();
+
+  public static Command getCommand() {
+    return singleton;
+  }
+
+  private CompactGet() {
+  }
+
+  @Override
+  public void cmdExecute(Message msg, ServerConnection servConn, long startparam)
+      throws IOException {
+    long start = startparam;
+    CacheServerStats stats = servConn.getCacheServerStats();
+    servConn.setAsTrue(REQUIRES_RESPONSE);
+    {
+      long oldStart = start;
+      start = DistributionStats.getStatTime();
+      stats.incReadGetRequestTime(start - oldStart);
+    }
+    // Retrieve the data from the message parts
+    CompactRequestHeader header = CompactRequestHeader.fromBytes(msg.getPart(0)
+        .getSerializedForm());
+    Object key;
+    try {
+      key = msg.getPart(1).getStringOrObject();
+    }
+    catch (Exception e) {
+      writeException(msg, e, false, servConn);
+      servConn.setAsTrue(RESPONDED);
+      return;
+    }
+    String regionName = servConn.getRegionPath(header);
+    if (logger.isDebugEnabled()) {
+      logger.debug("{}: Received compact get request ({} bytes) from {} for region {} key {} txId {}", servConn.getName(), msg.getPayloadLength(), servConn.getSocketString(), regionName, key, msg.getTransactionId());
+    }
+
+    // Process the get request
+    if (regionName == null) {
+      String s = "The region id " + header.getRegionId() + " is not registered on this connection";
+      logger.warn("{}: {}", servConn.getName(), s);
+      writeErrorResponse(msg, MessageType.REQUESTDATAERROR, s, servConn);
+      servConn.setAsTrue(RESPONDED);
+      return;
+    }
+    if (key == null) {
+      String s = LocalizedStrings.Request_THE_INPUT_KEY_FOR_THE_GET_REQUEST_IS_NULL.toLocalizedString();
+      logger.warn("{}: {}", servConn.getName(), s);
+      writeErrorResponse(msg, MessageType.REQUESTDATAERROR, s, servConn);
+      servConn.setAsTrue(RESPONDED);
+      return;
+    }
+
+    // for integrated security
+    GeodeSecurityUtil.authorizeRegionRead(regionName, key.toString());
+
+    Region region = servConn.getRegisteredRegion(header.getRegionId());
+    if (region == null) {
+      String reason = LocalizedStrings.Request__0_WAS_NOT_FOUND_DURING_GET_REQUEST.toLocalizedString(regionName);
+      writeRegionDestroyedEx(msg, regionName, reason, servConn);
+      servConn.setAsTrue(RESPONDED);
+      return;
+    }
+
+    processGet(msg, servConn, region, regionName, key, null, start);
+  }
+}
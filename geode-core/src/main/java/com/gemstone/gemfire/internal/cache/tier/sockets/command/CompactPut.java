@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache.tier.sockets.command;
+
+import java.io.IOException;
+
+import com.gemstone.gemfire.cache.Operation;
+import com.gemstone.gemfire.distributed.internal.DistributionStats;
+import com.gemstone.gemfire.internal.cache.LocalRegion;
+import com.gemstone.gemfire.internal.cache.tier.Command;
+import com.gemstone.gemfire.internal.cache.tier.MessageType;
+import com.gemstone.gemfire.internal.cache.tier.sockets.CacheServerStats;
+import com.gemstone.gemfire.internal.cache.tier.sockets.CompactRequestHeader;
+import com.gemstone.gemfire.internal.cache.tier.sockets.Message;
+import com.gemstone.gemfire.internal.cache.tier.sockets.Part;
+import com.gemstone.gemfire.internal.cache.tier.sockets.ServerConnection;
+
+/**
+ * Handles {@link MessageType#COMPACT_PUT}, a put or create of a full value
+ * without a callback argument or expected old value, whose parts are a
+ * {@link CompactRequestHeader}, the key and the value. The reply is the
+ * same as the one of {@link Put70}.
+ * @since Geode 1.0
+ */
+public class CompactPut extends Put70 {
+
+  private final static CompactPut singleton = new CompactPut();
+
+  public static Command getCommand() {
+    return singleton;
+  }
+
+  private CompactPut() {
+  }
+
+  @Override
+  public void cmdExecute(Message msg, ServerConnection servConn, long p_start)
+      throws IOException, InterruptedException {
+    long start = p_start;
+    CacheServerStats stats = servConn.getCacheServerStats();
+    servConn.setAsTrue(REQUIRES_RESPONSE);
+    {
+      long oldStart = start;
+      start = DistributionStats.getStatTime();
+      stats.incReadPutRequestTime(start - oldStart);
+    }
+    // Retrieve the data from the message parts
+    CompactRequestHeader header = CompactRequestHeader.fromBytes(msg.getPart(0)
+        .getSerializedForm());
+    Part valuePart = msg.getPart(2);
+    Object key;
+    try {
+      key = msg.getPart(1).getStringOrObject();
+    } catch (Exception e) {
+      writeException(msg, e, false, servConn);
+      servConn.setAsTrue(RESPONDED);
+      return;
+    }
+    String regionName = servConn.getRegionPath(header);
+    if (logger.isDebugEnabled()) {
+      logger.debug("{}: Received compact put request ({} bytes) from {} for region {} key {} txId {} posdup: {}", servConn.getName(), msg
+        .getPayloadLength(), servConn.getSocketString(), regionName, key, msg.getTransactionId(), msg.isRetry());
+    }
+
+    // Process the put request
+    if (key == null || regionName == null || !header.hasEventId()) {
+      String putMsg;
+      if (regionName == null) {
+        putMsg = " The region id " + header.getRegionId() + " is not registered on this connection";
+      } else if (key == null) {
+        putMsg = " The input key for the put request is null";
+      } else {
+        putMsg = " The put request has no event id";
+      }
+      if (logger.isDebugEnabled()) {
+        logger.debug("{}:{}", servConn.getName(), putMsg);
+      }
+      writeErrorResponse(msg, MessageType.PUT_DATA_ERROR, putMsg, servConn);
+      servConn.setAsTrue(RESPONDED);
+      return;
+    }
+
+    LocalRegion region = servConn.getRegisteredRegion(header.getRegionId());
+    if (region == null) {
+      String reason = " was not found during put request";
+      writeRegionDestroyedEx(msg, regionName, reason, servConn);
+      servConn.setAsTrue(RESPONDED);
+      return;
+    }
+
+    Operation operation = header.isCreate() ? Operation.CREATE : Operation.UPDATE;
+    processPut(msg, servConn, region, regionName, operation, false, null, key,
+        false, valuePart, null, header.getThreadId(), header.getSequenceId(),
+        start);
+  }
+}
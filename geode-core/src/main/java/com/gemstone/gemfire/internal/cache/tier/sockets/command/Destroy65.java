@@ -172,8 +172,6 @@ public class Destroy65 extends BaseCommand {
         .getPayloadLength(), operation, servConn.getSocketString(), regionName, key, (operation == Operation.REMOVE ? " value=" + expectedOldValue : ""), msg
         .getTransactionId());
     }
-    boolean entryNotFoundForRemove = false;
-
     // Process the destroy request
     if (key == null || regionName == null) {
       if (key == null) {
@@ -199,13 +197,29 @@ public class Destroy65 extends BaseCommand {
       return;
     }
 
+    ByteBuffer eventIdPartsBuffer = ByteBuffer.wrap(eventPart.getSerializedForm());
+    long threadId = EventID.readEventIdPartsFromOptmizedByteArray(eventIdPartsBuffer);
+    long sequenceId = EventID.readEventIdPartsFromOptmizedByteArray(eventIdPartsBuffer);
+
+    processDestroy(msg, servConn, region, regionName, key, operation,
+        expectedOldValue, callbackArg, threadId, sequenceId, start);
+  }
+
+  /**
+   * Destroys an entry of a region and writes the reply to the client, once
+   * the request has been read and the region found.
+   */
+  protected void processDestroy(Message msg, ServerConnection servConn,
+      LocalRegion region, String regionName, Object key, Object operation,
+      Object expectedOldValue, Object callbackArg, long threadId,
+      long sequenceId, long start) throws IOException, InterruptedException {
+    CacheServerStats stats = servConn.getCacheServerStats();
+    boolean entryNotFoundForRemove = false;
+
     // for integrated security
     GeodeSecurityUtil.authorizeRegionWrite(regionName, key.toString());
 
     // Destroy the entry
-    ByteBuffer eventIdPartsBuffer = ByteBuffer.wrap(eventPart.getSerializedForm());
-    long threadId = EventID.readEventIdPartsFromOptmizedByteArray(eventIdPartsBuffer);
-    long sequenceId = EventID.readEventIdPartsFromOptmizedByteArray(eventIdPartsBuffer);
     EventID eventId = new EventID(servConn.getEventMemberIDByteArray(), threadId, sequenceId);
     EventIDHolder clientEvent = new EventIDHolder(eventId);
 
@@ -308,7 +322,7 @@ public class Destroy65 extends BaseCommand {
     }
 
     // Update the statistics and write the reply
-    now = DistributionStats.getStatTime();
+    long now = DistributionStats.getStatTime();
     stats.incProcessDestroyTime(now - start);
 
     if (region instanceof PartitionedRegion) {
@@ -328,7 +342,5 @@ public class Destroy65 extends BaseCommand {
       logger.debug("{}: Sent destroy response for region {} key {}", servConn.getName(), regionName, key);
     }
     stats.incWriteDestroyResponseTime(DistributionStats.getStatTime() - start);
-
-
   }
 }
@@ -39,7 +39,7 @@ public class Destroy70 extends Destroy65 {
     return singleton;
   }
 
-  private Destroy70() {
+  protected Destroy70() {
   }
 
   @Override
@@ -155,6 +155,17 @@ public class Get70 extends BaseCommand {
       return;
     }
 
+    processGet(msg, servConn, region, regionName, key, callbackArg, start);
+  }
+
+  /**
+   * Gets the value of a key from a region and writes it to the client,
+   * once the request has been read and the region found.
+   */
+  protected void processGet(Message msg, ServerConnection servConn,
+      Region region, String regionName, Object key, Object callbackArg,
+      long start) throws IOException {
+    CacheServerStats stats = servConn.getCacheServerStats();
     GetOperationContext getContext = null;
     try {
       AuthorizeRequest authzRequest = servConn.getAuthzRequest();
@@ -248,8 +259,6 @@ public class Get70 extends BaseCommand {
       logger.debug("{}: Wrote get response back to {} for region {} {}", servConn.getName(), servConn.getSocketString(), regionName, entry);
     }
     stats.incWriteGetResponseTime(DistributionStats.getStatTime() - start);
-
-
   }
 
   /**
@@ -82,9 +82,15 @@ public class Ping extends BaseCommand {
     Message replyMsg = servConn.getReplyMessage();
     servConn.getCache().getCancelCriterion().checkCancelInProgress(null);
     replyMsg.setMessageType(MessageType.REPLY);
-    replyMsg.setNumberOfParts(1);
+    boolean sendLoadFactor = servConn.getClientVersion().compareTo(Version.GEODE_100) >= 0;
+    replyMsg.setNumberOfParts(sendLoadFactor ? 2 : 1);
     replyMsg.setTransactionId(origMsg.getTransactionId());
     replyMsg.addBytesPart(OK_BYTES);
+    if (sendLoadFactor) {
+      // lets the client steer requests away from this server when it is
+      // degraded; sent in hundredths
+      replyMsg.addIntPart(Math.round((float)servConn.getCacheServerStats().getLoadFactor() * 100));
+    }
     replyMsg.send(servConn);
     if (logger.isTraceEnabled()) {
       logger.trace("{}: rpl tx: {}", servConn.getName(), origMsg.getTransactionId());
@@ -197,6 +197,27 @@ public class Put65 extends BaseCommand {
       return;
     }
 
+    ByteBuffer eventIdPartsBuffer = ByteBuffer.wrap(eventPart.getSerializedForm());
+    long threadId = EventID.readEventIdPartsFromOptmizedByteArray(eventIdPartsBuffer);
+    long sequenceId = EventID.readEventIdPartsFromOptmizedByteArray(eventIdPartsBuffer);
+
+    processPut(msg, servConn, region, regionName, operation, requireOldValue,
+        expectedOldValue, key, isDelta, valuePart, callbackArg, threadId,
+        sequenceId, start);
+  }
+
+  /**
+   * Puts a value in a region and writes the reply to the client, once the
+   * request has been read and the region found.
+   */
+  protected void processPut(Message msg, ServerConnection servConn,
+      LocalRegion region, String regionName, Operation operation,
+      boolean requireOldValue, Object expectedOldValue, Object key,
+      boolean isDelta, Part valuePart, Object callbackArg, long threadId,
+      long sequenceId, long start) throws IOException, InterruptedException {
+    CacheServerStats stats = servConn.getCacheServerStats();
+    StringBuffer errMessage = new StringBuffer();
+    final boolean isDebugEnabled = logger.isDebugEnabled();
     if (valuePart.isNull() && operation != Operation.PUT_IF_ABSENT && region.containsKey(key)) {
       // Invalid to 'put' a null value in an existing key
       String putMsg = " Attempted to put a null value for existing key " + key;
@@ -211,10 +232,6 @@ public class Put65 extends BaseCommand {
 
     GeodeSecurityUtil.authorizeRegionWrite(regionName, key.toString());
 
-    ByteBuffer eventIdPartsBuffer = ByteBuffer.wrap(eventPart.getSerializedForm());
-    long threadId = EventID.readEventIdPartsFromOptmizedByteArray(eventIdPartsBuffer);
-    long sequenceId = EventID.readEventIdPartsFromOptmizedByteArray(eventIdPartsBuffer);
-
     EventIDHolder clientEvent = new EventIDHolder(new EventID(servConn.getEventMemberIDByteArray(), threadId, sequenceId));
 
     Breadcrumbs.setEventId(clientEvent.getEventId());
@@ -463,8 +480,6 @@ public class Put65 extends BaseCommand {
       logger.debug("{}: Sent put response back to {} for region {} key {} value {}", servConn.getName(), servConn.getSocketString(), regionName, key, valuePart);
     }
     stats.incWritePutResponseTime(DistributionStats.getStatTime() - start);
-
-
   }
 
   protected void writeReply(Message origMsg,
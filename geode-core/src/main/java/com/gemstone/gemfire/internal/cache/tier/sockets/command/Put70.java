@@ -41,7 +41,7 @@ public class Put70 extends Put65 {
     return singleton;
   }
 
-  private Put70() {
+  protected Put70() {
   }
 
   @Override
@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache.tier.sockets.command;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.gemstone.gemfire.cache.operations.QueryOperationContext;
+import com.gemstone.gemfire.cache.query.Query;
+import com.gemstone.gemfire.cache.query.QueryException;
+import com.gemstone.gemfire.cache.query.QueryInvalidException;
+import com.gemstone.gemfire.cache.query.QueryService;
+import com.gemstone.gemfire.cache.query.SelectResults;
+import com.gemstone.gemfire.cache.query.Struct;
+import com.gemstone.gemfire.cache.query.internal.DefaultQuery;
+import com.gemstone.gemfire.cache.query.internal.types.CollectionTypeImpl;
+import com.gemstone.gemfire.cache.query.internal.types.TypeUtils;
+import com.gemstone.gemfire.distributed.DistributedSystemDisconnectedException;
+import com.gemstone.gemfire.distributed.internal.DistributionStats;
+import com.gemstone.gemfire.internal.cache.GemFireCacheImpl;
+import com.gemstone.gemfire.internal.cache.tier.Command;
+import com.gemstone.gemfire.internal.cache.tier.MessageType;
+import com.gemstone.gemfire.internal.cache.tier.sockets.AcceptorImpl;
+import com.gemstone.gemfire.internal.cache.tier.sockets.BaseCommandQuery;
+import com.gemstone.gemfire.internal.cache.tier.sockets.CacheServerStats;
+import com.gemstone.gemfire.internal.cache.tier.sockets.Message;
+import com.gemstone.gemfire.internal.cache.tier.sockets.ObjectPartList;
+import com.gemstone.gemfire.internal.cache.tier.sockets.ServerConnection;
+import com.gemstone.gemfire.internal.cache.tier.sockets.ServerQueryCursors;
+import com.gemstone.gemfire.internal.i18n.LocalizedStrings;
+import com.gemstone.gemfire.internal.logging.log4j.LocalizedMessage;
+import com.gemstone.gemfire.internal.security.AuthorizeRequest;
+import com.gemstone.gemfire.internal.security.GeodeSecurityUtil;
+
+/**
+ * Executes a query and sends its results to the client a page at a time.
+ * Handles {@link MessageType#QUERY_CURSOR}, which executes the query and
+ * returns the first page, {@link MessageType#QUERY_CURSOR_NEXT}, which returns
+ * the next page, and {@link MessageType#QUERY_CURSOR_CLOSE}, which drops the
+ * results the client did not fetch.
+ * <p>
+ * Each page is sent in a single response with three parts: the collection
+ * type, the results in the same form as a query response chunk, and the id
+ * of the cursor, which is zero once all results have been sent.
+ *
+ * @since Geode 1.0
+ */
+public class QueryCursorCommand extends BaseCommandQuery {
+
+  private final static QueryCursorCommand singleton = new QueryCursorCommand();
+
+  public static Command getCommand() {
+    return singleton;
+  }
+
+  private QueryCursorCommand() {
+  }
+
+  @Override
+  public void cmdExecute(Message msg, ServerConnection servConn, long start)
+      throws IOException, InterruptedException {
+    servConn.setAsTrue(REQUIRES_RESPONSE);
+    CacheServerStats stats = servConn.getCacheServerStats();
+    {
+      long oldStart = start;
+      start = DistributionStats.getStatTime();
+      stats.incReadQueryRequestTime(start - oldStart);
+    }
+    String queryString = null;
+    try {
+      switch (msg.getMessageType()) {
+      case MessageType.QUERY_CURSOR:
+        queryString = msg.getPart(0).getString();
+        open(msg, queryString, servConn);
+        break;
+      case MessageType.QUERY_CURSOR_NEXT:
+        next(msg, servConn);
+        break;
+      default:
+        close(msg, servConn);
+        break;
+      }
+    }
+    catch (QueryInvalidException e) {
+      // The exception can contain non-serializable objects so send a new
+      // one with the original message
+      logger.warn(LocalizedMessage.create(
+          LocalizedStrings.BaseCommand_UNEXPECTED_QUERYINVALIDEXCEPTION_WHILE_PROCESSING_QUERY_0, queryString), e);
+      writeException(msg, new QueryInvalidException(LocalizedStrings.BaseCommand_0_QUERYSTRING_IS_1
+          .toLocalizedString(new Object[] {e.getLocalizedMessage(), queryString})), false, servConn);
+    }
+    catch (DistributedSystemDisconnectedException se) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("{}: ignoring message of type {} from client {} because shutdown occurred during message processing.",
+            servConn.getName(), MessageType.getString(msg.getMessageType()), servConn.getProxyID());
+      }
+      servConn.setFlagProcessMessagesAsFalse();
+    }
+    catch (Exception e) {
+      checkForInterrupt(servConn, e);
+      writeException(msg, e, false, servConn);
+    }
+    finally {
+      servConn.setAsTrue(RESPONDED);
+      stats.incWriteQueryResponseTime(DistributionStats.getStatTime() - start);
+    }
+  }
+
+  private void open(Message msg, String queryString, ServerConnection servConn)
+      throws IOException, ClassNotFoundException, QueryException {
+    int pageSize = msg.getPart(1).getInt();
+    int numParams = msg.getPart(2).getInt();
+    Object[] queryParams = null;
+    if (numParams > 0) {
+      queryParams = new Object[numParams];
+      for (int i = 0; i < numParams; i++) {
+        queryParams[i] = msg.getPart(3 + i).getObject();
+      }
+    }
+    if (logger.isDebugEnabled()) {
+      logger.debug("{}: Received query cursor request from {} queryString: {} pageSize: {}", servConn.getName(), servConn.getSocketString(), queryString, pageSize);
+    }
+
+    QueryService queryService = ((GemFireCacheImpl)servConn.getCachedRegionHelper().getCache())
+        .getLocalQueryService();
+    Query query = queryService.newQuery(queryString);
+    Set regionNames = ((DefaultQuery)query).getRegionsInQuery(queryParams);
+
+    // Authorization check
+    QueryOperationContext queryContext = null;
+    AuthorizeRequest authzRequest = servConn.getAuthzRequest();
+    if (authzRequest != null) {
+      queryContext = authzRequest.queryAuthorize(queryString, regionNames, queryParams);
+      String newQueryString = queryContext.getQuery();
+      if (queryString != null && !queryString.equals(newQueryString)) {
+        query = queryService.newQuery(newQueryString);
+        queryString = newQueryString;
+        regionNames = queryContext.getRegionNames();
+        if (regionNames == null) {
+          regionNames = ((DefaultQuery)query).getRegionsInQuery(null);
+        }
+      }
+    }
+    ((DefaultQuery)query).setRemoteQuery(true);
+
+    Object result = executeQuery(query, queryString, regionNames, null,
+        queryContext, servConn, queryParams);
+
+    ServerQueryCursors.Cursor cursor;
+    if (result instanceof SelectResults) {
+      SelectResults selectResults = (SelectResults)result;
+      cursor = new ServerQueryCursors.Cursor(selectResults.iterator(),
+          selectResults.getCollectionType(), ((DefaultQuery)query).isKeepSerialized(),
+          ServerQueryCursors.sizeOf(selectResults), servConn.getProxyID(),
+          getPrincipal(servConn));
+    } else if (result instanceof Integer) {
+      cursor = new ServerQueryCursors.Cursor(Collections.singletonList(result).iterator(),
+          new CollectionTypeImpl(List.class, TypeUtils.OBJECT_TYPE), false, 0,
+          servConn.getProxyID(), getPrincipal(servConn));
+    } else {
+      throw new QueryInvalidException(LocalizedStrings.BaseCommand_UNKNOWN_RESULT_TYPE_0.toLocalizedString(result.getClass()));
+    }
+
+    List page = cursor.nextPage(pageSize);
+    long cursorId = 0;
+    if (cursor.hasNext()) {
+      cursorId = servConn.getAcceptor().getQueryCursors().add(cursor);
+    }
+    writePage(msg, cursor, page, cursorId, servConn);
+  }
+
+  private void next(Message msg, ServerConnection servConn)
+      throws IOException, QueryException {
+    long cursorId = msg.getPart(0).getLong();
+    int pageSize = msg.getPart(1).getInt();
+    ServerQueryCursors cursors = servConn.getAcceptor().getQueryCursors();
+    Object principal = getPrincipal(servConn);
+    ServerQueryCursors.Cursor cursor = cursors.get(cursorId, servConn.getProxyID(), principal);
+    if (cursor == null) {
+      throw new QueryException("Query cursor " + cursorId
+          + " was closed or was not used for more than "
+          + ServerQueryCursors.CURSOR_TIMEOUT + " ms");
+    }
+    List page = cursor.nextPage(pageSize);
+    if (!cursor.hasNext()) {
+      cursors.remove(cursorId, servConn.getProxyID(), principal);
+      cursorId = 0;
+    }
+    writePage(msg, cursor, page, cursorId, servConn);
+  }
+
+  private void close(Message msg, ServerConnection servConn)
+      throws IOException {
+    long cursorId = msg.getPart(0).getLong();
+    boolean removed = servConn.getAcceptor().getQueryCursors().remove(cursorId,
+        servConn.getProxyID(), getPrincipal(servConn));
+    if (logger.isDebugEnabled()) {
+      logger.debug("{}: Closed query cursor {}: {}", servConn.getName(), cursorId, removed);
+    }
+    writeReply(msg, servConn);
+  }
+
+  /**
+   * Returns the user on whose behalf the current request was sent, which must
+   * be the same for all the requests that use a cursor, or null if the server
+   * does not authenticate its clients.
+   */
+  private static Object getPrincipal(ServerConnection servConn) throws IOException {
+    if (!AcceptorImpl.isAuthenticationRequired()) {
+      return null;
+    }
+    if (AcceptorImpl.isIntegratedSecurity()) {
+      return GeodeSecurityUtil.getSubject().getPrincipal();
+    }
+    AuthorizeRequest authzRequest = servConn.getAuthzRequest();
+    if (authzRequest != null) {
+      return authzRequest.getPrincipal();
+    }
+    // only authentication is configured, so the id the server assigned to
+    // the authenticated user identifies it
+    return Long.valueOf(servConn.getUniqueId());
+  }
+
+  private static void writePage(Message origMsg, ServerQueryCursors.Cursor cursor,
+      List page, long cursorId, ServerConnection servConn) throws IOException {
+    Object results;
+    if (cursor.hasSerializedObjects()) {
+      ObjectPartList serializedObjs = new ObjectPartList(page.size(), false);
+      for (Object result : page) {
+        addToObjectPartList(serializedObjs, result, cursor.getCollectionType(),
+            false, servConn, cursor.isStructs());
+      }
+      results = serializedObjs;
+    } else {
+      Object[] objs = new Object[page.size()];
+      for (int i = 0; i < objs.length; i++) {
+        Object result = page.get(i);
+        if (cursor.isStructs() && result instanceof Struct) {
+          objs[i] = ((Struct)result).getFieldValues();
+        } else {
+          objs[i] = result;
+        }
+      }
+      results = objs;
+    }
+    Message responseMsg = servConn.getResponseMessage();
+    responseMsg.setMessageType(MessageType.RESPONSE);
+    responseMsg.setNumberOfParts(3);
+    responseMsg.setTransactionId(origMsg.getTransactionId());
+    responseMsg.addObjPart(cursor.getCollectionType(), zipValues);
+    responseMsg.addObjPart(results, zipValues);
+    responseMsg.addLongPart(cursorId);
+    responseMsg.send(servConn);
+    if (logger.isDebugEnabled()) {
+      logger.debug("{}: Sent page of {} query results, cursor {}", servConn.getName(), page.size(), cursorId);
+    }
+  }
+}
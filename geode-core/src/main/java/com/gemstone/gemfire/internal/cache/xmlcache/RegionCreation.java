@@ -46,6 +46,8 @@ import com.gemstone.gemfire.cache.RegionDestroyedException;
 import com.gemstone.gemfire.cache.RegionExistsException;
 import com.gemstone.gemfire.cache.RegionService;
 import com.gemstone.gemfire.cache.TimeoutException;
+import com.gemstone.gemfire.cache.client.ClientRegionShortcut;
+import com.gemstone.gemfire.cache.client.internal.ClientRegionFactoryImpl;
 import com.gemstone.gemfire.cache.query.SelectResults;
 import com.gemstone.gemfire.cache.query.internal.index.IndexCreationData;
 import com.gemstone.gemfire.cache.snapshot.RegionSnapshotService;
@@ -262,6 +264,9 @@ public class RegionCreation implements Region, Extensible<Region<?,?>> {
 
     try {
       root = ((GemFireCacheImpl)cache).basicCreateRegion(this.name, new AttributesFactory(this.attrs).create());
+      if (isNearCache()) {
+        ClientRegionFactoryImpl.registerNearCacheInterest(root);
+      }
     } catch (RegionExistsException ex) {
       root = ex.getRegion();
       setMutableAttributes(root);
@@ -274,6 +279,15 @@ public class RegionCreation implements Region, Extensible<Region<?,?>> {
       fillIn(root);
     }
   }
+
+  /**
+   * Returns true if this region is a client {@link ClientRegionShortcut#NEAR_CACHE}
+   * region, which registers interest in all keys when it is created.
+   */
+  private boolean isNearCache() {
+    return ClientRegionShortcut.NEAR_CACHE.toString().equals(this.attrs.getRefid());
+  }
+
   /**
    * Called by CacheXmlParser to add the IndexCreationData object
    * to the list. It is called when functional element is encounetered
@@ -304,6 +318,9 @@ public class RegionCreation implements Region, Extensible<Region<?,?>> {
     Region me = null;
     try {
       me = parent.createSubregion(this.name, new AttributesFactory(this.attrs).create());
+      if (isNearCache()) {
+        ClientRegionFactoryImpl.registerNearCacheInterest(me);
+      }
     } catch (RegionExistsException ex) {
       me = ex.getRegion();
       setMutableAttributes(me);
@@ -176,9 +176,26 @@ public class FreeListManager {
    */
   @SuppressWarnings("synthetic-access")
   public OffHeapStoredObject allocate(int size) {
+    return allocate(size, true);
+  }
+
+  /**
+   * Allocates a chunk like {@link #allocate(int)} but returns null, instead of
+   * reporting out of off-heap memory, if a chunk can not be allocated.
+   * @param size minimum bytes the returned chunk must have.
+   * @return the allocated chunk or null
+   */
+  public OffHeapStoredObject tryAllocate(int size) {
+    return allocate(size, false);
+  }
+
+  private OffHeapStoredObject allocate(int size, boolean failIfOutOfMemory) {
     assert size > 0;
     
-    OffHeapStoredObject result = basicAllocate(size, true);
+    OffHeapStoredObject result = basicAllocate(size, true, failIfOutOfMemory);
+    if (result == null) {
+      return null;
+    }
 
     result.setDataSize(size);
     this.allocatedSize.addAndGet(result.getSize());
@@ -187,7 +204,7 @@ public class FreeListManager {
     return result;
   }
 
-  private OffHeapStoredObject basicAllocate(int size, boolean useSlabs) {
+  private OffHeapStoredObject basicAllocate(int size, boolean useSlabs, boolean failIfOutOfMemory) {
     if (useSlabs) {
       // Every object stored off heap has a header so we need
       // to adjust the size so that the header gets allocated.
@@ -196,13 +213,13 @@ public class FreeListManager {
       size += OffHeapStoredObject.HEADER_SIZE;
     }
     if (size <= MAX_TINY) {
-      return allocateTiny(size, useSlabs);
+      return allocateTiny(size, useSlabs, failIfOutOfMemory);
     } else {
-      return allocateHuge(size, useSlabs);
+      return allocateHuge(size, useSlabs, failIfOutOfMemory);
     }
   }
 
-  private OffHeapStoredObject allocateFromFragments(int chunkSize) {
+  private OffHeapStoredObject allocateFromFragments(int chunkSize, boolean failIfOutOfMemory) {
     do {
       final int lastAllocationId = this.lastFragmentAllocation.get();
       for (int i=lastAllocationId; i < this.fragmentList.size(); i++) {
@@ -219,6 +236,9 @@ public class FreeListManager {
       }
     } while (defragment(chunkSize));
     // We tried all the fragments and didn't find any free memory.
+    if (!failIfOutOfMemory) {
+      return null;
+    }
     logOffHeapState(chunkSize);
     final OutOfOffHeapMemoryException failure = new OutOfOffHeapMemoryException("Out of off-heap memory. Could not allocate size of " + chunkSize);
     try {
@@ -642,7 +662,7 @@ public class FreeListManager {
           checkDataIntegrity(result);
           return result;
         } else {
-          OffHeapStoredObject result = basicAllocate(chunkSize, false);
+          OffHeapStoredObject result = basicAllocate(chunkSize, false, false);
           if (result != null) {
             return result;
           }
@@ -656,10 +676,10 @@ public class FreeListManager {
   private int round(int multiple, int value) {
     return (int) ((((long)value + (multiple-1)) / multiple) * multiple);
   }
-  private OffHeapStoredObject allocateTiny(int size, boolean useFragments) {
-    return basicAllocate(getNearestTinyMultiple(size), TINY_MULTIPLE, 0, this.tinyFreeLists, useFragments);
+  private OffHeapStoredObject allocateTiny(int size, boolean useFragments, boolean failIfOutOfMemory) {
+    return basicAllocate(getNearestTinyMultiple(size), TINY_MULTIPLE, 0, this.tinyFreeLists, useFragments, failIfOutOfMemory);
   }
-  private OffHeapStoredObject basicAllocate(int idx, int multiple, int offset, AtomicReferenceArray<OffHeapStoredObjectAddressStack> freeLists, boolean useFragments) {
+  private OffHeapStoredObject basicAllocate(int idx, int multiple, int offset, AtomicReferenceArray<OffHeapStoredObjectAddressStack> freeLists, boolean useFragments, boolean failIfOutOfMemory) {
     OffHeapStoredObjectAddressStack clq = freeLists.get(idx);
     if (clq != null) {
       long memAddr = clq.poll();
@@ -671,12 +691,12 @@ public class FreeListManager {
       }
     }
     if (useFragments) {
-      return allocateFromFragments(((idx+1)*multiple)+offset);
+      return allocateFromFragments(((idx+1)*multiple)+offset, failIfOutOfMemory);
     } else {
       return null;
     }
   }
-  private OffHeapStoredObject allocateHuge(int size, boolean useFragments) {
+  private OffHeapStoredObject allocateHuge(int size, boolean useFragments, boolean failIfOutOfMemory) {
     // sizeHolder is a fake Chunk used to search our sorted hugeChunkSet.
     OffHeapStoredObject sizeHolder = new SearchMarker(size);
     NavigableSet<OffHeapStoredObject> ts = this.hugeChunkSet.tailSet(sizeHolder);
@@ -694,7 +714,7 @@ public class FreeListManager {
     if (useFragments) {
       // We round it up to the next multiple of TINY_MULTIPLE to make
       // sure we always have chunks allocated on an 8 byte boundary.
-      return allocateFromFragments(round(TINY_MULTIPLE, size));
+      return allocateFromFragments(round(TINY_MULTIPLE, size), failIfOutOfMemory);
     } else {
       return null;
     }
@@ -51,6 +51,18 @@ public interface MemoryAllocator {
    * @throws IllegalStateException if the heap does not have enough memory to grant the request
    */
   public StoredObject allocateAndInitialize(byte[] data, boolean isSerialized, boolean isCompressed, byte[] originalHeapData);
+
+  /**
+   * Allocates off heap memory for the given data like {@link #allocateAndInitialize(byte[], boolean, boolean)}
+   * but returns null if the heap does not have enough memory. Running out of memory this way
+   * is not reported as an out of off-heap memory condition, so callers that can keep the data
+   * on heap instead should use this method.
+   * @param data the bytes of the data to put in the allocated StoredObject
+   * @param isSerialized true if data contains a serialized object; false if it is an actual byte array.
+   * @param isCompressed true if data is compressed; false if it is uncompressed.
+   * @return the allocated StoredObject or null if there was not enough memory
+   */
+  public StoredObject tryAllocateAndInitialize(byte[] data, boolean isSerialized, boolean isCompressed);
   
   public long getFreeMemory();
   
@@ -269,7 +269,14 @@ public class MemoryAllocatorImpl implements MemoryAllocator {
   }
 
   private OffHeapStoredObject allocateOffHeapStoredObject(int size) {
-    OffHeapStoredObject result = this.freeList.allocate(size);
+    return allocateOffHeapStoredObject(size, true);
+  }
+
+  private OffHeapStoredObject allocateOffHeapStoredObject(int size, boolean failIfOutOfMemory) {
+    OffHeapStoredObject result = failIfOutOfMemory ? this.freeList.allocate(size) : this.freeList.tryAllocate(size);
+    if (result == null) {
+      return null;
+    }
     int resultSize = result.getSize();
     stats.incObjects(1);
     stats.incUsedMemory(resultSize);
@@ -303,11 +310,21 @@ public class MemoryAllocatorImpl implements MemoryAllocator {
   }
   @Override
   public StoredObject allocateAndInitialize(byte[] v, boolean isSerialized, boolean isCompressed, byte[] originalHeapData) {
+    return allocateAndInitialize(v, isSerialized, isCompressed, originalHeapData, true);
+  }
+  @Override
+  public StoredObject tryAllocateAndInitialize(byte[] v, boolean isSerialized, boolean isCompressed) {
+    return allocateAndInitialize(v, isSerialized, isCompressed, null, false);
+  }
+  private StoredObject allocateAndInitialize(byte[] v, boolean isSerialized, boolean isCompressed, byte[] originalHeapData, boolean failIfOutOfMemory) {
     long addr = OffHeapRegionEntryHelper.encodeDataAsAddress(v, isSerialized, isCompressed);
     if (addr != 0L) {
       return new TinyStoredObject(addr);
     }
-    OffHeapStoredObject result = allocateOffHeapStoredObject(v.length);
+    OffHeapStoredObject result = allocateOffHeapStoredObject(v.length, failIfOutOfMemory);
+    if (result == null) {
+      return null;
+    }
     //debugLog("allocated off heap object of size " + v.length + " @" + Long.toHexString(result.getMemoryAddress()), true);
     //debugLog("allocated off heap object of size " + v.length + " @" + Long.toHexString(result.getMemoryAddress()) +  "chunkSize=" + result.getSize() + " isSerialized=" + isSerialized + " v=" + Arrays.toString(v), true);
     result.setSerializedValue(v);
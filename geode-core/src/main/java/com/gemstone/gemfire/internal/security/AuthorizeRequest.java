@@ -96,6 +96,13 @@ public class AuthorizeRequest {
     }
   }
 
+  /**
+   * Returns the principal whose requests this object authorizes.
+   */
+  public Principal getPrincipal() {
+    return this.principal;
+  }
+
   public GetOperationContext getAuthorize(String regionName, Object key,
       Object callbackArg) throws NotAuthorizedException {
 
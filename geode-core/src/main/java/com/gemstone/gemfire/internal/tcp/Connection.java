@@ -69,6 +69,7 @@ public class Connection implements Runnable {
   public final static int NORMAL_MSG_TYPE = 0x4c;
   public final static int CHUNKED_MSG_TYPE = 0x4d; // a chunk of one logical msg
   public final static int END_CHUNKED_MSG_TYPE = 0x4e; // last in a series of chunks
+  public final static int BATCH_MSG_TYPE = 0x4f; // the frames of coalesced normal msgs
   public final static int DIRECT_ACK_BIT = 0x20;
   //We no longer support early ack
   //public final static int EARLY_ACK_BIT = 0x10;
@@ -1179,6 +1180,9 @@ public class Connection implements Runnable {
     if (preserveOrder && BATCH_SENDS) {
       conn.createBatchSendBuffer();
     }
+    if (!preserveOrder && sharedResource && MsgCoalescer.ENABLED) {
+      conn.createCoalescer();
+    }
     conn.finishedConnecting = true;
     return conn;
   }
@@ -1454,6 +1458,45 @@ public class Connection implements Runnable {
     }
   }
 
+  /**
+   * Coalesces the normal messages sent on this shared, unordered connection,
+   * or null if they are written one by one
+   */
+  private volatile MsgCoalescer coalescer;
+
+  private void createCoalescer() {
+    // peers older than GEODE 1.0 do not understand batch frames
+    if (!this.useNIO || this.remoteVersion == null
+        || this.remoteVersion.compareTo(Version.GEODE_100) < 0) {
+      return;
+    }
+    MsgCoalescer c = new MsgCoalescer(this.owner.getConduit().stats) {
+      @Override
+      protected void write(ByteBuffer buffer) throws IOException, ConnectionException {
+        writePreserialized(buffer, null);
+      }
+      @Override
+      protected void flushFailed(Exception cause) {
+        logger.fatal(LocalizedMessage.create(LocalizedStrings.Connection_EXCEPTION_FLUSHING_BATCH_SEND_BUFFER_0, cause));
+        readerShuttingDown = true;
+        requestClose(LocalizedStrings.Connection_EXCEPTION_FLUSHING_BATCH_SEND_BUFFER_0.toLocalizedString(cause));
+      }
+    };
+    ThreadGroup group =
+      LoggingThreadGroup.createThreadGroup("P2P Writer Threads", logger);
+    Thread flusher = new Thread(group, c, "P2P message coalescer to " + this.remoteAddr);
+    flusher.setDaemon(true);
+    this.coalescer = c;
+    flusher.start();
+  }
+
+  private void closeCoalescer() {
+    MsgCoalescer c = this.coalescer;
+    if (c != null) {
+      c.close();
+    }
+  }
+
   /** use to test message prep overhead (no socket write).
    * WARNING: turning this on completely disables distribution of batched sends
    */
@@ -1631,6 +1674,7 @@ public class Connection implements Runnable {
     }
 
     closeBatchBuffer();
+    closeCoalescer();
     closeAllMsgDestreamers();
     }
     if (cleanupEndpoint) {
@@ -1943,7 +1987,8 @@ public class Connection implements Runnable {
   private static boolean validMsgType(int msgType) {
     return msgType == NORMAL_MSG_TYPE
       || msgType == CHUNKED_MSG_TYPE
-      || msgType == END_CHUNKED_MSG_TYPE;
+      || msgType == END_CHUNKED_MSG_TYPE
+      || msgType == BATCH_MSG_TYPE;
   }
 
   private void closeAllMsgDestreamers() {
@@ -2078,6 +2123,11 @@ public class Connection implements Runnable {
           requestClose(LocalizedStrings.Connection_UNKNOWN_P2P_MESSAGE_TYPE_0.toLocalizedString(Integer.valueOf(msgType)));
           break;
         }
+        if (msgType == BATCH_MSG_TYPE) {
+          // the frames of the coalesced messages follow the batch header
+          this.owner.getConduit().stats.incCoalescedBatchesReceived();
+          continue;
+        }
         if (logger.isTraceEnabled())
           logger.trace("{} reading {} bytes", conduitIdStr, len);
         byte[] bytes = new byte[len];
@@ -2517,6 +2567,25 @@ public class Connection implements Runnable {
       batchSend(buffer);
       return;
     }
+    MsgCoalescer c = this.coalescer;
+    if (c != null
+        && buffer.get(buffer.position() + MSG_HEADER_TYPE_OFFSET) == NORMAL_MSG_TYPE) {
+      c.send(buffer);
+    } else {
+      writePreserialized(buffer, msg);
+    }
+    if (cacheContentChanges) {
+      messagesSent++;
+    }
+  }
+
+  /**
+   * Writes the given bytes, which hold one or more message frames, to the
+   * other end of this connection.
+   */
+  private void writePreserialized(ByteBuffer buffer, DistributionMessage msg)
+    throws IOException, ConnectionException
+  {
     final boolean origSocketInUse = this.socketInUse;
     byte originalState = -1;
     synchronized (stateLock) {
@@ -2546,9 +2615,6 @@ public class Connection implements Runnable {
           }
         }
       }
-      if (cacheContentChanges) {
-        messagesSent++;
-      }
     } finally {
       accessed();
       this.socketInUse = origSocketInUse;
@@ -3508,6 +3574,11 @@ public class Connection implements Runnable {
             requestClose(LocalizedStrings.Connection_UNKNOWN_P2P_MESSAGE_TYPE_0.toLocalizedString(nioMessageTypeInteger));
             break;
           }
+          if (nioMessageType == BATCH_MSG_TYPE) {
+            // the frames of the coalesced messages follow the batch header
+            this.owner.getConduit().stats.incCoalescedBatchesReceived();
+            continue;
+          }
           nioLengthSet = true;
           // keep the header "in" the buffer until we have read the entire msg.
           // Trust me: this will reduce copying on large messages.
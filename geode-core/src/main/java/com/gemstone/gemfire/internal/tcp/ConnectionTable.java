@@ -53,6 +53,7 @@ import com.gemstone.gemfire.internal.Assert;
 import com.gemstone.gemfire.internal.SocketCloser;
 import com.gemstone.gemfire.internal.SocketCreator;
 import com.gemstone.gemfire.internal.SystemTimer;
+import com.gemstone.gemfire.internal.VirtualThreads;
 import com.gemstone.gemfire.internal.i18n.LocalizedStrings;
 import com.gemstone.gemfire.internal.logging.LogService;
 import com.gemstone.gemfire.internal.logging.LoggingThreadGroup;
@@ -242,7 +243,7 @@ public class ConnectionTable  {
       executor = new Executor() { 
         @Override 
         public void execute(Runnable command) { 
-          Thread th = new Thread(connectionRWGroup, command); 
+          Thread th = VirtualThreads.newThread(connectionRWGroup, command, null); 
           th.setDaemon(true); 
           th.start(); 
         } 
@@ -252,7 +253,7 @@ public class ConnectionTable  {
       BlockingQueue synchronousQueue = new SynchronousQueue(); 
       ThreadFactory tf = new ThreadFactory() { 
         public Thread newThread(final Runnable command) { 
-          Thread thread = new Thread(connectionRWGroup, command); 
+          Thread thread = VirtualThreads.newThread(connectionRWGroup, command, null); 
           thread.setDaemon(true); 
           return thread; 
         } 
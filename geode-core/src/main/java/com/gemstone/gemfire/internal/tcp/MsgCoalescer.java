@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.tcp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.gemstone.gemfire.distributed.internal.DMStats;
+import com.gemstone.gemfire.internal.i18n.LocalizedStrings;
+
+/**
+ * Coalesces the normal messages sent on a shared, unordered connection into
+ * batches, so that messages sent to the same member at a high rate share a
+ * socket write.
+ * <p>
+ * A batch is framed as a {@link Connection#BATCH_MSG_TYPE} message whose
+ * body is the frames of the messages it holds. It is written once it holds
+ * {@link #MAX_BYTES} or once its first message waited {@link #MAX_DELAY_MICROS}.
+ * The writes of full batches are done by the sending thread, the writes of
+ * batches that waited long enough by the flusher thread running this
+ * coalescer.
+ * <p>
+ * A sender waits until the batch holding its message is written, and gets
+ * the exception if that write fails, the same as if it wrote the message
+ * itself. Coalescing therefore adds up to {@link #MAX_DELAY_MICROS} to the
+ * time it takes to send a message, which pays off only when many threads
+ * send to the same member.
+ *
+ * @since Geode 1.0
+ */
+abstract class MsgCoalescer implements Runnable {
+
+  /** Whether shared, unordered connections coalesce the messages they send */
+  static final boolean ENABLED = Boolean.getBoolean("p2p.coalesceMessages");
+
+  /** The size at which a batch is written, including its header */
+  static final int MAX_BYTES = Integer.getInteger("p2p.coalesceMaxBytes", 32 * 1024).intValue();
+
+  /** How long, in microseconds, the first message of a batch waits for others */
+  static final long MAX_DELAY_MICROS = Long.getLong("p2p.coalesceMaxMicros", 200).longValue();
+
+  private final DMStats stats;
+
+  private final long maxDelayNanos;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /** Signalled when a batch gets its first message or the coalescer closes */
+  private final Condition batchStarted = this.lock.newCondition();
+
+  /** Signalled when a batch was written or could not be written */
+  private final Condition batchWritten = this.lock.newCondition();
+
+  /** The batch being filled; its header is written when it is flushed */
+  private final ByteBuffer batch;
+
+  /** The number of messages in the batch */
+  private int messages;
+
+  /** When the first message was added to the batch */
+  private long firstMessageTime;
+
+  /** The sum of the times the messages were added to the batch */
+  private long messageTimes;
+
+  /** The number of the batch being filled; batches are numbered from one */
+  private long batchNumber = 1;
+
+  /** The number of the last batch that was written */
+  private long writtenBatchNumber;
+
+  /** Why a batch could not be written, or null if all of them were */
+  private Exception failure;
+
+  private boolean closed;
+
+  MsgCoalescer(DMStats stats) {
+    this(stats, MAX_BYTES, MAX_DELAY_MICROS);
+  }
+
+  MsgCoalescer(DMStats stats, int maxBytes, long maxDelayMicros) {
+    this.stats = stats;
+    this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+    if (TCPConduit.useDirectBuffers) {
+      this.batch = ByteBuffer.allocateDirect(maxBytes);
+    } else {
+      this.batch = ByteBuffer.allocate(maxBytes);
+    }
+    this.batch.position(Connection.MSG_HEADER_BYTES);
+  }
+
+  /**
+   * Writes the given bytes to the connection.
+   */
+  protected abstract void write(ByteBuffer buffer) throws IOException, ConnectionException;
+
+  /**
+   * Called when the flusher thread could not write a batch. The senders of
+   * its messages already got the exception.
+   */
+  protected abstract void flushFailed(Exception cause);
+
+  /**
+   * Adds the given message frame to the current batch and waits for the
+   * batch to be written, or writes the frame right away if it is too large
+   * to be coalesced. The frame is copied, so its buffer can be reused once
+   * this method returns.
+   * 
+   * @throws IOException if the batch could not be written
+   * @throws ConnectionException if the batch could not be written
+   */
+  void send(ByteBuffer frame) throws IOException, ConnectionException {
+    this.lock.lock();
+    try {
+      int size = frame.remaining();
+      if (this.closed || size > this.batch.capacity() - Connection.MSG_HEADER_BYTES) {
+        flush(true);
+        write(frame);
+        return;
+      }
+      if (size > this.batch.remaining()) {
+        flush(true);
+      }
+      long now = System.nanoTime();
+      if (this.messages == 0) {
+        this.firstMessageTime = now;
+        this.batchStarted.signal();
+      }
+      this.batch.put(frame);
+      this.messages++;
+      this.messageTimes += now;
+      long number = this.batchNumber;
+      while (this.writtenBatchNumber < number) {
+        if (this.failure != null) {
+          throw new ConnectionException(LocalizedStrings.Connection_EXCEPTION_FLUSHING_BATCH_SEND_BUFFER_0.toLocalizedString(this.failure), this.failure);
+        }
+        this.batchWritten.awaitUninterruptibly();
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of messages in the batch being filled.
+   */
+  int getBatchedMessages() {
+    this.lock.lock();
+    try {
+      return this.messages;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Writes the current batch, if it has messages, and wakes up its senders.
+   * A batch of a single message is written as that message alone. If the
+   * write fails the coalescer is closed. Must be called with the lock held.
+   */
+  private void flush(boolean sizeFlush) throws IOException, ConnectionException {
+    if (this.messages == 0) {
+      return;
+    }
+    int messageCount = this.messages;
+    long messageDelay = messageCount * System.nanoTime() - this.messageTimes;
+    long number = this.batchNumber++;
+    this.messages = 0;
+    this.messageTimes = 0;
+    this.batch.flip();
+    if (messageCount == 1) {
+      this.batch.position(Connection.MSG_HEADER_BYTES);
+    } else {
+      this.batch.putInt(Connection.MSG_HEADER_SIZE_OFFSET,
+          Connection.calcHdrSize(this.batch.limit() - Connection.MSG_HEADER_BYTES));
+      this.batch.put(Connection.MSG_HEADER_TYPE_OFFSET, (byte)Connection.BATCH_MSG_TYPE);
+      this.batch.putShort(Connection.MSG_HEADER_ID_OFFSET, MsgIdGenerator.NO_MSG_ID);
+    }
+    int bytes = this.batch.remaining();
+    try {
+      write(this.batch);
+      this.writtenBatchNumber = number;
+    } catch (IOException | RuntimeException e) {
+      this.failure = e;
+      this.closed = true;
+      throw e;
+    } finally {
+      this.batch.clear();
+      this.batch.position(Connection.MSG_HEADER_BYTES);
+      this.stats.incCoalescedBatches(messageCount, bytes, sizeFlush, messageDelay);
+      this.batchWritten.signalAll();
+    }
+  }
+
+  /**
+   * Writes the messages still in the batch and stops the flusher thread.
+   * If the batch can't be written, because the connection is already
+   * closed, its senders get the exception. Later messages are written right
+   * away.
+   */
+  void close() {
+    this.lock.lock();
+    try {
+      if (!this.closed) {
+        this.closed = true;
+        try {
+          flush(false);
+        } catch (IOException | ConnectionException e) {
+          // the senders of the batch got the exception
+        }
+      }
+      this.batchStarted.signal();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Runs the flusher thread, which writes batches once their first message
+   * waited long enough.
+   */
+  public void run() {
+    this.lock.lock();
+    try {
+      while (!this.closed) {
+        if (this.messages == 0) {
+          this.batchStarted.await();
+          continue;
+        }
+        long wait = this.firstMessageTime + this.maxDelayNanos - System.nanoTime();
+        if (wait > 0) {
+          this.batchStarted.awaitNanos(wait);
+          continue;
+        }
+        try {
+          flush(false);
+        } catch (IOException | ConnectionException e) {
+          flushFailed(e);
+        }
+      }
+    } catch (InterruptedException e) {
+      // time for this thread to shut down
+    } finally {
+      this.lock.unlock();
+    }
+  }
+}
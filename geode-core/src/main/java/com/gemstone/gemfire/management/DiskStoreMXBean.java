@@ -150,6 +150,12 @@ public interface DiskStoreMXBean {
    */
   public int getTotalRecoveriesInProgress();
 
+  /**
+   * Returns the number of oplogs whose entries are still being recovered from
+   * disk.
+   */
+  public int getRecoveryOplogsRemaining();
+
   /**
    * Requests the DiskStore to start writing to a new op-log. The old oplog will
    * be asynchronously compressed if compaction is set to true. The new op-log will
@@ -216,4 +222,25 @@ public interface DiskStoreMXBean {
    */
   @ResourceOperation(resource = Resource.DATA, operation = Operation.MANAGE)
   public void setDiskUsageCriticalPercentage(float criticalPercent);
+
+  /**
+   * Returns the maximum rate, in megabytes per second, at which compaction
+   * reads and writes oplogs. Zero means unlimited.
+   */
+  public int getCompactionRateLimit();
+
+  /**
+   * Sets the maximum rate, in megabytes per second, at which compaction reads
+   * and writes oplogs. Zero means unlimited.
+   *
+   * @param megabytesPerSecond the compaction rate limit
+   */
+  @ResourceOperation(resource = Resource.DATA, operation = Operation.MANAGE)
+  public void setCompactionRateLimit(int megabytesPerSecond);
+
+  /**
+   * Returns an estimate of the number of bytes that compacting the oplogs
+   * that are ready to be compacted would reclaim.
+   */
+  public long getCompactionDebt();
 }
@@ -124,6 +124,11 @@ public class DiskStoreMBean extends NotificationBroadcasterSupport implements
     return bridge.getTotalRecoveriesInProgress();
   }
 
+  @Override
+  public int getRecoveryOplogsRemaining() {
+    return bridge.getRecoveryOplogsRemaining();
+  }
+
   @Override
   public int getWriteBufferSize() {
     return bridge.getWriteBufferSize();
@@ -165,6 +170,21 @@ public class DiskStoreMBean extends NotificationBroadcasterSupport implements
     bridge.setDiskUsageWarningPercentage(warningPercent);
   }
   
+  @Override
+  public int getCompactionRateLimit() {
+    return bridge.getCompactionRateLimit();
+  }
+
+  @Override
+  public void setCompactionRateLimit(int megabytesPerSecond) {
+    bridge.setCompactionRateLimit(megabytesPerSecond);
+  }
+
+  @Override
+  public long getCompactionDebt() {
+    return bridge.getCompactionDebt();
+  }
+
   @Override
   public void setDiskUsageCriticalPercentage(float criticalPercent) {
     bridge.setDiskUsageCriticalPercentage(criticalPercent);
@@ -261,6 +261,10 @@ public class DiskStoreMBeanBridge {
   public int getTotalRecoveriesInProgress() {
     return getDiskStoreStatistic(StatsKey.RECOVERIES_IN_PROGRESS).intValue();
   }
+
+  public int getRecoveryOplogsRemaining() {
+    return getDiskStoreStatistic(StatsKey.RECOVERY_OPLOGS_REMAINING).intValue();
+  }
    
   public Number getDiskStoreStatistic(String statName) {
     if(diskStoreStats != null){
@@ -281,6 +285,18 @@ public class DiskStoreMBeanBridge {
     diskStore.setDiskUsageWarningPercentage(warningPercent);
   }
   
+  public int getCompactionRateLimit() {
+    return diskStore.getCompactionRateLimit();
+  }
+
+  public void setCompactionRateLimit(int megabytesPerSecond) {
+    diskStore.setCompactionRateLimit(megabytesPerSecond);
+  }
+
+  public long getCompactionDebt() {
+    return getDiskStoreStatistic(StatsKey.COMPACTION_DEBT).longValue();
+  }
+
   public void setDiskUsageCriticalPercentage(float criticalPercent) {
     diskStore.setDiskUsageCriticalPercentage(criticalPercent);
   }
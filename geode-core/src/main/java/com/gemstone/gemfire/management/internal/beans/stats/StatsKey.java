@@ -183,6 +183,10 @@ public class StatsKey {
   public static final String DISK_QUEUE_SIZE = "queueSize";
   
   public static final String RECOVERIES_IN_PROGRESS = "recoveriesInProgress";
+
+  public static final String RECOVERY_OPLOGS_REMAINING = "recoveryOplogsRemaining";
+
+  public static final String COMPACTION_DEBT = "compactionDebt";
   
   public static final String DISK_SPACE = "diskSpace";
   
@@ -208,6 +208,22 @@ public class ClientRegionFactoryJUnitTest {
                  0);
   }
 
+  @Test
+  public void testNEAR_CACHE() throws Exception {
+    ClientCache c = new ClientCacheFactory().create();
+    ClientRegionFactory factory = c.createClientRegionFactory(NEAR_CACHE);
+    RegionAttributes ra = c.getRegionAttributes(NEAR_CACHE.toString());
+    assertEquals(DataPolicy.NORMAL, ra.getDataPolicy());
+    assertEquals(EvictionAttributes.createLRUHeapAttributes(), ra.getEvictionAttributes());
+    // the default pool does not have subscriptions enabled
+    try {
+      factory.create(this.r1Name);
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+    }
+    assertNull(c.getRegion(this.r1Name));
+  }
+
   @Test
   public void testAddCacheListener() throws Exception {
     ClientCache c = new ClientCacheFactory().create();
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.cache.client;
+
+import static com.gemstone.gemfire.distributed.ConfigurationProperties.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.RegionShortcut;
+import com.gemstone.gemfire.cache.server.CacheServer;
+import com.gemstone.gemfire.internal.AvailablePortHelper;
+import com.gemstone.gemfire.internal.cache.LocalRegion;
+import com.gemstone.gemfire.test.dunit.Host;
+import com.gemstone.gemfire.test.dunit.NetworkUtils;
+import com.gemstone.gemfire.test.dunit.SerializableCallable;
+import com.gemstone.gemfire.test.dunit.SerializableRunnable;
+import com.gemstone.gemfire.test.dunit.VM;
+import com.gemstone.gemfire.test.dunit.cache.internal.JUnit4CacheTestCase;
+import com.gemstone.gemfire.test.junit.categories.DistributedTest;
+import com.jayway.awaitility.Awaitility;
+
+/**
+ * Tests that a {@link ClientRegionShortcut#NEAR_CACHE} region has its entries
+ * invalidated by updates on the server and fetches the new value on the next
+ * get, whether it is created by a {@link ClientRegionFactory} or from cache.xml.
+ */
+@Category(DistributedTest.class)
+public class NearCacheDUnitTest extends JUnit4CacheTestCase {
+
+  private VM server;
+  private VM client;
+
+  @Override
+  public final void postSetUp() throws Exception {
+    Host host = Host.getHost(0);
+    this.server = host.getVM(0);
+    this.client = host.getVM(1);
+  }
+
+  @Override
+  public final void preTearDownCacheTestCase() throws Exception {
+    disconnectAllFromDS();
+  }
+
+  @Test
+  public void testServerUpdateInvalidatesFactoryCreatedRegion() {
+    final int port = createServer();
+    this.client.invoke(new SerializableRunnable("create client") {
+      public void run() {
+        ClientCache cache = getClientCache(new ClientCacheFactory()
+            .addPoolServer(NetworkUtils.getServerHostName(client.getHost()), port)
+            .setPoolSubscriptionEnabled(true));
+        cache.createClientRegionFactory(ClientRegionShortcut.NEAR_CACHE).create("region");
+      }
+    });
+    checkUpdateInvalidates();
+  }
+
+  @Test
+  public void testServerUpdateInvalidatesXmlCreatedRegion() {
+    final int port = createServer();
+    this.client.invoke(new SerializableRunnable("create client from cache.xml") {
+      public void run() {
+        File xml = writeClientCacheXml(NetworkUtils.getServerHostName(client.getHost()), port);
+        getClientCache(new ClientCacheFactory().set(CACHE_XML_FILE, xml.getAbsolutePath()));
+        assertNotNull(getCache().getRegion("region"));
+      }
+    });
+    checkUpdateInvalidates();
+  }
+
+  private void checkUpdateInvalidates() {
+    this.server.invoke(new SerializableRunnable("put v1") {
+      public void run() {
+        getCache().getRegion("region").put("key", "v1");
+      }
+    });
+    this.client.invoke(new SerializableRunnable("get v1") {
+      public void run() {
+        Region region = getCache().getRegion("region");
+        assertEquals("v1", region.get("key"));
+        assertTrue(region.containsValueForKey("key"));
+      }
+    });
+    this.server.invoke(new SerializableRunnable("put v2") {
+      public void run() {
+        getCache().getRegion("region").put("key", "v2");
+      }
+    });
+    this.client.invoke(new SerializableRunnable("get v2") {
+      public void run() {
+        final Region region = getCache().getRegion("region");
+        Awaitility.waitAtMost(60, TimeUnit.SECONDS).until(() -> !region.containsValueForKey("key"));
+        // the server sent an invalidate, not the new value
+        assertTrue(region.containsKey("key"));
+        int invalidatedMisses = ((LocalRegion) region).getRegionPerfStats().getInvalidatedMisses();
+        assertEquals("v2", region.get("key"));
+        assertEquals(invalidatedMisses + 1, ((LocalRegion) region).getRegionPerfStats().getInvalidatedMisses());
+        assertTrue(region.containsValueForKey("key"));
+      }
+    });
+  }
+
+  private int createServer() {
+    return (Integer) this.server.invoke(new SerializableCallable("create server") {
+      public Object call() throws Exception {
+        getCache().createRegionFactory(RegionShortcut.REPLICATE).create("region");
+        CacheServer server = getCache().addCacheServer();
+        server.setPort(AvailablePortHelper.getRandomAvailableTCPPort());
+        server.start();
+        return server.getPort();
+      }
+    });
+  }
+
+  private static File writeClientCacheXml(String host, int port) {
+    try {
+      File xml = File.createTempFile("NearCacheDUnitTest", ".xml");
+      xml.deleteOnExit();
+      PrintWriter pw = new PrintWriter(new FileWriter(xml));
+      try {
+        pw.println("<?xml version=\"1.0\"?>");
+        pw.println("<!DOCTYPE client-cache PUBLIC");
+        pw.println("  \"-//GemStone Systems, Inc.//GemFire Declarative Caching 6.5//EN\"");
+        pw.println("  \"http://www.gemstone.com/dtd/cache6_5.dtd\">");
+        pw.println("<client-cache>");
+        pw.println("  <pool name=\"pool\" subscription-enabled=\"true\">");
+        pw.println("    <server host=\"" + host + "\" port=\"" + port + "\"/>");
+        pw.println("  </pool>");
+        pw.println("  <region name=\"region\" refid=\"NEAR_CACHE\"/>");
+        pw.println("</client-cache>");
+      } finally {
+        pw.close();
+      }
+      return xml;
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
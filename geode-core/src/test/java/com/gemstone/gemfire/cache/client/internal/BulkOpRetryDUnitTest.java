@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.cache.client.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.Statistics;
+import com.gemstone.gemfire.StatisticsType;
+import com.gemstone.gemfire.cache.PartitionAttributesFactory;
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.RegionShortcut;
+import com.gemstone.gemfire.cache.client.ClientCache;
+import com.gemstone.gemfire.cache.client.ClientCacheFactory;
+import com.gemstone.gemfire.cache.client.ClientRegionShortcut;
+import com.gemstone.gemfire.cache.server.CacheServer;
+import com.gemstone.gemfire.distributed.internal.DistributionManager;
+import com.gemstone.gemfire.distributed.internal.DistributionMessage;
+import com.gemstone.gemfire.distributed.internal.DistributionMessageObserver;
+import com.gemstone.gemfire.distributed.internal.InternalDistributedSystem;
+import com.gemstone.gemfire.distributed.internal.membership.gms.MembershipManagerHelper;
+import com.gemstone.gemfire.internal.AvailablePortHelper;
+import com.gemstone.gemfire.internal.cache.BucketRegion;
+import com.gemstone.gemfire.internal.cache.DistributedPutAllOperation;
+import com.gemstone.gemfire.internal.cache.DistributedRemoveAllOperation;
+import com.gemstone.gemfire.internal.cache.GemFireCacheImpl;
+import com.gemstone.gemfire.internal.cache.LocalRegion;
+import com.gemstone.gemfire.internal.cache.PartitionedRegion;
+import com.gemstone.gemfire.internal.cache.RegionEntry;
+import com.gemstone.gemfire.test.dunit.Host;
+import com.gemstone.gemfire.test.dunit.IgnoredException;
+import com.gemstone.gemfire.test.dunit.NetworkUtils;
+import com.gemstone.gemfire.test.dunit.SerializableCallable;
+import com.gemstone.gemfire.test.dunit.SerializableRunnable;
+import com.gemstone.gemfire.test.dunit.VM;
+import com.gemstone.gemfire.test.dunit.cache.internal.JUnit4CacheTestCase;
+import com.gemstone.gemfire.test.junit.categories.DistributedTest;
+import com.jayway.awaitility.Awaitility;
+
+/**
+ * Tests that a single-hop putAll or removeAll whose server fails part way
+ * through is retried after the failed server's buckets have moved, without
+ * losing or applying twice any of its entries.
+ */
+@Category(DistributedTest.class)
+public class BulkOpRetryDUnitTest extends JUnit4CacheTestCase {
+
+  private static final int BUCKETS = 12;
+
+  private static final int FIRST_KEY = 100;
+
+  private static final int KEYS = 300;
+
+  private VM server0;
+  private VM server1;
+  private VM server2;
+  private VM client;
+
+  @Override
+  public final void postSetUp() throws Exception {
+    Host host = Host.getHost(0);
+    this.server0 = host.getVM(0);
+    this.server1 = host.getVM(1);
+    this.server2 = host.getVM(2);
+    this.client = host.getVM(3);
+    IgnoredException.addIgnoredException("ForcedDisconnectException");
+    IgnoredException.addIgnoredException("Membership: requesting removal");
+    IgnoredException.addIgnoredException("ServerConnectivityException");
+    IgnoredException.addIgnoredException("CacheClosedException");
+    IgnoredException.addIgnoredException("DistributedSystemDisconnectedException");
+  }
+
+  @Override
+  public final void preTearDownCacheTestCase() throws Exception {
+    this.server0.invoke(new SerializableRunnable() {
+      public void run() {
+        DistributionMessageObserver.setInstance(null);
+      }
+    });
+    disconnectAllFromDS();
+  }
+
+  @Test
+  public void testPutAllRetriedAfterPrimaryMoves() {
+    startServersAndClient();
+    crashOnBulkOpMessage(this.server0, true);
+
+    this.client.invoke(new SerializableRunnable("putAll") {
+      public void run() {
+        Map<Integer, String> map = new HashMap<Integer, String>();
+        for (int i = FIRST_KEY; i < FIRST_KEY + KEYS; i++) {
+          map.put(i, "value" + i);
+        }
+        getCache().getRegion("region").putAll(map);
+        assertTrue(getClientStat("putAllRetriedEntries") > 0);
+      }
+    });
+
+    assertCrashed(this.server0);
+    Map<Integer, Integer> versions = getEntryVersions(this.server1);
+    versions.putAll(getEntryVersions(this.server2));
+    for (int i = FIRST_KEY; i < FIRST_KEY + KEYS; i++) {
+      assertEquals("version of key " + i, Integer.valueOf(1), versions.get(i));
+    }
+    this.server1.invoke(new SerializableRunnable("check values") {
+      public void run() {
+        Region region = getCache().getRegion("region");
+        for (int i = FIRST_KEY; i < FIRST_KEY + KEYS; i++) {
+          assertEquals("value" + i, region.get(i));
+        }
+      }
+    });
+  }
+
+  @Test
+  public void testRemoveAllRetriedAfterPrimaryMoves() {
+    startServersAndClient();
+    this.client.invoke(new SerializableRunnable("putAll") {
+      public void run() {
+        Map<Integer, String> map = new HashMap<Integer, String>();
+        for (int i = FIRST_KEY; i < FIRST_KEY + KEYS; i++) {
+          map.put(i, "value" + i);
+        }
+        getCache().getRegion("region").putAll(map);
+      }
+    });
+    crashOnBulkOpMessage(this.server0, false);
+
+    this.client.invoke(new SerializableRunnable("removeAll") {
+      public void run() {
+        List<Integer> keys = new ArrayList<Integer>();
+        for (int i = FIRST_KEY; i < FIRST_KEY + KEYS; i++) {
+          keys.add(i);
+        }
+        getCache().getRegion("region").removeAll(keys);
+        assertTrue(getClientStat("removeAllRetriedKeys") > 0);
+      }
+    });
+
+    assertCrashed(this.server0);
+    this.server1.invoke(new SerializableRunnable("check removed") {
+      public void run() {
+        Region region = getCache().getRegion("region");
+        for (int i = FIRST_KEY; i < FIRST_KEY + KEYS; i++) {
+          assertFalse("key " + i + " was not removed", region.containsKey(i));
+        }
+        assertEquals(BUCKETS, region.size());
+      }
+    });
+  }
+
+  private void startServersAndClient() {
+    final int port0 = createServer(this.server0);
+    final int port1 = createServer(this.server1);
+    final int port2 = createServer(this.server2);
+    this.client.invoke(new SerializableRunnable("create client") {
+      public void run() {
+        ClientCacheFactory cf = new ClientCacheFactory();
+        String host = NetworkUtils.getServerHostName(client.getHost());
+        cf.addPoolServer(host, port0);
+        cf.addPoolServer(host, port1);
+        cf.addPoolServer(host, port2);
+        cf.setPoolPRSingleHopEnabled(true);
+        cf.setPoolReadTimeout(60000);
+        ClientCache cache = getClientCache(cf);
+        Region region = cache.createClientRegionFactory(ClientRegionShortcut.PROXY).create("region");
+        // one entry per bucket so that every bucket is created and the
+        // client learns where all the primaries are
+        for (int i = 0; i < BUCKETS; i++) {
+          region.put(i, "initial");
+        }
+        final ClientMetadataService cms = ((GemFireCacheImpl) cache).getClientMetadataService();
+        Awaitility.waitAtMost(60, TimeUnit.SECONDS).until(() -> cms.getFetchTaskCount() == 0);
+        cms.getClientPRMetadata((LocalRegion) region);
+        Awaitility.waitAtMost(60, TimeUnit.SECONDS).until(() -> {
+          ClientPartitionAdvisor advisor = cms.getClientPartitionAdvisor(region.getFullPath());
+          return advisor != null && advisor.getBucketServerLocationsMap_TEST_ONLY().size() == BUCKETS;
+        });
+      }
+    });
+  }
+
+  private int createServer(VM vm) {
+    return (Integer) vm.invoke(new SerializableCallable("create server") {
+      public Object call() throws Exception {
+        getCache().createRegionFactory(RegionShortcut.PARTITION)
+            .setPartitionAttributes(new PartitionAttributesFactory().setRedundantCopies(1).setTotalNumBuckets(BUCKETS).create())
+            .create("region");
+        CacheServer server = getCache().addCacheServer();
+        server.setPort(AvailablePortHelper.getRandomAvailableTCPPort());
+        server.start();
+        return server.getPort();
+      }
+    });
+  }
+
+  /**
+   * Crashes the member when it sends the entries of its second primary bucket
+   * to the redundant copy, so that some of the client's entries have been
+   * applied and copied and some have not.
+   */
+  private void crashOnBulkOpMessage(VM vm, final boolean putAll) {
+    vm.invoke(new SerializableRunnable("install crash observer") {
+      public void run() {
+        DistributionMessageObserver.setInstance(new DistributionMessageObserver() {
+          private int messages;
+
+          @Override
+          public void beforeSendMessage(DistributionManager dm, DistributionMessage msg) {
+            if (putAll ? msg instanceof DistributedPutAllOperation.PutAllMessage
+                : msg instanceof DistributedRemoveAllOperation.RemoveAllMessage) {
+              if (++this.messages == 2) {
+                DistributionMessageObserver.setInstance(null);
+                MembershipManagerHelper.crashDistributedSystem(dm.getSystem());
+              }
+            }
+          }
+        });
+      }
+    });
+  }
+
+  private void assertCrashed(VM vm) {
+    vm.invoke(new SerializableRunnable("check crashed") {
+      public void run() {
+        assertNull("the member did not crash", DistributionMessageObserver.getInstance());
+      }
+    });
+  }
+
+  private Map<Integer, Integer> getEntryVersions(VM vm) {
+    return (Map<Integer, Integer>) vm.invoke(new SerializableCallable("get entry versions") {
+      public Object call() {
+        PartitionedRegion pr = (PartitionedRegion) getCache().getRegion("region");
+        Map<Integer, Integer> versions = new HashMap<Integer, Integer>();
+        for (BucketRegion bucket : pr.getDataStore().getAllLocalBucketRegions()) {
+          for (Object key : bucket.keySet()) {
+            RegionEntry entry = bucket.getRegionEntry(key);
+            versions.put((Integer) key, entry.getVersionStamp().getEntryVersion());
+          }
+        }
+        return versions;
+      }
+    });
+  }
+
+  private static long getClientStat(String name) {
+    InternalDistributedSystem system = InternalDistributedSystem.getAnyInstance();
+    StatisticsType type = system.findType("ClientStats");
+    long total = 0;
+    for (Statistics stats : system.findStatisticsByType(type)) {
+      total += stats.getLong(name);
+    }
+    return total;
+  }
+}
@@ -18,6 +18,8 @@ package com.gemstone.gemfire.cache.client.internal;
 
 import com.gemstone.gemfire.cache.Cache;
 import com.gemstone.gemfire.cache.CacheFactory;
+import com.gemstone.gemfire.cache.Operation;
+import com.gemstone.gemfire.cache.RegionShortcut;
 import com.gemstone.gemfire.cache.client.Pool;
 import com.gemstone.gemfire.cache.client.PoolFactory;
 import com.gemstone.gemfire.cache.client.PoolManager;
@@ -27,6 +29,10 @@ import com.gemstone.gemfire.distributed.DistributedSystem;
 import com.gemstone.gemfire.distributed.internal.ServerLocation;
 import com.gemstone.gemfire.internal.AvailablePort;
 import com.gemstone.gemfire.internal.AvailablePortHelper;
+import com.gemstone.gemfire.internal.cache.EntryEventImpl;
+import com.gemstone.gemfire.internal.cache.EventID;
+import com.gemstone.gemfire.internal.cache.LocalRegion;
+import com.gemstone.gemfire.internal.cache.Token;
 import com.gemstone.gemfire.test.junit.categories.IntegrationTest;
 import org.junit.After;
 import org.junit.Before;
@@ -227,6 +233,61 @@ public class ConnectionPoolImplJUnitTest {
     }
   }
   
+  @Test
+  public void testCompactRequests() throws Exception {
+    LocalRegion region = (LocalRegion) cache.createRegionFactory(RegionShortcut.REPLICATE).create("compact");
+    CacheServer server1 = cache.addCacheServer();
+    server1.setPort(port);
+    server1.start();
+
+    PoolFactory cpf = PoolManager.createFactory();
+    cpf.addServer("localhost", port);
+    cpf.setMinConnections(1);
+    cpf.setMaxConnections(1);
+    PoolImpl pool = (PoolImpl) cpf.create("compactpool");
+
+    Op regionIdOp = new Op() {
+      public Object attempt(Connection cnx) throws Exception {
+        return ((ConnectionImpl) cnx).getCompactRegionId("/compact");
+      }
+      @Override
+      public boolean useThreadLocalConnection() {
+        return false;
+      }
+    };
+    assertEquals(-1, pool.execute(regionIdOp));
+
+    EntryEventImpl event = EntryEventImpl.create(region, Operation.CREATE, "key", "value", null, false, null);
+    event.setEventId(new EventID(cache.getDistributedSystem()));
+    try {
+      PutOp.execute(pool, region, "key", "value", null, event, Operation.CREATE, false, null, null, false);
+    } finally {
+      event.release();
+    }
+    assertEquals("value", region.get("key"));
+    assertEquals(0, pool.execute(regionIdOp));
+
+    event = EntryEventImpl.create(region, Operation.UPDATE, "key", "value2", null, false, null);
+    event.setEventId(new EventID(cache.getDistributedSystem()));
+    try {
+      PutOp.execute(pool, region, "key", "value2", null, event, Operation.UPDATE, false, null, null, false);
+    } finally {
+      event.release();
+    }
+    assertEquals("value2", GetOp.execute(pool, region, "key", null, false, null));
+
+    event = EntryEventImpl.create(region, Operation.DESTROY, "key", null, null, false, null);
+    event.setEventId(new EventID(cache.getDistributedSystem()));
+    try {
+      DestroyOp.execute(pool, region, "key", null, Operation.DESTROY, event, null, false);
+    } finally {
+      event.release();
+    }
+    assertFalse(region.containsKey("key"));
+    assertEquals(Token.TOMBSTONE, GetOp.execute(pool, region, "key", null, false, null));
+    assertEquals(0, pool.execute(regionIdOp));
+  }
+
   @Test
   public void testCreatePool() throws Exception {
     CacheServer server1 = cache.addCacheServer();
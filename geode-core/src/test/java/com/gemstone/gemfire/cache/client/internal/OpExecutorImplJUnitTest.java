@@ -25,6 +25,7 @@ import java.net.Socket;
 import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -641,6 +642,11 @@ public class OpExecutorImplJUnitTest {
       return 0;
     }
 
+    @Override
+    public Set<ServerLocation> getDegradedServers() {
+      return Collections.emptySet();
+    }
+
     @Override
     public Map getAllStats() {
       return null;
@@ -25,6 +25,8 @@ import com.gemstone.gemfire.cache.query.internal.index.CompactRangeIndex;
 import com.gemstone.gemfire.cache.query.internal.index.IndexStore.IndexStoreEntry;
 import com.gemstone.gemfire.cache.query.internal.index.PrimaryKeyIndex;
 import com.gemstone.gemfire.cache.query.internal.index.RangeIndex;
+import com.gemstone.gemfire.internal.cache.CachePerfStats;
+import com.gemstone.gemfire.internal.cache.GemFireCacheImpl;
 import com.gemstone.gemfire.internal.cache.LocalRegion.NonTXEntry;
 import com.gemstone.gemfire.internal.cache.RegionEntry;
 import com.gemstone.gemfire.internal.cache.persistence.query.CloseableIterator;
@@ -129,6 +131,51 @@ public class PdxStringQueryJUnitTest {
     r.clear();
   }
   
+  @Test
+  public void testCompactRangeIndexReadsKeysFromSerializedPdxInstances() throws Exception {
+    putPdxInstances();
+    CachePerfStats stats = ((GemFireCacheImpl) c).getCachePerfStats();
+    long avoided = stats.getPdxDeserializationsAvoided();
+    Index index = qs.createIndex("index1", "p.secId", "/exampleRegion p");
+    assertTrue(index instanceof CompactRangeIndex);
+    assertEquals(avoided + 4, stats.getPdxDeserializationsAvoided());
+
+    PdxInstanceFactory pf = PdxInstanceFactoryImpl.newCreator("Portfolio", false);
+    pf.writeInt("ID", 444);
+    pf.writeString("status", "active");
+    pf.writeString("secId", "ORCL");
+    r.put("VMW", pf.create());
+    assertTrue(stats.getPdxDeserializationsAvoided() > avoided + 4);
+
+    CloseableIterator<IndexStoreEntry> indexIterator = null;
+    try {
+      indexIterator = ((CompactRangeIndex) index).getIndexStorage().iterator(null);
+      while (indexIterator.hasNext()) {
+        assertTrue(indexIterator.next().getDeserializedKey() instanceof PdxString);
+      }
+    } finally {
+      if (indexIterator != null) {
+        indexIterator.close();
+      }
+    }
+    assertEquals(4, index.getStatistics().getNumberOfKeys());
+
+    DefaultQuery.setPdxReadSerialized(true);
+    SelectResults res = (SelectResults) qs.newQuery("select p.secId from /exampleRegion p where p.secId = 'ORCL'").execute();
+    assertEquals(1, res.size());
+    validateStringResult("ORCL", res.iterator().next());
+    res = (SelectResults) qs.newQuery("select p.secId from /exampleRegion p where p.secId = 'VMW'").execute();
+    assertEquals(0, res.size());
+    res = (SelectResults) qs.newQuery("select p.secId from /exampleRegion p where p.secId > 'GOOGL'").execute();
+    assertEquals(3, res.size());
+
+    r.destroy("IBM");
+    res = (SelectResults) qs.newQuery("select p.secId from /exampleRegion p where p.secId = 'IBM'").execute();
+    assertEquals(0, res.size());
+    DefaultQuery.setPdxReadSerialized(false);
+    r.clear();
+  }
+
   @Test
   public void testQueriesWithCompactRangeIndexHeterogenousObjects() throws Exception {
     putHeterogeneousObjects();
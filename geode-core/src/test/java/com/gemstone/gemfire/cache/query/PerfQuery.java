@@ -301,6 +301,12 @@ public class PerfQuery {
              QueryInvocationTargetException {
       throw new UnsupportedOperationException();
     }
+    public QueryCursor executeWithCursor(int pageSize) {
+      throw new UnsupportedOperationException();
+    }
+    public QueryCursor executeWithCursor(int pageSize, Object[] params) {
+      throw new UnsupportedOperationException();
+    }
     public QueryStatistics getStatistics() {
       throw new UnsupportedOperationException();
     }    
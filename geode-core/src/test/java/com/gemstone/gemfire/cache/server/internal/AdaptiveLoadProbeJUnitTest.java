@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.cache.server.internal;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.cache.server.ServerLoad;
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class AdaptiveLoadProbeJUnitTest {
+
+  @Test
+  public void idleServerHasConnectionCountLoad() {
+    AdaptiveLoadProbe probe = new AdaptiveLoadProbe();
+    ServerMetricsImpl metrics = new ServerMetricsImpl(800);
+    for(int i = 0; i < 100; i++) {
+      metrics.incConnectionCount();
+    }
+
+    assertEquals(1f, AdaptiveLoadProbe.getLoadFactor(metrics), .0001f);
+    ServerLoad load = probe.getLoad(metrics);
+    assertEquals(0.125, load.getConnectionLoad(), .0001f);
+    assertEquals(1/800f, load.getLoadPerConnection(), .0001f);
+    assertEquals(0f, load.getSubscriptionConnectionLoad(), .0001f);
+    assertEquals(1f, load.getLoadPerSubscriptionConnection(), .0001f);
+  }
+
+  @Test
+  public void slowServerHasMoreLoadPerConnection() {
+    AdaptiveLoadProbe probe = new AdaptiveLoadProbe();
+    ServerMetricsImpl fast = new ServerMetricsImpl(800);
+    ServerMetricsImpl slow = new ServerMetricsImpl(800);
+    fast.setAverageRequestTime(AdaptiveLoadProbe.REQUEST_TIME_THRESHOLD + AdaptiveLoadProbe.REQUEST_TIME_UNIT / 2);
+    slow.setAverageRequestTime(AdaptiveLoadProbe.REQUEST_TIME_THRESHOLD + AdaptiveLoadProbe.REQUEST_TIME_UNIT * 2);
+    for(int i = 0; i < 100; i++) {
+      fast.incConnectionCount();
+      slow.incConnectionCount();
+    }
+
+    assertEquals(1.5f, AdaptiveLoadProbe.getLoadFactor(fast), .0001f);
+    assertEquals(3f, AdaptiveLoadProbe.getLoadFactor(slow), .0001f);
+    ServerLoad fastLoad = probe.getLoad(fast);
+    ServerLoad slowLoad = probe.getLoad(slow);
+    assertEquals(2 * fastLoad.getConnectionLoad(), slowLoad.getConnectionLoad(), .0001f);
+    assertEquals(2 * fastLoad.getLoadPerConnection(), slowLoad.getLoadPerConnection(), .0001f);
+  }
+
+  @Test
+  public void requestTimeBelowThresholdDoesNotRaiseLoadFactor() {
+    ServerMetricsImpl metrics = new ServerMetricsImpl(800);
+    metrics.setAverageRequestTime(AdaptiveLoadProbe.REQUEST_TIME_THRESHOLD);
+    assertEquals(1f, AdaptiveLoadProbe.getLoadFactor(metrics), .0001f);
+  }
+
+  @Test
+  public void queuedRequestsAndHeapUsageRaiseLoadFactor() {
+    ServerMetricsImpl metrics = new ServerMetricsImpl(800);
+    metrics.setHeapUsage(AdaptiveLoadProbe.HEAP_USAGE_THRESHOLD);
+    assertEquals(1f, AdaptiveLoadProbe.getLoadFactor(metrics), .0001f);
+
+    metrics.setHeapUsage(1f);
+    assertEquals(2f, AdaptiveLoadProbe.getLoadFactor(metrics), .0001f);
+
+    metrics.setHeapUsage(0f);
+    metrics.setThreadQueueSize(Runtime.getRuntime().availableProcessors());
+    assertEquals(2f, AdaptiveLoadProbe.getLoadFactor(metrics), .0001f);
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.distributed.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.distributed.internal.membership.InternalDistributedMember;
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+/**
+ * Tests {@link KeyAffinityExecutor}.
+ */
+@Category(UnitTest.class)
+public class KeyAffinityExecutorJUnitTest {
+
+  private final DMStats stats = mock(DMStats.class);
+
+  private KeyAffinityExecutor executor;
+
+  private InternalDistributedMember sender;
+
+  /** Keys processed by the first and second stripes */
+  private String key0, key1;
+
+  @Before
+  public void setUp() throws Exception {
+    this.executor = new KeyAffinityExecutor(Thread.currentThread().getThreadGroup(), 2, 100, this.stats);
+    this.sender = new InternalDistributedMember("localhost", 12345);
+    for (int i = 0; this.key0 == null || this.key1 == null; i++) {
+      String key = "/region" + i;
+      if (this.executor.getStripe(key) == 0) {
+        this.key0 = key;
+      } else {
+        this.key1 = key;
+      }
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    this.executor.shutdownNow();
+    this.executor.awaitTermination(30, TimeUnit.SECONDS);
+  }
+
+  private static Runnable await(final CountDownLatch latch) {
+    return new Runnable() {
+      public void run() {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+  }
+
+  @Test
+  public void messagesWithTheSameKeyAreProcessedInOrder() throws Exception {
+    final List<Integer> processed = Collections.synchronizedList(new ArrayList<Integer>());
+    for (int i = 0; i < 50; i++) {
+      final int n = i;
+      this.executor.execute(this.sender, this.key0, new Runnable() {
+        public void run() {
+          processed.add(n);
+        }
+      });
+    }
+    this.executor.waitForSender(this.sender);
+
+    assertEquals(50, processed.size());
+    for (int i = 0; i < 50; i++) {
+      assertEquals(Integer.valueOf(i), processed.get(i));
+    }
+    verify(this.stats, times(50)).incKeyAffinityMessages(anyLong());
+  }
+
+  @Test
+  public void messagesWithOtherKeysAreNotHeldUp() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(1);
+    this.executor.execute(this.sender, this.key0, await(blocked));
+    this.executor.execute(this.sender, this.key1, new Runnable() {
+      public void run() {
+        done.countDown();
+      }
+    });
+
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    blocked.countDown();
+  }
+
+  @Test
+  public void waitForSenderWaitsForMessagesHandedOffBefore() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    final AtomicBoolean processed = new AtomicBoolean();
+    this.executor.execute(this.sender, this.key0, await(blocked));
+    this.executor.execute(this.sender, this.key0, new Runnable() {
+      public void run() {
+        processed.set(true);
+      }
+    });
+
+    Thread waiter = new Thread() {
+      @Override
+      public void run() {
+        executor.waitForSender(sender);
+      }
+    };
+    waiter.start();
+    waiter.join(500);
+    assertTrue(waiter.isAlive());
+    // messages of other senders are not waited for
+    this.executor.waitForSender(new InternalDistributedMember("localhost", 12346));
+
+    blocked.countDown();
+    waiter.join(30000);
+    assertFalse(waiter.isAlive());
+    assertTrue(processed.get());
+    verify(this.stats).incKeyAffinityBarrierWait(anyLong());
+  }
+
+  @Test
+  public void messageQueuedBehindAnotherWhileAStripeIsIdleIsSkewed() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    this.executor.execute(this.sender, this.key0, await(blocked));
+    this.executor.execute(this.sender, this.key0, await(blocked));
+    blocked.countDown();
+    this.executor.waitForSender(this.sender);
+
+    verify(this.stats).incKeyAffinitySkewedMessages();
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+/**
+ * Tests the ordering of {@link Version}s, which follows their ordinals.
+ */
+@Category(UnitTest.class)
+public class VersionJUnitTest {
+
+  @Test
+  public void testVersionsSortByOrdinal() {
+    compare(Version.GFE_57, Version.GFE_58);
+    compare(Version.GFE_66, Version.GFE_70);
+    compare(Version.GFE_82, Version.GFE_90);
+    compare(Version.GFE_90, Version.GEODE_100);
+  }
+
+  @Test
+  public void testTestVersionSortsBetweenGFE57AndGFE58() {
+    compare(Version.GFE_57, Version.TEST_VERSION);
+    compare(Version.TEST_VERSION, Version.GFE_58);
+  }
+
+  @Test
+  public void testCurrentIsGeode100() {
+    assertSame(Version.GEODE_100, Version.CURRENT);
+    assertEquals(Version.GEODE_100.ordinal(), Version.CURRENT_ORDINAL);
+    assertEquals(Version.HIGHEST_VERSION, Version.CURRENT_ORDINAL);
+    assertSame(Version.CURRENT, Version.fromOrdinalNoThrow(Version.CURRENT_ORDINAL, false));
+  }
+
+  @Test
+  public void testCompareToOrdinal() {
+    assertTrue(Version.GEODE_100.compareTo(Version.GFE_90.ordinal()) > 0);
+    assertTrue(Version.GFE_90.compareTo(Version.GEODE_100.ordinal()) < 0);
+    assertEquals(0, Version.GEODE_100.compareTo(Version.GEODE_100.ordinal()));
+  }
+
+  private static void compare(Version older, Version newer) {
+    assertTrue(older + " should be < " + newer, older.compareTo(newer) < 0);
+    assertTrue(newer + " should be > " + older, newer.compareTo(older) > 0);
+    assertEquals(0, older.compareTo(older));
+    assertTrue(older + " should be > null", older.compareTo(null) > 0);
+  }
+}
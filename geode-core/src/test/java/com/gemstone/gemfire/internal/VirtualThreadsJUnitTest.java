@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+/**
+ * Tests {@link VirtualThreads} when {@link VirtualThreads#USE_VIRTUAL_THREADS}
+ * is not set.
+ */
+@Category(UnitTest.class)
+public class VirtualThreadsJUnitTest {
+
+  @Test
+  public void createsDaemonPlatformThreadsByDefault() throws Exception {
+    assertFalse(VirtualThreads.isEnabled());
+
+    ThreadGroup group = new ThreadGroup("VirtualThreadsJUnitTest");
+    final AtomicBoolean ran = new AtomicBoolean();
+    Thread thread = VirtualThreads.newThread(group, new Runnable() {
+      public void run() {
+        ran.set(true);
+      }
+    }, "test thread");
+
+    assertEquals("test thread", thread.getName());
+    assertSame(group, thread.getThreadGroup());
+    assertTrue(thread.isDaemon());
+    thread.start();
+    thread.join(30000);
+    assertTrue(ran.get());
+  }
+
+  @Test
+  public void generatesNameIfNoneGiven() throws Exception {
+    Thread thread = VirtualThreads.newThread(new ThreadGroup("VirtualThreadsJUnitTest"), new Runnable() {
+      public void run() {
+      }
+    }, null);
+
+    assertNotNull(thread.getName());
+    assertTrue(thread.isDaemon());
+  }
+}
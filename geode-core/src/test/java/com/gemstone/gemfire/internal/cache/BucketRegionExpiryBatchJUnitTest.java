@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache;
+
+import static com.gemstone.gemfire.distributed.ConfigurationProperties.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.cache.Cache;
+import com.gemstone.gemfire.cache.CacheFactory;
+import com.gemstone.gemfire.cache.EntryEvent;
+import com.gemstone.gemfire.cache.ExpirationAction;
+import com.gemstone.gemfire.cache.ExpirationAttributes;
+import com.gemstone.gemfire.cache.PartitionAttributesFactory;
+import com.gemstone.gemfire.cache.RegionShortcut;
+import com.gemstone.gemfire.cache.util.CacheListenerAdapter;
+import com.gemstone.gemfire.test.junit.categories.IntegrationTest;
+
+/**
+ * Tests {@link BucketRegion#performExpiryTimeouts(List)}, which destroys the
+ * expired entries of a bucket as one removeAll operation.
+ */
+@Category(IntegrationTest.class)
+public class BucketRegionExpiryBatchJUnitTest {
+
+  private static final int ENTRIES = 10;
+
+  private Cache cache;
+
+  @Before
+  public void setUp() {
+    this.cache = new CacheFactory().set(MCAST_PORT, "0").set(LOCATORS, "").create();
+  }
+
+  @After
+  public void tearDown() {
+    if (this.cache != null) {
+      this.cache.close();
+    }
+  }
+
+  @Test
+  public void batchExpiryInvokesAfterDestroyOncePerEntry() throws Exception {
+    final AtomicInteger afterDestroys = new AtomicInteger();
+    final AtomicInteger expirations = new AtomicInteger();
+    PartitionedRegion pr = (PartitionedRegion) this.cache.createRegionFactory(RegionShortcut.PARTITION)
+        .setPartitionAttributes(new PartitionAttributesFactory().setTotalNumBuckets(1).create())
+        .setStatisticsEnabled(true)
+        .addCacheListener(new CacheListenerAdapter<Object, Object>() {
+          @Override
+          public void afterDestroy(EntryEvent<Object, Object> event) {
+            afterDestroys.incrementAndGet();
+            if (event.getOperation().isExpiration()) {
+              expirations.incrementAndGet();
+            }
+          }
+        })
+        .create("region");
+    for (int i = 0; i < ENTRIES; i++) {
+      pr.put(i, "value" + i);
+    }
+    BucketRegion bucket = pr.getDataStore().getLocalBucketById(0);
+    assertEquals(ENTRIES, bucket.size());
+
+    // the region has no expiration so these tasks are not scheduled
+    List<EntryExpiryTask> tasks = new ArrayList<EntryExpiryTask>();
+    for (int i = 0; i < ENTRIES; i++) {
+      tasks.add(new EntryExpiryTask(bucket, bucket.getRegionEntry(i)) {
+        @Override
+        protected ExpirationAttributes getTTLAttributes() {
+          return new ExpirationAttributes(1, ExpirationAction.DESTROY);
+        }
+      });
+    }
+    Thread.sleep(1100);
+    long batchEntries = ((GemFireCacheImpl) this.cache).getCachePerfStats().getExpiryBatchEntries();
+    bucket.performExpiryTimeouts(tasks);
+
+    assertEquals(0, pr.size());
+    assertEquals(ENTRIES, afterDestroys.get());
+    assertEquals(ENTRIES, expirations.get());
+    assertEquals(batchEntries + ENTRIES, ((GemFireCacheImpl) this.cache).getCachePerfStats().getExpiryBatchEntries());
+  }
+}
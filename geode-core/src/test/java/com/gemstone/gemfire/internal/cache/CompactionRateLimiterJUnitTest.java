@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class CompactionRateLimiterJUnitTest {
+
+  private static final long MB = 1024L * 1024L;
+
+  private static final long SECOND = 1000000000L;
+
+  @Test
+  public void unlimitedNeverWaits() {
+    CompactionRateLimiter limiter = new CompactionRateLimiter(0);
+    assertEquals(0, limiter.reserve(100 * MB, System.nanoTime()));
+    assertEquals(0, limiter.acquire(100 * MB, null));
+  }
+
+  @Test
+  public void waitsForDebtToBePaidOff() {
+    CompactionRateLimiter limiter = new CompactionRateLimiter(10);
+    long now = System.nanoTime() + 2 * SECOND;
+    // the bucket fills to one second worth of bytes
+    assertEquals(0, limiter.reserve(10 * MB, now));
+    // five more megabytes take half a second
+    assertEquals(SECOND / 2, limiter.reserve(5 * MB, now));
+    // after half a second the debt is paid off
+    now += SECOND / 2;
+    assertEquals(0, limiter.reserve(0, now));
+    assertEquals(SECOND / 10, limiter.reserve(1 * MB, now));
+  }
+
+  @Test
+  public void bucketHoldsAtMostOneSecond() {
+    CompactionRateLimiter limiter = new CompactionRateLimiter(1);
+    long now = System.nanoTime() + 60 * SECOND;
+    assertEquals(0, limiter.reserve(1 * MB, now));
+    assertEquals(SECOND, limiter.reserve(1 * MB, now));
+  }
+
+  @Test
+  public void rateCanBeChanged() {
+    CompactionRateLimiter limiter = new CompactionRateLimiter(1);
+    assertEquals(1, limiter.getRate());
+    limiter.setRate(0);
+    assertEquals(0, limiter.reserve(100 * MB, System.nanoTime()));
+    try {
+      limiter.setRate(-1);
+      fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+}
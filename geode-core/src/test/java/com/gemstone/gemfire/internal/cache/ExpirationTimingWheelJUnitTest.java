@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.cache.ExpirationAttributes;
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class ExpirationTimingWheelJUnitTest {
+
+  private static final long START = 1000;
+
+  @Test
+  public void taskFiresAtItsDeadline() {
+    ExpirationTimingWheel wheel = new ExpirationTimingWheel(null, 10, START);
+    TestableExpiryTask task = new TestableExpiryTask();
+    wheel.schedule(task, 55, START);
+    assertEquals(1, wheel.size());
+
+    assertNull(wheel.advance(START + 50));
+    List<ExpiryTask> due = wheel.advance(START + 60);
+    assertNotNull(due);
+    assertEquals(1, due.size());
+    assertSame(task, due.get(0));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void tasksInSameSlotFireAsOneBatch() {
+    ExpirationTimingWheel wheel = new ExpirationTimingWheel(null, 10, START);
+    for (int i = 0; i < 5; i++) {
+      wheel.schedule(new TestableExpiryTask(), 21 + i, START);
+    }
+    List<ExpiryTask> due = wheel.advance(START + 30);
+    assertNotNull(due);
+    assertEquals(5, due.size());
+  }
+
+  @Test
+  public void cancelledTaskIsRemovedAndDoesNotFire() {
+    ExpirationTimingWheel wheel = new ExpirationTimingWheel(null, 10, START);
+    TestableExpiryTask task = new TestableExpiryTask();
+    TestableExpiryTask other = new TestableExpiryTask();
+    wheel.schedule(task, 100, START);
+    wheel.schedule(other, 100, START);
+
+    assertTrue(task.cancel());
+    assertFalse(task.cancel());
+    assertEquals(1, wheel.size());
+
+    List<ExpiryTask> due = wheel.advance(START + 100);
+    assertEquals(1, due.size());
+    assertSame(other, due.get(0));
+  }
+
+  @Test
+  public void cancelledTaskCannotBeScheduled() {
+    ExpirationTimingWheel wheel = new ExpirationTimingWheel(null, 10, START);
+    TestableExpiryTask task = new TestableExpiryTask();
+    assertFalse(task.cancel());
+    try {
+      wheel.schedule(task, 100, START);
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+    }
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void taskOnHigherLevelCascadesDown() {
+    ExpirationTimingWheel wheel = new ExpirationTimingWheel(null, 1, START);
+    TestableExpiryTask task = new TestableExpiryTask();
+    long delay = 3 * ExpirationTimingWheel.SLOTS * ExpirationTimingWheel.SLOTS + 7;
+    wheel.schedule(task, delay, START);
+
+    assertNull(wheel.advance(START + delay - 1));
+    assertEquals(1, wheel.size());
+    List<ExpiryTask> due = wheel.advance(START + delay);
+    assertNotNull(due);
+    assertSame(task, due.get(0));
+  }
+
+  @Test
+  public void taskScheduledAfterIdlePeriodIsNotFiredEarly() {
+    ExpirationTimingWheel wheel = new ExpirationTimingWheel(null, 10, START);
+    assertNull(wheel.advance(START + 100000));
+    TestableExpiryTask task = new TestableExpiryTask();
+    wheel.schedule(task, 50, START + 100000);
+    assertNull(wheel.advance(START + 100040));
+    assertEquals(1, wheel.advance(START + 100050).size());
+  }
+
+  @Test
+  public void stoppedWheelRejectsTasks() {
+    ExpirationTimingWheel wheel = new ExpirationTimingWheel(null, 10, START);
+    wheel.schedule(new TestableExpiryTask(), 50, START);
+    wheel.stop();
+    assertEquals(0, wheel.size());
+    try {
+      wheel.schedule(new TestableExpiryTask(), 50, START);
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  private static class TestableExpiryTask extends ExpiryTask {
+    TestableExpiryTask() {
+      super(null);
+    }
+    @Override
+    protected ExpirationAttributes getIdleAttributes() {
+      return null;
+    }
+    @Override
+    protected ExpirationAttributes getTTLAttributes() {
+      return null;
+    }
+    @Override
+    protected void basicPerformTimeout(boolean isPending) {
+    }
+    @Override
+    protected void reschedule() {
+    }
+    @Override
+    protected long getLastModifiedTime() {
+      return 0;
+    }
+    @Override
+    protected long getLastAccessedTime() {
+      return 0;
+    }
+    @Override
+    protected boolean invalidate() {
+      return false;
+    }
+    @Override
+    protected boolean destroy(boolean isPending) {
+      return false;
+    }
+    @Override
+    protected boolean localInvalidate() {
+      return false;
+    }
+    @Override
+    protected boolean localDestroy() {
+      return false;
+    }
+    @Override
+    protected void addExpiryTask() {
+    }
+    @Override
+    public boolean isPending() {
+      return false;
+    }
+    @Override
+    public Object getKey() {
+      return null;
+    }
+    @Override
+    public String toString() {
+      return "TestableExpiryTask@" + System.identityHashCode(this);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class MappedCrfFileJUnitTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File crf;
+
+  @Before
+  public void setUp() throws Exception {
+    this.crf = this.temporaryFolder.newFile("BACKUPtest_1.crf");
+    byte[] contents = new byte[256];
+    for (int i = 0; i < contents.length; i++) {
+      contents[i] = (byte)i;
+    }
+    FileOutputStream out = new FileOutputStream(this.crf);
+    try {
+      out.write(contents);
+    } finally {
+      out.close();
+    }
+  }
+
+  @Test
+  public void readsBytesAtOffset() throws Exception {
+    MappedCrfFile mapped = MappedCrfFile.map(this.crf, 256, 1024);
+    try {
+      byte[] value = new byte[4];
+      assertTrue(mapped.read(10, value));
+      assertArrayEquals(new byte[] { 10, 11, 12, 13 }, value);
+    } finally {
+      mapped.release();
+    }
+  }
+
+  @Test
+  public void readOutsideMappingFails() throws Exception {
+    MappedCrfFile mapped = MappedCrfFile.map(this.crf, 128, 1024);
+    try {
+      assertEquals(128, mapped.length());
+      assertFalse(mapped.read(126, new byte[4]));
+      assertFalse(mapped.read(-1, new byte[1]));
+    } finally {
+      mapped.release();
+    }
+  }
+
+  @Test
+  public void releasedMappingIsNotRead() throws Exception {
+    long before = MappedCrfFile.getMappedBytes();
+    MappedCrfFile mapped = MappedCrfFile.map(this.crf, 256, before + 1024);
+    assertNotNull(mapped);
+    assertEquals(before + 256, MappedCrfFile.getMappedBytes());
+    mapped.release();
+    assertEquals(before, MappedCrfFile.getMappedBytes());
+    assertFalse(mapped.read(0, new byte[4]));
+  }
+
+  @Test
+  public void mappingWindowIsBounded() throws Exception {
+    long before = MappedCrfFile.getMappedBytes();
+    MappedCrfFile first = MappedCrfFile.map(this.crf, 200, before + 300);
+    assertNotNull(first);
+    assertNull(MappedCrfFile.map(this.crf, 200, before + 300));
+
+    first.release();
+    first.release();
+    assertEquals(before, MappedCrfFile.getMappedBytes());
+
+    MappedCrfFile second = MappedCrfFile.map(this.crf, 200, before + 300);
+    assertNotNull(second);
+    second.release();
+  }
+}
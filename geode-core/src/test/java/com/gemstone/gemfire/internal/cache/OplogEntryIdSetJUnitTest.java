@@ -75,4 +75,25 @@ public class OplogEntryIdSetJUnitTest {
     s.add(Long.MIN_VALUE);
     assertEquals(true, s.contains(Long.MIN_VALUE));
   }
+
+  @Test
+  public void testAddAll() {
+    OplogEntryIdSet s = new OplogEntryIdSet();
+    s.add(1);
+    s.add(0x00000001FFFFFFFFL);
+    OplogEntryIdSet other = new OplogEntryIdSet();
+    other.add(1);
+    other.add(2);
+    other.add(-5);
+
+    s.addAll(other);
+
+    assertEquals(4, s.size());
+    assertEquals(true, s.contains(1));
+    assertEquals(true, s.contains(2));
+    assertEquals(true, s.contains(-5));
+    assertEquals(true, s.contains(0x00000001FFFFFFFFL));
+    assertEquals(false, s.contains(3));
+    assertEquals(3, other.size());
+  }
 }
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class OplogGroupCommitJUnitTest {
+
+  @Test
+  public void awaitWithNoWritesDoesNotSync() throws Exception {
+    CountingSyncer syncer = new CountingSyncer(0);
+    OplogGroupCommit groupCommit = new OplogGroupCommit(syncer);
+    groupCommit.awaitSync(null);
+    assertEquals(0, syncer.syncs.get());
+  }
+
+  @Test
+  public void singleWriterSyncsItsOwnWrite() throws Exception {
+    CountingSyncer syncer = new CountingSyncer(0);
+    OplogGroupCommit groupCommit = new OplogGroupCommit(syncer);
+    groupCommit.recordWrite();
+    groupCommit.awaitSync(null);
+    assertEquals(1, syncer.syncs.get());
+    assertEquals(1, groupCommit.getSynced());
+
+    // already synced, nothing more to do
+    groupCommit.awaitSync(null);
+    assertEquals(1, syncer.syncs.get());
+  }
+
+  @Test
+  public void concurrentWritersShareSyncs() throws Exception {
+    final int threads = 8;
+    final int writesPerThread = 50;
+    final CountingSyncer syncer = new CountingSyncer(2);
+    final OplogGroupCommit groupCommit = new OplogGroupCommit(syncer);
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final AtomicInteger failures = new AtomicInteger();
+    Thread[] writers = new Thread[threads];
+    for (int i = 0; i < threads; i++) {
+      writers[i] = new Thread(new Runnable() {
+        public void run() {
+          try {
+            startLatch.await();
+            for (int j = 0; j < writesPerThread; j++) {
+              groupCommit.recordWrite();
+              long mine = groupCommit.getWrites();
+              groupCommit.awaitSync(null);
+              if (groupCommit.getSynced() < mine) {
+                failures.incrementAndGet();
+              }
+            }
+          } catch (Exception e) {
+            failures.incrementAndGet();
+          }
+        }
+      });
+      writers[i].start();
+    }
+    startLatch.countDown();
+    for (Thread writer : writers) {
+      writer.join(60000);
+    }
+    assertEquals(0, failures.get());
+    assertEquals(threads * writesPerThread, groupCommit.getSynced());
+    assertTrue("expected fewer syncs than writes but was " + syncer.syncs.get(),
+        syncer.syncs.get() < threads * writesPerThread);
+  }
+
+  @Test
+  public void failedSyncIsRetriedByNextWaiter() throws Exception {
+    final AtomicInteger calls = new AtomicInteger();
+    OplogGroupCommit groupCommit = new OplogGroupCommit(new OplogGroupCommit.Syncer() {
+      public void sync() throws IOException {
+        if (calls.incrementAndGet() == 1) {
+          throw new IOException("expected");
+        }
+      }
+    });
+    groupCommit.recordWrite();
+    try {
+      groupCommit.awaitSync(null);
+      fail("expected IOException");
+    } catch (IOException expected) {
+    }
+    assertEquals(0, groupCommit.getSynced());
+    groupCommit.awaitSync(null);
+    assertEquals(1, groupCommit.getSynced());
+    assertEquals(2, calls.get());
+  }
+
+  private static class CountingSyncer implements OplogGroupCommit.Syncer {
+    final AtomicInteger syncs = new AtomicInteger();
+    private final long sleepMillis;
+
+    CountingSyncer(long sleepMillis) {
+      this.sleepMillis = sleepMillis;
+    }
+
+    public void sync() throws IOException {
+      this.syncs.incrementAndGet();
+      if (this.sleepMillis > 0) {
+        try {
+          Thread.sleep(this.sleepMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+}
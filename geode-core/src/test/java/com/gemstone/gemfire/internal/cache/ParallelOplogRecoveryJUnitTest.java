@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.cache.DataPolicy;
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.test.junit.categories.IntegrationTest;
+
+/**
+ * Tests recovering a disk store with many oplogs when the drfs are read in
+ * parallel and the krfs are read ahead of the thread that applies them.
+ */
+@Category(IntegrationTest.class)
+public class ParallelOplogRecoveryJUnitTest extends DiskRegionTestingBase {
+
+  private static final int ENTRIES = 60;
+
+  private static final int VALUE_SIZE = 50 * 1024;
+
+  @Override
+  protected final void postSetUp() throws Exception {
+    PersistentOplogSet.PARALLEL_RECOVERY = true;
+  }
+
+  @Override
+  protected final void postTearDown() throws Exception {
+    PersistentOplogSet.PARALLEL_RECOVERY = false;
+  }
+
+  @Test
+  public void testRecoverManyOplogsInParallel() {
+    Region region = createRegion();
+    putEntries(region, 0, ENTRIES, (byte) 'A');
+    // update and remove entries whose older records are in older oplogs
+    putEntries(region, 0, ENTRIES / 3, (byte) 'B');
+    for (int i = ENTRIES / 3; i < 2 * ENTRIES / 3; i++) {
+      region.remove(i);
+    }
+    putEntries(region, 0, ENTRIES / 6, (byte) 'C');
+
+    cache.close();
+    assertTrue("expected several oplogs but found " + countCrfs(), countCrfs() > 2);
+
+    cache = createCache();
+    region = createRegion();
+    assertEquals(ENTRIES - ENTRIES / 3, region.size());
+    checkEntries(region, 0, ENTRIES / 6, (byte) 'C');
+    checkEntries(region, ENTRIES / 6, ENTRIES / 3, (byte) 'B');
+    for (int i = ENTRIES / 3; i < 2 * ENTRIES / 3; i++) {
+      assertFalse(region.containsKey(i));
+    }
+    checkEntries(region, 2 * ENTRIES / 3, ENTRIES, (byte) 'A');
+    assertEquals("krf bytes read ahead were not released", 0, PersistentOplogSet.getPrefetchedKrfBytes());
+  }
+
+  private int countCrfs() {
+    int count = 0;
+    for (File dir : dirs) {
+      count += dir.list(new FilenameFilter() {
+        public boolean accept(File d, String name) {
+          return name.endsWith(Oplog.CRF_FILE_EXT);
+        }
+      }).length;
+    }
+    return count;
+  }
+
+  private Region createRegion() {
+    if (cache.findDiskStore("store") == null) {
+      cache.createDiskStoreFactory()
+        .setMaxOplogSize(1)
+        .setAutoCompact(false)
+        .setDiskDirs(dirs)
+        .create("store");
+    }
+    return cache.createRegionFactory()
+      .setDiskStoreName("store")
+      .setDataPolicy(DataPolicy.PERSISTENT_REPLICATE).create("regionName");
+  }
+
+  private void putEntries(Region region, int start, int end, byte fill) {
+    for (int i = start; i < end; i++) {
+      region.put(i, newValue(fill));
+    }
+  }
+
+  private void checkEntries(Region region, int start, int end, byte fill) {
+    for (int i = start; i < end; i++) {
+      assertTrue("wrong value for key " + i, Arrays.equals(newValue(fill), (byte[]) region.get(i)));
+    }
+  }
+
+  private static byte[] newValue(byte fill) {
+    byte[] value = new byte[VALUE_SIZE];
+    Arrays.fill(value, fill);
+    return value;
+  }
+}
@@ -16,12 +16,14 @@
  */
 package com.gemstone.gemfire.internal.cache.ha;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -211,4 +213,52 @@ public class BlockingHARegionQueueJUnitTest extends HARegionQueueJUnitTest
       fail("Test failed because of exception " + e);
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Tests that peekAvailable returns the events already in the queue without
+   * waiting for more and that remove() removes all of them.
+   */
+  @Test
+  public void testPeekAvailable() throws Exception
+  {
+    HARegionQueue hrq = this.createHARegionQueue("testPeekAvailable");
+    putEvents(hrq, 3);
+    List batch = hrq.peekAvailable(2);
+    assertEquals(2, batch.size());
+    assertEquals("key1", ((Conflatable)batch.get(0)).getKeyToConflate());
+    assertEquals("key2", ((Conflatable)batch.get(1)).getKeyToConflate());
+    hrq.remove();
+    batch = hrq.peekAvailable(5);
+    assertEquals(1, batch.size());
+    assertEquals("key3", ((Conflatable)batch.get(0)).getKeyToConflate());
+    hrq.remove();
+    assertEquals(0, hrq.size());
+  }
+
+  /**
+   * Tests that successive peekAvailable calls on a durable queue return the
+   * following events, since its peeks take events out of the available ids.
+   */
+  @Test
+  public void testDurablePeekAvailable() throws Exception
+  {
+    HARegionQueue hrq = HARegionQueue.getHARegionQueueInstance(
+        "testDurablePeekAvailable", cache, HARegionQueue.BLOCKING_HA_QUEUE, true);
+    putEvents(hrq, 3);
+    List batch = hrq.peekAvailable(2);
+    assertEquals(2, batch.size());
+    assertEquals("key1", ((Conflatable)batch.get(0)).getKeyToConflate());
+    assertEquals("key2", ((Conflatable)batch.get(1)).getKeyToConflate());
+    batch = hrq.peekAvailable(5);
+    assertEquals(1, batch.size());
+    assertEquals("key3", ((Conflatable)batch.get(0)).getKeyToConflate());
+  }
+
+  private void putEvents(HARegionQueue hrq, int count) throws Exception
+  {
+    for (int i = 1; i <= count; i++) {
+      hrq.put(new ConflatableObject("key" + i, "val" + i,
+          new EventID(new byte[] { 1 }, 1, i), false, "testing"));
+    }
+  }
+}
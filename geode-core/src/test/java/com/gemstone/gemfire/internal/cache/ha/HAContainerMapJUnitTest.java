@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache.ha;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.internal.cache.tier.sockets.ClientUpdateMessageImpl;
+import com.gemstone.gemfire.internal.offheap.MemoryAllocatorImpl;
+import com.gemstone.gemfire.internal.offheap.NullOffHeapMemoryStats;
+import com.gemstone.gemfire.internal.offheap.OutOfOffHeapMemoryListener;
+import com.gemstone.gemfire.internal.offheap.SlabImpl;
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class HAContainerMapJUnitTest {
+
+  private OutOfOffHeapMemoryListener listener;
+
+  private MemoryAllocatorImpl allocator;
+
+  private HAContainerMap container;
+
+  @Before
+  public void setUp() throws Exception {
+    this.listener = mock(OutOfOffHeapMemoryListener.class);
+    this.allocator = MemoryAllocatorImpl.createForUnitTest(this.listener, new NullOffHeapMemoryStats(), new SlabImpl[]{new SlabImpl(1024*1024)});
+    this.container = new HAContainerMap(new HashMap(), this.allocator);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    MemoryAllocatorImpl.freeOffHeapMemory();
+  }
+
+  private ClientUpdateMessageImpl createMessage(byte[] value) {
+    ClientUpdateMessageImpl message = new ClientUpdateMessageImpl();
+    message.importNewBytes(value, true);
+    return message;
+  }
+
+  private byte[] createValue(int size) {
+    byte[] value = new byte[size];
+    Arrays.fill(value, (byte)7);
+    return value;
+  }
+
+  @Test
+  public void valueIsMovedOffHeapAndReleasedOnRemove() {
+    long free = this.allocator.getFreeMemory();
+    byte[] value = createValue(1000);
+    ClientUpdateMessageImpl message = createMessage(value);
+
+    this.container.put("key", message);
+    assertTrue(message.getOffHeapSize() >= 1000);
+    assertTrue(this.allocator.getFreeMemory() < free);
+    assertArrayEquals(value, (byte[])message.getValue());
+    // readers share one heap copy
+    assertSame(message.getValue(), message.getValue());
+
+    assertSame(message, this.container.remove("key"));
+    assertEquals(free, this.allocator.getFreeMemory());
+    assertTrue(message.isOffHeapValueReleased());
+    assertNull(message.getValue());
+    // the size stays so that queues can account for the removal
+    assertTrue(message.getOffHeapSize() >= 1000);
+  }
+
+  @Test
+  public void smallValuesStayOnHeap() {
+    byte[] value = createValue(8);
+    ClientUpdateMessageImpl message = createMessage(value);
+
+    this.container.put("key", message);
+    assertEquals(0, message.getOffHeapSize());
+    assertSame(value, message.getValue());
+
+    this.container.remove("key");
+    assertFalse(message.isOffHeapValueReleased());
+    assertSame(value, message.getValue());
+  }
+
+  @Test
+  public void valuesStayOnHeapWhenOffHeapMemoryIsLow() {
+    byte[] value = createValue(1000 * 1000);
+    ClientUpdateMessageImpl message = createMessage(value);
+
+    this.container.put("key", message);
+    assertEquals(0, message.getOffHeapSize());
+    assertSame(value, message.getValue());
+  }
+
+  @Test
+  public void failedAllocationKeepsValueOnHeap() {
+    byte[] value = createValue(2 * 1024 * 1024);
+    ClientUpdateMessageImpl message = createMessage(value);
+
+    assertFalse(message.moveValueOffHeap(this.allocator));
+    assertEquals(0, message.getOffHeapSize());
+    assertSame(value, message.getValue());
+    // running out of memory for a queued value must not disconnect the member
+    verifyZeroInteractions(this.listener);
+  }
+
+  @Test
+  public void clearReleasesValues() {
+    long free = this.allocator.getFreeMemory();
+    ClientUpdateMessageImpl message1 = createMessage(createValue(100));
+    ClientUpdateMessageImpl message2 = createMessage(createValue(200));
+    this.container.put("key1", message1);
+    this.container.put("key2", message2);
+
+    this.container.clear();
+    assertEquals(free, this.allocator.getFreeMemory());
+    assertTrue(message1.isOffHeapValueReleased());
+    assertTrue(message2.isOffHeapValueReleased());
+  }
+
+  @Test
+  public void valueMovedBackOnHeapOutlivesEntry() {
+    long free = this.allocator.getFreeMemory();
+    byte[] value = createValue(1000);
+    ClientUpdateMessageImpl message = createMessage(value);
+    this.container.put("key", message);
+
+    message.moveValueOnHeap();
+    assertEquals(free, this.allocator.getFreeMemory());
+    this.container.remove("key");
+    assertFalse(message.isOffHeapValueReleased());
+    assertArrayEquals(value, (byte[])message.getValue());
+  }
+
+  @Test
+  public void setLatestValueReleasesOffHeapValue() {
+    long free = this.allocator.getFreeMemory();
+    ClientUpdateMessageImpl message = createMessage(createValue(1000));
+    this.container.put("key", message);
+
+    byte[] latest = createValue(10);
+    message.setLatestValue(latest);
+    assertEquals(free, this.allocator.getFreeMemory());
+    assertFalse(message.isOffHeapValueReleased());
+    assertSame(latest, message.getValue());
+    this.container.remove("key");
+    assertSame(latest, message.getValue());
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache.lru;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class FrequencySketchJUnitTest {
+
+  @Test
+  public void unseenHashHasZeroFrequency() {
+    FrequencySketch sketch = new FrequencySketch(512);
+    assertEquals(0, sketch.frequency(42));
+  }
+
+  @Test
+  public void incrementIsCounted() {
+    FrequencySketch sketch = new FrequencySketch(512);
+    for (int i = 0; i < 5; i++) {
+      sketch.increment(42);
+    }
+    assertEquals(5, sketch.frequency(42));
+  }
+
+  @Test
+  public void frequencySaturates() {
+    FrequencySketch sketch = new FrequencySketch(512);
+    for (int i = 0; i < 100; i++) {
+      sketch.increment(7);
+    }
+    assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency(7));
+  }
+
+  @Test
+  public void resetHalvesCounters() {
+    FrequencySketch sketch = new FrequencySketch(512);
+    for (int i = 0; i < 8; i++) {
+      sketch.increment(99);
+    }
+    sketch.reset();
+    assertEquals(4, sketch.frequency(99));
+  }
+
+  @Test
+  public void sketchAgesOnceSampleSizeIsReached() {
+    FrequencySketch sketch = new FrequencySketch(64);
+    for (int i = 0; i < 10; i++) {
+      sketch.increment(-1);
+    }
+    assertEquals(10, sketch.frequency(-1));
+    for (int i = 0; i < sketch.getSampleSize(); i++) {
+      sketch.increment(i);
+    }
+    assertTrue(sketch.getSampleCount() < sketch.getSampleSize());
+    assertTrue(sketch.frequency(-1) < 10);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache.lru;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class HeapEvictorJUnitTest {
+
+  @Test
+  public void onlyRegionsOverAverageEvictWhenExcessCoversRequest() {
+    long[] shares = HeapEvictor.computeEvictionShares(new long[] { 100, 100, 400 }, 150);
+    assertEquals(0, shares[0]);
+    assertEquals(0, shares[1]);
+    assertEquals(150, shares[2]);
+  }
+
+  @Test
+  public void excessIsSplitByHowFarOverAverage() {
+    long[] shares = HeapEvictor.computeEvictionShares(new long[] { 0, 300, 500 }, 200);
+    // average is 266; 34 and 234 bytes over
+    assertEquals(0, shares[0]);
+    assertEquals(25, shares[1]);
+    assertEquals(174, shares[2]);
+  }
+
+  @Test
+  public void remainderBeyondExcessIsSplitBySize() {
+    long[] shares = HeapEvictor.computeEvictionShares(new long[] { 100, 300 }, 200);
+    // 100 bytes over average come from the large region, the other 100 by size
+    assertEquals(25, shares[0]);
+    assertEquals(175, shares[1]);
+  }
+
+  @Test
+  public void evenlySizedRegionsShareEqually() {
+    long[] shares = HeapEvictor.computeEvictionShares(new long[] { 200, 200, 200, 200 }, 100);
+    for (long share : shares) {
+      assertEquals(25, share);
+    }
+  }
+
+  @Test
+  public void emptyRegionsGetNothing() {
+    long[] shares = HeapEvictor.computeEvictionShares(new long[] { 0, 0 }, 100);
+    assertEquals(0, shares[0]);
+    assertEquals(0, shares[1]);
+    assertEquals(0, HeapEvictor.computeEvictionShares(new long[0], 100).length);
+  }
+}
@@ -234,6 +234,89 @@ public class LRUClockJUnitTest {
     assertEquals(null, clock.getLRUEntry( ));
   }
   
+  @Test
+  public void testFrequentEntryKeptOverNewEntry() throws Exception {
+    Region region = getARegion();
+    NewLFUClockHand clock = new NewLFUClockHand( region, new TestEnableLRU(), new InternalRegionArguments());
+    LRUTestEntry[] nodes = new LRUTestEntry[5];
+    int i = 0;
+    for( i = 0; i < 5; i++ ) {
+      nodes[i] = getANode( i );
+      clock.appendEntry( nodes[i] );
+    }
+
+    // nodes[0] is read twice, so the sketch has seen it more often than a
+    // new entry
+    nodes[0].setRecentlyUsed();
+    clock.recordAccess( nodes[0] );
+    clock.recordAccess( nodes[0] );
+    for( i = 1; i < 5; i++ ) {
+      assertSame( nodes[i], clock.getLRUEntry( ) );
+    }
+
+    // a new entry, created but not read, is evicted in place of the more
+    // frequent nodes[0]
+    LRUTestEntry newest = getANode( 5 );
+    clock.appendEntry( newest );
+    clock.recordAccess( newest );
+    assertSame( newest, clock.getLRUEntry( ) );
+    assertEquals( 1, clock.stats().getStats().getLong("lruAdmissionRejects") );
+    assertEquals( 1, clock.stats().getStats().getLong("lruRecentlyUsedSkips") );
+
+    // once it is the only entry left, nodes[0] goes too
+    assertSame( nodes[0], clock.getLRUEntry( ) );
+    assertNull( clock.getLRUEntry( ) );
+  }
+
+  @Test
+  public void testAdmissionIsDecidedByFrequency() throws Exception {
+    Region region = getARegion();
+    NewLFUClockHand clock = new NewLFUClockHand( region, new TestEnableLRU(), new InternalRegionArguments());
+    LRUTestEntry frequent = getANode( 0 );
+    clock.appendEntry( frequent );
+    frequent.setRecentlyUsed();
+    clock.recordAccess( frequent );
+    clock.recordAccess( frequent );
+    LRUTestEntry other = getANode( 1 );
+    clock.appendEntry( other );
+    assertSame( other, clock.getLRUEntry( ) );
+
+    // new region entries start out recently used; that does not admit them
+    LRUTestEntry newest = getANode( 2 );
+    clock.appendEntry( newest );
+    newest.setRecentlyUsed();
+    clock.recordAccess( newest );
+    assertSame( newest, clock.getLRUEntry( ) );
+    assertEquals( 1, clock.stats().getStats().getLong("lruAdmissionRejects") );
+
+    // the rejection was recorded so the entry is admitted when added again
+    clock.appendEntry( newest );
+    newest.setRecentlyUsed();
+    clock.recordAccess( newest );
+    assertSame( frequent, clock.getLRUEntry( ) );
+    assertEquals( 1, clock.stats().getStats().getLong("lruAdmissionRejects") );
+  }
+
+  @Test
+  public void testAccessesAreCountedWithoutTheClockHand() throws Exception {
+    Region region = getARegion();
+    NewLFUClockHand clock = new NewLFUClockHand( region, new TestEnableLRU(), new InternalRegionArguments());
+    LRUTestEntry frequent = getANode( 0 );
+    clock.appendEntry( frequent );
+    // read twice between passes of the clock hand
+    clock.recordAccess( frequent );
+    clock.recordAccess( frequent );
+    LRUTestEntry newest = getANode( 1 );
+    clock.appendEntry( newest );
+    clock.recordAccess( newest );
+
+    // the clock hand never saw frequent recently used, but newest was read
+    // less often so it is evicted first
+    assertSame( newest, clock.getLRUEntry( ) );
+    assertEquals( 1, clock.stats().getStats().getLong("lruAdmissionRejects") );
+    assertEquals( 0, clock.stats().getStats().getLong("lruRecentlyUsedSkips") );
+  }
+
   /** manufacture a node so that a shared type can be used by SharedLRUClockTest. */
   private LRUTestEntry getANode( int id ) {
     return new LocalLRUTestEntry( id );
@@ -360,6 +443,10 @@ public class LRUClockJUnitTest {
         "Number of entries evaluated during LRU operations.";
       final String lruGreedyReturnsDesc =
         "Number of non-LRU entries evicted during LRU operations";
+      final String lruRecentlyUsedSkipsDesc =
+        "Number of recently used entries given another pass during LRU operations";
+      final String lruAdmissionRejectsDesc =
+        "Number of newest entries evicted in place of a more frequently used LRU candidate";
       final String lruDestroysDesc =
         "Number of entry destroys triggered by LRU.";
       final String lruDestroysLimitDesc =
@@ -373,6 +460,8 @@ public class LRUClockJUnitTest {
           f.createLongCounter("lruEvictions", lruEvictionsDesc, "entries" ),
           f.createLongCounter("lruEvaluations", lruEvaluationsDesc, "entries" ),
           f.createLongCounter("lruGreedyReturns", lruGreedyReturnsDesc, "entries"),
+          f.createLongCounter("lruRecentlyUsedSkips", lruRecentlyUsedSkipsDesc, "entries"),
+          f.createLongCounter("lruAdmissionRejects", lruAdmissionRejectsDesc, "entries"),
           f.createLongCounter("lruDestroys", lruDestroysDesc, "entries" ),
           f.createLongCounter("lruDestroysLimit", lruDestroysLimitDesc, "entries" ),
         }
@@ -453,6 +542,16 @@ public class LRUClockJUnitTest {
       return statType.nameToId("lruGreedyReturns");
     }
 
+    @Override
+    public int getRecentlyUsedSkipsStatId() {
+      return statType.nameToId("lruRecentlyUsedSkips");
+    }
+
+    @Override
+    public int getAdmissionRejectsStatId() {
+      return statType.nameToId("lruAdmissionRejects");
+    }
+
     @Override
     public boolean mustEvict(LRUStatistics stats, Region region, int delta) {
       throw new UnsupportedOperationException("Not implemented");
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache.tier.sockets;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.internal.cache.EventID;
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class CompactRequestHeaderJUnitTest {
+
+  @Test
+  public void getHeaderOfRegisteredRegionIsTwoBytes() {
+    byte[] bytes = CompactRequestHeader.toBytes((byte)0, 5, null, null);
+    assertEquals(2, bytes.length);
+
+    CompactRequestHeader header = CompactRequestHeader.fromBytes(bytes);
+    assertEquals(5, header.getRegionId());
+    assertNull(header.getRegionPath());
+    assertFalse(header.hasEventId());
+    assertFalse(header.isCreate());
+  }
+
+  @Test
+  public void headerRegisteringRegionCarriesPathAndEventId() {
+    EventID eventId = new EventID(new byte[] {1, 2, 3}, 1234567L, 987654321012L);
+    byte[] bytes = CompactRequestHeader.toBytes(CompactRequestHeader.CREATE, 300, "/région", eventId);
+
+    CompactRequestHeader header = CompactRequestHeader.fromBytes(bytes);
+    assertEquals(300, header.getRegionId());
+    assertEquals("/région", header.getRegionPath());
+    assertTrue(header.hasEventId());
+    assertEquals(1234567L, header.getThreadId());
+    assertEquals(987654321012L, header.getSequenceId());
+    assertTrue(header.isCreate());
+  }
+
+  @Test
+  public void largeRegionIdsRoundTrip() {
+    for (int regionId : new int[] {0, 127, 128, 16383, 16384, Integer.MAX_VALUE}) {
+      byte[] bytes = CompactRequestHeader.toBytes((byte)0, regionId, null, null);
+      assertEquals(regionId, CompactRequestHeader.fromBytes(bytes).getRegionId());
+    }
+  }
+}
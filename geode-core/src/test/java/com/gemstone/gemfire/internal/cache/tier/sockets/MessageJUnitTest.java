@@ -19,6 +19,7 @@ package com.gemstone.gemfire.internal.cache.tier.sockets;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayOutputStream;
 import java.net.Socket;
 import java.nio.ByteBuffer;
 
@@ -108,6 +109,26 @@ public class MessageJUnitTest {
    * 
    * @throws Exception
    */
+  @Test
+  public void messageLengthIsCheckedWithoutWriting() throws Exception {
+    Part[] parts = new Part[2];
+    Part mockPart1 = mock(Part.class);
+    when(mockPart1.getLength()).thenReturn(Message.MAX_MESSAGE_SIZE/2);
+    parts[0] = mockPart1;
+    parts[1] = mockPart1;
+    message.setParts(parts);
+    try {
+      message.checkMessageLength();
+      fail("expected an exception but none was thrown");
+    } catch (MessageTooLargeException e) {
+      assertFalse(e.getMessage().contains("exceeds maximum integer value"));
+    }
+    assertEquals(0, msgBuffer.position());
+
+    when(mockPart1.getLength()).thenReturn(100);
+    message.checkMessageLength();
+  }
+
   @Test
   public void streamBuffersAreClearedDuringCleanup() throws Exception {
     Part[] parts = new Part[2];
@@ -122,4 +143,23 @@ public class MessageJUnitTest {
 
   // TODO many more tests are needed
 
+
+  @Test
+  public void batchedMessagesAreWrittenOnFlush() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteBuffer buffer = ByteBuffer.allocate(1000);
+    Message first = new Message(1, Version.CURRENT);
+    first.setComms(mockSocket, null, out, buffer, mockStats);
+    first.addIntPart(1);
+    first.sendBatched();
+    Message second = new Message(1, Version.CURRENT);
+    second.setComms(mockSocket, null, out, buffer, mockStats);
+    second.addIntPart(2);
+    second.sendBatched();
+    assertEquals(0, out.size());
+    second.flush();
+    // each message is a header, a part header and a four byte int
+    assertEquals(2 * (Message.FIXED_LENGTH + 5 + 4), out.size());
+    assertEquals(0, buffer.position());
+  }
 }
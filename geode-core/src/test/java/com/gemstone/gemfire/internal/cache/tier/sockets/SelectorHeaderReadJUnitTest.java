@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache.tier.sockets;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+/**
+ * Tests how the cache server selector thread reads message headers that
+ * arrive in pieces.
+ */
+@Category(UnitTest.class)
+public class SelectorHeaderReadJUnitTest {
+
+  private Pipe pipe;
+
+  @Before
+  public void setUp() throws IOException {
+    this.pipe = Pipe.open();
+    this.pipe.source().configureBlocking(false);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    this.pipe.sink().close();
+    this.pipe.source().close();
+  }
+
+  @Test
+  public void splitHeaderIsAssembled() throws IOException {
+    byte[] message = new byte[Message.FIXED_LENGTH + 3];
+    for (int i = 0; i < message.length; i++) {
+      message[i] = (byte) i;
+    }
+    ByteBuffer header = ByteBuffer.allocate(Message.FIXED_LENGTH);
+
+    assertFalse(ServerConnection.readHeaderBytes(this.pipe.source(), header));
+    assertEquals(0, header.position());
+
+    write(message, 0, 5);
+    assertFalse(ServerConnection.readHeaderBytes(this.pipe.source(), header));
+    assertEquals(5, header.position());
+
+    write(message, 5, 6);
+    assertFalse(ServerConnection.readHeaderBytes(this.pipe.source(), header));
+    assertEquals(11, header.position());
+
+    // the rest of the header and the start of the payload arrive together
+    write(message, 11, message.length - 11);
+    assertTrue(ServerConnection.readHeaderBytes(this.pipe.source(), header));
+    assertEquals(Message.FIXED_LENGTH, header.position());
+
+    ByteBuffer cb = ByteBuffer.allocate(64);
+    assertEquals(Message.FIXED_LENGTH, ServerConnection.moveHeaderBytes(header, cb));
+    assertEquals(0, header.position());
+    for (int i = 0; i < Message.FIXED_LENGTH; i++) {
+      assertEquals(message[i], cb.get(i));
+    }
+
+    // the payload is left on the channel for the thread to read
+    ByteBuffer payload = ByteBuffer.allocate(8);
+    assertEquals(3, this.pipe.source().read(payload));
+    assertEquals(message[Message.FIXED_LENGTH], payload.get(0));
+  }
+
+  @Test
+  public void closedChannelHandsOffWithoutHeaderBytes() throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(Message.FIXED_LENGTH);
+    write(new byte[4], 0, 4);
+    assertFalse(ServerConnection.readHeaderBytes(this.pipe.source(), header));
+    this.pipe.sink().close();
+
+    assertTrue(ServerConnection.readHeaderBytes(this.pipe.source(), header));
+    assertEquals(0, ServerConnection.moveHeaderBytes(header, ByteBuffer.allocate(64)));
+  }
+
+  @Test
+  public void noHeaderMovesNothing() {
+    ByteBuffer cb = ByteBuffer.allocate(64);
+    assertEquals(0, ServerConnection.moveHeaderBytes(null, cb));
+    assertEquals(0, ServerConnection.moveHeaderBytes(ByteBuffer.allocate(Message.FIXED_LENGTH), cb));
+    assertEquals(0, cb.position());
+  }
+
+  private void write(byte[] bytes, int offset, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+    while (buffer.hasRemaining()) {
+      this.pipe.sink().write(buffer);
+    }
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.cache.tier.sockets;
+
+import static org.junit.Assert.*;
+
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.cache.query.QueryException;
+import com.gemstone.gemfire.cache.query.internal.types.CollectionTypeImpl;
+import com.gemstone.gemfire.cache.query.internal.types.TypeUtils;
+import com.gemstone.gemfire.distributed.DurableClientAttributes;
+import com.gemstone.gemfire.distributed.internal.DistributionManager;
+import com.gemstone.gemfire.distributed.internal.membership.InternalDistributedMember;
+import com.gemstone.gemfire.internal.cache.control.InternalResourceManager.ResourceType;
+import com.gemstone.gemfire.internal.cache.control.MemoryEvent;
+import com.gemstone.gemfire.internal.cache.control.MemoryThresholds.MemoryState;
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class ServerQueryCursorsJUnitTest {
+
+  private final ClientProxyMembershipID client1 = createClient(1);
+
+  private final ClientProxyMembershipID client2 = createClient(2);
+
+  private static ClientProxyMembershipID createClient(int port) {
+    try {
+      return new ClientProxyMembershipID(new InternalDistributedMember("localhost", port,
+          "client" + port, "", DistributionManager.NORMAL_DM_TYPE, null, new DurableClientAttributes("", 0)));
+    } catch (UnknownHostException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private ServerQueryCursors.Cursor createCursor(Integer... results) {
+    return createCursor(this.client1, null, results);
+  }
+
+  private ServerQueryCursors.Cursor createCursor(ClientProxyMembershipID owner,
+      Object principal, Integer... results) {
+    return createSizedCursor(owner, principal, 100, results);
+  }
+
+  private ServerQueryCursors.Cursor createSizedCursor(ClientProxyMembershipID owner,
+      Object principal, long size, Integer... results) {
+    return new ServerQueryCursors.Cursor(Arrays.asList(results).iterator(),
+        new CollectionTypeImpl(List.class, TypeUtils.OBJECT_TYPE), false, size, owner, principal);
+  }
+
+  private static MemoryEvent createHeapEvent(MemoryState previousState, MemoryState state) {
+    return new MemoryEvent(ResourceType.HEAP_MEMORY, previousState, state, null, 0, true, null);
+  }
+
+  @Test
+  public void cursorReturnsResultsAPageAtATime() {
+    ServerQueryCursors.Cursor cursor = createCursor(1, 2, 3, 4, 5);
+
+    assertEquals(Arrays.asList(1, 2), cursor.nextPage(2));
+    assertTrue(cursor.hasNext());
+    assertEquals(Arrays.asList(3, 4), cursor.nextPage(2));
+    assertEquals(Arrays.asList(5), cursor.nextPage(2));
+    assertFalse(cursor.hasNext());
+    assertTrue(cursor.nextPage(2).isEmpty());
+  }
+
+  @Test
+  public void cursorsAreRegisteredUntilRemoved() throws Exception {
+    ServerQueryCursors cursors = new ServerQueryCursors();
+    ServerQueryCursors.Cursor cursor1 = createCursor(1);
+    ServerQueryCursors.Cursor cursor2 = createCursor(2);
+
+    long id1 = cursors.add(cursor1);
+    long id2 = cursors.add(cursor2);
+    assertTrue(id1 != 0);
+    assertTrue(id2 != 0);
+    assertTrue(id1 != id2);
+    assertSame(cursor1, cursors.get(id1, this.client1, null));
+    assertSame(cursor2, cursors.get(id2, this.client1, null));
+
+    assertTrue(cursors.remove(id1, this.client1, null));
+    assertFalse(cursors.remove(id1, this.client1, null));
+    assertNull(cursors.get(id1, this.client1, null));
+    assertEquals(1, cursors.size());
+
+    cursors.close();
+    assertNull(cursors.get(id2, this.client1, null));
+  }
+
+  @Test
+  public void cursorsCanOnlyBeUsedByTheirOwner() throws Exception {
+    ServerQueryCursors cursors = new ServerQueryCursors();
+    ServerQueryCursors.Cursor cursor = createCursor(this.client1, "user1", 1);
+    long id = cursors.add(cursor);
+
+    assertNull(cursors.get(id, this.client2, "user1"));
+    assertNull(cursors.get(id, this.client1, "user2"));
+    assertNull(cursors.get(id, this.client1, null));
+    assertFalse(cursors.remove(id, this.client2, "user1"));
+    assertFalse(cursors.remove(id, this.client1, "user2"));
+    assertSame(cursor, cursors.get(id, this.client1, "user1"));
+    assertTrue(cursors.remove(id, this.client1, "user1"));
+  }
+
+  @Test
+  public void cursorsOfADepartedClientAreRemoved() throws Exception {
+    ServerQueryCursors cursors = new ServerQueryCursors();
+    long id1 = cursors.add(createCursor(this.client1, null, 1));
+    long id2 = cursors.add(createCursor(this.client2, null, 2));
+
+    cursors.removeAll(this.client1);
+    assertNull(cursors.get(id1, this.client1, null));
+    assertNotNull(cursors.get(id2, this.client2, null));
+    assertEquals(1, cursors.size());
+  }
+
+  @Test
+  public void numberOfCursorsIsLimited() throws Exception {
+    ServerQueryCursors cursors = new ServerQueryCursors(2, Long.MAX_VALUE, Long.MAX_VALUE);
+    long id = cursors.add(createCursor(1));
+    cursors.add(createCursor(2));
+    try {
+      cursors.add(createCursor(3));
+      fail("expected QueryException");
+    } catch (QueryException expected) {
+    }
+    assertEquals(2, cursors.size());
+
+    cursors.remove(id, this.client1, null);
+    cursors.add(createCursor(3));
+    assertEquals(2, cursors.size());
+  }
+
+  @Test
+  public void sizeOfCursorsIsLimited() throws Exception {
+    ServerQueryCursors cursors = new ServerQueryCursors(10, 1000, 1500);
+    try {
+      cursors.add(createSizedCursor(this.client1, null, 1001, 1));
+      fail("expected QueryException");
+    } catch (QueryException expected) {
+    }
+    long id = cursors.add(createSizedCursor(this.client1, null, 1000, 1));
+    try {
+      cursors.add(createSizedCursor(this.client1, null, 600, 2));
+      fail("expected QueryException");
+    } catch (QueryException expected) {
+    }
+    assertEquals(1, cursors.size());
+    assertEquals(1000, cursors.getBytes());
+
+    cursors.remove(id, this.client1, null);
+    assertEquals(0, cursors.getBytes());
+    cursors.add(createSizedCursor(this.client1, null, 600, 2));
+    assertEquals(600, cursors.getBytes());
+  }
+
+  @Test
+  public void sizeOfResultsIsEstimated() {
+    assertEquals(0, ServerQueryCursors.sizeOf(Collections.emptyList()));
+    assertTrue(ServerQueryCursors.sizeOf(Arrays.asList("a", "b"))
+        < ServerQueryCursors.sizeOf(Arrays.asList("a", "b", new String(new char[1000]))));
+  }
+
+  @Test
+  public void cursorsAreDroppedWhenHeapIsLow() throws Exception {
+    ServerQueryCursors cursors = new ServerQueryCursors();
+    long id = cursors.add(createCursor(1));
+
+    cursors.onEvent(createHeapEvent(MemoryState.DISABLED, MemoryState.NORMAL));
+    assertEquals(1, cursors.size());
+
+    cursors.onEvent(createHeapEvent(MemoryState.NORMAL, MemoryState.EVICTION));
+    assertEquals(0, cursors.size());
+    assertEquals(0, cursors.getBytes());
+    assertNull(cursors.get(id, this.client1, null));
+    try {
+      cursors.add(createCursor(2));
+      fail("expected QueryException");
+    } catch (QueryException expected) {
+    }
+
+    cursors.onEvent(createHeapEvent(MemoryState.EVICTION, MemoryState.NORMAL));
+    cursors.add(createCursor(2));
+    assertEquals(1, cursors.size());
+  }
+
+  @Test
+  public void unusedCursorsExpire() throws Exception {
+    ServerQueryCursors cursors = new ServerQueryCursors();
+    long id = cursors.add(createCursor(1));
+
+    cursors.expire(System.currentTimeMillis());
+    assertEquals(1, cursors.size());
+
+    cursors.expire(System.currentTimeMillis() + ServerQueryCursors.CURSOR_TIMEOUT + 1000);
+    assertEquals(0, cursors.size());
+    assertNull(cursors.get(id, this.client1, null));
+  }
+}
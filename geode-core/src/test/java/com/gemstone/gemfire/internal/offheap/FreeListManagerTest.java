@@ -494,6 +494,18 @@ public class FreeListManagerTest {
     verify(ooohml).outOfOffHeapMemory(caughtException());
   }
   
+  @Test
+  public void overMaxTryAllocationReturnsNull() {
+    setUpSingleSlabManager();
+    OutOfOffHeapMemoryListener ooohml = mock(OutOfOffHeapMemoryListener.class);
+    when(this.ma.getOutOfOffHeapMemoryListener()).thenReturn(ooohml);
+
+    assertThat(this.freeListManager.tryAllocate(DEFAULT_SLAB_SIZE-7)).isNull();
+
+    verifyZeroInteractions(ooohml);
+    assertThat(this.freeListManager.getUsedMemory()).isZero();
+  }
+
   @Test(expected = AssertionError.class)
   public void allocateNegativeThrowsAssertion() {
     setUpSingleSlabManager();
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gemstone.gemfire.internal.tcp;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.gemstone.gemfire.distributed.internal.DMStats;
+import com.gemstone.gemfire.test.junit.categories.UnitTest;
+
+@Category(UnitTest.class)
+public class MsgCoalescerJUnitTest {
+
+  private final DMStats stats = mock(DMStats.class);
+
+  private final List<byte[]> writes = new ArrayList<byte[]>();
+
+  private volatile IOException writeFailure;
+
+  private final AtomicReference<Exception> flushFailure = new AtomicReference<Exception>();
+
+  private MsgCoalescer createCoalescer(int maxBytes, long maxDelayMicros) {
+    return new MsgCoalescer(stats, maxBytes, maxDelayMicros) {
+      @Override
+      protected void write(ByteBuffer buffer) throws IOException {
+        if (writeFailure != null) {
+          throw writeFailure;
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        synchronized (writes) {
+          writes.add(bytes);
+          writes.notifyAll();
+        }
+      }
+      @Override
+      protected void flushFailed(Exception cause) {
+        flushFailure.set(cause);
+      }
+    };
+  }
+
+  /**
+   * Sends the given frame from a new thread, which waits for the frame to
+   * be written, and returns once the frame is in the batch.
+   */
+  private static Sender sendAsync(MsgCoalescer coalescer, ByteBuffer frame) throws InterruptedException {
+    int batched = coalescer.getBatchedMessages();
+    Sender sender = new Sender(coalescer, frame);
+    sender.start();
+    long end = System.currentTimeMillis() + 30000;
+    while (coalescer.getBatchedMessages() == batched && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals(batched + 1, coalescer.getBatchedMessages());
+    return sender;
+  }
+
+  private static class Sender extends Thread {
+    private final MsgCoalescer coalescer;
+    private final ByteBuffer frame;
+    volatile Exception failure;
+
+    Sender(MsgCoalescer coalescer, ByteBuffer frame) {
+      this.coalescer = coalescer;
+      this.frame = frame;
+    }
+
+    @Override
+    public void run() {
+      try {
+        this.coalescer.send(this.frame);
+      } catch (Exception e) {
+        this.failure = e;
+      }
+    }
+
+    /** Waits for the send to return and returns what it threw, if anything */
+    Exception await() throws InterruptedException {
+      join(30000);
+      assertFalse(isAlive());
+      return this.failure;
+    }
+  }
+
+  private static ByteBuffer frame(int payloadSize, byte fill) {
+    ByteBuffer frame = ByteBuffer.allocate(Connection.MSG_HEADER_BYTES + payloadSize);
+    frame.putInt(Connection.calcHdrSize(payloadSize));
+    frame.put((byte)Connection.NORMAL_MSG_TYPE);
+    frame.putShort(MsgIdGenerator.NO_MSG_ID);
+    while (frame.hasRemaining()) {
+      frame.put(fill);
+    }
+    frame.flip();
+    return frame;
+  }
+
+  @Test
+  public void fullBatchIsWrittenAsOneFrame() throws Exception {
+    // room for two 20 byte frames after the batch header
+    MsgCoalescer coalescer = createCoalescer(Connection.MSG_HEADER_BYTES + 40, TimeUnit.SECONDS.toMicros(60));
+    Sender first = sendAsync(coalescer, frame(13, (byte)1));
+    Sender second = sendAsync(coalescer, frame(13, (byte)2));
+    assertTrue(writes.isEmpty());
+    assertTrue(first.isAlive());
+
+    // the third frame does not fit, so its sender writes the batch
+    Sender third = new Sender(coalescer, frame(13, (byte)3));
+    third.start();
+    assertNull(first.await());
+    assertNull(second.await());
+    assertEquals(1, writes.size());
+    ByteBuffer batch = ByteBuffer.wrap(writes.get(0));
+    assertEquals(Connection.MSG_HEADER_BYTES + 40, batch.remaining());
+    assertEquals(40, Connection.calcMsgByteSize(batch.getInt()));
+    assertEquals(Connection.BATCH_MSG_TYPE, batch.get());
+    assertEquals(MsgIdGenerator.NO_MSG_ID, batch.getShort());
+    assertEquals(frame(13, (byte)1), (ByteBuffer)batch.slice().limit(20));
+    batch.position(batch.position() + 20);
+    assertEquals(frame(13, (byte)2), batch.slice());
+    verify(stats).incCoalescedBatches(eq(2), eq(Connection.MSG_HEADER_BYTES + 40), eq(true), anyLong());
+
+    coalescer.close();
+    assertNull(third.await());
+    assertEquals(frame(13, (byte)3), ByteBuffer.wrap(writes.get(1)));
+  }
+
+  @Test
+  public void batchIsWrittenByFlusherOnceFirstMessageWaited() throws Exception {
+    MsgCoalescer coalescer = createCoalescer(1024, TimeUnit.SECONDS.toMicros(1));
+    Thread flusher = new Thread(coalescer);
+    flusher.start();
+    try {
+      Sender first = sendAsync(coalescer, frame(10, (byte)1));
+      Sender second = sendAsync(coalescer, frame(10, (byte)2));
+      assertNull(first.await());
+      assertNull(second.await());
+    } finally {
+      coalescer.close();
+      flusher.join(30000);
+    }
+    assertFalse(flusher.isAlive());
+    assertEquals(1, writes.size());
+    assertEquals(Connection.MSG_HEADER_BYTES + 34, writes.get(0).length);
+    verify(stats).incCoalescedBatches(eq(2), eq(Connection.MSG_HEADER_BYTES + 34), eq(false), anyLong());
+  }
+
+  @Test
+  public void singleMessageIsWrittenWithoutBatchHeader() throws Exception {
+    MsgCoalescer coalescer = createCoalescer(64, TimeUnit.SECONDS.toMicros(60));
+    Sender sender = sendAsync(coalescer, frame(10, (byte)1));
+    // too large to be coalesced, so the pending message is written first
+    coalescer.send(frame(100, (byte)2));
+
+    assertNull(sender.await());
+    assertEquals(2, writes.size());
+    assertEquals(frame(10, (byte)1), ByteBuffer.wrap(writes.get(0)));
+    assertEquals(frame(100, (byte)2), ByteBuffer.wrap(writes.get(1)));
+  }
+
+  @Test
+  public void messagesAreWrittenRightAwayOnceClosed() throws Exception {
+    MsgCoalescer coalescer = createCoalescer(1024, TimeUnit.SECONDS.toMicros(60));
+    coalescer.close();
+    coalescer.send(frame(10, (byte)1));
+
+    assertEquals(1, writes.size());
+    assertEquals(frame(10, (byte)1), ByteBuffer.wrap(writes.get(0)));
+  }
+
+  @Test
+  public void closeWritesBatchedMessages() throws Exception {
+    MsgCoalescer coalescer = createCoalescer(1024, TimeUnit.SECONDS.toMicros(60));
+    Sender sender = sendAsync(coalescer, frame(10, (byte)1));
+    coalescer.close();
+
+    assertNull(sender.await());
+    assertEquals(1, writes.size());
+    assertEquals(frame(10, (byte)1), ByteBuffer.wrap(writes.get(0)));
+  }
+
+  @Test
+  public void sendersGetFailureToWriteTheirBatch() throws Exception {
+    MsgCoalescer coalescer = createCoalescer(1024, TimeUnit.SECONDS.toMicros(1));
+    Thread flusher = new Thread(coalescer);
+    flusher.start();
+    try {
+      writeFailure = new IOException("connection reset");
+      Sender first = sendAsync(coalescer, frame(10, (byte)1));
+      Sender second = sendAsync(coalescer, frame(10, (byte)2));
+
+      Exception failure = first.await();
+      assertTrue(failure instanceof ConnectionException);
+      assertSame(writeFailure, failure.getCause());
+      assertSame(failure.getCause(), second.await().getCause());
+    } finally {
+      coalescer.close();
+      flusher.join(30000);
+    }
+    assertFalse(flusher.isAlive());
+    assertSame(writeFailure, flushFailure.get());
+    assertTrue(writes.isEmpty());
+  }
+}
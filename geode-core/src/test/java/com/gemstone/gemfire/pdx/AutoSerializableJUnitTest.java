@@ -821,6 +821,81 @@ public class AutoSerializableJUnitTest {
     assertEquals(defaultHolder, dObj);
   }
   
+  public static class AllFieldTypesHolder implements PdxSerializerObject {
+    private boolean bool = true;
+    private byte b = 1;
+    private char c = 'c';
+    private short s = 2;
+    private int i = 3;
+    private long l = 4L;
+    private float f = 5.0f;
+    private double d = 6.0;
+    private Date date = new Date(7L);
+    private String str = "eight";
+    private Object obj = Integer.valueOf(9);
+    private boolean[] boolArray = {true, false};
+    private char[] charArray = {'a', 'b'};
+    private byte[] byteArray = {10, 11};
+    private short[] shortArray = {12, 13};
+    private int[] intArray = {14, 15};
+    private long[] longArray = {16L, 17L};
+    private float[] floatArray = {18.0f, 19.0f};
+    private double[] doubleArray = {20.0, 21.0};
+    private String[] strArray = {"twenty two", null};
+    private Object[] objArray = {"twenty three", Long.valueOf(24L)};
+    private byte[][] byteArrays = {{25}, null, {26, 27}};
+
+    public AllFieldTypesHolder() {
+    }
+
+    @Override
+    public int hashCode() {
+      return this.i;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof AllFieldTypesHolder)) {
+        return false;
+      }
+      AllFieldTypesHolder other = (AllFieldTypesHolder) o;
+      return bool == other.bool && b == other.b && c == other.c && s == other.s
+          && i == other.i && l == other.l && f == other.f && d == other.d
+          && date.equals(other.date) && (str == null ? other.str == null : str.equals(other.str))
+          && obj.equals(other.obj)
+          && Arrays.equals(boolArray, other.boolArray) && Arrays.equals(charArray, other.charArray)
+          && Arrays.equals(byteArray, other.byteArray) && Arrays.equals(shortArray, other.shortArray)
+          && Arrays.equals(intArray, other.intArray) && Arrays.equals(longArray, other.longArray)
+          && Arrays.equals(floatArray, other.floatArray) && Arrays.equals(doubleArray, other.doubleArray)
+          && Arrays.equals(strArray, other.strArray) && Arrays.equals(objArray, other.objArray)
+          && Arrays.deepEquals(byteArrays, other.byteArrays);
+    }
+  }
+
+  /*
+   * A class with a field of every type is written the same way once its
+   * type is known, and reads back equal.
+   */
+  @Test
+  public void testAllFieldTypes() throws Exception {
+    setupSerializer(false, false, "com.gemstone.gemfire.pdx.AutoSerializableJUnitTest.AllFieldTypesHolder");
+    AllFieldTypesHolder objOut = new AllFieldTypesHolder();
+    objOut.i = 42;
+    objOut.str = null;
+
+    HeapDataOutputStream firstOut = new HeapDataOutputStream(Version.CURRENT);
+    DataSerializer.writeObject(objOut, firstOut);
+    HeapDataOutputStream out = new HeapDataOutputStream(Version.CURRENT);
+    DataSerializer.writeObject(objOut, out);
+    assertTrue(Arrays.equals(firstOut.toByteArray(), out.toByteArray()));
+
+    AllFieldTypesHolder objIn = DataSerializer.readObject(new DataInputStream(
+        new ByteArrayInputStream(out.toByteArray())));
+    assertNull(objIn.str);
+    assertEquals(objOut, objIn);
+    assertEquals(42, objIn.i);
+  }
+
   @Test
   public void testExtensibility() throws Exception {
     setupSerializer(new BigIntegerAutoSerializer(true, "com.gemstone.gemfire.pdx.AutoSerializableJUnitTest.BigHolder"), false);